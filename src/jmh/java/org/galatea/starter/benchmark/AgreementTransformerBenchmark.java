@@ -0,0 +1,56 @@
+package org.galatea.starter.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.galatea.starter.AppConfig;
+import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.service.IAgreementTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the agreement to mission transformation applied by spawnMissions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgreementTransformerBenchmark {
+
+  @Param({"1", "100", "10000"})
+  private int agreementCount;
+
+  private IAgreementTransformer transformer;
+  private List<TradeAgreement> agreements;
+
+  /**
+   * Uses the same transformer bean the application wires into the settlement service.
+   */
+  @Setup
+  public void setup() {
+    transformer = new AppConfig().agreementTransformer();
+    agreements = BenchmarkData.agreements(agreementCount);
+  }
+
+  /**
+   * Transforms the whole batch of agreements.
+   */
+  @Benchmark
+  public void transform(final Blackhole blackhole) {
+    for (TradeAgreement agreement : agreements) {
+      blackhole.consume(transformer.transform(agreement));
+    }
+  }
+}
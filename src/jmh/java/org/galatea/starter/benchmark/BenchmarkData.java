@@ -0,0 +1,81 @@
+package org.galatea.starter.benchmark;
+
+import static org.galatea.starter.testutils.TestDataGenerator.defaultTradeAgreementData;
+import static org.galatea.starter.testutils.TestDataGenerator.defaultSettlementMissionData;
+import static org.galatea.starter.testutils.TestDataGenerator.defaultTradeAgreementProtoMessageData;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.Side;
+import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessages;
+import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeSide;
+import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessage;
+import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessages;
+
+/**
+ * Generates deterministic agreement and mission payloads of a given size for the benchmarks.
+ *
+ * <p>Instruments and counterparties cycle through a small set of values so that the data looks
+ * like a realistic batch rather than N copies of the same agreement.
+ */
+final class BenchmarkData {
+
+  private static final String[] INSTRUMENTS = {"IBM", "AAPL", "MSFT", "GOOG", "FB", "AMZN"};
+  private static final Side[] SIDES = {Side.B, Side.S};
+
+  private BenchmarkData() {}
+
+  static List<TradeAgreement> agreements(final int count) {
+    List<TradeAgreement> agreements = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      agreements.add(defaultTradeAgreementData()
+          .instrument(INSTRUMENTS[i % INSTRUMENTS.length])
+          .externalParty("EXT-" + (i % 97))
+          .buySell(SIDES[i % SIDES.length])
+          .qty(100d + i)
+          .build());
+    }
+    return agreements;
+  }
+
+  static List<SettlementMission> missions(final int count) {
+    List<SettlementMission> missions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      missions.add(defaultSettlementMissionData()
+          .id((long) i)
+          .instrument(INSTRUMENTS[i % INSTRUMENTS.length])
+          .externalParty("EXT-" + (i % 97))
+          .qty(100d + i)
+          .build());
+    }
+    return missions;
+  }
+
+  static TradeAgreementMessages agreementMessages(final int count) {
+    TradeAgreementMessages.TradeAgreementMessagesBuilder builder = TradeAgreementMessages.builder();
+    for (TradeAgreement agreement : agreements(count)) {
+      builder.agreement(TradeAgreementMessage.builder()
+          .instrument(agreement.getInstrument())
+          .internalParty(agreement.getInternalParty())
+          .externalParty(agreement.getExternalParty())
+          .buySell(agreement.getBuySell())
+          .qty(agreement.getQty())
+          .build());
+    }
+    return builder.build();
+  }
+
+  static TradeAgreementProtoMessages agreementProtoMessages(final int count) {
+    TradeAgreementProtoMessages.Builder builder = TradeAgreementProtoMessages.newBuilder();
+    for (TradeAgreement agreement : agreements(count)) {
+      builder.addMessage(defaultTradeAgreementProtoMessageData()
+          .setInstrument(agreement.getInstrument())
+          .setExternalParty(agreement.getExternalParty())
+          .setSide(TradeSide.valueOf("TRADE_SIDE_" + agreement.getBuySell()))
+          .setQty(agreement.getQty()));
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,54 @@
+package org.galatea.starter.benchmark;
+
+import org.galatea.starter.AppConfig;
+import org.galatea.starter.MissionCacheConfig;
+import org.galatea.starter.ParallelMappingConfig;
+import org.galatea.starter.PersistenceConfig;
+import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.rpsy.ISettlementMissionRpsy;
+import org.galatea.starter.service.IAgreementTransformer;
+import org.galatea.starter.service.SettlementService;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
+
+/**
+ * Minimal Spring context for the persistence benchmarks.
+ *
+ * <p>Only the datasource, JPA and the settlement service (with the same validation and woven
+ * logging it has in the application) are started; no web server, JMS broker or Feign clients.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+@ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class,
+    DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+    JdbcTemplateAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+    TransactionAutoConfiguration.class, ValidationAutoConfiguration.class})
+@EntityScan(basePackageClasses = SettlementMission.class)
+@EnableJpaRepositories(basePackageClasses = ISettlementMissionRpsy.class)
+@Import({PersistenceConfig.class, MissionCacheConfig.class, ParallelMappingConfig.class,
+    SettlementService.class})
+public class BenchmarkPersistenceConfig {
+
+  @Bean
+  public IAgreementTransformer agreementTransformer() {
+    return new AppConfig().agreementTransformer();
+  }
+
+  @Bean
+  public static MethodValidationPostProcessor methodValidationPostProcessor() {
+    return new MethodValidationPostProcessor();
+  }
+}
@@ -0,0 +1,95 @@
+package org.galatea.starter.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.utils.collections.LongArrayList;
+import org.galatea.starter.utils.collections.LongCsvParser;
+import org.galatea.starter.utils.collections.LongHashSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the boxed id handling that the settlement service and controller used to do with the
+ * primitive collections that replaced it: parsing the ids request parameter, and collecting the
+ * ids of spawned missions.
+ *
+ * <p>Run with -prof gc: gc.alloc.rate.norm is the number of bytes allocated per call. Ids start
+ * above the range of Long.valueOf's cache, as real mission ids do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdCollectionsBenchmark {
+
+  private static final long FIRST_ID = 1_000_000L;
+
+  @Param({"10", "1000", "10000"})
+  private int idCount;
+
+  private String idCsv;
+
+  private List<SettlementMission> missions;
+
+  @Setup
+  public void setup() {
+    idCsv = LongStream.range(FIRST_ID, FIRST_ID + idCount).mapToObj(Long::toString)
+        .collect(Collectors.joining(","));
+    missions = BenchmarkData.missions(idCount);
+    for (int i = 0; i < idCount; i++) {
+      missions.get(i).setId(FIRST_ID + i);
+    }
+  }
+
+  /**
+   * Parses the ids the way SettlementRestController.getMissions used to.
+   */
+  @Benchmark
+  public List<Long> parseIdsBoxed() {
+    return Arrays.stream(idCsv.split(",")).map(Long::parseLong).collect(Collectors.toList());
+  }
+
+  /**
+   * Parses the ids with LongCsvParser.
+   */
+  @Benchmark
+  public LongArrayList parseIdsPrimitive() {
+    return LongCsvParser.parse(idCsv);
+  }
+
+  /**
+   * Collects the ids of spawned missions the way SettlementService.spawnMissions used to.
+   */
+  @Benchmark
+  public Set<Long> collectIdsBoxed() {
+    return missions.stream().map(SettlementMission::getId).collect(Collectors.toSet());
+  }
+
+  /**
+   * Collects the ids of spawned missions into a LongHashSet.
+   */
+  @Benchmark
+  public LongHashSet collectIdsPrimitive() {
+    LongHashSet ids = new LongHashSet(missions.size());
+    for (SettlementMission mission : missions) {
+      ids.add(mission.getId());
+    }
+    return ids;
+  }
+}
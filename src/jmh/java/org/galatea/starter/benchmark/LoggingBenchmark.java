@@ -0,0 +1,113 @@
+package org.galatea.starter.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.sf.aspect4log.Log;
+import net.sf.aspect4log.aspect.LogAspect;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.galatea.starter.utils.logging.Logged;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+/**
+ * Compares the per call cost of the compile time woven @Logged aspect with the aspect4log @Log
+ * spring AOP proxy it replaced, and with a call that isn't logged at all.
+ *
+ * <p>All three targets log at debug. With level=INFO that is disabled, which is what the hot paths
+ * see in production; with level=DEBUG every call is formatted and handed to a Null appender (see
+ * log4j2-benchmark.yml). Run with -prof gc to compare bytes allocated per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingBenchmark {
+
+  private static final List<Long> IDS = List.of(1L, 2L, 3L, 4L, 5L);
+
+  @Param({"INFO", "DEBUG"})
+  private String level;
+
+  private PlainTarget plain;
+
+  private WovenTarget woven;
+
+  private ProxiedTarget proxied;
+
+  @Setup
+  public void setup() {
+    Configurator.setLevel(LoggingBenchmark.class.getPackageName(),
+        org.apache.logging.log4j.Level.valueOf(level));
+    plain = new PlainTarget();
+    woven = new WovenTarget();
+    AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new ProxiedTarget());
+    proxyFactory.addAspect(new LogAspect());
+    proxied = proxyFactory.getProxy();
+  }
+
+  @TearDown
+  public void tearDown() {
+    Configurator.setLevel(LoggingBenchmark.class.getPackageName(),
+        org.apache.logging.log4j.Level.WARN);
+  }
+
+  /**
+   * A call that isn't logged.
+   */
+  @Benchmark
+  public int plain() {
+    return plain.countMissions(42L, IDS);
+  }
+
+  /**
+   * A call logged by the woven aspect.
+   */
+  @Benchmark
+  public int woven() {
+    return woven.countMissions(42L, IDS);
+  }
+
+  /**
+   * A call logged by the aspect4log proxy.
+   */
+  @Benchmark
+  public int proxied() {
+    return proxied.countMissions(42L, IDS);
+  }
+
+  public static class PlainTarget {
+
+    public int countMissions(final long id, final List<Long> ids) {
+      return ids.contains(id) ? ids.size() - 1 : ids.size();
+    }
+  }
+
+  @Logged
+  public static class WovenTarget {
+
+    public int countMissions(final long id, final List<Long> ids) {
+      return ids.contains(id) ? ids.size() - 1 : ids.size();
+    }
+  }
+
+  @Log
+  public static class ProxiedTarget {
+
+    public int countMissions(final long id, final List<Long> ids) {
+      return ids.contains(id) ? ids.size() - 1 : ids.size();
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package org.galatea.starter.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.utils.http.converter.CsvSerializer;
+import org.galatea.starter.utils.http.converter.XlsxSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the CSV and XLSX serializers used for mission exports.
+ *
+ * <p>Each invocation serializes ROWS missions and is reported as ROWS operations, so throughput is
+ * in rows per second and, with -prof gc, gc.alloc.rate.norm is in bytes allocated per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+
+  private static final int ROWS = 10000;
+
+  private static final int XLSX_ROW_WINDOW = 100;
+
+  private List<SettlementMission> missions;
+
+  @Setup
+  public void setup() {
+    missions = BenchmarkData.missions(ROWS);
+  }
+
+  /**
+   * Serializes to an in memory CSV document.
+   */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public String csv() throws IOException {
+    return CsvSerializer.serializeToCsv(missions, SettlementMission.class);
+  }
+
+  /**
+   * Streams a CSV document, as returned for format=csv and by the export endpoint.
+   */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void csvStreaming() throws IOException {
+    CsvSerializer.writeCsv(missions, SettlementMission.class, OutputStream.nullOutputStream());
+  }
+
+  /**
+   * Serializes to an in memory XLSX spreadsheet.
+   */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public byte[] xlsx() throws IOException {
+    return XlsxSerializer.serializeToXlsx(missions, SettlementMission.class);
+  }
+
+  /**
+   * Streams an XLSX spreadsheet, as returned for format=xlsx and by the export endpoint.
+   */
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void xlsxStreaming() throws IOException {
+    XlsxSerializer.writeXlsx(missions, SettlementMission.class, OutputStream.nullOutputStream(),
+        XLSX_ROW_WINDOW, true);
+  }
+}
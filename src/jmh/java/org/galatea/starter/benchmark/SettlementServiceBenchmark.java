@@ -0,0 +1,92 @@
+package org.galatea.starter.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.service.SettlementService;
+import org.galatea.starter.utils.collections.LongArrayList;
+import org.galatea.starter.utils.collections.LongHashSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Measures spawnMissions and findMissions end to end against the in-memory H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SettlementServiceBenchmark {
+
+  @Param({"1", "100", "10000"})
+  private int agreementCount;
+
+  /**
+   * The settlement.persistence.mode used to insert missions.
+   */
+  @Param({"jpa", "jdbc"})
+  private String persistenceMode;
+
+  private ConfigurableApplicationContext context;
+  private SettlementService settlementService;
+  private JdbcTemplate jdbcTemplate;
+
+  private List<TradeAgreement> agreements;
+  private LongArrayList missionIds;
+
+  /**
+   * Starts the persistence context and seeds the missions looked up by findMissions.
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    context = new SpringApplicationBuilder(BenchmarkPersistenceConfig.class)
+        .web(WebApplicationType.NONE)
+        // Passed as an argument, since default properties would be overridden by application.yml
+        .run("--settlement.persistence.mode=" + persistenceMode);
+    settlementService = context.getBean(SettlementService.class);
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+    agreements = BenchmarkData.agreements(agreementCount);
+  }
+
+  /**
+   * Clears the table between iterations so the database size does not drift with the number of
+   * spawnMissions invocations, then re-seeds the missions used by findMissions.
+   */
+  @Setup(Level.Iteration)
+  public void resetMissions() {
+    jdbcTemplate.execute("TRUNCATE TABLE settlement_mission");
+    missionIds = LongArrayList.of(settlementService.spawnMissions(agreements).toArray());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public LongHashSet spawnMissions() {
+    return settlementService.spawnMissions(agreements);
+  }
+
+  @Benchmark
+  public Object findMissions() {
+    return settlementService.findMissions(missionIds);
+  }
+}
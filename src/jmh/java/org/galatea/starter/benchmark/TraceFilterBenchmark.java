@@ -0,0 +1,81 @@
+package org.galatea.starter.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Sets;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import org.galatea.starter.utils.FuseHttpTraceRepository;
+import org.galatea.starter.utils.PathSampler;
+import org.galatea.starter.utils.rest.CaptureBufferPool;
+import org.galatea.starter.utils.rest.FuseHttpTraceFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.actuate.trace.http.HttpExchangeTracer;
+import org.springframework.boot.actuate.trace.http.Include;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Measures the per request overhead of FuseHttpTraceFilter, configured as MvcConfig does, with 32
+ * threads going through the one filter as Jetty's request threads would.
+ *
+ * <p>The filter chain only writes a small JSON body and sampling is switched off, so what is
+ * measured is the filter itself: request ids, MDC, audit headers, payload capture and the
+ * exchange tracer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class TraceFilterBenchmark {
+
+  private static final byte[] BODY = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+  private static final FilterChain CHAIN = (request, response) -> {
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    response.getOutputStream().write(BODY);
+  };
+
+  private FuseHttpTraceFilter filter;
+
+  @Setup
+  public void setup() {
+    FuseHttpTraceRepository repository = new FuseHttpTraceRepository(new ObjectMapper(), 1024,
+        256, new PathSampler(0.0, Collections.emptyMap()));
+    filter = new FuseHttpTraceFilter(repository,
+        new HttpExchangeTracer(Sets.newHashSet(Include.values())),
+        path -> path.startsWith("/trace"), path -> false, new CaptureBufferPool(50000, 32),
+        List.of(MediaType.valueOf("text/csv")));
+  }
+
+  /**
+   * Filters a GET for a mission.
+   */
+  @Benchmark
+  public MockHttpServletResponse filterRequest() throws IOException, ServletException {
+    MockHttpServletRequest request =
+        new MockHttpServletRequest("GET", "/settlementEngine/mission/1");
+    request.setQueryString("requestId=1234");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, CHAIN);
+    return response;
+  }
+}
@@ -0,0 +1,111 @@
+package org.galatea.starter.benchmark;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.galatea.starter.MessageTranslationConfig;
+import org.galatea.starter.ProtoMessageTranslationConfig;
+import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessage;
+import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessages;
+import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessages;
+import org.galatea.starter.utils.ParallelChunkMapper;
+import org.galatea.starter.utils.StringDictionary;
+import org.galatea.starter.utils.translation.ITranslator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the message contract to domain translators used by the REST and JMS entry points.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranslationBenchmark {
+
+  @Param({"1", "100", "10000"})
+  private int agreementCount;
+
+  private ParallelChunkMapper agreementMapper;
+
+  private ITranslator<TradeAgreementMessages, List<TradeAgreement>> jsonTranslator;
+  private ITranslator<TradeAgreementProtoMessages, List<TradeAgreement>> protoTranslator;
+  private ITranslator<byte[], TradeAgreement> binaryProtoTranslator;
+
+  private TradeAgreementMessages jsonMessages;
+  private TradeAgreementProtoMessages protoMessages;
+  private byte[][] binaryMessages;
+
+  /**
+   * Builds the translators exactly as the translation configs do, with the agreement mapper and
+   * dictionary settings of application.yml, and prepares the payloads.
+   */
+  @Setup
+  public void setup() {
+    agreementMapper = new ParallelChunkMapper(4, 1000, 250, "agreement-mapper-");
+    StringDictionary dictionary = new StringDictionary("reference-data", 100000,
+        Duration.ofMinutes(60), Ticker.systemTicker());
+    MessageTranslationConfig jsonConfig = new MessageTranslationConfig();
+    jsonTranslator = jsonConfig.tradeAgreementMessagesTranslator(
+        jsonConfig.tradeAgreementMessageTranslator(dictionary), agreementMapper);
+
+    ProtoMessageTranslationConfig protoConfig = new ProtoMessageTranslationConfig();
+    ITranslator<TradeAgreementProtoMessage, TradeAgreement> messageTranslator =
+        protoConfig.tradeAgreementProtoTranslator(dictionary);
+    protoTranslator =
+        protoConfig.tradeAgreementProtoMessagesTranslator(messageTranslator, agreementMapper);
+    binaryProtoTranslator = protoConfig.tradeAgreementBinaryProtobufTranslator(messageTranslator);
+
+    jsonMessages = BenchmarkData.agreementMessages(agreementCount);
+    protoMessages = BenchmarkData.agreementProtoMessages(agreementCount);
+    binaryMessages = protoMessages.getMessageList().stream()
+        .map(TradeAgreementProtoMessage::toByteArray)
+        .toArray(byte[][]::new);
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    agreementMapper.close();
+  }
+
+  /**
+   * Translates the JSON/XML message contract used by the REST endpoint.
+   */
+  @Benchmark
+  public List<TradeAgreement> translateJsonMessages() {
+    return jsonTranslator.translate(jsonMessages);
+  }
+
+  /**
+   * Translates the protobuf message contract used by the protobuf REST endpoint.
+   */
+  @Benchmark
+  public List<TradeAgreement> translateProtoMessages() {
+    return protoTranslator.translate(protoMessages);
+  }
+
+  /**
+   * Parses and translates serialized protobuf messages as the JMS listener does.
+   */
+  @Benchmark
+  public void translateBinaryProtoMessages(final Blackhole blackhole) {
+    for (byte[] message : binaryMessages) {
+      blackhole.consume(binaryProtoTranslator.translate(message));
+    }
+  }
+}
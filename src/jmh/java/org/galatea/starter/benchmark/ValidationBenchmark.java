@@ -0,0 +1,102 @@
+package org.galatea.starter.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.utils.validation.CompiledValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares Hibernate Validator against the CompiledValidator SettlementService now uses, for
+ * valid agreements and missions.
+ *
+ * <p>Each invocation validates BEANS beans and is reported as BEANS operations, so throughput is
+ * in validations per second and, with -prof gc, gc.alloc.rate.norm is in bytes per validation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+  private static final int BEANS = 1000;
+
+  private List<TradeAgreement> agreements;
+
+  private List<SettlementMission> missions;
+
+  private Validator hibernateValidator;
+
+  private CompiledValidator<TradeAgreement> agreementValidator;
+
+  private CompiledValidator<SettlementMission> missionValidator;
+
+  @Setup
+  public void setup() {
+    agreements = BenchmarkData.agreements(BEANS);
+    missions = BenchmarkData.missions(BEANS);
+    hibernateValidator = Validation.buildDefaultValidatorFactory().getValidator();
+    agreementValidator = CompiledValidator.forClass(TradeAgreement.class);
+    missionValidator = CompiledValidator.forClass(SettlementMission.class);
+  }
+
+  /**
+   * Validates agreements with Hibernate Validator.
+   */
+  @Benchmark
+  @OperationsPerInvocation(BEANS)
+  public void hibernateAgreements(final Blackhole blackhole) {
+    for (TradeAgreement agreement : agreements) {
+      blackhole.consume(hibernateValidator.validate(agreement));
+    }
+  }
+
+  /**
+   * Validates agreements with the compiled validator.
+   */
+  @Benchmark
+  @OperationsPerInvocation(BEANS)
+  public void compiledAgreements(final Blackhole blackhole) {
+    for (TradeAgreement agreement : agreements) {
+      blackhole.consume(agreementValidator.validate(agreement));
+    }
+  }
+
+  /**
+   * Validates missions with Hibernate Validator.
+   */
+  @Benchmark
+  @OperationsPerInvocation(BEANS)
+  public void hibernateMissions(final Blackhole blackhole) {
+    for (SettlementMission mission : missions) {
+      blackhole.consume(hibernateValidator.validate(mission));
+    }
+  }
+
+  /**
+   * Validates missions with the compiled validator.
+   */
+  @Benchmark
+  @OperationsPerInvocation(BEANS)
+  public void compiledMissions(final Blackhole blackhole) {
+    for (SettlementMission mission : missions) {
+      blackhole.consume(missionValidator.validate(mission));
+    }
+  }
+}
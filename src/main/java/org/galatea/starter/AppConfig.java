@@ -1,16 +1,15 @@
 package org.galatea.starter;
 
-import feign.Logger;
 import lombok.extern.slf4j.Slf4j;
-import net.sf.aspect4log.aspect.LogAspect;
+import org.galatea.starter.domain.Direction;
 import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.Side;
 import org.galatea.starter.service.IAgreementTransformer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.ehcache.EhCacheCacheManager;
 import org.springframework.cache.ehcache.EhCacheManagerFactoryBean;
-import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
@@ -20,17 +19,8 @@ import org.springframework.core.io.ClassPathResource;
 @Configuration
 @EnableAspectJAutoProxy
 @EnableCaching
-@EnableFeignClients
 public class AppConfig {
 
-  /**
-   * Create a LogAspect for use with the SpringAOP @Log annotation.
-   */
-  @Bean
-  public LogAspect createLogAspect() {
-    return new LogAspect();
-  }
-
   /**
    * Returns an anonymous class implementing the IAgreementTransformer interface. Demonstrates the
    * use of a lambda function which can stand in as an anonymous class with a single method:
@@ -40,7 +30,8 @@ public class AppConfig {
   public IAgreementTransformer agreementTransformer() {
     return agreement -> SettlementMission.builder().instrument(agreement.getInstrument())
         .externalParty(agreement.getExternalParty()).depot("DTC").qty(agreement.getQty())
-        .direction("B".equals(agreement.getBuySell()) ? "REC" : "DEL").version(0L).build();
+        .direction(agreement.getBuySell() == Side.B ? Direction.REC : Direction.DEL).version(0L)
+        .build();
   }
 
   /**
@@ -66,14 +57,4 @@ public class AppConfig {
     return cmfb;
   }
 
-  /**
-   * Set the Feign log level for interfaces annotated with @FeignClient.
-   *
-   * @return the Feign log level.
-   */
-  @Bean
-  public Logger.Level logLevel() {
-    return Logger.Level.BASIC;
-  }
-
 }
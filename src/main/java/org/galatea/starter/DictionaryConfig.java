@@ -0,0 +1,42 @@
+package org.galatea.starter;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Tags;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.utils.StringDictionary;
+import org.galatea.starter.utils.StringDictionaryMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Config for the dictionary that the instrument, party and depot strings of agreements and
+ * missions are interned in, both by the translators and as missions are loaded from the database.
+ */
+@Slf4j
+@Configuration
+public class DictionaryConfig {
+
+  /**
+   * Returns the dictionary of instrument, party and depot strings.
+   */
+  @Bean
+  public StringDictionary referenceDataDictionary(
+      @Value("${settlement.dictionary.max-size}") final long maxSize,
+      @Value("${settlement.dictionary.idle-minutes}") final long idleMinutes) {
+    log.info("Interning reference data in a dictionary of up to {} strings, idle for up to {} "
+        + "minutes", maxSize, idleMinutes);
+    return new StringDictionary("reference-data", maxSize, Duration.ofMinutes(idleMinutes),
+        Ticker.systemTicker());
+  }
+
+  /**
+   * Publishes the size and lookup metrics of the reference data dictionary.
+   */
+  @Bean
+  public StringDictionaryMetrics referenceDataDictionaryMetrics(
+      final StringDictionary referenceDataDictionary) {
+    return new StringDictionaryMetrics(referenceDataDictionary, Tags.empty());
+  }
+}
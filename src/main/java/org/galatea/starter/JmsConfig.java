@@ -1,10 +1,21 @@
 package org.galatea.starter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.function.BiConsumer;
 import javax.jms.ConnectionFactory;
 import javax.jms.Message;
 import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.entrypoint.SettlementJmsBatchListener;
+import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessage;
+import org.galatea.starter.service.SettlementService;
+import org.galatea.starter.utils.jms.BatchingJmsConsumer;
 import org.galatea.starter.utils.jms.FuseJmsListenerContainerFactory;
+import org.galatea.starter.utils.jms.IBatchMessageListener;
+import org.galatea.starter.utils.translation.ITranslator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,6 +23,7 @@ import org.springframework.jms.annotation.EnableJms;
 import org.springframework.jms.annotation.JmsListenerConfigurer;
 import org.springframework.jms.config.JmsListenerContainerFactory;
 import org.springframework.jms.config.JmsListenerEndpointRegistrar;
+import org.springframework.jms.connection.CachingConnectionFactory;
 import org.springframework.jms.listener.DefaultMessageListenerContainer;
 import org.springframework.messaging.converter.MappingJackson2MessageConverter;
 import org.springframework.messaging.converter.MessageConverter;
@@ -23,6 +35,15 @@ import org.springframework.messaging.handler.annotation.support.MessageHandlerMe
 @EnableJms
 public class JmsConfig implements JmsListenerConfigurer {
 
+  @Value("${jms.batch.concurrency}")
+  private int batchConcurrency;
+
+  @Value("${jms.batch.max-size}")
+  private int batchMaxSize;
+
+  @Value("${jms.batch.max-wait-millis}")
+  private long batchMaxWaitMillis;
+
   /**
    * Returns an implementation of failed message consumer that simply logs the message.
    */
@@ -53,10 +74,11 @@ public class JmsConfig implements JmsListenerConfigurer {
   public JmsListenerContainerFactory<DefaultMessageListenerContainer> jmsListenerContainerFactory(
       final ConnectionFactory queueConnectionFactory,
       final DefaultJmsListenerContainerFactoryConfigurer configurer,
-      final BiConsumer<Message, Exception> failedMessageConsumer) {
+      final BiConsumer<Message, Exception> failedMessageConsumer,
+      final MeterRegistry meterRegistry) {
 
     FuseJmsListenerContainerFactory listenerFactory =
-        new FuseJmsListenerContainerFactory(failedMessageConsumer);
+        new FuseJmsListenerContainerFactory(failedMessageConsumer, meterRegistry);
 
     // This provides all boot's default to this factory, including the message converter
     // Note that we don't use a caching connection factory due to this:
@@ -98,6 +120,58 @@ public class JmsConfig implements JmsListenerConfigurer {
   public void configureJmsListeners(final JmsListenerEndpointRegistrar registrar) {
     registrar.setMessageHandlerMethodFactory(jmsHandlerMethodFactory());
   }
-}
 
+  /**
+   * Returns the listener that settles batches of agreements when batch ingestion is enabled.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "jms.batch.enabled", havingValue = "true")
+  public SettlementJmsBatchListener settlementJmsBatchListener(
+      final SettlementService settlementService,
+      final ITranslator<byte[], TradeAgreement> tradeAgreementProtoTranslator,
+      final ITranslator<TradeAgreementMessage, TradeAgreement> tradeAgreementMessageTranslator,
+      final BiConsumer<Message, Exception> failedMessageConsumer,
+      final ObjectMapper objectMapper) {
+    return new SettlementJmsBatchListener(settlementService, tradeAgreementProtoTranslator,
+        tradeAgreementMessageTranslator, objectMapper.readerFor(TradeAgreementMessage.class),
+        failedMessageConsumer);
+  }
+
+  /**
+   * Consumes the JSON agreement queue in batches when batch ingestion is enabled.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "jms.batch.enabled", havingValue = "true")
+  public BatchingJmsConsumer agreementJsonBatchConsumer(final ConnectionFactory connectionFactory,
+      final SettlementJmsBatchListener listener, final MeterRegistry meterRegistry,
+      @Value("${jms.agreement-queue-json}") final String destination) {
+    return batchConsumer(connectionFactory, destination, listener::settleAgreementsJson,
+        meterRegistry);
+  }
+
+  /**
+   * Consumes the protobuf agreement queue in batches when batch ingestion is enabled.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "jms.batch.enabled", havingValue = "true")
+  public BatchingJmsConsumer agreementProtoBatchConsumer(final ConnectionFactory connectionFactory,
+      final SettlementJmsBatchListener listener, final MeterRegistry meterRegistry,
+      @Value("${jms.agreement-queue-proto}") final String destination) {
+    return batchConsumer(connectionFactory, destination, listener::settleAgreementsProto,
+        meterRegistry);
+  }
 
+  private BatchingJmsConsumer batchConsumer(final ConnectionFactory connectionFactory,
+      final String destination, final IBatchMessageListener listener,
+      final MeterRegistry meterRegistry) {
+    // Like the listener containers, the batch consumers hold their sessions open for their whole
+    // lifetime, so there's nothing to gain from boot's caching connection factory
+    ConnectionFactory targetConnectionFactory = connectionFactory;
+    if (connectionFactory instanceof CachingConnectionFactory) {
+      targetConnectionFactory =
+          ((CachingConnectionFactory) connectionFactory).getTargetConnectionFactory();
+    }
+    return new BatchingJmsConsumer(targetConnectionFactory, destination, listener,
+        batchConcurrency, batchMaxSize, batchMaxWaitMillis, meterRegistry);
+  }
+}
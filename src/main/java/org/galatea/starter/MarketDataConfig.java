@@ -0,0 +1,86 @@
+package org.galatea.starter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Tags;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.service.HttpIexClient;
+import org.galatea.starter.service.IAsyncIexClient;
+import org.galatea.starter.service.IMarketDataGateway;
+import org.galatea.starter.service.IexMarketDataGateway;
+import org.galatea.starter.service.MarketDataGatewayMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Config for the market data gateway in front of IEX.
+ */
+@Slf4j
+@Configuration
+public class MarketDataConfig {
+
+  /**
+   * Executor dedicated to completing calls to IEX and scheduling the symbol refresh and price
+   * batches, so that they don't compete with work on the common fork join pool. No thread waits on
+   * IEX itself, so a few threads go a long way.
+   */
+  @Bean
+  public ScheduledExecutorService marketDataExecutor(
+      @Value("${market-data.threads}") final int threads) {
+    return Executors.newScheduledThreadPool(threads,
+        new CustomizableThreadFactory("market-data-"));
+  }
+
+  /**
+   * Returns the non-blocking client the market data gateway calls IEX with.
+   */
+  @Bean
+  public IAsyncIexClient asyncIexClient(final Environment environment,
+      final ObjectMapper objectMapper, final ScheduledExecutorService marketDataExecutor,
+      @Value("${market-data.http.connect-timeout-millis}") final long connectTimeoutMillis,
+      @Value("${market-data.http.request-timeout-millis}") final long requestTimeoutMillis,
+      @Value("${market-data.http.max-concurrent-calls}") final int maxConcurrentCalls) {
+    // Resolved leniently: in tests, it refers to the port of a WireMock server that only some of
+    // them start
+    String basePath = environment.resolvePlaceholders("${spring.rest.iexBasePath}");
+    HttpIexClient client = new HttpIexClient(basePath, objectMapper,
+        Duration.ofMillis(connectTimeoutMillis), Duration.ofMillis(requestTimeoutMillis),
+        maxConcurrentCalls, marketDataExecutor);
+    log.info("Calling IEX with {}", client);
+    return client;
+  }
+
+  /**
+   * Returns the gateway the IEX service gets market data through. It is started with the
+   * application context, which schedules the symbol refresh. The symbol list's JSON is written to
+   * responses as is, so it is serialized the same way as any other JSON response.
+   */
+  @Bean
+  public IexMarketDataGateway marketDataGateway(final IAsyncIexClient asyncIexClient,
+      final ScheduledExecutorService marketDataExecutor,
+      @Value("${market-data.symbols.refresh-minutes}") final long symbolRefreshMinutes,
+      @Value("${market-data.prices.ttl-millis}") final long priceTtlMillis,
+      @Value("${market-data.prices.maximum-size}") final long maximumPrices,
+      @Value("${market-data.prices.batch.window-millis}") final long batchWindowMillis,
+      @Value("${market-data.prices.batch.max-size}") final int batchMaxSize) {
+    return new IexMarketDataGateway(asyncIexClient, MvcConfig.responseObjectMapper(),
+        Duration.ofMinutes(symbolRefreshMinutes),
+        Duration.ofMillis(priceTtlMillis), maximumPrices, Duration.ofMillis(batchWindowMillis),
+        batchMaxSize, marketDataExecutor, Ticker.systemTicker());
+  }
+
+  /**
+   * Publishes the hit, miss and upstream call metrics of the market data gateway.
+   */
+  @Bean
+  public MarketDataGatewayMetrics marketDataGatewayMetrics(
+      final IMarketDataGateway marketDataGateway) {
+    return new MarketDataGatewayMetrics(marketDataGateway, Tags.empty());
+  }
+}
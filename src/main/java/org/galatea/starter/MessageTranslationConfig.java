@@ -1,17 +1,22 @@
 package org.galatea.starter;
 
 import java.util.List;
-import java.util.stream.Collectors;
 import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.Side;
 import org.galatea.starter.domain.TradeAgreement;
 import org.galatea.starter.entrypoint.messagecontracts.SettlementMissionMessage;
 import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessage;
 import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessages;
+import org.galatea.starter.utils.ParallelChunkMapper;
+import org.galatea.starter.utils.StringDictionary;
 import org.galatea.starter.utils.translation.ITranslator;
+import org.galatea.starter.utils.translation.TranslationException;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
 @Configuration
+@Import({ParallelMappingConfig.class, DictionaryConfig.class})
 public class MessageTranslationConfig {
 
   /**
@@ -30,41 +35,57 @@ public class MessageTranslationConfig {
   }
 
   /**
-   * Returns a translator to convert SettlementMissionMessages to SettlementMissions.
+   * Returns a translator to convert SettlementMissionMessages to SettlementMissions, interning
+   * their instrument, party and depot in the reference data dictionary.
    */
   @Bean
-  public ITranslator<SettlementMissionMessage, SettlementMission> settlementMissionMsgTranslator() {
+  public ITranslator<SettlementMissionMessage, SettlementMission> settlementMissionMsgTranslator(
+      final StringDictionary referenceDataDictionary) {
     return message -> SettlementMission.builder()
         .id(message.getId())
-        .instrument(message.getInstrument())
-        .externalParty(message.getExternalParty())
+        .instrument(referenceDataDictionary.intern(message.getInstrument()))
+        .externalParty(referenceDataDictionary.intern(message.getExternalParty()))
         .direction(message.getDirection())
-        .depot(message.getDepot())
+        .depot(referenceDataDictionary.intern(message.getDepot()))
         .qty(message.getQty())
         .version(message.getVersion()).build();
   }
 
   /**
-   * Returns a translator to convert protobuf messages to TradeAgreements.
+   * Returns a translator to convert protobuf messages to TradeAgreements, interning their
+   * instrument and parties in the reference data dictionary.
    */
   @Bean
-  public ITranslator<TradeAgreementMessage, TradeAgreement> tradeAgreementMessageTranslator() {
+  public ITranslator<TradeAgreementMessage, TradeAgreement> tradeAgreementMessageTranslator(
+      final StringDictionary referenceDataDictionary) {
     return message -> TradeAgreement.builder()
-        .buySell(message.getBuySell())
-        .externalParty(message.getExternalParty())
-        .instrument(message.getInstrument())
-        .internalParty(message.getInternalParty())
+        .buySell(requireSide(message.getBuySell()))
+        .externalParty(referenceDataDictionary.intern(message.getExternalParty()))
+        .instrument(referenceDataDictionary.intern(message.getInstrument()))
+        .internalParty(referenceDataDictionary.intern(message.getInternalParty()))
         .qty(message.getQty()).build();
   }
 
   /**
-   * Returns a translator to convert protobuf messages to a list of TradeAgreements.
+   * Returns a translator to convert protobuf messages to a list of TradeAgreements. Large batches
+   * are translated in parallel chunks by the agreement mapper, keeping their order.
    */
   @Bean
   public ITranslator<TradeAgreementMessages, List<TradeAgreement>> tradeAgreementMessagesTranslator(
-      final ITranslator<TradeAgreementMessage, TradeAgreement> translator) {
-    return messages -> messages.getAgreements().stream().map(translator::translate)
-        .collect(Collectors.toList());
+      final ITranslator<TradeAgreementMessage, TradeAgreement> translator,
+      final ParallelChunkMapper agreementMapper) {
+    return messages -> agreementMapper.map(messages.getAgreements(), translator::translate);
+  }
+
+  /**
+   * Returns the side, which is only null if it was missing from the message or, for XML, not one
+   * of the Side names.
+   */
+  private static Side requireSide(final Side side) {
+    if (side == null) {
+      throw new TranslationException("Buy/Sell side must be valid");
+    }
+    return side;
   }
 
 }
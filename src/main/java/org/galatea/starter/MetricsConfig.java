@@ -0,0 +1,22 @@
+package org.galatea.starter;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Config for the application's own metrics, which are published through the actuator's metrics
+ * endpoint alongside those spring boot records (http.server.requests, jvm.*, ...).
+ */
+@Configuration
+public class MetricsConfig {
+
+  /**
+   * Create a TimedAspect so that methods annotated with @Timed are timed.
+   */
+  @Bean
+  public TimedAspect timedAspect(final MeterRegistry meterRegistry) {
+    return new TimedAspect(meterRegistry);
+  }
+}
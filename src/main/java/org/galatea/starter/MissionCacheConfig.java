@@ -0,0 +1,54 @@
+package org.galatea.starter;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Tags;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.galatea.starter.domain.rpsy.ISettlementMissionRpsy;
+import org.galatea.starter.service.CaffeineMissionCache;
+import org.galatea.starter.service.IMissionCache;
+import org.galatea.starter.service.MissionCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Config for the settlement mission near cache.
+ */
+@Configuration
+public class MissionCacheConfig {
+
+  /**
+   * Executor dedicated to loading missions into the cache, so that loads don't compete with (or
+   * wait behind) work on the common fork join pool.
+   */
+  @Bean
+  public ExecutorService missionCacheLoaderExecutor(
+      @Value("${mission-cache.loader-threads}") final int loaderThreads) {
+    return Executors.newFixedThreadPool(loaderThreads,
+        new CustomizableThreadFactory("mission-cache-loader-"));
+  }
+
+  /**
+   * Returns the cache of missions by id used by the settlement service.
+   */
+  @Bean
+  public IMissionCache missionCache(final ISettlementMissionRpsy missionrpsy,
+      final ExecutorService missionCacheLoaderExecutor,
+      @Value("${mission-cache.maximum-size}") final long maximumSize,
+      @Value("${mission-cache.ttl-seconds}") final long ttlSeconds,
+      @Value("${mission-cache.negative-ttl-seconds}") final long negativeTtlSeconds) {
+    return new CaffeineMissionCache(missionrpsy, maximumSize, Duration.ofSeconds(ttlSeconds),
+        Duration.ofSeconds(negativeTtlSeconds), missionCacheLoaderExecutor, Ticker.systemTicker());
+  }
+
+  /**
+   * Publishes the hit, miss, eviction and size metrics of the mission cache.
+   */
+  @Bean
+  public MissionCacheMetrics missionCacheMetrics(final IMissionCache missionCache) {
+    return new MissionCacheMetrics(missionCache, "missions", Tags.empty());
+  }
+}
@@ -5,19 +5,26 @@ import com.google.common.collect.Sets;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.galatea.starter.utils.FuseHttpTraceRepository;
+import org.galatea.starter.utils.PathSampler;
 import org.galatea.starter.utils.http.converter.SettlementMissionCsvConverter;
 import org.galatea.starter.utils.http.converter.SettlementMissionXlsxConverter;
+import org.galatea.starter.utils.rest.CaptureBufferPool;
 import org.galatea.starter.utils.rest.FuseHttpTraceFilter;
+import org.galatea.starter.utils.rest.ResponseSnapshotCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.trace.http.HttpExchangeTracer;
 import org.springframework.boot.actuate.trace.http.Include;
 import org.springframework.boot.actuate.web.trace.servlet.HttpTraceFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
 import org.springframework.http.converter.xml.Jaxb2RootElementHttpMessageConverter;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -33,6 +40,44 @@ public class MvcConfig implements WebMvcConfigurer {
   public static final MediaType APPLICATION_EXCEL = new MediaType("application", "vnd.ms-excel");
   public static final String APPLICATION_EXCEL_VALUE = "application/vnd.ms-excel";
 
+  public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+  @Value("${mvc.settleMissionsBulkPath}")
+  private String settleMissionsBulkPath;
+
+  @Value("${mvc.exportMissionsPath}")
+  private String exportMissionsPath;
+
+  @Value("${mvc.xlsx.row-window}")
+  private int xlsxRowWindow;
+
+  @Value("${mvc.xlsx.compress-temp-files}")
+  private boolean xlsxCompressTempFiles;
+
+  @Value("${mvc.max-size-trace-payload}")
+  private int maxTracePayloadSize;
+
+  @Value("${mvc.trace.capture.pool-size}")
+  private int traceCapturePoolSize;
+
+  @Value("${mvc.trace.capture.excluded-content-types}")
+  private String traceCaptureExcludedContentTypes;
+
+  @Value("${mvc.trace.buffer-size}")
+  private int traceBufferSize;
+
+  @Value("${mvc.trace.batch-size}")
+  private int traceBatchSize;
+
+  @Value("${mvc.trace.default-sampling-rate}")
+  private double traceDefaultSamplingRate;
+
+  @Value("${mvc.trace.sampling-rates}")
+  private String traceSamplingRates;
+
+  @Value("${mvc.snapshots.maximum-size}")
+  private long snapshotMaximumSize;
+
   /**
    * This is used to trace web requests and store that trace info.
    *
@@ -41,15 +86,20 @@ public class MvcConfig implements WebMvcConfigurer {
   @Bean
   public HttpTraceFilter httpTraceFilter() {
     return new FuseHttpTraceFilter(fuseHttpTraceRepository(), httpExchangeTracer(),
-        path -> path.startsWith("/trace"));
+        path -> path.startsWith("/trace"),
+        path -> path.startsWith(settleMissionsBulkPath) || path.startsWith(exportMissionsPath),
+        new CaptureBufferPool(maxTracePayloadSize, traceCapturePoolSize),
+        MediaType.parseMediaTypes(traceCaptureExcludedContentTypes));
   }
 
   /**
-   * Repository for storing trace info.
+   * Repository for storing trace info. Traces are written asynchronously, so the repository is
+   * started and stopped with the application context.
    */
   @Bean
   public FuseHttpTraceRepository fuseHttpTraceRepository() {
-    return new FuseHttpTraceRepository(new ObjectMapper());
+    return new FuseHttpTraceRepository(new ObjectMapper(), traceBufferSize, traceBatchSize,
+        PathSampler.parse(traceDefaultSamplingRate, traceSamplingRates));
   }
 
   /**
@@ -63,6 +113,17 @@ public class MvcConfig implements WebMvcConfigurer {
     return new HttpExchangeTracer(Sets.newHashSet(Include.values()));
   }
 
+  /**
+   * Cache of the serialized responses of hot read endpoints. Bodies are written with the same
+   * converters, and the same content negotiation, as every other response.
+   */
+  @Bean
+  public ResponseSnapshotCache responseSnapshotCache(
+      final ContentNegotiationManager mvcContentNegotiationManager) {
+    return new ResponseSnapshotCache(messageConverters(), mvcContentNegotiationManager,
+        snapshotMaximumSize);
+  }
+
   @Override
   public void configureContentNegotiation(final ContentNegotiationConfigurer configurer) {
     configurer.favorParameter(true) // give precedence to url request parameters
@@ -83,13 +144,29 @@ public class MvcConfig implements WebMvcConfigurer {
 
   @Override
   public void configureMessageConverters(final List<HttpMessageConverter<?>> converters) {
+    converters.addAll(messageConverters());
+  }
+
+  /**
+   * Returns a mapper configured the same as the one JSON responses are written with, for JSON
+   * that is serialized ahead of the responses it is written to (e.g. dates are written as epoch
+   * millis, unlike with the application's own ObjectMapper).
+   */
+  static ObjectMapper responseObjectMapper() {
+    return Jackson2ObjectMapperBuilder.json().build();
+  }
+
+  private List<HttpMessageConverter<?>> messageConverters() {
     // The Protobuf converter MUST be added first, otherwise Jackson will try and handle our
     // protobuf to JSON conversion (and will of course, fail).
-    converters.add(new ProtobufHttpMessageConverter()); // Protobuf, XML & JSON supported
-    converters.add(new MappingJackson2HttpMessageConverter()); // JSON
-    converters.add(new Jaxb2RootElementHttpMessageConverter()); // XML
-    converters.add(new SettlementMissionCsvConverter());
-    converters.add(new SettlementMissionXlsxConverter());
+    return List.of(
+        new ProtobufHttpMessageConverter(), // Protobuf, XML & JSON supported
+        // Bodies that are already serialized, such as response snapshots, are written as is
+        new ByteArrayHttpMessageConverter(),
+        new MappingJackson2HttpMessageConverter(responseObjectMapper()), // JSON
+        new Jaxb2RootElementHttpMessageConverter(), // XML
+        new SettlementMissionCsvConverter(),
+        new SettlementMissionXlsxConverter(xlsxRowWindow, xlsxCompressTempFiles));
   }
 
 }
@@ -0,0 +1,25 @@
+package org.galatea.starter;
+
+import org.galatea.starter.utils.ParallelChunkMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Config for translating, validating and transforming large batches of agreements in parallel.
+ */
+@Configuration
+public class ParallelMappingConfig {
+
+  /**
+   * Mapper used for batches of agreements. It has its own bounded pool rather than using the
+   * common fork join pool, so that a large batch can't starve (or be starved by) other work.
+   */
+  @Bean(destroyMethod = "close")
+  public ParallelChunkMapper agreementMapper(
+      @Value("${settlement.parallel.parallelism}") final int parallelism,
+      @Value("${settlement.parallel.threshold}") final int threshold,
+      @Value("${settlement.parallel.chunk-size}") final int chunkSize) {
+    return new ParallelChunkMapper(parallelism, threshold, chunkSize, "agreement-mapper-");
+  }
+}
@@ -0,0 +1,66 @@
+package org.galatea.starter;
+
+import javax.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.domain.rpsy.ISettlementMissionRpsy;
+import org.galatea.starter.domain.rpsy.ISettlementMissionScanner;
+import org.galatea.starter.domain.rpsy.ISettlementMissionWriter;
+import org.galatea.starter.domain.rpsy.JdbcSettlementMissionWriter;
+import org.galatea.starter.domain.rpsy.JpaSettlementMissionScanner;
+import org.galatea.starter.domain.rpsy.JpaSettlementMissionWriter;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+/**
+ * Config for how newly spawned missions are written to the database, selected with
+ * settlement.persistence.mode, and for how they are scanned for exports.
+ */
+@Slf4j
+@Configuration
+@Import(DictionaryConfig.class)
+public class PersistenceConfig {
+
+  /**
+   * Default writer that saves missions through the JPA repository.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "settlement.persistence.mode", havingValue = "jpa",
+      matchIfMissing = true)
+  public ISettlementMissionWriter jpaSettlementMissionWriter(
+      final ISettlementMissionRpsy missionrpsy) {
+    return new JpaSettlementMissionWriter(missionrpsy);
+  }
+
+  /**
+   * High throughput writer that inserts missions with JDBC batches, bypassing the persistence
+   * context.
+   */
+  @Bean
+  @ConditionalOnProperty(name = "settlement.persistence.mode", havingValue = "jdbc")
+  public ISettlementMissionWriter jdbcSettlementMissionWriter(final JdbcTemplate jdbcTemplate,
+      final EntityManagerFactory entityManagerFactory,
+      @Value("${settlement.persistence.batch-size}") final int batchSize) {
+    log.info("Inserting settlement missions with JDBC batches of {}", batchSize);
+    return new JdbcSettlementMissionWriter(jdbcTemplate,
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class), batchSize);
+  }
+
+  /**
+   * Scanner that reads all missions a page at a time, for exports.
+   */
+  @Bean
+  public ISettlementMissionScanner settlementMissionScanner(
+      final EntityManagerFactory entityManagerFactory,
+      @Value("${settlement.export.page-size}") final int pageSize) {
+    // A shared entity manager, which delegates to the one bound to the current transaction or
+    // request, if any
+    return new JpaSettlementMissionScanner(
+        SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory), pageSize);
+  }
+}
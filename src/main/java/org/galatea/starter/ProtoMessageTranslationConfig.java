@@ -2,18 +2,24 @@ package org.galatea.starter;
 
 import com.google.protobuf.InvalidProtocolBufferException;
 import java.util.List;
-import java.util.stream.Collectors;
+import org.galatea.starter.domain.Direction;
 import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.Side;
 import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.SettlementDirection;
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.SettlementMissionProtoMessage;
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessage;
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessages;
+import org.galatea.starter.utils.ParallelChunkMapper;
+import org.galatea.starter.utils.StringDictionary;
 import org.galatea.starter.utils.translation.ITranslator;
 import org.galatea.starter.utils.translation.TranslationException;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 
 @Configuration
+@Import({ParallelMappingConfig.class, DictionaryConfig.class})
 public class ProtoMessageTranslationConfig {
 
   /**
@@ -43,37 +49,77 @@ public class ProtoMessageTranslationConfig {
 
   /**
    * Implements a translator to convert TradeAgreement protobuf messages to TradeAgreement domain
-   * objects.
+   * objects, interning their instrument and parties in the reference data dictionary.
    */
   @Bean
-  public ITranslator<TradeAgreementProtoMessage, TradeAgreement> tradeAgreementProtoTranslator() {
-    return msg -> TradeAgreement.builder().buySell(msg.getBuySell())
-        .externalParty(msg.getExternalParty()).internalParty(msg.getInternalParty())
-        .instrument(msg.getInstrument()).qty(msg.getQty()).build();
+  public ITranslator<TradeAgreementProtoMessage, TradeAgreement> tradeAgreementProtoTranslator(
+      final StringDictionary referenceDataDictionary) {
+    return msg -> TradeAgreement.builder().buySell(toSide(msg))
+        .externalParty(referenceDataDictionary.intern(msg.getExternalParty()))
+        .internalParty(referenceDataDictionary.intern(msg.getInternalParty()))
+        .instrument(referenceDataDictionary.intern(msg.getInstrument())).qty(msg.getQty()).build();
   }
 
   /**
    * Implements a translator to convert domain SettlementMission objects to SettlementMission
-   * protobuf messages.
+   * protobuf messages. The direction is written to the legacy direction string as well as the
+   * settlement_direction enum, so that consumers that only read the string keep working.
    */
   @Bean
+  @SuppressWarnings("deprecation")
   public ITranslator<SettlementMission, SettlementMissionProtoMessage>
       settlementMissionProtoTranslator() {
     return msg -> SettlementMissionProtoMessage.newBuilder().setId(msg.getId())
-        .setDepot(msg.getDepot()).setDirection(msg.getDirection())
+        .setDepot(msg.getDepot())
+        .setSettlementDirection(toSettlementDirection(msg.getDirection()))
+        .setDirection(msg.getDirection().name())
         .setExternalParty(msg.getExternalParty()).setInstrument(msg.getInstrument())
         .setQty(msg.getQty()).setVersion(msg.getVersion()).build();
   }
 
   /**
    * Implements a translator to convert a TradeAgreement protobuf collection to a list of
-   * TradeAgreement domain objects.
+   * TradeAgreement domain objects. Large collections are translated in parallel chunks by the
+   * agreement mapper, keeping their order.
    */
   @Bean
   public ITranslator<TradeAgreementProtoMessages, List<TradeAgreement>>
       tradeAgreementProtoMessagesTranslator(
-      final ITranslator<TradeAgreementProtoMessage, TradeAgreement> translator) {
-    return msg -> msg.getMessageList().stream().map(translator::translate)
-        .collect(Collectors.toList());
+      final ITranslator<TradeAgreementProtoMessage, TradeAgreement> translator,
+      final ParallelChunkMapper agreementMapper) {
+    return msg -> agreementMapper.map(msg.getMessageList(), translator::translate);
+  }
+
+  /**
+   * Returns the side of the agreement, falling back to the legacy buy_sell string for senders
+   * that don't set the side enum.
+   */
+  @SuppressWarnings("deprecation")
+  private static Side toSide(final TradeAgreementProtoMessage msg) {
+    switch (msg.getSide()) {
+      case TRADE_SIDE_B:
+        return Side.B;
+      case TRADE_SIDE_S:
+        return Side.S;
+      case TRADE_SIDE_SS:
+        return Side.SS;
+      default:
+        try {
+          return Side.valueOf(msg.getBuySell());
+        } catch (IllegalArgumentException e) {
+          throw new TranslationException("Buy/Sell side must be valid", e);
+        }
+    }
+  }
+
+  private static SettlementDirection toSettlementDirection(final Direction direction) {
+    switch (direction) {
+      case REC:
+        return SettlementDirection.SETTLEMENT_DIRECTION_REC;
+      case DEL:
+        return SettlementDirection.SETTLEMENT_DIRECTION_DEL;
+      default:
+        throw new TranslationException("Unknown direction: " + direction);
+    }
   }
 }
@@ -1,8 +1,34 @@
 package org.galatea.starter.domain;
 
+import lombok.Getter;
+
 public enum Direction {
 
-  REC,
-  DEL
+  REC("R"),
+  DEL("D");
+
+  /**
+   * The single character the direction is stored as.
+   */
+  @Getter
+  private final String code;
+
+  Direction(final String code) {
+    this.code = code;
+  }
 
+  /**
+   * Returns the direction stored as the given code. Missions saved before directions were stored as
+   * codes hold the direction's name instead, which is accepted too.
+   *
+   * @throws IllegalArgumentException if no direction has that code or name
+   */
+  public static Direction fromCode(final String code) {
+    if (REC.code.equals(code) || REC.name().equals(code)) {
+      return REC;
+    } else if (DEL.code.equals(code) || DEL.name().equals(code)) {
+      return DEL;
+    }
+    throw new IllegalArgumentException("Unknown direction code: " + code);
+  }
 }
@@ -0,0 +1,22 @@
+package org.galatea.starter.domain;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores a Direction as its single character code rather than its name. Names stored by earlier
+ * versions are still read.
+ */
+@Converter
+public class DirectionConverter implements AttributeConverter<Direction, String> {
+
+  @Override
+  public String convertToDatabaseColumn(final Direction direction) {
+    return direction == null ? null : direction.getCode();
+  }
+
+  @Override
+  public Direction convertToEntityAttribute(final String code) {
+    return code == null ? null : Direction.fromCode(code);
+  }
+}
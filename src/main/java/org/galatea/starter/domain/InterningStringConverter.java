@@ -0,0 +1,32 @@
+package org.galatea.starter.domain;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.galatea.starter.utils.StringDictionary;
+
+/**
+ * Interns strings read from the database in the reference data dictionary, so that missions
+ * loaded by JPA (including those in the missions cache) share one instance of each instrument,
+ * party and depot. Values are written unchanged.
+ *
+ * <p>Hibernate creates converters through Spring's bean factory, which supplies the dictionary.
+ */
+@Converter
+@RequiredArgsConstructor
+public class InterningStringConverter implements AttributeConverter<String, String> {
+
+  @NonNull
+  private final StringDictionary referenceDataDictionary;
+
+  @Override
+  public String convertToDatabaseColumn(final String value) {
+    return value;
+  }
+
+  @Override
+  public String convertToEntityAttribute(final String value) {
+    return referenceDataDictionary.intern(value);
+  }
+}
@@ -0,0 +1,25 @@
+package org.galatea.starter.domain;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Criteria that settlement missions are queried by. Criteria that are null match every mission.
+ */
+@Builder
+@Value
+public class MissionFilter {
+
+  /**
+   * Filter that matches every mission.
+   */
+  public static final MissionFilter ALL = MissionFilter.builder().build();
+
+  private String depot;
+
+  private String instrument;
+
+  private String externalParty;
+
+  private Direction direction;
+}
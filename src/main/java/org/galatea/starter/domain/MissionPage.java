@@ -0,0 +1,22 @@
+package org.galatea.starter.domain;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * One page of a keyset-paginated mission query, in id order.
+ */
+@Builder
+@Value
+public class MissionPage {
+
+  @NonNull
+  private List<SettlementMission> missions;
+
+  /**
+   * The id to query the next page after, or null if this is the last page.
+   */
+  private Long nextAfterId;
+}
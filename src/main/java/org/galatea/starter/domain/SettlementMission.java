@@ -1,9 +1,12 @@
 package org.galatea.starter.domain;
 
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
 import javax.persistence.Version;
 import javax.validation.constraints.DecimalMin;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -13,7 +16,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
-import org.galatea.starter.utils.validation.StringEnumeration;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 /* For builder since we explicitly want to make the all args ctor private */
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
@@ -21,25 +26,47 @@ import org.galatea.starter.utils.validation.StringEnumeration;
 @Builder
 @Data
 @Entity
+// Each filter of the mission query is indexed together with the id, so that a filtered page is an
+// index range scan that starts right after the cursor id and stops after the page size
+@Table(indexes = {
+    @Index(name = "idx_settlement_mission_depot_id", columnList = "depot, id"),
+    @Index(name = "idx_settlement_mission_instrument_id", columnList = "instrument, id"),
+    @Index(name = "idx_settlement_mission_external_party_id", columnList = "externalParty, id")})
 @XmlRootElement(name = "settlementMission")
 public class SettlementMission {
 
+  // Ids are handed out from memory in blocks of increment_size, so inserting a batch of missions
+  // only needs one round trip for ids per block instead of one per mission. They are still taken
+  // from hibernate_sequence, which the former AUTO generator used, so a database that already has
+  // missions carries on from its current value rather than reissuing ids from 1
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "settlement_mission_ids")
+  @GenericGenerator(name = "settlement_mission_ids", strategy = "enhanced-sequence",
+      parameters = {
+          @Parameter(name = "sequence_name", value = "hibernate_sequence"),
+          @Parameter(name = "increment_size", value = "50"),
+          @Parameter(name = "optimizer", value = "pooled-lo")})
   protected Long id;
 
+  @Convert(converter = InterningStringConverter.class)
   @NonNull
   protected String instrument;
 
+  @Convert(converter = InterningStringConverter.class)
   @NonNull
   protected String externalParty;
 
+  @Convert(converter = InterningStringConverter.class)
   @NonNull
   protected String depot;
 
-  @StringEnumeration(enumClass = Direction.class, message = "Direction must be valid")
+  // Missions saved before directions were stored as codes hold the direction's name, so those are
+  // read as the code too, both when loading a mission and when filtering on its direction
+  @Convert(converter = DirectionConverter.class)
+  @ColumnTransformer(read = "case direction when 'REC' then 'R' when 'DEL' then 'D' "
+      + "else direction end")
   @NonNull
-  protected String direction;
+  protected Direction direction;
 
   @DecimalMin(value = "0.0", inclusive = false, message = "Quantity must be greater than 0")
   @NonNull
@@ -8,7 +8,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import org.galatea.starter.utils.validation.StringEnumeration;
 
 @AllArgsConstructor(access = AccessLevel.PRIVATE) // For builder
 @NoArgsConstructor(access = AccessLevel.PRIVATE) // For spring and jackson
@@ -26,9 +25,8 @@ public class TradeAgreement {
   @NonNull
   protected String externalParty;
 
-  @StringEnumeration(enumClass = Side.class, message = "Buy/Sell side must be valid")
   @NonNull
-  protected String buySell;
+  protected Side buySell;
 
   @DecimalMin(value = "0.0", inclusive = false, message = "Quantity must be greater than 0")
   @NonNull
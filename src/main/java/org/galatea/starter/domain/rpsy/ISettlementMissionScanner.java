@@ -0,0 +1,24 @@
+package org.galatea.starter.domain.rpsy;
+
+import java.util.List;
+import org.galatea.starter.domain.MissionFilter;
+import org.galatea.starter.domain.SettlementMission;
+
+/**
+ * Reads settlement missions a page at a time, in id order, for queries and exports that are too
+ * large to load at once.
+ */
+public interface ISettlementMissionScanner {
+
+  /**
+   * Returns all missions in id order. Missions are only loaded as the iteration reaches them, so
+   * iterating holds a bounded number of missions in memory however many there are.
+   */
+  Iterable<SettlementMission> scanAll();
+
+  /**
+   * Returns up to limit missions that match the filter and have an id greater than afterId, in id
+   * order.
+   */
+  List<SettlementMission> findPage(MissionFilter filter, long afterId, int limit);
+}
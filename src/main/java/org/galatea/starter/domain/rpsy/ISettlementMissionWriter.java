@@ -0,0 +1,21 @@
+package org.galatea.starter.domain.rpsy;
+
+import java.util.List;
+import org.galatea.starter.domain.SettlementMission;
+
+/**
+ * Inserts newly spawned settlement missions.
+ *
+ * <p>Kept separate from ISettlementMissionRpsy so that the bulk insert path can bypass the JPA
+ * persistence context when settlement.persistence.mode is 'jdbc'.
+ */
+public interface ISettlementMissionWriter {
+
+  /**
+   * Inserts the given missions.
+   *
+   * @param missions new missions, without ids
+   * @return the inserted missions, with their ids assigned
+   */
+  List<SettlementMission> insertAll(List<SettlementMission> missions);
+}
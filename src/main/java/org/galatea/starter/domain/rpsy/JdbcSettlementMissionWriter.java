@@ -0,0 +1,73 @@
+package org.galatea.starter.domain.rpsy;
+
+import java.util.List;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.domain.SettlementMission;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Inserts missions with JDBC batch statements, skipping the JPA persistence context entirely.
+ *
+ * <p>Ids are still taken from the entity's Hibernate identifier generator, so missions written by
+ * this class and by JpaSettlementMissionWriter share the same id space, and the generator's pooled
+ * optimizer hands them out from memory in blocks.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class JdbcSettlementMissionWriter implements ISettlementMissionWriter {
+
+  private static final String INSERT_MISSION = "insert into settlement_mission "
+      + "(id, instrument, external_party, depot, direction, qty, version) "
+      + "values (?, ?, ?, ?, ?, ?, ?)";
+
+  @NonNull
+  private final JdbcTemplate jdbcTemplate;
+
+  @NonNull
+  private final SessionFactoryImplementor sessionFactory;
+
+  private final int batchSize;
+
+  @Override
+  @Transactional
+  public List<SettlementMission> insertAll(final List<SettlementMission> missions) {
+    assignIds(missions);
+
+    jdbcTemplate.batchUpdate(INSERT_MISSION, missions, batchSize, (ps, mission) -> {
+      ps.setLong(1, mission.getId());
+      ps.setString(2, mission.getInstrument());
+      ps.setString(3, mission.getExternalParty());
+      ps.setString(4, mission.getDepot());
+      ps.setString(5, mission.getDirection().getCode());
+      ps.setDouble(6, mission.getQty());
+      ps.setLong(7, mission.getVersion());
+    });
+    log.debug("Inserted {} mission(s) in batches of {}", missions.size(), batchSize);
+
+    return missions;
+  }
+
+  /**
+   * Assigns ids from the Hibernate generator configured on SettlementMission.
+   */
+  private void assignIds(final List<SettlementMission> missions) {
+    IdentifierGenerator generator =
+        sessionFactory.getIdentifierGenerator(SettlementMission.class.getName());
+
+    // The generator needs a session, but only to reach the connection it allocates blocks with
+    try (StatelessSession session = sessionFactory.openStatelessSession()) {
+      SharedSessionContractImplementor sessionImplementor =
+          (SharedSessionContractImplementor) session;
+      for (SettlementMission mission : missions) {
+        mission.setId((Long) generator.generate(sessionImplementor, mission));
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package org.galatea.starter.domain.rpsy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.domain.MissionFilter;
+import org.galatea.starter.domain.SettlementMission;
+
+/**
+ * Reads missions a page at a time with keyset pagination (where id &gt; the last id seen), so each
+ * page is a cheap index range scan however deep into the table it is, and missions inserted during
+ * the scan don't shift the pages.
+ *
+ * <p>Each page of scanAll is detached from the persistence context once loaded. Otherwise, with an
+ * entity manager that lives for the whole request (open-in-view), every mission scanned would stay
+ * referenced until the request completes.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class JpaSettlementMissionScanner implements ISettlementMissionScanner {
+
+  @NonNull
+  private final EntityManager entityManager;
+
+  private final int pageSize;
+
+  @Override
+  public Iterable<SettlementMission> scanAll() {
+    return PageIterator::new;
+  }
+
+  @Override
+  public List<SettlementMission> findPage(final MissionFilter filter, final long afterId,
+      final int limit) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<SettlementMission> query = builder.createQuery(SettlementMission.class);
+    Root<SettlementMission> mission = query.from(SettlementMission.class);
+
+    // Only the criteria that are set become predicates, rather than "(:x is null or m.x = :x)",
+    // which can stop the database from using the index for that criterion
+    List<Predicate> predicates = new ArrayList<>();
+    // Bound as a parameter, since Hibernate inlines numeric criteria literals into the SQL
+    ParameterExpression<Long> afterIdParameter = builder.parameter(Long.class);
+    predicates.add(builder.greaterThan(mission.get("id"), afterIdParameter));
+    addEqual(predicates, builder, mission.get("depot"), filter.getDepot());
+    addEqual(predicates, builder, mission.get("instrument"), filter.getInstrument());
+    addEqual(predicates, builder, mission.get("externalParty"), filter.getExternalParty());
+    addEqual(predicates, builder, mission.get("direction"), filter.getDirection());
+
+    query.select(mission)
+        .where(predicates.toArray(new Predicate[0]))
+        .orderBy(builder.asc(mission.get("id")));
+    return entityManager.createQuery(query)
+        .setParameter(afterIdParameter, afterId)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  private static <T> void addEqual(final List<Predicate> predicates,
+      final CriteriaBuilder builder, final Path<T> attribute, final T value) {
+    if (value != null) {
+      predicates.add(builder.equal(attribute, value));
+    }
+  }
+
+  private List<SettlementMission> loadPage(final long afterId) {
+    List<SettlementMission> page = findPage(MissionFilter.ALL, afterId, pageSize);
+    page.forEach(entityManager::detach);
+    log.debug("Loaded {} mission(s) after id {}", page.size(), afterId);
+    return page;
+  }
+
+  /**
+   * Iterates over the missions, loading the next page once the current one is used up.
+   */
+  private class PageIterator implements Iterator<SettlementMission> {
+
+    private Iterator<SettlementMission> page = Collections.emptyIterator();
+
+    private long lastId = Long.MIN_VALUE;
+
+    private boolean lastPage;
+
+    @Override
+    public boolean hasNext() {
+      if (!page.hasNext() && !lastPage) {
+        List<SettlementMission> missions = loadPage(lastId);
+        lastPage = missions.size() < pageSize;
+        page = missions.iterator();
+      }
+      return page.hasNext();
+    }
+
+    @Override
+    public SettlementMission next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      SettlementMission mission = page.next();
+      lastId = mission.getId();
+      return mission;
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package org.galatea.starter.domain.rpsy;
+
+import com.google.common.collect.Lists;
+import java.util.List;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.domain.SettlementMission;
+
+/**
+ * Inserts missions through the JPA repository, so they go through the persistence context. Inserts
+ * are still batched by Hibernate according to hibernate.jdbc.batch_size.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class JpaSettlementMissionWriter implements ISettlementMissionWriter {
+
+  @NonNull
+  private final ISettlementMissionRpsy missionrpsy;
+
+  @Override
+  public List<SettlementMission> insertAll(final List<SettlementMission> missions) {
+    return Lists.newArrayList(missionrpsy.saveAll(missions));
+  }
+}
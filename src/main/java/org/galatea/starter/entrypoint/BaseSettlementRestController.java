@@ -1,18 +1,23 @@
 package org.galatea.starter.entrypoint;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.sf.aspect4log.Log;
-import net.sf.aspect4log.Log.Level;
+import org.galatea.starter.domain.MissionFilter;
+import org.galatea.starter.domain.MissionPage;
 import org.galatea.starter.domain.SettlementMission;
 import org.galatea.starter.domain.TradeAgreement;
 import org.galatea.starter.service.SettlementService;
+import org.galatea.starter.utils.collections.LongArrayList;
+import org.galatea.starter.utils.collections.LongHashSet;
+import org.galatea.starter.utils.logging.Logged;
+import org.slf4j.event.Level;
 
 /**
  * Implements a base class for settlement rest controllers to avoid duplicating the logic of calling
@@ -20,21 +25,42 @@ import org.galatea.starter.service.SettlementService;
  */
 @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
 @Slf4j
-@Log(enterLevel = Level.INFO, exitLevel = Level.INFO)
+@Logged(level = Level.INFO)
 public abstract class BaseSettlementRestController extends BaseRestController {
 
   @NonNull
   SettlementService settlementService;
 
+  /**
+   * Returns the name the responses of a mission are snapshotted under, whatever their format.
+   */
+  protected static String missionResource(final Long id) {
+    return "mission/" + id;
+  }
+
   /**
    * Invokes the settlement service to spawn missions for the specified trade agreements.
    */
   protected Set<String> settleAgreementInternal(final List<TradeAgreement> agreements,
       final String getMissionPath) {
 
-    Set<Long> missionIds = settlementService.spawnMissions(agreements);
-    return missionIds.stream().map(id -> getMissionPath + id)
-        .collect(Collectors.toSet());
+    LongHashSet missionIds = settlementService.spawnMissions(agreements);
+    Set<String> missionPaths = new HashSet<>(missionIds.size() * 2);
+    missionIds.forEach(id -> missionPaths.add(getMissionPath + id));
+    return missionPaths;
+  }
+
+  /**
+   * Invokes the settlement service to spawn missions for the specified trade agreements, returning
+   * the path of each agreement's mission in the agreements' order.
+   */
+  protected List<String> settleAgreementsInOrder(final List<TradeAgreement> agreements,
+      final String getMissionPath) {
+
+    LongArrayList missionIds = settlementService.spawnMissionsInOrder(agreements);
+    List<String> missionPaths = new ArrayList<>(missionIds.size());
+    missionIds.forEach(id -> missionPaths.add(getMissionPath + id));
+    return missionPaths;
   }
 
   /**
@@ -47,12 +73,28 @@ public abstract class BaseSettlementRestController extends BaseRestController {
   /**
    * Retrieves multiple settlement missions from the settlement service.
    *
-   * @param ids a comma-separated list of IDs of the missions to retrieve
+   * @param ids the IDs of the missions to retrieve
    */
-  protected List<SettlementMission> getMissionsInternal(final List<Long> ids) {
+  protected List<SettlementMission> getMissionsInternal(final LongArrayList ids) {
     return settlementService.findMissions(ids);
   }
 
+  /**
+   * Retrieves one page of the settlement missions matching the filter from the settlement service.
+   */
+  protected MissionPage getMissionPageInternal(final MissionFilter filter, final Long afterId,
+      final int pageSize) {
+    return settlementService.findMissionPage(filter, afterId, pageSize);
+  }
+
+  /**
+   * Retrieves all settlement missions from the settlement service, loaded lazily as they are
+   * iterated.
+   */
+  protected Iterable<SettlementMission> scanMissionsInternal() {
+    return settlementService.scanMissions();
+  }
+
   /**
    * Updates settlement mission, if it exists.
    */
@@ -3,9 +3,9 @@ package org.galatea.starter.entrypoint;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.sf.aspect4log.Log;
-import net.sf.aspect4log.Log.Level;
 import org.galatea.starter.service.HalService;
+import org.galatea.starter.utils.logging.Logged;
+import org.slf4j.event.Level;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -17,7 +17,7 @@ import org.springframework.web.bind.annotation.RestController;
  */
 @RequiredArgsConstructor
 @Slf4j
-@Log(enterLevel = Level.INFO, exitLevel = Level.INFO)
+@Logged(level = Level.INFO)
 @RestController
 public class HalRestController extends BaseRestController {
 
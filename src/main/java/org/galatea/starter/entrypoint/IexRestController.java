@@ -1,22 +1,26 @@
 package org.galatea.starter.entrypoint;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.sf.aspect4log.Log;
-import net.sf.aspect4log.Log.Level;
 import org.galatea.starter.domain.IexLastTradedPrice;
 import org.galatea.starter.domain.IexSymbol;
+import org.galatea.starter.entrypoint.exception.EntityNotFoundException;
 import org.galatea.starter.service.IexService;
+import org.galatea.starter.utils.logging.Logged;
+import org.slf4j.event.Level;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @Slf4j
-@Log(enterLevel = Level.INFO, exitLevel = Level.INFO)
+@Logged(level = Level.INFO)
 @Validated
 @RestController
 @RequiredArgsConstructor
@@ -26,24 +30,45 @@ public class IexRestController {
   private IexService iexService;
 
   /**
-   * Exposes an endpoint to get all of the symbols available on IEX.
+   * Exposes an endpoint to get all of the symbols available on IEX, or those starting with a
+   * prefix. The request is completed asynchronously, so it doesn't hold a server thread while IEX
+   * is called, and the response is written from JSON the gateway serialized when it loaded the
+   * symbols. The response carries the symbols' ETag, so a client whose copy is current gets a 304.
    *
-   * @return a list of all IexStockSymbols.
+   * @param prefix if given, only the symbols starting with it are returned (ignoring case).
+   * @return a list of IexStockSymbols.
    */
   @GetMapping(value = "${mvc.iex.getAllSymbolsPath}", produces = {MediaType.APPLICATION_JSON_VALUE})
-  public List<IexSymbol> getAllStockSymbols() {
-    return iexService.getAllSymbols();
+  public CompletableFuture<ResponseEntity<byte[]>> getAllStockSymbols(
+      @RequestParam(value = "prefix", required = false) final String prefix) {
+    return iexService.getSymbols().thenApply(symbols -> ResponseEntity.ok()
+        .eTag(symbols.getEtag())
+        .body(symbols.toJson(prefix)));
   }
 
   /**
-   * Get the last traded price for each of the symbols passed in.
+   * Get a single symbol available on IEX.
+   *
+   * @param symbol the symbol to get (ignoring case).
+   * @return the IexSymbol, or a 404 if IEX doesn't support the symbol.
+   */
+  @GetMapping(value = "${mvc.iex.getSymbolPath}" + "{symbol}", produces = {
+      MediaType.APPLICATION_JSON_VALUE})
+  public CompletableFuture<IexSymbol> getStockSymbol(@PathVariable final String symbol) {
+    return iexService.getSymbol(symbol).thenApply(found -> found
+        .orElseThrow(() -> new EntityNotFoundException(IexSymbol.class, symbol)));
+  }
+
+  /**
+   * Get the last traded price for each of the symbols passed in. The request is completed
+   * asynchronously, so it doesn't hold a server thread while IEX is called.
    *
    * @param symbols list of symbols to get last traded price for.
    * @return a List of IexLastTradedPrice objects for the given symbols.
    */
   @GetMapping(value = "${mvc.iex.getLastTradedPricePath}", produces = {
       MediaType.APPLICATION_JSON_VALUE})
-  public List<IexLastTradedPrice> getLastTradedPrice(
+  public CompletableFuture<List<IexLastTradedPrice>> getLastTradedPrice(
       @RequestParam(value = "symbols") final List<String> symbols) {
     return iexService.getLastTradedPriceForSymbols(symbols);
   }
@@ -0,0 +1,43 @@
+package org.galatea.starter.entrypoint;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import org.galatea.starter.utils.translation.TranslationException;
+
+/**
+ * Converts between the ids that mission pages are keyed by and the opaque cursor tokens handed to
+ * clients, so that clients don't come to rely on what a cursor holds.
+ */
+final class MissionCursors {
+
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private MissionCursors() {}
+
+  /**
+   * Returns the cursor for the page after the given id.
+   */
+  static String encode(final long afterId) {
+    return ENCODER.encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(afterId).array());
+  }
+
+  /**
+   * Returns the id that the given cursor's page starts after.
+   *
+   * @throws TranslationException if the cursor wasn't produced by encode
+   */
+  static long decode(final String cursor) {
+    byte[] bytes;
+    try {
+      bytes = DECODER.decode(cursor);
+    } catch (IllegalArgumentException e) {
+      throw new TranslationException("Invalid cursor: " + cursor, e);
+    }
+    if (bytes.length != Long.BYTES) {
+      throw new TranslationException("Invalid cursor: " + cursor);
+    }
+    return ByteBuffer.wrap(bytes).getLong();
+  }
+}
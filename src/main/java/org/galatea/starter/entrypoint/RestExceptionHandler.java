@@ -4,6 +4,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import javax.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.galatea.starter.entrypoint.exception.EntityNotFoundException;
+import org.galatea.starter.entrypoint.exception.MarketDataUnavailableException;
+import org.galatea.starter.utils.translation.TranslationException;
 import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -29,6 +31,14 @@ public class RestExceptionHandler {
     return buildResponseEntity(error);
   }
 
+  @ExceptionHandler(MarketDataUnavailableException.class)
+  protected ResponseEntity<Object> handleMarketDataUnavailable(
+      final MarketDataUnavailableException exception) {
+    log.warn("Market data unavailable: {}", exception.getMessage());
+    ApiError error = new ApiError(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
+    return buildResponseEntity(error);
+  }
+
   @ExceptionHandler(HttpMessageNotReadableException.class)
   protected ResponseEntity<Object> handleHttpMessageNotReadable(
       final HttpMessageNotReadableException exception) {
@@ -37,6 +47,14 @@ public class RestExceptionHandler {
     return buildResponseEntity(error);
   }
 
+  @ExceptionHandler(TranslationException.class)
+  protected ResponseEntity<Object> handleTranslationException(
+      final TranslationException exception) {
+    log.debug("Could not translate the request", exception);
+    ApiError error = new ApiError(HttpStatus.BAD_REQUEST, exception.getMessage());
+    return buildResponseEntity(error);
+  }
+
   @ExceptionHandler(DataAccessException.class)
   protected ResponseEntity<Object> handleDataAccessException(final DataAccessException exception) {
     log.error("Unexpected data access error", exception);
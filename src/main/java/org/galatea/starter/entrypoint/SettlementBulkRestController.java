@@ -0,0 +1,243 @@
+package org.galatea.starter.entrypoint;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolationException;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.MvcConfig;
+import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessage;
+import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessage;
+import org.galatea.starter.service.SettlementService;
+import org.galatea.starter.utils.logging.Logged;
+import org.galatea.starter.utils.translation.ITranslator;
+import org.galatea.starter.utils.translation.TranslationException;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for settling very large batches of trade agreements.
+ *
+ * <p>Unlike SettlementRestController, the request body is never bound into memory as a whole.
+ * Agreements are read incrementally from the request stream, translated and persisted in chunks of
+ * mvc.bulk-chunk-size, and the paths of the spawned missions are written back as newline-delimited
+ * JSON (one quoted path per line) as soon as each chunk has been committed.
+ *
+ * <p>Each chunk is persisted in its own transaction, and its paths are written in the order of
+ * its agreements. If a chunk fails (e.g. validation or a malformed message), the chunks before it
+ * remain settled and their paths have already been streamed back to the caller, so the caller can
+ * resume from the first agreement it did not receive a path for. As the response has already been
+ * committed with a 200 by then, the stream ends with an error record (a JSON object with the
+ * status and message of the failure) rather than a path. A failure before any path is written is
+ * rendered by the exception handler, like that of any other request.
+ */
+@Slf4j
+@Logged(level = Level.INFO)
+@Validated
+@RestController
+public class SettlementBulkRestController extends BaseSettlementRestController {
+
+  private static final String APPLICATION_X_PROTOBUF = "application/x-protobuf";
+
+  @NonNull
+  private ITranslator<TradeAgreementMessage, TradeAgreement> tradeAgreementMessageTranslator;
+
+  @NonNull
+  private ITranslator<TradeAgreementProtoMessage, TradeAgreement> tradeAgreementProtoTranslator;
+
+  @NonNull
+  private ObjectMapper objectMapper;
+
+  @NonNull
+  private ObjectReader agreementReader;
+
+  @Value("${mvc.getMissionPath}")
+  private String getMissionPath;
+
+  @Value("${mvc.bulk-chunk-size}")
+  private int chunkSize;
+
+  /**
+   * Initializes a new instance of this class with the required arguments that will be autowired by
+   * spring boot. This constructor was manually added because of the base class that has no default
+   * constructor, necessitating a call to super() from here.
+   */
+  public SettlementBulkRestController(final SettlementService settlementService,
+      final ITranslator<TradeAgreementMessage, TradeAgreement> tradeAgreementMessageTranslator,
+      final ITranslator<TradeAgreementProtoMessage, TradeAgreement> tradeAgreementProtoTranslator,
+      final ObjectMapper objectMapper) {
+    super(settlementService);
+    this.tradeAgreementMessageTranslator = tradeAgreementMessageTranslator;
+    this.tradeAgreementProtoTranslator = tradeAgreementProtoTranslator;
+    this.objectMapper = objectMapper;
+    this.agreementReader = objectMapper.readerFor(TradeAgreementMessage.class);
+  }
+
+  /**
+   * Spawn missions from a JSON array of trade agreements, streaming the array element by element.
+   */
+  // The raw request and response are used instead of @RequestBody and a return value so that
+  // neither the agreements nor the mission paths are ever fully held in memory. There is no
+  // 'produces' since the response is always NDJSON, whatever content type would be negotiated.
+  @PostMapping(value = "${mvc.settleMissionsBulkPath}", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public void settleAgreementsJson(final HttpServletRequest request,
+      final HttpServletResponse response,
+      @RequestParam(value = "requestId", required = false) final String requestId)
+      throws IOException {
+
+    // if an external request id was provided, grab it
+    processRequestId(requestId);
+
+    // A root level JSON array is unwrapped by the iterator, which then binds one element at a time
+    try (MappingIterator<TradeAgreementMessage> messages =
+        agreementReader.readValues(request.getInputStream())) {
+      settleInChunks(() -> messages.hasNextValue()
+          ? tradeAgreementMessageTranslator.translate(messages.nextValue()) : null, response);
+    }
+  }
+
+  /**
+   * Spawn missions from a stream of length-delimited TradeAgreementProtoMessages, as written by
+   * MessageLite.writeDelimitedTo.
+   */
+  @PostMapping(value = "${mvc.settleMissionsBulkPath}", consumes = APPLICATION_X_PROTOBUF)
+  public void settleAgreementsProto(final HttpServletRequest request,
+      final HttpServletResponse response,
+      @RequestParam(value = "requestId", required = false) final String requestId)
+      throws IOException {
+
+    // if an external request id was provided, grab it
+    processRequestId(requestId);
+
+    InputStream body = request.getInputStream();
+    settleInChunks(() -> {
+      // parseDelimitedFrom returns null once the end of the stream is reached
+      TradeAgreementProtoMessage message = TradeAgreementProtoMessage.parseDelimitedFrom(body);
+      return message == null ? null : tradeAgreementProtoTranslator.translate(message);
+    }, response);
+  }
+
+  /**
+   * Reads agreements until the source is exhausted, settling and reporting them chunk by chunk.
+   */
+  private void settleInChunks(final AgreementSource source, final HttpServletResponse response)
+      throws IOException {
+
+    // Not closed since that would close the servlet output stream; the container does that for us
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+    // Each path is its own root level value, separated by newlines rather than the default space
+    generator.setRootValueSeparator(null);
+
+    List<TradeAgreement> chunk = new ArrayList<>(chunkSize);
+    long settled = 0;
+    try {
+      TradeAgreement agreement;
+      while ((agreement = nextAgreement(source)) != null) {
+        chunk.add(agreement);
+        if (chunk.size() == chunkSize) {
+          settled += settleChunk(chunk, response, generator);
+          chunk = new ArrayList<>(chunkSize);
+        }
+      }
+
+      if (!chunk.isEmpty()) {
+        settled += settleChunk(chunk, response, generator);
+      }
+    } catch (RuntimeException e) {
+      if (settled == 0) {
+        // Nothing has been written, so the exception handler can still set the status
+        throw e;
+      }
+      writeError(e, generator);
+      log.info("Settled {} agreement(s) in chunks of {} before failing", settled, chunkSize);
+      return;
+    }
+    response.setContentType(MvcConfig.APPLICATION_NDJSON_VALUE);
+    generator.flush();
+    log.info("Settled {} agreement(s) in chunks of {}", settled, chunkSize);
+  }
+
+  /**
+   * Spawns missions for one chunk and flushes their paths to the client.
+   *
+   * @return the number of missions spawned
+   */
+  private int settleChunk(final List<TradeAgreement> chunk, final HttpServletResponse response,
+      final JsonGenerator generator) throws IOException {
+    List<String> missionPaths = settleAgreementsInOrder(chunk, getMissionPath);
+    // Only set once something is written, so that errors raised before the first chunk is settled
+    // can still be rendered by the exception handler in the negotiated content type
+    response.setContentType(MvcConfig.APPLICATION_NDJSON_VALUE);
+    for (String missionPath : missionPaths) {
+      generator.writeString(missionPath);
+      generator.writeRaw('\n');
+    }
+    generator.flush();
+    return missionPaths.size();
+  }
+
+  /**
+   * Ends a stream that has already been committed with a record of why it failed, in place of the
+   * remaining paths.
+   */
+  private void writeError(final RuntimeException exception, final JsonGenerator generator)
+      throws IOException {
+    ApiError error;
+    if (exception instanceof ConstraintViolationException) {
+      log.debug("Invalid input data sent", exception);
+      error = new ApiError(HttpStatus.BAD_REQUEST,
+          ConstraintViolationMessageFormatter.toMessage((ConstraintViolationException) exception));
+    } else if (exception instanceof TranslationException) {
+      log.debug("Could not translate the request", exception);
+      error = new ApiError(HttpStatus.BAD_REQUEST, exception.getMessage());
+    } else {
+      log.error("Unexpected error while settling agreements", exception);
+      error = new ApiError(HttpStatus.INTERNAL_SERVER_ERROR,
+          "An internal application error occurred.");
+    }
+    objectMapper.writeValue(generator, error);
+    generator.writeRaw('\n');
+    generator.flush();
+  }
+
+  /**
+   * Reads the next agreement, converting malformed input into a TranslationException so that it is
+   * reported as a bad request rather than an I/O failure.
+   */
+  private static TradeAgreement nextAgreement(final AgreementSource source) throws IOException {
+    try {
+      return source.next();
+    } catch (JsonProcessingException | InvalidProtocolBufferException e) {
+      throw new TranslationException("Could not translate the message to a trade agreement.", e);
+    }
+  }
+
+  /**
+   * Supplies agreements read incrementally from a request body.
+   */
+  @FunctionalInterface
+  private interface AgreementSource {
+
+    /**
+     * Returns the next agreement, or null once the request body has been fully consumed.
+     */
+    TradeAgreement next() throws IOException;
+  }
+}
@@ -0,0 +1,89 @@
+package org.galatea.starter.entrypoint;
+
+import java.io.IOException;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.MvcConfig;
+import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.service.SettlementService;
+import org.galatea.starter.utils.http.converter.CsvSerializer;
+import org.galatea.starter.utils.http.converter.XlsxSerializer;
+import org.galatea.starter.utils.logging.Logged;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for exporting every settlement mission, as XLSX (the default) or CSV.
+ *
+ * <p>Unlike the getMissions endpoint of SettlementRestController, the missions are never all held
+ * in memory. They are pulled from the database a page at a time as the export is written. CSV rows
+ * are encoded straight into the response, and the spreadsheet only keeps mvc.xlsx.row-window rows
+ * in memory before flushing them to a temp file, so memory use stays constant however many
+ * missions there are.
+ */
+@Slf4j
+@Logged(level = Level.INFO)
+@Validated
+@RestController
+public class SettlementExportRestController extends BaseSettlementRestController {
+
+  @Value("${mvc.xlsx.row-window}")
+  private int rowWindow;
+
+  @Value("${mvc.xlsx.compress-temp-files}")
+  private boolean compressTempFiles;
+
+  /**
+   * Initializes a new instance of this class with the required arguments that will be autowired by
+   * spring boot. This constructor was manually added because of the base class that has no default
+   * constructor, necessitating a call to super() from here.
+   */
+  public SettlementExportRestController(final SettlementService settlementService) {
+    super(settlementService);
+  }
+
+  /**
+   * Export all missions as an XLSX spreadsheet.
+   */
+  // The raw response is written to instead of returning a SettlementMissionList, which would have
+  // to hold every mission. There is no 'produces' since the response is always XLSX, whatever
+  // content type would be negotiated, other than CSV.
+  @GetMapping(value = "${mvc.exportMissionsPath}")
+  public void exportMissionsXlsx(final HttpServletResponse response,
+      @RequestParam(value = "requestId", required = false) final String requestId)
+      throws IOException {
+
+    // if an external request id was provided, grab it
+    processRequestId(requestId);
+
+    response.setContentType(MvcConfig.APPLICATION_EXCEL_VALUE);
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+        "attachment; filename=SettlementMissions.xlsx");
+    XlsxSerializer.writeXlsx(scanMissionsInternal(), SettlementMission.class,
+        response.getOutputStream(), rowWindow, compressTempFiles);
+  }
+
+  /**
+   * Export all missions as a CSV document, when CSV is asked for with the Accept header or
+   * format=csv.
+   */
+  @GetMapping(value = "${mvc.exportMissionsPath}", produces = MvcConfig.TEXT_CSV_VALUE)
+  public void exportMissionsCsv(final HttpServletResponse response,
+      @RequestParam(value = "requestId", required = false) final String requestId)
+      throws IOException {
+
+    // if an external request id was provided, grab it
+    processRequestId(requestId);
+
+    response.setContentType(MvcConfig.TEXT_CSV_VALUE);
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+        "attachment; filename=SettlementMissions.csv");
+    CsvSerializer.writeCsv(scanMissionsInternal(), SettlementMission.class,
+        response.getOutputStream());
+  }
+}
@@ -0,0 +1,151 @@
+package org.galatea.starter.entrypoint;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.TextMessage;
+import javax.validation.ConstraintViolationException;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessage;
+import org.galatea.starter.service.SettlementService;
+import org.galatea.starter.utils.collections.LongHashSet;
+import org.galatea.starter.utils.translation.ITranslator;
+import org.galatea.starter.utils.translation.TranslationException;
+
+/**
+ * Batch counterpart of SettlementJmsListener, used instead of it when jms.batch.enabled is true.
+ *
+ * <p>All the agreements of a batch are settled with a single spawnMissions call, and so a single
+ * database transaction. Messages that can't be translated, or whose agreements are invalid, are
+ * handed to the failed message consumer and dropped from the batch, since redelivering them would
+ * never succeed; the rest of the batch is still settled. Any other failure propagates so that the
+ * whole batch is rolled back and redelivered.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class SettlementJmsBatchListener {
+
+  @NonNull
+  protected SettlementService settlementService;
+
+  @NonNull
+  protected ITranslator<byte[], TradeAgreement> tradeAgreementProtoTranslator;
+
+  @NonNull
+  protected ITranslator<TradeAgreementMessage, TradeAgreement> tradeAgreementMessageTranslator;
+
+  @NonNull
+  protected ObjectReader agreementMessageReader;
+
+  @NonNull
+  protected BiConsumer<Message, Exception> failedMessageConsumer;
+
+  /**
+   * Spawns missions for a batch of TradeAgreements pulled off the jms queue in JSON format. Like
+   * the converter of SettlementJmsListener, this accepts the JSON as a text or a bytes message.
+   */
+  public void settleAgreementsJson(final List<Message> messages) throws JMSException {
+    List<Message> translated = new ArrayList<>(messages.size());
+    List<TradeAgreement> agreements = new ArrayList<>(messages.size());
+    for (Message message : messages) {
+      try {
+        TradeAgreementMessage agreementMessage = message instanceof BytesMessage
+            ? agreementMessageReader.readValue(readBody((BytesMessage) message))
+            : agreementMessageReader.readValue(((TextMessage) message).getText());
+        agreements.add(tradeAgreementMessageTranslator.translate(agreementMessage));
+        translated.add(message);
+      } catch (IOException | ClassCastException | TranslationException e) {
+        failedMessageConsumer.accept(message, e);
+      }
+    }
+    settle(translated, agreements);
+  }
+
+  /**
+   * Spawns missions for a batch of TradeAgreements pulled off the jms queue in protobuf format.
+   */
+  public void settleAgreementsProto(final List<Message> messages) throws JMSException {
+    List<Message> translated = new ArrayList<>(messages.size());
+    List<TradeAgreement> agreements = new ArrayList<>(messages.size());
+    for (Message message : messages) {
+      try {
+        agreements.add(tradeAgreementProtoTranslator.translate(readBody((BytesMessage) message)));
+        translated.add(message);
+      } catch (ClassCastException | TranslationException e) {
+        failedMessageConsumer.accept(message, e);
+      }
+    }
+    settle(translated, agreements);
+  }
+
+  /**
+   * Settles the agreements, which were translated from the messages at the same indexes.
+   */
+  private void settle(final List<Message> messages, final List<TradeAgreement> agreements) {
+    List<Message> batchMessages = messages;
+    List<TradeAgreement> batch = agreements;
+    while (!batch.isEmpty()) {
+      log.info("Handling a batch of {} agreement(s)", batch.size());
+      try {
+        LongHashSet missionIds = settlementService.spawnMissions(batch);
+        log.info("Created missions {}", missionIds);
+        return;
+      } catch (ConstraintViolationException e) {
+        // Nothing was saved, so the batch can be settled again without the invalid agreements
+        Set<Object> invalid = Collections.newSetFromMap(new IdentityHashMap<>());
+        e.getConstraintViolations().forEach(violation -> invalid.add(violation.getRootBean()));
+
+        List<Message> validMessages = new ArrayList<>(batch.size());
+        List<TradeAgreement> valid = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+          if (invalid.contains(batch.get(i))) {
+            failedMessageConsumer.accept(batchMessages.get(i), e);
+          } else {
+            validMessages.add(batchMessages.get(i));
+            valid.add(batch.get(i));
+          }
+        }
+        if (valid.size() == batch.size()) {
+          settleOneByOne(batchMessages, batch);
+          return;
+        }
+        batchMessages = validMessages;
+        batch = valid;
+      }
+    }
+  }
+
+  /**
+   * Settles each agreement on its own, for violations that can't be traced back to the agreements
+   * (e.g. ones about the missions they map to).
+   */
+  private void settleOneByOne(final List<Message> messages, final List<TradeAgreement> agreements) {
+    log.warn("Settling a batch of {} agreement(s) one at a time", agreements.size());
+    for (int i = 0; i < agreements.size(); i++) {
+      try {
+        LongHashSet missionIds =
+            settlementService.spawnMissions(Collections.singletonList(agreements.get(i)));
+        log.info("Created missions {}", missionIds);
+      } catch (ConstraintViolationException e) {
+        failedMessageConsumer.accept(messages.get(i), e);
+      }
+    }
+  }
+
+  private static byte[] readBody(final BytesMessage message) throws JMSException {
+    byte[] body = new byte[(int) message.getBodyLength()];
+    message.readBytes(body);
+    return body;
+  }
+}
@@ -1,20 +1,23 @@
 package org.galatea.starter.entrypoint;
 
 import java.util.Arrays;
-import java.util.Set;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.galatea.starter.domain.TradeAgreement;
 import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessage;
 import org.galatea.starter.service.SettlementService;
+import org.galatea.starter.utils.collections.LongHashSet;
 import org.galatea.starter.utils.translation.ITranslator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.stereotype.Component;
 
 @RequiredArgsConstructor
 @Slf4j
 @Component
+// Replaced by SettlementJmsBatchListener when batch ingestion is enabled
+@ConditionalOnProperty(name = "jms.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class SettlementJmsListener {
 
   @NonNull
@@ -35,7 +38,7 @@ public class SettlementJmsListener {
     log.info("Handling agreements {}", agreementMessage);
 
     TradeAgreement agreement = tradeAgreementMessageTranslator.translate(agreementMessage);
-    Set<Long> missionIds = settlementService.spawnMissions(Arrays.asList(agreement));
+    LongHashSet missionIds = settlementService.spawnMissions(Arrays.asList(agreement));
     log.info("Created missions {}", missionIds);
   }
 
@@ -50,7 +53,7 @@ public class SettlementJmsListener {
 
     log.info("Handling agreement {}", agreement);
 
-    Set<Long> missionIds = settlementService.spawnMissions(Arrays.asList(agreement));
+    LongHashSet missionIds = settlementService.spawnMissions(Arrays.asList(agreement));
     log.info("Created missions {}", missionIds);
   }
 }
@@ -1,48 +1,59 @@
 package org.galatea.starter.entrypoint;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import net.sf.aspect4log.Log;
-import net.sf.aspect4log.Log.Level;
 import org.galatea.starter.domain.SettlementMission;
 import org.galatea.starter.domain.TradeAgreement;
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.SettlementMissionProtoMessage;
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.SettlementResponseProtoMessage;
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessages;
 import org.galatea.starter.service.SettlementService;
+import org.galatea.starter.utils.logging.Logged;
+import org.galatea.starter.utils.rest.ResponseSnapshotCache;
 import org.galatea.starter.utils.translation.ITranslator;
+import org.slf4j.event.Level;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
 
 /**
  * REST controller that mimics the behavior of SettlementRestController but accepts and returns only
  * protobuf messages.
  */
 @Slf4j
-@Log(enterLevel = Level.INFO, exitLevel = Level.INFO)
+@Logged(level = Level.INFO)
 @Validated
 @RestController
 public class SettlementProtoRestController extends BaseSettlementRestController {
 
   private static final String APPLICATION_X_PROTOBUF = "application/x-protobuf";
 
+  private static final List<MediaType> MISSION_MEDIA_TYPES =
+      List.of(MediaType.valueOf(APPLICATION_X_PROTOBUF));
+
   @NonNull
   private ITranslator<SettlementMission, SettlementMissionProtoMessage> settlementMissionTranslator;
 
   @NonNull
   private ITranslator<TradeAgreementProtoMessages, List<TradeAgreement>> tradeAgreementTranslator;
 
+  @NonNull
+  private ResponseSnapshotCache responseSnapshots;
+
   @Value("${mvc.settleMissionPath}")
   private String settleMissionPath;
 
@@ -57,10 +68,12 @@ public class SettlementProtoRestController extends BaseSettlementRestController
   public SettlementProtoRestController(final SettlementService settlementService,
       final ITranslator<TradeAgreementProtoMessages, List<TradeAgreement>> tradeAgreementTranslator,
       final ITranslator<SettlementMission, SettlementMissionProtoMessage>
-          settlementMissionTranslator) {
+          settlementMissionTranslator,
+      final ResponseSnapshotCache responseSnapshots) {
     super(settlementService);
     this.settlementMissionTranslator = settlementMissionTranslator;
     this.tradeAgreementTranslator = tradeAgreementTranslator;
+    this.responseSnapshots = responseSnapshots;
   }
 
   /**
@@ -82,18 +95,22 @@ public class SettlementProtoRestController extends BaseSettlementRestController
   }
 
   /**
-   * Retrieves existing settlement mission messages.
+   * Retrieves existing settlement mission messages. Like SettlementRestController's, the response
+   * is written from a snapshot of the mission's version when there is one, and carries an ETag.
    */
   @GetMapping(value = "${mvc.getMissionPath}" + "{id}", produces = APPLICATION_X_PROTOBUF)
-  public ResponseEntity<SettlementMissionProtoMessage> getMission(@PathVariable final Long id,
-      @RequestParam(value = "requestId", required = false) final String requestId) {
+  public ResponseEntity<byte[]> getMission(@PathVariable final Long id,
+      @RequestParam(value = "requestId", required = false) final String requestId,
+      final NativeWebRequest request) throws HttpMediaTypeNotAcceptableException, IOException {
     // if an external request id was provided, grab it
     processRequestId(requestId);
 
     Optional<SettlementMission> msn = getMissionInternal(id);
 
     if (msn.isPresent()) {
-      return new ResponseEntity<>(settlementMissionTranslator.translate(msn.get()), HttpStatus.OK);
+      SettlementMission mission = msn.get();
+      return responseSnapshots.respond(request, missionResource(id), mission.getVersion(),
+          MISSION_MEDIA_TYPES, () -> settlementMissionTranslator.translate(mission));
     }
 
     // An HTTP request that gets here will be expecting a protobuf response body, so we can't throw
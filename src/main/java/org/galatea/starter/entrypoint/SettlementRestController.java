@@ -1,28 +1,36 @@
 package org.galatea.starter.entrypoint;
 
-import java.util.Arrays;
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import javax.validation.constraints.Min;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import net.sf.aspect4log.Log;
-import net.sf.aspect4log.Log.Level;
 import org.galatea.starter.MvcConfig;
+import org.galatea.starter.domain.Direction;
+import org.galatea.starter.domain.MissionFilter;
+import org.galatea.starter.domain.MissionPage;
 import org.galatea.starter.domain.SettlementMission;
 import org.galatea.starter.domain.TradeAgreement;
 import org.galatea.starter.entrypoint.exception.EntityNotFoundException;
 import org.galatea.starter.entrypoint.messagecontracts.SettlementMissionList;
 import org.galatea.starter.entrypoint.messagecontracts.SettlementMissionMessage;
+import org.galatea.starter.entrypoint.messagecontracts.SettlementMissionPageMessage;
 import org.galatea.starter.entrypoint.messagecontracts.SettlementResponseMessage;
 import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessages;
 import org.galatea.starter.service.SettlementService;
+import org.galatea.starter.utils.collections.LongCsvParser;
+import org.galatea.starter.utils.logging.Logged;
+import org.galatea.starter.utils.rest.ResponseSnapshotCache;
 import org.galatea.starter.utils.translation.ITranslator;
+import org.slf4j.event.Level;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -31,17 +39,21 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
 
 /**
  * REST Controller that generates and listens to http endpoints which allow the caller to create
  * Missions from TradeAgreements and query them back out.
  */
 @Slf4j
-@Log(enterLevel = Level.INFO, exitLevel = Level.INFO)
+@Logged(level = Level.INFO)
 @Validated
 @RestController
 public class SettlementRestController extends BaseSettlementRestController {
 
+  private static final List<MediaType> MISSION_MEDIA_TYPES =
+      List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML);
+
   @NonNull
   ITranslator<SettlementMission, SettlementMissionMessage> settlementMissionTranslator;
 
@@ -51,12 +63,21 @@ public class SettlementRestController extends BaseSettlementRestController {
   @NonNull
   ITranslator<TradeAgreementMessages, List<TradeAgreement>> tradeAgreementTranslator;
 
+  @NonNull
+  ResponseSnapshotCache responseSnapshots;
+
   @Value("${mvc.settleMissionPath}")
   private String settleMissionPath;
 
   @Value("${mvc.getMissionPath}")
   private String getMissionPath;
 
+  @Value("${mvc.query.default-page-size}")
+  private int defaultPageSize;
+
+  @Value("${mvc.query.max-page-size}")
+  private int maxPageSize;
+
   /**
    * Initializes a new instance of this class with the required arguments that will be autowired by
    * spring boot. This constructor was manually added because of the base class that has no default
@@ -66,11 +87,13 @@ public class SettlementRestController extends BaseSettlementRestController {
       final ITranslator<TradeAgreementMessages, List<TradeAgreement>> tradeAgreementTranslator,
       final ITranslator<SettlementMission, SettlementMissionMessage> settlementMissionTranslator,
       final ITranslator<SettlementMissionMessage, SettlementMission>
-          settlementMissionMsgTranslator) {
+          settlementMissionMsgTranslator,
+      final ResponseSnapshotCache responseSnapshots) {
     super(settlementService);
     this.tradeAgreementTranslator = tradeAgreementTranslator;
     this.settlementMissionTranslator = settlementMissionTranslator;
     this.settlementMissionMsgTranslator = settlementMissionMsgTranslator;
+    this.responseSnapshots = responseSnapshots;
   }
 
   /**
@@ -96,7 +119,9 @@ public class SettlementRestController extends BaseSettlementRestController {
   }
 
   /**
-   * Retrieve a previously generated Mission.
+   * Retrieve a previously generated Mission. The response is written from a snapshot of the
+   * mission's version, if it has been read in the same format before, and carries an ETag so that
+   * a client already holding that version gets a 304 instead.
    */
   // @GetMapping to link http GET requests to this method
   // @PathVariable to take the id from the path and make it available as a method argument
@@ -104,8 +129,9 @@ public class SettlementRestController extends BaseSettlementRestController {
   @GetMapping(value = "${mvc.getMissionPath}" + "{id}", produces = {
       MediaType.APPLICATION_JSON_VALUE,
       MediaType.APPLICATION_XML_VALUE})
-  public SettlementMissionMessage getMission(@PathVariable final Long id,
-      @RequestParam(value = "requestId", required = false) final String requestId) {
+  public ResponseEntity<byte[]> getMission(@PathVariable final Long id,
+      @RequestParam(value = "requestId", required = false) final String requestId,
+      final NativeWebRequest request) throws HttpMediaTypeNotAcceptableException, IOException {
 
     // if an external request id was provided, grab it
     processRequestId(requestId);
@@ -113,7 +139,9 @@ public class SettlementRestController extends BaseSettlementRestController {
     Optional<SettlementMission> msn = getMissionInternal(id);
 
     if (msn.isPresent()) {
-      return settlementMissionTranslator.translate(msn.get());
+      SettlementMission mission = msn.get();
+      return responseSnapshots.respond(request, missionResource(id), mission.getVersion(),
+          MISSION_MEDIA_TYPES, () -> settlementMissionTranslator.translate(mission));
     }
 
     throw new EntityNotFoundException(SettlementMission.class, id.toString());
@@ -137,14 +165,47 @@ public class SettlementRestController extends BaseSettlementRestController {
     // if an external request id was provided, grab it
     processRequestId(requestId);
 
-    List<Long> idLongs = Arrays.stream(ids.split(","))
-        .map(Long::parseLong)
-        .collect(Collectors.toList());
-    List<SettlementMission> missions = getMissionsInternal(idLongs);
+    List<SettlementMission> missions = getMissionsInternal(LongCsvParser.parse(ids));
 
     return new SettlementMissionList(missions);
   }
 
+  /**
+   * Query missions by depot, instrument, external party and direction, a page at a time.
+   */
+  // Filters that aren't given match every mission. Pages are keyed by mission id rather than by
+  // offset, so fetching a page costs the same however deep into the results it is
+  @GetMapping(value = "${mvc.queryMissionsPath}", produces = {
+      MediaType.APPLICATION_JSON_VALUE,
+      MediaType.APPLICATION_XML_VALUE})
+  public SettlementMissionPageMessage queryMissions(
+      @RequestParam(value = "depot", required = false) final String depot,
+      @RequestParam(value = "instrument", required = false) final String instrument,
+      @RequestParam(value = "externalParty", required = false) final String externalParty,
+      @RequestParam(value = "direction", required = false) final Direction direction,
+      // @RequestParam to take the nextCursor of the previous page, if this isn't the first page
+      @RequestParam(value = "cursor", required = false) final String cursor,
+      @RequestParam(value = "pageSize", required = false)
+      @Min(value = 1, message = "Page size must be at least 1") final Integer pageSize,
+      @RequestParam(value = "requestId", required = false) final String requestId) {
+
+    // if an external request id was provided, grab it
+    processRequestId(requestId);
+
+    MissionFilter filter = MissionFilter.builder().depot(depot).instrument(instrument)
+        .externalParty(externalParty).direction(direction).build();
+    Long afterId = cursor == null ? null : MissionCursors.decode(cursor);
+    int size = pageSize == null ? defaultPageSize : Math.min(pageSize, maxPageSize);
+
+    MissionPage page = getMissionPageInternal(filter, afterId, size);
+
+    return SettlementMissionPageMessage.builder()
+        .settlementMissions(page.getMissions())
+        .nextCursor(page.getNextAfterId() == null
+            ? null : MissionCursors.encode(page.getNextAfterId()))
+        .build();
+  }
+
   /**
    * Update an existing mission given an ID.
    */
@@ -166,6 +227,7 @@ public class SettlementRestController extends BaseSettlementRestController {
         settlementMissionMsgTranslator.translate(settlementMissionMessage);
 
     Optional<SettlementMission> msn = updateMissionInternal(id, settlementMission);
+    responseSnapshots.invalidate(missionResource(id));
 
     if (!msn.isPresent()) {
       // The mission was not found and could not be updated
@@ -190,6 +252,7 @@ public class SettlementRestController extends BaseSettlementRestController {
 
     try {
       deleteMissionInternal(id);
+      responseSnapshots.invalidate(missionResource(id));
     } catch (EmptyResultDataAccessException e) {
       // The entity could not be deleted because it does not exist
       throw new EntityNotFoundException(SettlementMission.class, id.toString(), e);
@@ -0,0 +1,22 @@
+package org.galatea.starter.entrypoint.exception;
+
+/**
+ * Thrown when market data can't be retrieved from IEX: it failed or was too slow to respond, or
+ * there were already too many calls to it in flight.
+ */
+public class MarketDataUnavailableException extends RuntimeException {
+
+  /**
+   * Create a MarketDataUnavailableException.
+   */
+  public MarketDataUnavailableException(final String message) {
+    super(message);
+  }
+
+  /**
+   * Create a MarketDataUnavailableException, including it's cause.
+   */
+  public MarketDataUnavailableException(final String message, final Throwable cause) {
+    super(message, cause);
+  }
+}
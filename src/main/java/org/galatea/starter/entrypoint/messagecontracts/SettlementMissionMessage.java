@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.galatea.starter.domain.Direction;
 
 @AllArgsConstructor(access = AccessLevel.PRIVATE)
 @NoArgsConstructor(access = AccessLevel.PRIVATE) // For spring and jackson
@@ -18,7 +19,7 @@ public class SettlementMissionMessage {
   protected String instrument;
   protected String externalParty;
   protected String depot;
-  protected String direction;
+  protected Direction direction;
   protected Double qty;
   protected Long version;
 }
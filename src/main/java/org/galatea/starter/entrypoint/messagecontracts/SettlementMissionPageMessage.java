@@ -0,0 +1,31 @@
+package org.galatea.starter.entrypoint.messagecontracts;
+
+import java.util.List;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.galatea.starter.domain.SettlementMission;
+
+/**
+ * One page of the missions matching a mission query. To get the next page, repeat the query with
+ * cursor set to nextCursor; nextCursor is absent on the last page.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE) // For builder
+@NoArgsConstructor(access = AccessLevel.PRIVATE) // For spring and jackson
+@Builder
+@Data
+@XmlRootElement(name = "settlementMissionPage")
+@XmlAccessorType(XmlAccessType.FIELD) // required if using lombok to avoid duplicate properties
+public class SettlementMissionPageMessage {
+
+  @XmlElement(name = "settlementMission")
+  protected List<SettlementMission> settlementMissions;
+
+  protected String nextCursor;
+}
@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.domain.Side;
 
 @AllArgsConstructor(access = AccessLevel.PRIVATE) // For builder
 @NoArgsConstructor(access = AccessLevel.PRIVATE) // For spring and jackson
@@ -19,6 +20,6 @@ public class TradeAgreementMessage {
   protected String instrument;
   protected String internalParty;
   protected String externalParty;
-  protected String buySell;
+  protected Side buySell;
   protected Double qty;
 }
@@ -0,0 +1,188 @@
+package org.galatea.starter.service;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.rpsy.ISettlementMissionRpsy;
+
+/**
+ * Mission cache backed by Caffeine.
+ *
+ * <p>Caffeine bounds the cache with W-TinyLFU, which only admits a new entry over the eviction
+ * candidate if it is accessed more frequently, so one-off lookups don't flush out the missions that
+ * are being polled. Loads run asynchronously on the given executor and each key is loaded at most
+ * once at a time, without blocking readers of other keys.
+ *
+ * <p>Ids that don't exist are cached as empty, but only for negativeTtl, so a poll for a mission
+ * that hasn't been spawned yet doesn't hit the database every time but still sees it soon after.
+ *
+ * <p>Bulk lookups load all the ids that aren't cached with a single findAllById query.
+ */
+@Slf4j
+public class CaffeineMissionCache implements IMissionCache {
+
+  @NonNull
+  private final AsyncLoadingCache<Long, Optional<SettlementMission>> cache;
+
+  /**
+   * Creates a cache that loads missions from the given repository.
+   *
+   * @param missionrpsy the repository to load missions from
+   * @param maximumSize the maximum number of ids, present or absent, to cache
+   * @param ttl how long a mission is cached for
+   * @param negativeTtl how long the absence of a mission is cached for
+   * @param loaderExecutor the executor that loads missions
+   * @param ticker the time source used for expiry
+   */
+  public CaffeineMissionCache(final ISettlementMissionRpsy missionrpsy, final long maximumSize,
+      final Duration ttl, final Duration negativeTtl, final Executor loaderExecutor,
+      final Ticker ticker) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new PresenceExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+        .executor(loaderExecutor)
+        .ticker(ticker)
+        .recordStats()
+        .buildAsync(new MissionLoader(missionrpsy));
+  }
+
+  @Override
+  public CompletableFuture<Optional<SettlementMission>> getAsync(final Long id) {
+    return cache.get(id);
+  }
+
+  @Override
+  public Optional<SettlementMission> get(final Long id) {
+    try {
+      return cache.get(id).join();
+    } catch (CompletionException e) {
+      throw unwrap(e);
+    }
+  }
+
+  @Override
+  public CompletableFuture<Map<Long, Optional<SettlementMission>>> getAllAsync(
+      final Iterable<Long> ids) {
+    return cache.getAll(ids);
+  }
+
+  @Override
+  public Map<Long, Optional<SettlementMission>> getAll(final Iterable<Long> ids) {
+    try {
+      return cache.getAll(ids).join();
+    } catch (CompletionException e) {
+      throw unwrap(e);
+    }
+  }
+
+  @Override
+  public void invalidate(final Long id) {
+    cache.synchronous().invalidate(id);
+  }
+
+  @Override
+  public void invalidateAll(final Iterable<Long> ids) {
+    cache.synchronous().invalidateAll(ids);
+  }
+
+  @Override
+  public MissionCacheStats stats() {
+    CacheStats stats = cache.synchronous().stats();
+    return MissionCacheStats.builder()
+        .hitCount(stats.hitCount())
+        .missCount(stats.missCount())
+        .evictionCount(stats.evictionCount())
+        .loadSuccessCount(stats.loadSuccessCount())
+        .loadFailureCount(stats.loadFailureCount())
+        .totalLoadTimeNanos(stats.totalLoadTime())
+        .estimatedSize(cache.synchronous().estimatedSize())
+        .build();
+  }
+
+  /**
+   * Returns what the repository threw, so that it is handled the same as without the cache.
+   */
+  private static RuntimeException unwrap(final CompletionException exception) {
+    if (exception.getCause() instanceof RuntimeException) {
+      return (RuntimeException) exception.getCause();
+    }
+    return exception;
+  }
+
+  /**
+   * Loads missions from the repository, recording the ids that don't exist as empty so that they
+   * are negatively cached too.
+   */
+  private static class MissionLoader implements CacheLoader<Long, Optional<SettlementMission>> {
+
+    private final ISettlementMissionRpsy missionrpsy;
+
+    MissionLoader(final ISettlementMissionRpsy missionrpsy) {
+      this.missionrpsy = missionrpsy;
+    }
+
+    @Override
+    public Optional<SettlementMission> load(final Long id) {
+      return missionrpsy.findById(id);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked") // Long is final, so the ids can only ever be Longs
+    public Map<Long, Optional<SettlementMission>> loadAll(final Iterable<? extends Long> ids) {
+      Map<Long, Optional<SettlementMission>> missions = new HashMap<>();
+      for (SettlementMission mission : missionrpsy.findAllById((Iterable<Long>) ids)) {
+        missions.put(mission.getId(), Optional.of(mission));
+      }
+      for (Long id : ids) {
+        missions.putIfAbsent(id, Optional.empty());
+      }
+      return missions;
+    }
+  }
+
+  /**
+   * Expires missions after the ttl and absent ids after the (shorter) negative ttl, measured from
+   * when they were loaded.
+   */
+  private static class PresenceExpiry implements Expiry<Long, Optional<SettlementMission>> {
+
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+
+    PresenceExpiry(final long ttlNanos, final long negativeTtlNanos) {
+      this.ttlNanos = ttlNanos;
+      this.negativeTtlNanos = negativeTtlNanos;
+    }
+
+    @Override
+    public long expireAfterCreate(final Long id, final Optional<SettlementMission> mission,
+        final long currentTime) {
+      return mission.isPresent() ? ttlNanos : negativeTtlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(final Long id, final Optional<SettlementMission> mission,
+        final long currentTime, final long currentDuration) {
+      return expireAfterCreate(id, mission, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(final Long id, final Optional<SettlementMission> mission,
+        final long currentTime, final long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
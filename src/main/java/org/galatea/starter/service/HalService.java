@@ -3,12 +3,12 @@ package org.galatea.starter.service;
 import java.util.Random;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.sf.aspect4log.Log;
+import org.galatea.starter.utils.logging.Logged;
 import org.springframework.stereotype.Service;
 
 @RequiredArgsConstructor
 @Slf4j
-@Log
+@Logged
 @Service
 public class HalService {
 
@@ -0,0 +1,151 @@
+package org.galatea.starter.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.domain.IexLastTradedPrice;
+import org.galatea.starter.domain.IexSymbol;
+import org.galatea.starter.entrypoint.exception.MarketDataUnavailableException;
+import org.springframework.http.MediaType;
+
+/**
+ * IAsyncIexClient on the JDK's HttpClient.
+ *
+ * <p>Connections to IEX are kept alive and reused across calls. Each call has its own timeout,
+ * and the number of calls in flight is capped: once at the cap, further calls fail straight away
+ * rather than queueing behind a slow IEX, so callers are never held up by it for longer than the
+ * timeout. Any failure, including a timeout or an error status, completes the call with a
+ * MarketDataUnavailableException.
+ */
+@ToString(of = {"basePath", "requestTimeout", "maxConcurrentCalls"})
+@Slf4j
+public class HttpIexClient implements IAsyncIexClient {
+
+  private final HttpClient httpClient;
+
+  private final String basePath;
+
+  private final Duration requestTimeout;
+
+  private final int maxConcurrentCalls;
+
+  private final Semaphore callPermits;
+
+  private final ObjectReader symbolsReader;
+
+  private final ObjectReader pricesReader;
+
+  /**
+   * Creates a client.
+   *
+   * @param basePath the url IEX paths are relative to
+   * @param objectMapper used to read IEX's JSON responses
+   * @param connectTimeout how long to wait for a connection to IEX to be established
+   * @param requestTimeout how long to wait for IEX to respond to each call
+   * @param maxConcurrentCalls how many calls can be in flight at once
+   * @param executor runs the client's internal tasks and completes the calls' futures
+   */
+  public HttpIexClient(@NonNull final String basePath, @NonNull final ObjectMapper objectMapper,
+      @NonNull final Duration connectTimeout, @NonNull final Duration requestTimeout,
+      final int maxConcurrentCalls, @NonNull final Executor executor) {
+    this.basePath = basePath.endsWith("/") ? basePath.substring(0, basePath.length() - 1)
+        : basePath;
+    this.requestTimeout = requestTimeout;
+    this.maxConcurrentCalls = maxConcurrentCalls;
+    this.callPermits = new Semaphore(maxConcurrentCalls);
+    this.symbolsReader = objectMapper.readerFor(new TypeReference<List<IexSymbol>>() {});
+    this.pricesReader = objectMapper.readerFor(new TypeReference<List<IexLastTradedPrice>>() {});
+    this.httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(connectTimeout)
+        .executor(executor)
+        .build();
+  }
+
+  @Override
+  public CompletableFuture<List<IexSymbol>> getAllSymbols() {
+    return get("/ref-data/symbols", symbolsReader);
+  }
+
+  @Override
+  public CompletableFuture<List<IexLastTradedPrice>> getLastTradedPriceForSymbols(
+      final String[] symbols) {
+    // Each symbol is encoded, but not the commas between them, which IEX splits the list on
+    String symbolList = Arrays.stream(symbols)
+        .map(symbol -> URLEncoder.encode(symbol, StandardCharsets.UTF_8))
+        .collect(Collectors.joining(","));
+    return get("/tops/last?symbols=" + symbolList, pricesReader);
+  }
+
+  private <T> CompletableFuture<T> get(final String path, final ObjectReader reader) {
+    if (!callPermits.tryAcquire()) {
+      return CompletableFuture.failedFuture(new MarketDataUnavailableException(
+          "Too many calls to IEX in flight (" + maxConcurrentCalls + ")"));
+    }
+    CompletableFuture<HttpResponse<byte[]>> response;
+    try {
+      HttpRequest request = HttpRequest.newBuilder(URI.create(basePath + path))
+          .timeout(requestTimeout)
+          .header("Accept", MediaType.APPLICATION_JSON_VALUE)
+          .GET()
+          .build();
+      response = httpClient.sendAsync(request, BodyHandlers.ofByteArray());
+    } catch (RuntimeException e) {
+      callPermits.release();
+      return CompletableFuture.failedFuture(
+          new MarketDataUnavailableException("Could not call IEX at " + path, e));
+    }
+    // Released before the result completes, so a caller can call again as soon as it has it
+    return response.whenComplete((r, e) -> callPermits.release())
+        .thenApply(r -> this.<T>read(path, r, reader))
+        .exceptionally(e -> {
+          throw failure(path, e);
+        });
+  }
+
+  private <T> T read(final String path, final HttpResponse<byte[]> response,
+      final ObjectReader reader) {
+    if (response.statusCode() != 200) {
+      throw new MarketDataUnavailableException(
+          "IEX returned status " + response.statusCode() + " for " + path);
+    }
+    try {
+      return reader.readValue(response.body());
+    } catch (IOException e) {
+      throw new MarketDataUnavailableException("Could not read IEX's response for " + path, e);
+    }
+  }
+
+  private MarketDataUnavailableException failure(final String path, final Throwable exception) {
+    Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+        ? exception.getCause() : exception;
+    if (cause instanceof MarketDataUnavailableException) {
+      return (MarketDataUnavailableException) cause;
+    }
+    if (cause instanceof HttpTimeoutException) {
+      return new MarketDataUnavailableException(
+          "IEX did not respond within " + requestTimeout.toMillis() + "ms for " + path, cause);
+    }
+    return new MarketDataUnavailableException("Could not call IEX at " + path, cause);
+  }
+}
@@ -0,0 +1,28 @@
+package org.galatea.starter.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.galatea.starter.domain.IexLastTradedPrice;
+import org.galatea.starter.domain.IexSymbol;
+
+/**
+ * Non-blocking counterpart of IexClient: calls return as soon as the request has been sent, and
+ * no thread waits for IEX to respond.
+ */
+public interface IAsyncIexClient {
+
+  /**
+   * Get a list of all stocks supported by IEX. See https://iextrading.com/developer/docs/#symbols.
+   *
+   * @return a future of all of the stock symbols supported by IEX.
+   */
+  CompletableFuture<List<IexSymbol>> getAllSymbols();
+
+  /**
+   * Get the last traded price for each stock symbol passed in. See https://iextrading.com/developer/docs/#last.
+   *
+   * @param symbols stock symbols to get last traded price for.
+   * @return a future of the last traded price for each of the symbols passed in.
+   */
+  CompletableFuture<List<IexLastTradedPrice>> getLastTradedPriceForSymbols(String[] symbols);
+}
@@ -0,0 +1,30 @@
+package org.galatea.starter.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.galatea.starter.domain.IexLastTradedPrice;
+
+/**
+ * Read-through cache of the market data IEX provides, so that callers don't each go to IEX.
+ */
+public interface IMarketDataGateway {
+
+  /**
+   * Returns the store of all the stock symbols supported by IEX, loading them asynchronously if
+   * they haven't been yet. Concurrent callers share a single load.
+   */
+  CompletableFuture<IexSymbolStore> getSymbolsAsync();
+
+  /**
+   * Returns the last traded price of each of the given symbols that IEX has a price for, in the
+   * order the symbols were given. Symbols that aren't cached are loaded together, asynchronously,
+   * and symbols already being loaded for another caller are waited for rather than loaded again.
+   */
+  CompletableFuture<List<IexLastTradedPrice>> getLastTradedPricesAsync(Collection<String> symbols);
+
+  /**
+   * Returns a snapshot of the gateway's statistics.
+   */
+  MarketDataGatewayStats stats();
+}
@@ -0,0 +1,50 @@
+package org.galatea.starter.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import org.galatea.starter.domain.SettlementMission;
+
+/**
+ * Read-through cache of settlement missions by id, including ids that don't exist.
+ */
+public interface IMissionCache {
+
+  /**
+   * Returns the mission with the given id, loading it asynchronously if it isn't cached. Concurrent
+   * requests for the same id share a single load.
+   */
+  CompletableFuture<Optional<SettlementMission>> getAsync(Long id);
+
+  /**
+   * Returns the mission with the given id, blocking until it has been loaded if it isn't cached.
+   */
+  Optional<SettlementMission> get(Long id);
+
+  /**
+   * Returns the missions with the given ids, keyed by id in the order the ids were given. Ids that
+   * aren't cached are loaded together, asynchronously.
+   */
+  CompletableFuture<Map<Long, Optional<SettlementMission>>> getAllAsync(Iterable<Long> ids);
+
+  /**
+   * Returns the missions with the given ids, keyed by id in the order the ids were given, blocking
+   * until the ids that aren't cached have been loaded together.
+   */
+  Map<Long, Optional<SettlementMission>> getAll(Iterable<Long> ids);
+
+  /**
+   * Discards the cached entry, present or absent, for the given id.
+   */
+  void invalidate(Long id);
+
+  /**
+   * Discards the cached entries, present or absent, for the given ids.
+   */
+  void invalidateAll(Iterable<Long> ids);
+
+  /**
+   * Returns a snapshot of the cache's statistics.
+   */
+  MissionCacheStats stats();
+}
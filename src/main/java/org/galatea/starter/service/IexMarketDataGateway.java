@@ -0,0 +1,304 @@
+package org.galatea.starter.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.domain.IexLastTradedPrice;
+import org.galatea.starter.utils.MicroBatcher;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Market data gateway in front of the IEX client, backed by Caffeine.
+ *
+ * <p>The symbol list is reference data: it is loaded on first use and then refreshed in the
+ * background every symbolRefreshInterval, so callers are always served from memory. It is held in
+ * an IexSymbolStore, whose JSON is serialized once per load. A refresh that loads the same symbols
+ * keeps the current store, and if a refresh fails the current store is kept too and the next
+ * refresh tries again.
+ *
+ * <p>Last traded prices are cached per symbol for priceTtl, including symbols IEX has no price
+ * for. The symbols of a lookup that aren't cached are fetched with a single call to IEX, and a
+ * symbol that is already being fetched for another caller is waited for instead of being fetched
+ * again, so concurrent callers asking for overlapping symbols share the upstream calls.
+ *
+ * <p>Prices that do need loading are micro-batched across callers: the symbols of loads that start
+ * within priceBatchWindow of each other, up to priceBatchSize of them, are fetched with a single
+ * call to IEX, whose results are then fanned back out to each load.
+ *
+ * <p>The client is asynchronous, so no thread waits on IEX unless the caller chooses to block.
+ */
+@ToString(of = {"symbolRefreshInterval", "priceTtl", "priceBatcher"})
+@Slf4j
+public class IexMarketDataGateway implements IMarketDataGateway, SmartLifecycle {
+
+  /**
+   * The one key of the symbol cache.
+   */
+  private static final String ALL_SYMBOLS = "*";
+
+  private final IAsyncIexClient iexClient;
+
+  private final ObjectWriter symbolWriter;
+
+  private final AsyncLoadingCache<String, IexSymbolStore> symbolCache;
+
+  private final AsyncLoadingCache<String, Optional<IexLastTradedPrice>> priceCache;
+
+  private final MicroBatcher<String, Optional<IexLastTradedPrice>> priceBatcher;
+
+  private final ScheduledExecutorService executor;
+
+  private final Ticker ticker;
+
+  private final Duration symbolRefreshInterval;
+
+  private final Duration priceTtl;
+
+  private final LongAdder symbolUpstreamCalls = new LongAdder();
+
+  private final LongAdder priceUpstreamCalls = new LongAdder();
+
+  private final LongAdder symbolUpstreamNanos = new LongAdder();
+
+  private final LongAdder priceUpstreamNanos = new LongAdder();
+
+  private final LongAdder upstreamFailures = new LongAdder();
+
+  private ScheduledFuture<?> symbolRefresh;
+
+  /**
+   * The store most recently loaded, which a refresh that loads the same symbols keeps.
+   */
+  private volatile IexSymbolStore currentSymbols;
+
+  /**
+   * Creates a gateway that loads market data with the given client.
+   *
+   * @param iexClient the client to load market data from
+   * @param objectMapper used to serialize the symbol list once per load, configured as the
+   *     responses it is written to are
+   * @param symbolRefreshInterval how often the symbol list is refreshed, once it has been loaded
+   * @param priceTtl how long a last traded price is cached for
+   * @param maximumPrices the maximum number of symbols to cache prices for
+   * @param priceBatchWindow how long price loads are collected for before they are fetched
+   * @param priceBatchSize the number of symbols at which price loads are fetched without waiting
+   * @param executor the executor that completes loads and schedules symbol refreshes and batches
+   * @param ticker the time source used for expiry and to time calls to IEX
+   */
+  public IexMarketDataGateway(@NonNull final IAsyncIexClient iexClient,
+      @NonNull final ObjectMapper objectMapper, @NonNull final Duration symbolRefreshInterval,
+      @NonNull final Duration priceTtl, final long maximumPrices,
+      @NonNull final Duration priceBatchWindow, final int priceBatchSize,
+      @NonNull final ScheduledExecutorService executor, @NonNull final Ticker ticker) {
+    this.iexClient = iexClient;
+    this.symbolWriter = objectMapper.writer();
+    this.symbolRefreshInterval = symbolRefreshInterval;
+    this.priceTtl = priceTtl;
+    this.executor = executor;
+    this.ticker = ticker;
+    this.priceBatcher = new MicroBatcher<>(this::loadPrices, priceBatchWindow.toNanos(),
+        priceBatchSize, executor);
+    this.symbolCache = Caffeine.newBuilder()
+        .executor(executor)
+        .ticker(ticker)
+        .recordStats()
+        .buildAsync((AsyncCacheLoader<String, IexSymbolStore>) (key, loadExecutor) ->
+            loadSymbols());
+    this.priceCache = Caffeine.newBuilder()
+        .maximumSize(maximumPrices)
+        .expireAfterWrite(priceTtl)
+        .executor(executor)
+        .ticker(ticker)
+        .recordStats()
+        .buildAsync(new PriceLoader());
+  }
+
+  @Override
+  public CompletableFuture<IexSymbolStore> getSymbolsAsync() {
+    AtomicBoolean loaded = new AtomicBoolean();
+    CompletableFuture<IexSymbolStore> symbols =
+        symbolCache.get(ALL_SYMBOLS, (key, loadExecutor) -> {
+          loaded.set(true);
+          return loadSymbols();
+        });
+    if (symbols.isCompletedExceptionally() && !loaded.get()) {
+      // A failed load is only removed from the cache once its removal task has run, so load again
+      // rather than hand out the failure of an earlier load
+      symbolCache.synchronous().invalidate(ALL_SYMBOLS);
+      symbols = symbolCache.get(ALL_SYMBOLS);
+    }
+    return symbols;
+  }
+
+  @Override
+  public CompletableFuture<List<IexLastTradedPrice>> getLastTradedPricesAsync(
+      final Collection<String> symbols) {
+    // IEX symbols are upper case, and so are the symbols of the prices it returns
+    Set<String> keys = new LinkedHashSet<>();
+    for (String symbol : symbols) {
+      if (symbol != null && !symbol.isEmpty()) {
+        keys.add(symbol.toUpperCase(Locale.ROOT));
+      }
+    }
+    if (keys.isEmpty()) {
+      return CompletableFuture.completedFuture(List.of());
+    }
+
+    return priceCache.getAll(keys).thenApply(prices -> {
+      List<IexLastTradedPrice> result = new ArrayList<>(keys.size());
+      for (String key : keys) {
+        prices.getOrDefault(key, Optional.empty()).ifPresent(result::add);
+      }
+      return result;
+    });
+  }
+
+  /**
+   * Reloads the symbol list in the background, if it has been loaded before. Until the reload
+   * completes, and if it fails, callers are served the previous list.
+   */
+  public void refreshSymbols() {
+    // asMap doesn't record a hit or miss, unlike getIfPresent
+    if (symbolCache.synchronous().asMap().containsKey(ALL_SYMBOLS)) {
+      symbolCache.synchronous().refresh(ALL_SYMBOLS);
+    }
+  }
+
+  @Override
+  public MarketDataGatewayStats stats() {
+    CacheStats symbolStats = symbolCache.synchronous().stats();
+    CacheStats priceStats = priceCache.synchronous().stats();
+    return MarketDataGatewayStats.builder()
+        .symbolHitCount(symbolStats.hitCount())
+        .symbolMissCount(symbolStats.missCount())
+        .priceHitCount(priceStats.hitCount())
+        .priceMissCount(priceStats.missCount())
+        .priceLoadCount(priceBatcher.getRequestCount())
+        .symbolUpstreamCallCount(symbolUpstreamCalls.sum())
+        .priceUpstreamCallCount(priceUpstreamCalls.sum())
+        .symbolUpstreamTimeNanos(symbolUpstreamNanos.sum())
+        .priceUpstreamTimeNanos(priceUpstreamNanos.sum())
+        .upstreamFailureCount(upstreamFailures.sum())
+        .build();
+  }
+
+  @Override
+  public synchronized void start() {
+    if (symbolRefresh != null) {
+      return;
+    }
+    log.info("Starting {}", this);
+    long intervalMillis = symbolRefreshInterval.toMillis();
+    symbolRefresh = executor.scheduleWithFixedDelay(this::refreshSymbols, intervalMillis,
+        intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (symbolRefresh == null) {
+      return;
+    }
+    log.info("Stopping {}", this);
+    symbolRefresh.cancel(false);
+    symbolRefresh = null;
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return symbolRefresh != null;
+  }
+
+  private CompletableFuture<IexSymbolStore> loadSymbols() {
+    symbolUpstreamCalls.increment();
+    return callUpstream(iexClient::getAllSymbols, symbolUpstreamNanos).thenApply(loaded -> {
+      IexSymbolStore symbols = IexSymbolStore.of(loaded, symbolWriter);
+      IexSymbolStore current = currentSymbols;
+      if (symbols.equals(current)) {
+        log.info("Loaded {} symbols from IEX, unchanged", symbols.size());
+        return current;
+      }
+      log.info("Loaded {} symbols from IEX", symbols.size());
+      currentSymbols = symbols;
+      return symbols;
+    });
+  }
+
+  /**
+   * Loads the last traded prices of a batch of symbols from IEX, recording the symbols it has no
+   * price for as empty so that they are cached too.
+   */
+  private CompletableFuture<Map<String, Optional<IexLastTradedPrice>>> loadPrices(
+      final Set<String> symbols) {
+    priceUpstreamCalls.increment();
+    return callUpstream(() -> iexClient.getLastTradedPriceForSymbols(
+        symbols.toArray(new String[0])), priceUpstreamNanos)
+        .thenApply(loaded -> {
+          Map<String, Optional<IexLastTradedPrice>> prices = new HashMap<>();
+          for (IexLastTradedPrice price : loaded) {
+            prices.put(price.getSymbol(), Optional.of(price));
+          }
+          for (String symbol : symbols) {
+            prices.putIfAbsent(symbol, Optional.empty());
+          }
+          return prices;
+        });
+  }
+
+  /**
+   * Makes a call to IEX, adding the time until it completes to the given total and counting it if
+   * it fails.
+   */
+  private <T> CompletableFuture<T> callUpstream(final Supplier<CompletableFuture<T>> call,
+      final LongAdder nanos) {
+    long start = ticker.read();
+    return call.get().whenComplete((result, exception) -> {
+      nanos.add(ticker.read() - start);
+      if (exception != null) {
+        upstreamFailures.increment();
+      }
+    });
+  }
+
+  /**
+   * Hands the symbols the price cache needs loaded to the batcher.
+   */
+  private class PriceLoader implements AsyncCacheLoader<String, Optional<IexLastTradedPrice>> {
+
+    @Override
+    public CompletableFuture<Optional<IexLastTradedPrice>> asyncLoad(final String symbol,
+        final Executor loadExecutor) {
+      return priceBatcher.submit(List.of(symbol)).thenApply(prices -> prices.get(symbol));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Optional<IexLastTradedPrice>>> asyncLoadAll(
+        final Iterable<? extends String> symbols, final Executor loadExecutor) {
+      return priceBatcher.submit(symbols);
+    }
+  }
+}
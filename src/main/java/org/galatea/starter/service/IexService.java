@@ -1,7 +1,13 @@
 package org.galatea.starter.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,6 +18,14 @@ import org.springframework.util.CollectionUtils;
 
 /**
  * A layer for transformation, aggregation, and business required when retrieving data from IEX.
+ * Data is retrieved through the market data gateway, which caches it, rather than from IEX on
+ * every call.
+ *
+ * <p>Results are asynchronous, so that callers aren't held up while IEX is being called. Requests
+ * are timed from when they are made until their result completes (market.data.requests, tagged
+ * with the exception of failed requests), since timing the methods themselves would only measure
+ * how long it took to start the request. Most requests are answered from the gateway's cache; the
+ * gateway times the calls it makes to IEX itself (market.data.upstream.calls).
  */
 @Slf4j
 @Service
@@ -19,31 +33,70 @@ import org.springframework.util.CollectionUtils;
 public class IexService {
 
   @NonNull
-  private IexClient iexClient;
+  private IMarketDataGateway marketDataGateway;
 
+  @NonNull
+  private MeterRegistry meterRegistry;
+
+  /**
+   * Get all stock symbols from IEX, in the store the gateway holds them in.
+   *
+   * @return a future of the store of all Stock Symbols from IEX.
+   */
+  public CompletableFuture<IexSymbolStore> getSymbols() {
+    return timed("symbols", marketDataGateway::getSymbolsAsync);
+  }
 
   /**
-   * Get all stock symbols from IEX.
+   * Get a single stock symbol from IEX.
    *
-   * @return a list of all Stock Symbols from IEX.
+   * @param symbol the symbol to look up, in any case.
+   * @return a future of the Stock Symbol, or of empty if IEX doesn't support it.
    */
-  public List<IexSymbol> getAllSymbols() {
-    return iexClient.getAllSymbols();
+  public CompletableFuture<Optional<IexSymbol>> getSymbol(final String symbol) {
+    return timed("symbols", () -> marketDataGateway.getSymbolsAsync()
+        .thenApply(symbols -> symbols.find(symbol)));
   }
 
   /**
    * Get the last traded price for each Symbol that is passed in.
    *
    * @param symbols the list of symbols to get a last traded price for.
-   * @return a list of last traded price objects for each Symbol that is passed in.
+   * @return a future of last traded price objects for each Symbol that is passed in.
    */
-  public List<IexLastTradedPrice> getLastTradedPriceForSymbols(final List<String> symbols) {
+  public CompletableFuture<List<IexLastTradedPrice>> getLastTradedPriceForSymbols(
+      final List<String> symbols) {
     if (CollectionUtils.isEmpty(symbols)) {
-      return Collections.emptyList();
+      return timed("lastTradedPrice",
+          () -> CompletableFuture.completedFuture(Collections.emptyList()));
     } else {
-      return iexClient.getLastTradedPriceForSymbols(symbols.toArray(new String[0]));
+      return timed("lastTradedPrice",
+          () -> marketDataGateway.getLastTradedPricesAsync(symbols));
     }
   }
 
+  private <T> CompletableFuture<T> timed(final String operation,
+      final Supplier<CompletableFuture<T>> call) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    CompletableFuture<T> result;
+    try {
+      result = call.get();
+    } catch (RuntimeException e) {
+      result = CompletableFuture.failedFuture(e);
+    }
+    return result.whenComplete((value, exception) -> sample.stop(Timer.builder(
+        "market.data.requests")
+        .description("Time taken to answer market data requests, from the cache or from IEX")
+        .tags("operation", operation, "exception", exceptionTag(exception))
+        .register(meterRegistry)));
+  }
 
+  private static String exceptionTag(final Throwable exception) {
+    if (exception == null) {
+      return "none";
+    }
+    Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+        ? exception.getCause() : exception;
+    return cause.getClass().getSimpleName();
+  }
 }
@@ -0,0 +1,291 @@
+package org.galatea.starter.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Optional;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.galatea.starter.domain.IexSymbol;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Immutable, memory compact store of the symbols IEX supports, sorted by symbol.
+ *
+ * <p>Rather than one IexSymbol object (and its strings and date) per symbol, each field is held in
+ * a column: the strings of a column are packed as UTF-8 into a single byte array, dates are held
+ * as epoch millis and the enabled flags as bits. IexSymbols are only created for the symbols that
+ * are looked up.
+ *
+ * <p>Symbols are sorted by their UTF-8 bytes, so exact and prefix lookups are binary searches that
+ * compare bytes in place. The JSON of the whole list is serialized once, when the store is
+ * created, with the symbols in the same order; the JSON of the symbols starting with a prefix is
+ * then a contiguous slice of it, copied out without serializing anything. The JSON's digest is the
+ * store's ETag, so clients can tell whether the symbols have changed since they last read them.
+ */
+@ToString(of = "size")
+@EqualsAndHashCode(of = "json")
+public final class IexSymbolStore {
+
+  private static final byte[] EMPTY_JSON = "[]".getBytes(StandardCharsets.UTF_8);
+
+  private static final long NO_DATE = Long.MIN_VALUE;
+
+  private final int size;
+
+  private final StringColumn symbols;
+
+  private final StringColumn names;
+
+  private final StringColumn types;
+
+  private final StringColumn iexIds;
+
+  private final long[] dates;
+
+  private final BitSet enabled;
+
+  /**
+   * JSON array of all the symbols. Covers every field, so two stores with the same JSON hold the
+   * same symbols.
+   */
+  private final byte[] json;
+
+  /**
+   * Offset in json of each symbol's object, plus one past the separator after the last one.
+   */
+  private final int[] jsonOffsets;
+
+  private final String etag;
+
+  private IexSymbolStore(final IexSymbol[] sorted, final ObjectWriter writer) {
+    size = sorted.length;
+    symbols = new StringColumn(size);
+    names = new StringColumn(size);
+    types = new StringColumn(size);
+    iexIds = new StringColumn(size);
+    dates = new long[size];
+    enabled = new BitSet(size);
+    jsonOffsets = new int[size + 1];
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write('[');
+    for (int i = 0; i < size; i++) {
+      IexSymbol symbol = sorted[i];
+      symbols.add(symbol.getSymbol());
+      names.add(symbol.getName());
+      types.add(symbol.getType());
+      iexIds.add(symbol.getIexId());
+      dates[i] = symbol.getDate() == null ? NO_DATE : symbol.getDate().getTime();
+      enabled.set(i, symbol.isEnabled());
+
+      jsonOffsets[i] = out.size();
+      try {
+        out.writeBytes(writer.writeValueAsBytes(symbol));
+      } catch (JsonProcessingException e) {
+        throw new UncheckedIOException("Could not serialize " + symbol, e);
+      }
+      out.write(i == size - 1 ? ']' : ',');
+    }
+    jsonOffsets[size] = out.size();
+    json = size == 0 ? EMPTY_JSON : out.toByteArray();
+    etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+  }
+
+  /**
+   * Creates a store of the symbols, whose JSON is written with the writer. Symbols without a
+   * symbol can't be looked up, so they are left out.
+   */
+  public static IexSymbolStore of(final Collection<IexSymbol> symbols,
+      final ObjectWriter writer) {
+    // Sorted by UTF-8 bytes rather than by String, so that lookups can compare the packed bytes
+    IexSymbol[] sorted = symbols.stream()
+        .filter(symbol -> symbol.getSymbol() != null)
+        .sorted(Comparator.comparing(symbol -> utf8(symbol.getSymbol()), Arrays::compareUnsigned))
+        .toArray(IexSymbol[]::new);
+    return new IexSymbolStore(sorted, writer);
+  }
+
+  /**
+   * Returns the number of symbols in the store.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the entity tag of the store's symbols, which changes whenever any of them does. It
+   * applies to the JSON of every prefix too, as that is derived from the same symbols.
+   */
+  public String getEtag() {
+    return etag;
+  }
+
+  /**
+   * Returns the symbol at the given index, in symbol order.
+   */
+  public IexSymbol get(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " of " + size + " symbols");
+    }
+    return IexSymbol.builder()
+        .symbol(symbols.get(index))
+        .name(names.get(index))
+        .type(types.get(index))
+        .iexId(iexIds.get(index))
+        .date(dates[index] == NO_DATE ? null : new Date(dates[index]))
+        .isEnabled(enabled.get(index))
+        .build();
+  }
+
+  /**
+   * Returns the symbol with the given ticker, ignoring case, if the store has it.
+   */
+  public Optional<IexSymbol> find(final String symbol) {
+    byte[] key = key(symbol);
+    int index = lowerBound(key);
+    if (index < size && symbols.compareTo(index, key, Integer.MAX_VALUE) == 0) {
+      return Optional.of(get(index));
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the JSON array of all the symbols. The array is shared, so it must not be modified.
+   */
+  public byte[] toJson() {
+    return json;
+  }
+
+  /**
+   * Returns the JSON array of the symbols starting with the prefix, ignoring case, or of all the
+   * symbols if the prefix is null or empty.
+   */
+  public byte[] toJson(final String prefix) {
+    byte[] key = key(prefix);
+    if (key.length == 0) {
+      return json;
+    }
+    int from = lowerBound(key);
+    int to = upperBound(key, from);
+    if (from == to) {
+      return EMPTY_JSON;
+    }
+    // The objects are followed by a separator, which becomes the closing bracket
+    int start = jsonOffsets[from];
+    int end = jsonOffsets[to];
+    byte[] slice = new byte[end - start + 1];
+    slice[0] = '[';
+    System.arraycopy(json, start, slice, 1, end - start);
+    slice[slice.length - 1] = ']';
+    return slice;
+  }
+
+  /**
+   * Returns the index of the first symbol that is not before the key.
+   */
+  private int lowerBound(final byte[] key) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (symbols.compareTo(mid, key, Integer.MAX_VALUE) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the index of the first symbol from the given index that doesn't start with the prefix.
+   */
+  private int upperBound(final byte[] prefix, final int from) {
+    int low = from;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (symbols.compareTo(mid, prefix, prefix.length) <= 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * IEX symbols are upper case.
+   */
+  private static byte[] key(final String symbol) {
+    return symbol == null ? new byte[0] : utf8(symbol.trim().toUpperCase(Locale.ROOT));
+  }
+
+  private static byte[] utf8(final String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Strings packed one after the other as UTF-8, with the offset each one starts at.
+   */
+  private static final class StringColumn {
+
+    private final int[] offsets;
+
+    private final BitSet nulls = new BitSet();
+
+    private byte[] bytes = new byte[64];
+
+    private int count;
+
+    StringColumn(final int size) {
+      offsets = new int[size + 1];
+    }
+
+    void add(final String value) {
+      int offset = offsets[count];
+      if (value == null) {
+        nulls.set(count);
+      } else {
+        byte[] encoded = utf8(value);
+        if (offset + encoded.length > bytes.length) {
+          bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, offset + encoded.length));
+        }
+        System.arraycopy(encoded, 0, bytes, offset, encoded.length);
+        offset += encoded.length;
+      }
+      offsets[++count] = offset;
+      if (count == offsets.length - 1) {
+        // Complete, so drop the spare capacity
+        bytes = Arrays.copyOf(bytes, offset);
+      }
+    }
+
+    String get(final int index) {
+      if (nulls.get(index)) {
+        return null;
+      }
+      return new String(bytes, offsets[index], offsets[index + 1] - offsets[index],
+          StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares the first maxLength bytes of the string at the index with the key, as unsigned
+     * bytes.
+     */
+    int compareTo(final int index, final byte[] key, final int maxLength) {
+      int from = offsets[index];
+      int to = from + Math.min(offsets[index + 1] - from, maxLength);
+      return Arrays.compareUnsigned(bytes, from, to, key, 0, key.length);
+    }
+  }
+}
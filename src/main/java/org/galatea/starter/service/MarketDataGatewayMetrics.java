@@ -0,0 +1,93 @@
+package org.galatea.starter.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import lombok.NonNull;
+
+/**
+ * Publishes the statistics of an IMarketDataGateway: market.data.lookups counts lookups by data
+ * (symbols or prices) and result (hit or miss), market.data.hit.ratio is the fraction of lookups
+ * that were hits, and market.data.upstream.calls times the calls made to IEX by operation.
+ * Comparing market.data.price.loads with the lastTradedPrice upstream calls shows how many price
+ * loads each call to IEX was batched from.
+ *
+ * <p>The meters read the gateway's statistics when they are published, so nothing is recorded on
+ * the lookup path beyond what the gateway already keeps.
+ */
+public class MarketDataGatewayMetrics implements MeterBinder {
+
+  private final IMarketDataGateway gateway;
+
+  private final Iterable<Tag> tags;
+
+  /**
+   * Creates the binder.
+   *
+   * @param gateway the gateway to publish the statistics of
+   * @param tags any other tags to add to the meters
+   */
+  public MarketDataGatewayMetrics(@NonNull final IMarketDataGateway gateway,
+      @NonNull final Iterable<Tag> tags) {
+    this.gateway = gateway;
+    this.tags = tags;
+  }
+
+  @Override
+  public void bindTo(final MeterRegistry registry) {
+    lookupCounter(registry, "symbols", "hit", MarketDataGatewayStats::getSymbolHitCount);
+    lookupCounter(registry, "symbols", "miss", MarketDataGatewayStats::getSymbolMissCount);
+    lookupCounter(registry, "prices", "hit", MarketDataGatewayStats::getPriceHitCount);
+    lookupCounter(registry, "prices", "miss", MarketDataGatewayStats::getPriceMissCount);
+    hitRatio(registry, "symbols", MarketDataGatewayStats::getSymbolHitRatio);
+    hitRatio(registry, "prices", MarketDataGatewayStats::getPriceHitRatio);
+    upstreamTimer(registry, "symbols", MarketDataGatewayStats::getSymbolUpstreamCallCount,
+        MarketDataGatewayStats::getSymbolUpstreamTimeNanos);
+    upstreamTimer(registry, "lastTradedPrice", MarketDataGatewayStats::getPriceUpstreamCallCount,
+        MarketDataGatewayStats::getPriceUpstreamTimeNanos);
+
+    FunctionCounter.builder("market.data.price.loads", gateway, g -> g.stats().getPriceLoadCount())
+        .tags(tags)
+        .description("The number of price loads, before they are batched into upstream calls")
+        .register(registry);
+    FunctionCounter.builder("market.data.upstream.failures", gateway,
+        g -> g.stats().getUpstreamFailureCount())
+        .tags(tags)
+        .description("The number of calls to IEX that failed")
+        .register(registry);
+  }
+
+  private void lookupCounter(final MeterRegistry registry, final String data, final String result,
+      final ToLongFunction<MarketDataGatewayStats> count) {
+    FunctionCounter.builder("market.data.lookups", gateway, g -> count.applyAsLong(g.stats()))
+        .tags(Tags.concat(tags, "data", data, "result", result))
+        .description("The number of market data lookups, per symbol for prices")
+        .register(registry);
+  }
+
+  private void hitRatio(final MeterRegistry registry, final String data,
+      final ToDoubleFunction<MarketDataGatewayStats> ratio) {
+    Gauge.builder("market.data.hit.ratio", gateway, g -> ratio.applyAsDouble(g.stats()))
+        .tags(Tags.concat(tags, "data", data))
+        .description("The fraction of market data lookups served from the cache")
+        .register(registry);
+  }
+
+  private void upstreamTimer(final MeterRegistry registry, final String operation,
+      final ToLongFunction<MarketDataGatewayStats> count,
+      final ToLongFunction<MarketDataGatewayStats> totalTimeNanos) {
+    FunctionTimer.builder("market.data.upstream.calls", gateway,
+        g -> count.applyAsLong(g.stats()), g -> totalTimeNanos.applyAsLong(g.stats()),
+        TimeUnit.NANOSECONDS)
+        .tags(Tags.concat(tags, "operation", operation))
+        .description("Time taken by calls to IEX")
+        .register(registry);
+  }
+}
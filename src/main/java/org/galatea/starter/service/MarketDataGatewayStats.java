@@ -0,0 +1,44 @@
+package org.galatea.starter.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Point in time statistics of an IMarketDataGateway. Price lookups are counted per symbol, while
+ * price loads are the batches of missing symbols the cache loads, which may be merged into fewer
+ * upstream calls. Upstream time is the total time calls to IEX took to complete.
+ */
+@Builder
+@Value
+public class MarketDataGatewayStats {
+
+  long symbolHitCount;
+  long symbolMissCount;
+  long priceHitCount;
+  long priceMissCount;
+  long priceLoadCount;
+  long symbolUpstreamCallCount;
+  long priceUpstreamCallCount;
+  long symbolUpstreamTimeNanos;
+  long priceUpstreamTimeNanos;
+  long upstreamFailureCount;
+
+  /**
+   * Returns the fraction of symbol list lookups served from the cache, or 1 if there were none.
+   */
+  public double getSymbolHitRatio() {
+    return hitRatio(symbolHitCount, symbolMissCount);
+  }
+
+  /**
+   * Returns the fraction of price lookups served from the cache, or 1 if there were none.
+   */
+  public double getPriceHitRatio() {
+    return hitRatio(priceHitCount, priceMissCount);
+  }
+
+  private static double hitRatio(final long hits, final long misses) {
+    long lookups = hits + misses;
+    return lookups == 0 ? 1.0 : (double) hits / lookups;
+  }
+}
@@ -0,0 +1,81 @@
+package org.galatea.starter.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the statistics of an IMissionCache under micrometer's standard cache meter names
+ * (cache.gets, cache.evictions, cache.size...), tagged with the cache's name.
+ *
+ * <p>The meters read the cache's statistics when they are published, so nothing is recorded on
+ * the lookup path beyond what the cache already keeps.
+ */
+public class MissionCacheMetrics extends CacheMeterBinder {
+
+  private final IMissionCache cache;
+
+  /**
+   * Creates the binder.
+   *
+   * @param cache the cache to publish the statistics of
+   * @param cacheName the value of the meters' cache tag
+   * @param tags any other tags to add to the meters
+   */
+  public MissionCacheMetrics(final IMissionCache cache, final String cacheName,
+      final Iterable<Tag> tags) {
+    super(cache, cacheName, tags);
+    this.cache = cache;
+  }
+
+  @Override
+  protected Long size() {
+    return cache.stats().getEstimatedSize();
+  }
+
+  @Override
+  protected long hitCount() {
+    return cache.stats().getHitCount();
+  }
+
+  @Override
+  protected Long missCount() {
+    return cache.stats().getMissCount();
+  }
+
+  @Override
+  protected Long evictionCount() {
+    return cache.stats().getEvictionCount();
+  }
+
+  @Override
+  protected long putCount() {
+    // Entries are only ever added by loads
+    return cache.stats().getLoadSuccessCount();
+  }
+
+  @Override
+  protected void bindImplementationSpecificMetrics(final MeterRegistry registry) {
+    loadCounter(registry, "success", MissionCacheStats::getLoadSuccessCount);
+    loadCounter(registry, "failure", MissionCacheStats::getLoadFailureCount);
+
+    TimeGauge.builder("cache.load.duration", cache, TimeUnit.NANOSECONDS,
+        c -> c.stats().getTotalLoadTimeNanos())
+        .tags(getTagsWithCacheName())
+        .description("The time the cache has spent loading missions")
+        .register(registry);
+  }
+
+  private void loadCounter(final MeterRegistry registry, final String result,
+      final ToLongFunction<MissionCacheStats> count) {
+    FunctionCounter.builder("cache.load", cache, c -> count.applyAsLong(c.stats()))
+        .tags(getTagsWithCacheName())
+        .tag("result", result)
+        .description("The number of times missions have been loaded, successfully or not")
+        .register(registry);
+  }
+}
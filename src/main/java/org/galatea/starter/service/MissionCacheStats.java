@@ -0,0 +1,20 @@
+package org.galatea.starter.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Point in time statistics of an IMissionCache.
+ */
+@Builder
+@Value
+public class MissionCacheStats {
+
+  long hitCount;
+  long missCount;
+  long evictionCount;
+  long loadSuccessCount;
+  long loadFailureCount;
+  long totalLoadTimeNanos;
+  long estimatedSize;
+}
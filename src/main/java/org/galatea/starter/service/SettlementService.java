@@ -1,94 +1,186 @@
 package org.galatea.starter.service;
 
-import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
+import io.micrometer.core.annotation.Timed;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
-import javax.validation.Valid;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.sf.aspect4log.Log;
+import org.galatea.starter.domain.MissionFilter;
+import org.galatea.starter.domain.MissionPage;
 import org.galatea.starter.domain.SettlementMission;
 import org.galatea.starter.domain.TradeAgreement;
 import org.galatea.starter.domain.rpsy.ISettlementMissionRpsy;
+import org.galatea.starter.domain.rpsy.ISettlementMissionScanner;
+import org.galatea.starter.domain.rpsy.ISettlementMissionWriter;
 import org.galatea.starter.entrypoint.exception.EntityNotFoundException;
+import org.galatea.starter.utils.ParallelChunkMapper;
+import org.galatea.starter.utils.collections.LongArrayList;
+import org.galatea.starter.utils.collections.LongHashSet;
+import org.galatea.starter.utils.logging.Logged;
+import org.galatea.starter.utils.validation.CompiledValidator;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
 @RequiredArgsConstructor
 @Slf4j
-@Log
+@Logged
 @Validated
 @Service
 public class SettlementService {
 
+  private static final CompiledValidator<TradeAgreement> AGREEMENT_VALIDATOR =
+      CompiledValidator.forClass(TradeAgreement.class);
+
+  private static final CompiledValidator<SettlementMission> MISSION_VALIDATOR =
+      CompiledValidator.forClass(SettlementMission.class);
+
   @NonNull
   ISettlementMissionRpsy missionrpsy;
 
+  @NonNull
+  ISettlementMissionWriter missionWriter;
+
+  @NonNull
+  ISettlementMissionScanner missionScanner;
+
+  @NonNull
+  IMissionCache missionCache;
+
   @NonNull
   IAgreementTransformer agreementTransformer;
 
+  @NonNull
+  ParallelChunkMapper agreementMapper;
+
   /**
-   * Create missions based on the agreements provided.
+   * Create missions based on the agreements provided. Large batches are validated and transformed
+   * in parallel chunks by the agreement mapper; the missions are saved in the agreements' order.
    *
    * @param agreements the agreements used to generate missions
    * @return the ids of the missions that were created
+   * @throws ConstraintViolationException if any of the agreements, or the missions they map to,
+   *     is invalid, in which case no missions are created
    */
-  public Set<Long> spawnMissions(@Valid final List<TradeAgreement> agreements) {
-
-    // Map each agreement to a mission, collect to a list, and then same in bulk
-    Iterable<SettlementMission> savedMissions = missionrpsy.saveAll(agreements.stream()
-        .map(agr -> agreementTransformer.transform(agr)).collect(Collectors.toList()));
-    log.debug("The following missions were saved: {}", savedMissions);
+  @Timed(value = "settlement.missions.spawn", description = "Time taken to spawn missions")
+  public LongHashSet spawnMissions(final List<TradeAgreement> agreements) {
+    List<SettlementMission> savedMissions = saveMissions(agreements);
 
-    // We have to do all of this StreamSupport crap since the repository returns an iterable instead
-    // of a normal collection
-    Set<Long> idSet = StreamSupport.stream(savedMissions.spliterator(), false)
-        .map(SettlementMission::getId).collect(Collectors.toSet());
+    LongHashSet idSet = new LongHashSet(savedMissions.size());
+    for (SettlementMission mission : savedMissions) {
+      idSet.add(mission.getId());
+    }
     log.info("Returning {} mission id(s)", idSet.size());
 
     return idSet;
   }
 
+  /**
+   * Create missions based on the agreements provided, as spawnMissions does, for callers that need
+   * to tell which mission was spawned for which agreement.
+   *
+   * @param agreements the agreements used to generate missions
+   * @return the ids of the missions that were created, one per agreement, in the agreements' order
+   * @throws ConstraintViolationException if any of the agreements, or the missions they map to,
+   *     is invalid, in which case no missions are created
+   */
+  @Timed(value = "settlement.missions.spawn", description = "Time taken to spawn missions")
+  public LongArrayList spawnMissionsInOrder(final List<TradeAgreement> agreements) {
+    List<SettlementMission> savedMissions = saveMissions(agreements);
+
+    LongArrayList ids = new LongArrayList(savedMissions.size());
+    for (SettlementMission mission : savedMissions) {
+      ids.add(mission.getId());
+    }
+    log.info("Returning {} mission id(s)", ids.size());
+
+    return ids;
+  }
+
 
   /**
    * Retrieve a previously-generated settlement mission from the database.
    *
    * @param id the ID of the mission to retrieve
    */
+  @Timed(value = "settlement.missions.find", description = "Time taken to find a mission")
   public Optional<SettlementMission> findMission(final Long id) {
     log.info("Retrieving settlement mission with id {}", id);
-    return missionrpsy.findById(id);
+    return missionCache.get(id);
   }
 
   /**
    * Retrieve multiple previously-generated settlement missions from the database.
    *
-   * @param ids a comma-separated list of IDs of the missions to retrieve
+   * @param ids the IDs of the missions to retrieve
    */
-  public List<SettlementMission> findMissions(final List<Long> ids) {
+  @Timed(value = "settlement.missions.find.bulk", description = "Time taken to find missions")
+  public List<SettlementMission> findMissions(final LongArrayList ids) {
     log.info("Retrieving settlement missions with ids: {}", ids);
 
-    List<SettlementMission> retrievedMissions = Lists.newArrayList(missionrpsy.findAllById(ids));
+    // Cached missions are served from the cache, and all the others are loaded with one query.
+    // The ids are only boxed as the cache reads them, since it is keyed by Long
+    Map<Long, Optional<SettlementMission>> missions = missionCache.getAll(ids.asList());
 
-    // CrudRepository.findAll(Iterable ids) succeeds even if some provided IDs aren't found, so
-    // if we want to alert on any not-found IDs we have to manually check
-    Set<Long> retrievedMissionIds = retrievedMissions.stream()
-        .map(SettlementMission::getId)
-        .collect(Collectors.toSet());
-    Sets.SetView<Long> missingMissions = Sets.difference(new HashSet<>(ids), retrievedMissionIds);
+    List<SettlementMission> retrievedMissions = new ArrayList<>(missions.size());
+    LongArrayList missingMissions = new LongArrayList();
+    missions.forEach((id, mission) -> {
+      if (mission.isPresent()) {
+        retrievedMissions.add(mission.get());
+      } else {
+        missingMissions.add(id);
+      }
+    });
     if (!missingMissions.isEmpty()) {
-      throw new EntityNotFoundException(SettlementMission.class, missingMissions);
+      throw new EntityNotFoundException(SettlementMission.class, missingMissions.asList());
     }
 
     return retrievedMissions;
   }
 
+  /**
+   * Retrieve one page of the settlement missions that match the filter, in id order.
+   *
+   * @param filter the criteria the missions must match
+   * @param afterId only missions with a greater id are returned, or null for the first page
+   * @param pageSize the maximum number of missions to return
+   */
+  public MissionPage findMissionPage(final MissionFilter filter, final Long afterId,
+      final int pageSize) {
+    log.info("Retrieving up to {} settlement mission(s) matching {} after id {}", pageSize, filter,
+        afterId);
+
+    // One extra mission is asked for to know whether there is a next page, so that the last page
+    // is never followed by a request for an empty one
+    List<SettlementMission> missions = missionScanner.findPage(filter,
+        afterId == null ? Long.MIN_VALUE : afterId, pageSize + 1);
+    if (missions.size() <= pageSize) {
+      return MissionPage.builder().missions(missions).build();
+    }
+
+    List<SettlementMission> page = missions.subList(0, pageSize);
+    return MissionPage.builder()
+        .missions(page)
+        .nextAfterId(page.get(pageSize - 1).getId())
+        .build();
+  }
+
+  /**
+   * Retrieve every settlement mission, in id order, for exports too large to hold in memory. The
+   * missions are loaded lazily as the result is iterated, and the mission cache is bypassed.
+   */
+  public Iterable<SettlementMission> scanMissions() {
+    log.info("Scanning all settlement missions");
+    return missionScanner.scanAll();
+  }
+
   /**
    * Update the mission with the given ID.
    *
@@ -96,9 +188,12 @@ public class SettlementService {
    * @param mission the mission to update
    * @return optional containing the saved mission
    */
+  @Timed(value = "settlement.missions.update", description = "Time taken to update a mission")
   public Optional<SettlementMission> updateMission(final Long id, final SettlementMission mission) {
+    validate(Collections.singletonList(mission), MISSION_VALIDATOR);
     mission.setId(id);
     SettlementMission savedMission = missionrpsy.save(mission);
+    missionCache.invalidate(id);
     log.info("The following mission was updated: {}", savedMission);
     return Optional.ofNullable(savedMission);
   }
@@ -119,8 +214,43 @@ public class SettlementService {
    *
    * @param id identifier of the mission to delete
    */
+  @Timed(value = "settlement.missions.delete", description = "Time taken to delete a mission")
   public void deleteMission(final Long id) {
     missionrpsy.deleteById(id);
+    missionCache.invalidate(id);
     log.info("Mission with id '{}' was deleted", id);
   }
+
+  /**
+   * Validates the agreements, maps them to missions and saves those, in the agreements' order.
+   */
+  private List<SettlementMission> saveMissions(final List<TradeAgreement> agreements) {
+    validate(agreements, AGREEMENT_VALIDATOR);
+
+    // Map each agreement to a mission, collect to a list, and then save in bulk
+    List<SettlementMission> missions =
+        agreementMapper.map(agreements, agreementTransformer::transform);
+    validate(missions, MISSION_VALIDATOR);
+    List<SettlementMission> savedMissions = missionWriter.insertAll(missions);
+    log.debug("The following missions were saved: {}", savedMissions);
+
+    // Any of these ids may have been cached as absent if they were polled before being spawned
+    for (SettlementMission mission : savedMissions) {
+      missionCache.invalidate(mission.getId());
+    }
+    return savedMissions;
+  }
+
+  /**
+   * Validates each bean, in parallel chunks for large batches, and throws with every violation
+   * found. Missions are validated here rather than by JPA when they are saved, so that it is done
+   * once, with the compiled validator, whichever way they are written.
+   */
+  private <T> void validate(final List<T> beans, final CompiledValidator<T> validator) {
+    Set<ConstraintViolation<T>> violations = new HashSet<>();
+    agreementMapper.map(beans, validator::validate).forEach(violations::addAll);
+    if (!violations.isEmpty()) {
+      throw new ConstraintViolationException(violations);
+    }
+  }
 }
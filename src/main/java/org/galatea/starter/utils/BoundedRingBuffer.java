@@ -0,0 +1,148 @@
+package org.galatea.starter.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import lombok.ToString;
+
+/**
+ * A bounded, lock-free queue backed by a ring of slots, safe for any number of producers and
+ * consumers.
+ *
+ * <p>Offers never block or wait on a lock: when the ring is full, offer simply returns false and it
+ * is up to the caller to decide what to do with the element. Each slot carries a sequence number
+ * that tells producers and consumers whether it is free for the current lap of the ring, so that
+ * claiming a slot is a single compare-and-set (see Dmitry Vyukov's bounded MPMC queue).
+ *
+ * @param <E> the type of element held
+ */
+@ToString(of = "capacity")
+public final class BoundedRingBuffer<E> {
+
+  private final int capacity;
+
+  private final int mask;
+
+  private final AtomicReferenceArray<E> elements;
+
+  private final AtomicLongArray sequences;
+
+  /**
+   * Position of the next slot to be offered to.
+   */
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * Position of the next slot to be polled from.
+   */
+  private final AtomicLong head = new AtomicLong();
+
+  /**
+   * Creates a ring holding at least the given number of elements. The capacity is rounded up to a
+   * power of two so that positions can be mapped to slots with a mask.
+   */
+  public BoundedRingBuffer(final int minCapacity) {
+    if (minCapacity < 1 || minCapacity > (1 << 30)) {
+      throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + minCapacity);
+    }
+    capacity = minCapacity == 1 ? 1 : Integer.highestOneBit(minCapacity - 1) << 1;
+    mask = capacity - 1;
+    elements = new AtomicReferenceArray<>(capacity);
+    sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Returns the number of elements the ring can hold.
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns the number of elements currently held. This is only an estimate while other threads
+   * are offering or polling.
+   */
+  public int size() {
+    long size = tail.get() - head.get();
+    return (int) Math.max(0, Math.min(size, capacity));
+  }
+
+  /**
+   * Adds the element to the tail of the ring.
+   *
+   * @return false if the ring is full, in which case the element was not added
+   */
+  public boolean offer(final E element) {
+    if (element == null) {
+      throw new NullPointerException("element");
+    }
+    long pos = tail.get();
+    while (true) {
+      int slot = (int) pos & mask;
+      long diff = sequences.get(slot) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          elements.lazySet(slot, element);
+          // Publishes the element: consumers only read it once they see this sequence
+          sequences.set(slot, pos + 1);
+          return true;
+        }
+        pos = tail.get();
+      } else if (diff < 0) {
+        // The slot still holds the element from the previous lap, so the ring is full
+        return false;
+      } else {
+        // Another producer claimed this position first
+        pos = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Removes the element at the head of the ring.
+   *
+   * @return the element, or null if the ring is empty
+   */
+  public E poll() {
+    long pos = head.get();
+    while (true) {
+      int slot = (int) pos & mask;
+      long diff = sequences.get(slot) - (pos + 1);
+      if (diff == 0) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          E element = elements.get(slot);
+          elements.lazySet(slot, null);
+          // Frees the slot for the producer of the next lap
+          sequences.set(slot, pos + capacity);
+          return element;
+        }
+        pos = head.get();
+      } else if (diff < 0) {
+        // Nothing has been published to this slot yet, so the ring is empty
+        return null;
+      } else {
+        // Another consumer took this position first
+        pos = head.get();
+      }
+    }
+  }
+
+  /**
+   * Polls up to maxElements elements, handing each to the consumer in order.
+   *
+   * @return the number of elements drained
+   */
+  public int drain(final Consumer<? super E> consumer, final int maxElements) {
+    int drained = 0;
+    E element;
+    while (drained < maxElements && (element = poll()) != null) {
+      consumer.accept(element);
+      drained++;
+    }
+    return drained;
+  }
+}
@@ -1,30 +1,179 @@
 package org.galatea.starter.utils;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.EqualsAndHashCode;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.NonNull;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.actuate.trace.http.HttpTrace;
 import org.springframework.boot.actuate.trace.http.InMemoryHttpTraceRepository;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
-@RequiredArgsConstructor
-@ToString(callSuper = true)
-@EqualsAndHashCode(callSuper = true)
+/**
+ * Logs and stores http traces without holding up the requests they were captured for.
+ *
+ * <p>A request thread only decides whether its trace is sampled and offers it to a bounded ring
+ * buffer, which never blocks. If the buffer is full the trace is dropped and counted rather than
+ * slowing the request down. A background writer drains the buffer in batches, logs each batch as
+ * newline separated JSON and then stores the traces in memory for the actuator's trace endpoint.
+ */
+@ToString(of = {"sampler", "batchSize", "buffer"})
 @Slf4j
-public class FuseHttpTraceRepository extends InMemoryHttpTraceRepository {
+public class FuseHttpTraceRepository extends InMemoryHttpTraceRepository
+    implements SmartLifecycle {
 
-  private final ObjectMapper objectMapper;
+  /**
+   * How long the writer sleeps when it finds the buffer empty.
+   */
+  private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
 
+  private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+  private final ObjectWriter traceWriter;
+
+  private final BoundedRingBuffer<HttpTrace> buffer;
+
+  private final PathSampler sampler;
+
+  private final int batchSize;
+
+  private final LongAdder droppedTraces = new LongAdder();
+
+  /**
+   * Only touched by the writer thread.
+   */
+  private long reportedDrops;
+
+  private volatile boolean running;
+
+  private Thread writer;
+
+  /**
+   * Creates a repository whose traces are written by a background thread once started.
+   *
+   * @param objectMapper used to serialize traces to JSON
+   * @param bufferSize the number of traces that can be waiting to be written
+   * @param batchSize the maximum number of traces written together
+   * @param sampler decides which requests are traced, by url path
+   */
+  public FuseHttpTraceRepository(@NonNull final ObjectMapper objectMapper, final int bufferSize,
+      final int batchSize, @NonNull final PathSampler sampler) {
+    // HttpTrace has no toString, nor do its inner classes...
+    this.traceWriter = objectMapper.writer().withRootValueSeparator(System.lineSeparator());
+    this.buffer = new BoundedRingBuffer<>(bufferSize);
+    this.batchSize = batchSize;
+    this.sampler = sampler;
+  }
+
+  /**
+   * Queues the trace to be written, if its path is sampled. This never blocks: the trace is dropped
+   * if too many are already waiting.
+   */
   @Override
   public void add(final HttpTrace trace) {
-    // HttpTrace has no toString, nor do its inner classes...
+    if (!sampler.sample(trace.getRequest().getUri().getPath())) {
+      return;
+    }
+    if (!buffer.offer(trace)) {
+      droppedTraces.increment();
+    }
+  }
+
+  /**
+   * Returns the number of sampled traces dropped because the buffer was full.
+   */
+  public long getDroppedCount() {
+    return droppedTraces.sum();
+  }
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    log.info("Starting {}", this);
+    running = true;
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("http-trace-writer-");
+    threadFactory.setDaemon(true);
+    writer = threadFactory.newThread(this::writeUntilStopped);
+    writer.start();
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    log.info("Stopping {}", this);
+    running = false;
+    LockSupport.unpark(writer);
+    try {
+      // The writer flushes whatever is left in the buffer before exiting
+      writer.join(STOP_TIMEOUT_MILLIS);
+      if (writer.isAlive()) {
+        log.warn("Http trace writer did not stop in time");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Writes batches until stopped, then flushes the traces still buffered.
+   */
+  private void writeUntilStopped() {
+    List<HttpTrace> batch = new ArrayList<>(batchSize);
+    while (running) {
+      reportDrops();
+      if (buffer.drain(batch::add, batchSize) == 0) {
+        LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+        continue;
+      }
+      writeBatch(batch);
+    }
+    while (buffer.drain(batch::add, batchSize) > 0) {
+      writeBatch(batch);
+    }
+    reportDrops();
+  }
+
+  private void writeBatch(final List<HttpTrace> batch) {
     try {
-      log.info("Adding trace info: {}", objectMapper.writeValueAsString(trace));
-    } catch (JsonProcessingException e) {
+      StringWriter json = new StringWriter();
+      try (SequenceWriter sequenceWriter = traceWriter.writeValues(json)) {
+        sequenceWriter.writeAll(batch);
+      }
+      log.info("Adding trace info for {} request(s):{}{}", batch.size(), System.lineSeparator(),
+          json);
+    } catch (IOException | RuntimeException e) {
       log.warn("Error logging trace info: ", e);
     }
-    super.add(trace);
+    for (HttpTrace trace : batch) {
+      super.add(trace);
+    }
+    batch.clear();
+  }
+
+  private void reportDrops() {
+    long dropped = droppedTraces.sum();
+    if (dropped > reportedDrops) {
+      log.warn("Dropped {} http trace(s) since the buffer was full ({} in total)",
+          dropped - reportedDrops, dropped);
+      reportedDrops = dropped;
+    }
   }
 }
@@ -0,0 +1,188 @@
+package org.galatea.starter.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Merges the keys that concurrent callers ask for into batches, so that one call to a bulk loader
+ * serves them all.
+ *
+ * <p>The first request of a batch opens it, and the batch is loaded once maxWait has passed since
+ * then or as soon as it holds maxBatchSize keys, whichever comes first. A single request for more
+ * than maxBatchSize keys is loaded in one batch rather than split. Each caller's future is
+ * completed with just the keys it asked for, or with the loader's exception if the load fails.
+ *
+ * <p>The loader is expected not to block: it is called on the timer thread, or on the thread that
+ * filled the batch, and only starts the load, returning a future of its result.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value loaded for each key
+ */
+@ToString(of = {"maxWaitNanos", "maxBatchSize"})
+public class MicroBatcher<K, V> {
+
+  private final Function<Set<K>, CompletableFuture<Map<K, V>>> batchLoader;
+
+  private final ScheduledExecutorService executor;
+
+  private final long maxWaitNanos;
+
+  private final int maxBatchSize;
+
+  private final LongAdder requestCount = new LongAdder();
+
+  private final LongAdder batchCount = new LongAdder();
+
+  /**
+   * The batch taking requests, if any. Guarded by this.
+   */
+  private Batch open;
+
+  /**
+   * Creates a batcher.
+   *
+   * @param batchLoader loads the values of a batch of keys; keys it returns no value for are left
+   *     out of the callers' results
+   * @param maxWaitNanos how long a batch takes requests for before it is loaded
+   * @param maxBatchSize the number of keys at which a batch is loaded without waiting any longer
+   * @param executor schedules batches to be loaded
+   */
+  public MicroBatcher(@NonNull final Function<Set<K>, CompletableFuture<Map<K, V>>> batchLoader,
+      final long maxWaitNanos, final int maxBatchSize,
+      @NonNull final ScheduledExecutorService executor) {
+    if (maxWaitNanos < 0 || maxBatchSize < 1) {
+      throw new IllegalArgumentException(
+          "Invalid batch limits: " + maxWaitNanos + "ns, " + maxBatchSize + " keys");
+    }
+    this.batchLoader = batchLoader;
+    this.maxWaitNanos = maxWaitNanos;
+    this.maxBatchSize = maxBatchSize;
+    this.executor = executor;
+  }
+
+  /**
+   * Adds the keys to the open batch, opening one if there isn't one.
+   *
+   * @return the values of the keys, once their batch has been loaded
+   */
+  public CompletableFuture<Map<K, V>> submit(final Iterable<? extends K> keys) {
+    Request request = new Request(keys);
+    requestCount.increment();
+    Batch full = null;
+    synchronized (this) {
+      if (open == null) {
+        Batch batch = new Batch();
+        open = batch;
+        batch.timeout = executor.schedule(() -> loadOnTimeout(batch), maxWaitNanos,
+            TimeUnit.NANOSECONDS);
+      }
+      open.add(request);
+      if (open.keys.size() >= maxBatchSize) {
+        full = open;
+        open = null;
+      }
+    }
+    if (full != null) {
+      full.timeout.cancel(false);
+      load(full);
+    }
+    return request.future;
+  }
+
+  /**
+   * Returns the number of requests submitted.
+   */
+  public long getRequestCount() {
+    return requestCount.sum();
+  }
+
+  /**
+   * Returns the number of batches loaded, or being loaded.
+   */
+  public long getBatchCount() {
+    return batchCount.sum();
+  }
+
+  private void loadOnTimeout(final Batch batch) {
+    synchronized (this) {
+      if (open != batch) {
+        // Already loaded, since it filled up
+        return;
+      }
+      open = null;
+    }
+    load(batch);
+  }
+
+  private void load(final Batch batch) {
+    batchCount.increment();
+    CompletableFuture<Map<K, V>> load;
+    try {
+      load = batchLoader.apply(batch.keys);
+    } catch (RuntimeException | Error e) {
+      load = CompletableFuture.failedFuture(e);
+    }
+    load.whenComplete((values, exception) -> {
+      if (exception != null) {
+        Throwable cause = exception instanceof CompletionException
+            && exception.getCause() != null ? exception.getCause() : exception;
+        batch.requests.forEach(request -> request.future.completeExceptionally(cause));
+      } else {
+        complete(batch, values);
+      }
+    });
+  }
+
+  private void complete(final Batch batch, final Map<K, V> values) {
+    for (Request request : batch.requests) {
+      Map<K, V> requested = new HashMap<>();
+      for (K key : request.keys) {
+        V value = values.get(key);
+        if (value != null) {
+          requested.put(key, value);
+        }
+      }
+      request.future.complete(requested);
+    }
+  }
+
+  private class Request {
+
+    private final List<K> keys;
+
+    private final CompletableFuture<Map<K, V>> future = new CompletableFuture<>();
+
+    Request(final Iterable<? extends K> keys) {
+      // Copied, since the batch is loaded after submit has returned
+      this.keys = new ArrayList<>();
+      keys.forEach(this.keys::add);
+    }
+  }
+
+  private class Batch {
+
+    private final Set<K> keys = new LinkedHashSet<>();
+
+    private final List<Request> requests = new ArrayList<>();
+
+    private Future<?> timeout;
+
+    void add(final Request request) {
+      keys.addAll(request.keys);
+      requests.add(request);
+    }
+  }
+}
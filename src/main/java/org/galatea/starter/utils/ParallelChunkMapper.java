@@ -0,0 +1,148 @@
+package org.galatea.starter.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maps the elements of large lists in parallel, in chunks, on a dedicated fork join pool, while
+ * preserving their order.
+ *
+ * <p>Lists smaller than the threshold are mapped on the calling thread, since for a handful of
+ * elements handing the work to other threads costs more than it saves. Larger lists are split in
+ * halves until each piece is at most one chunk, and each chunk writes its results straight into
+ * its own slice of the output, so no merging or reordering is needed afterwards.
+ *
+ * <p>If the mapping function throws for any element, the exception is rethrown on the calling
+ * thread as it was thrown, rather than wrapped or copied as ForkJoinTask.invoke would.
+ */
+@Slf4j
+@ToString(of = {"threshold", "chunkSize", "pool"})
+public class ParallelChunkMapper implements AutoCloseable {
+
+  private final ForkJoinPool pool;
+
+  private final int threshold;
+
+  private final int chunkSize;
+
+  /**
+   * Creates a mapper with its own pool of worker threads.
+   *
+   * @param parallelism the number of worker threads
+   * @param threshold the smallest list that is mapped in parallel
+   * @param chunkSize the number of elements each task maps on a single thread
+   * @param threadNamePrefix prefix of the worker thread names
+   */
+  public ParallelChunkMapper(final int parallelism, final int threshold, final int chunkSize,
+      final String threadNamePrefix) {
+    if (parallelism < 1 || threshold < 1 || chunkSize < 1) {
+      throw new IllegalArgumentException(String.format(
+          "Parallelism (%d), threshold (%d) and chunk size (%d) must be positive", parallelism,
+          threshold, chunkSize));
+    }
+    this.pool = new ForkJoinPool(parallelism, pool -> {
+      ForkJoinWorkerThread thread =
+          ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName(threadNamePrefix + thread.getPoolIndex());
+      return thread;
+    }, null, false);
+    this.threshold = threshold;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Applies the function to each element of the list.
+   *
+   * @return the results, in the same order as the elements they were mapped from
+   */
+  public <T, R> List<R> map(final List<? extends T> elements,
+      final Function<? super T, ? extends R> function) {
+    if (elements.size() < threshold) {
+      List<R> results = new ArrayList<>(elements.size());
+      for (T element : elements) {
+        results.add(function.apply(element));
+      }
+      return results;
+    }
+
+    Object[] results = new Object[elements.size()];
+    MapTask<T> task = new MapTask<>(elements, function, results, 0, elements.size());
+    pool.invoke(task);
+    if (task.failure != null) {
+      throw task.failure;
+    }
+    @SuppressWarnings("unchecked")
+    List<R> resultList = (List<R>) Arrays.asList(results);
+    return resultList;
+  }
+
+  /**
+   * Stops the worker threads, waiting briefly for tasks already running.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    pool.shutdown();
+    if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+      log.warn("{} did not stop in time", this);
+    }
+  }
+
+  /**
+   * Maps the elements from start (inclusive) to end (exclusive) into the same slots of results.
+   */
+  private class MapTask<T> extends RecursiveAction {
+
+    private final List<? extends T> elements;
+
+    private final Function<? super T, ?> function;
+
+    private final Object[] results;
+
+    private final int start;
+
+    private final int end;
+
+    /**
+     * The first exception thrown by the function for this range, if any.
+     */
+    private RuntimeException failure;
+
+    MapTask(final List<? extends T> elements, final Function<? super T, ?> function,
+        final Object[] results, final int start, final int end) {
+      this.elements = elements;
+      this.function = function;
+      this.results = results;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= chunkSize) {
+        try {
+          for (int i = start; i < end; i++) {
+            results[i] = function.apply(elements.get(i));
+          }
+        } catch (RuntimeException e) {
+          failure = e;
+        }
+        return;
+      }
+
+      int middle = (start + end) >>> 1;
+      MapTask<T> left = new MapTask<>(elements, function, results, start, middle);
+      MapTask<T> right = new MapTask<>(elements, function, results, middle, end);
+      invokeAll(left, right);
+      // The leftmost failure wins, so that the exception doesn't depend on scheduling
+      failure = left.failure != null ? left.failure : right.failure;
+    }
+  }
+}
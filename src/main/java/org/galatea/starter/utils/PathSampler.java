@@ -0,0 +1,87 @@
+package org.galatea.starter.utils;
+
+import com.google.common.base.Splitter;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Decides whether a request to a given url path should be sampled.
+ *
+ * <p>Each path is sampled at the rate of the longest configured prefix it starts with, or at the
+ * default rate if none matches. A rate of 1 samples every request and a rate of 0 none.
+ */
+@ToString
+@EqualsAndHashCode
+public class PathSampler {
+
+  private final double defaultRate;
+
+  /**
+   * Rates by path prefix, longest prefix first.
+   */
+  private final Map<String, Double> ratesByPrefix;
+
+  /**
+   * Creates a sampler.
+   *
+   * @param defaultRate the rate of paths that don't match any of the prefixes
+   * @param ratesByPrefix rates by url path prefix
+   */
+  public PathSampler(final double defaultRate, final Map<String, Double> ratesByPrefix) {
+    checkRate(defaultRate);
+    ratesByPrefix.values().forEach(PathSampler::checkRate);
+    this.defaultRate = defaultRate;
+    this.ratesByPrefix = ratesByPrefix.entrySet().stream()
+        .sorted(Comparator.comparingInt((Entry<String, Double> e) -> e.getKey().length())
+            .reversed())
+        .collect(Collectors.toMap(Entry::getKey, Entry::getValue, (a, b) -> a,
+            LinkedHashMap::new));
+  }
+
+  /**
+   * Creates a sampler from a comma separated list of prefix=rate pairs, e.g.
+   * "/settlementEngine/mission/=0.1,/iex/=0.5". An empty list samples every path at the default
+   * rate.
+   */
+  public static PathSampler parse(final double defaultRate, final String ratesByPrefix) {
+    Map<String, String> rates = ratesByPrefix.trim().isEmpty() ? Map.of()
+        : Splitter.on(',').trimResults().omitEmptyStrings().withKeyValueSeparator('=')
+            .split(ratesByPrefix);
+    return new PathSampler(defaultRate, rates.entrySet().stream()
+        .collect(Collectors.toMap(Entry::getKey, e -> Double.valueOf(e.getValue()))));
+  }
+
+  /**
+   * Returns true if a request to the path should be sampled.
+   */
+  public boolean sample(final String path) {
+    double rate = rateFor(path);
+    return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+  }
+
+  /**
+   * Returns the sampling rate that applies to the path.
+   */
+  public double rateFor(final String path) {
+    if (path != null) {
+      for (Entry<String, Double> entry : ratesByPrefix.entrySet()) {
+        if (path.startsWith(entry.getKey())) {
+          return entry.getValue();
+        }
+      }
+    }
+    return defaultRate;
+  }
+
+  private static void checkRate(final double rate) {
+    if (!(rate >= 0 && rate <= 1)) {
+      throw new IllegalArgumentException("Sampling rate must be between 0 and 1: " + rate);
+    }
+  }
+}
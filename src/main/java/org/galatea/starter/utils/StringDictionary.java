@@ -0,0 +1,99 @@
+package org.galatea.starter.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.function.Function;
+import lombok.ToString;
+
+/**
+ * A concurrent dictionary of strings, so that values which repeat heavily (instruments, parties,
+ * depots...) can share one canonical String instance instead of each object holding its own copy.
+ *
+ * <p>The strings come from clients, so the dictionary is bounded: it holds at most maxSize
+ * strings, evicting those that are looked up least often to make room for new ones, and drops
+ * strings that haven't been looked up for idleTimeout. An evicted string is simply added again the
+ * next time it is seen; objects that already hold its old instance keep it.
+ */
+@ToString(of = {"name", "maxSize"})
+public class StringDictionary {
+
+  private final String name;
+
+  private final long maxSize;
+
+  private final Cache<String, String> strings;
+
+  /**
+   * Creates an empty dictionary.
+   *
+   * @param name identifies the dictionary in its stats and metrics
+   * @param maxSize the most strings the dictionary will hold
+   * @param idleTimeout how long a string stays in the dictionary without being looked up
+   * @param ticker the time source used for expiry
+   */
+  public StringDictionary(final String name, final long maxSize, final Duration idleTimeout,
+      final Ticker ticker) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Max size must be at least 1: " + maxSize);
+    }
+    this.name = name;
+    this.maxSize = maxSize;
+    this.strings = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterAccess(idleTimeout)
+        // Evicting a string is cheap enough to do on the thread that looks one up
+        .executor(Runnable::run)
+        .ticker(ticker)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Returns the name of the dictionary.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the canonical instance of the string, adding it to the dictionary if it isn't there
+   * yet, or null for null.
+   */
+  public String intern(final String value) {
+    if (value == null) {
+      return null;
+    }
+    return strings.get(value, Function.identity());
+  }
+
+  /**
+   * Returns the approximate number of strings in the dictionary.
+   */
+  public long size() {
+    return strings.estimatedSize();
+  }
+
+  /**
+   * Returns a point in time snapshot of the dictionary's statistics.
+   */
+  public StringDictionaryStats stats() {
+    CacheStats stats = strings.stats();
+    return StringDictionaryStats.builder()
+        .size(strings.estimatedSize())
+        .maxSize(maxSize)
+        .hitCount(stats.hitCount())
+        .missCount(stats.missCount())
+        .evictionCount(stats.evictionCount())
+        .build();
+  }
+
+  /**
+   * Performs any pending evictions, which are otherwise done as strings are looked up.
+   */
+  void cleanUp() {
+    strings.cleanUp();
+  }
+}
@@ -0,0 +1,67 @@
+package org.galatea.starter.utils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.ToLongFunction;
+import lombok.NonNull;
+
+/**
+ * Publishes the statistics of a StringDictionary (dictionary.size, dictionary.lookups...), tagged
+ * with the dictionary's name.
+ *
+ * <p>Like MissionCacheMetrics, the meters read the dictionary's statistics when they are
+ * published rather than recording anything on the lookup path.
+ */
+public class StringDictionaryMetrics implements MeterBinder {
+
+  private final StringDictionary dictionary;
+
+  private final Tags tags;
+
+  /**
+   * Creates the binder.
+   *
+   * @param dictionary the dictionary to publish the statistics of
+   * @param tags any tags to add to the meters besides the dictionary's name
+   */
+  public StringDictionaryMetrics(@NonNull final StringDictionary dictionary,
+      final Iterable<Tag> tags) {
+    this.dictionary = dictionary;
+    this.tags = Tags.concat(tags, "dictionary", dictionary.getName());
+  }
+
+  @Override
+  public void bindTo(final MeterRegistry registry) {
+    Gauge.builder("dictionary.size", dictionary, StringDictionary::size)
+        .tags(tags)
+        .description("The number of strings in the dictionary")
+        .register(registry);
+    Gauge.builder("dictionary.max.size", dictionary, d -> d.stats().getMaxSize())
+        .tags(tags)
+        .description("The most strings the dictionary will hold")
+        .register(registry);
+
+    lookupCounter(registry, "hit", StringDictionaryStats::getHitCount);
+    lookupCounter(registry, "miss", StringDictionaryStats::getMissCount);
+    FunctionCounter.builder("dictionary.evictions", dictionary,
+        d -> d.stats().getEvictionCount())
+        .tags(tags)
+        .description("The number of strings evicted to make room for others, or because they "
+            + "weren't looked up for a while")
+        .register(registry);
+  }
+
+  private void lookupCounter(final MeterRegistry registry, final String result,
+      final ToLongFunction<StringDictionaryStats> count) {
+    FunctionCounter.builder("dictionary.lookups", dictionary, d -> count.applyAsLong(d.stats()))
+        .tags(tags)
+        .tag("result", result)
+        .description("The number of lookups that found their string in the dictionary (hit) or "
+            + "added it (miss)")
+        .register(registry);
+  }
+}
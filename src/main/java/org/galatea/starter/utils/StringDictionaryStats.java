@@ -0,0 +1,27 @@
+package org.galatea.starter.utils;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Point in time statistics of a StringDictionary.
+ */
+@Builder
+@Value
+public class StringDictionaryStats {
+
+  long size;
+  long maxSize;
+  /**
+   * Lookups of strings already in the dictionary.
+   */
+  long hitCount;
+  /**
+   * Lookups that added their string to the dictionary.
+   */
+  long missCount;
+  /**
+   * Strings evicted to make room for others, or because they weren't looked up for a while.
+   */
+  long evictionCount;
+}
@@ -0,0 +1,155 @@
+package org.galatea.starter.utils.collections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.LongConsumer;
+
+/**
+ * A growable list of primitive longs, for ids that would otherwise each be boxed into a Long.
+ *
+ * <p>Not thread safe. asList gives a List&lt;Long&gt; view for APIs that only take boxed ids,
+ * which boxes each id only as it is read.
+ */
+public final class LongArrayList {
+
+  private static final long[] EMPTY = {};
+
+  private long[] elements;
+
+  private int size;
+
+  /**
+   * Creates an empty list.
+   */
+  public LongArrayList() {
+    elements = EMPTY;
+  }
+
+  /**
+   * Creates an empty list that can hold initialCapacity elements before it has to grow.
+   */
+  public LongArrayList(final int initialCapacity) {
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException("Capacity can't be negative: " + initialCapacity);
+    }
+    elements = initialCapacity == 0 ? EMPTY : new long[initialCapacity];
+  }
+
+  /**
+   * Returns a list of the given elements, in order.
+   */
+  public static LongArrayList of(final long... elements) {
+    LongArrayList list = new LongArrayList(elements.length);
+    System.arraycopy(elements, 0, list.elements, 0, elements.length);
+    list.size = elements.length;
+    return list;
+  }
+
+  /**
+   * Appends the element to the end of the list.
+   */
+  public void add(final long element) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, Math.max(8, size + (size >> 1)));
+    }
+    elements[size++] = element;
+  }
+
+  /**
+   * Returns the element at the index.
+   *
+   * @throws IndexOutOfBoundsException if the index is negative or not less than the size
+   */
+  public long get(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+    return elements[index];
+  }
+
+  /**
+   * Returns the number of elements.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns true if there are no elements.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Hands each element to the consumer, in order.
+   */
+  public void forEach(final LongConsumer consumer) {
+    for (int i = 0; i < size; i++) {
+      consumer.accept(elements[i]);
+    }
+  }
+
+  /**
+   * Returns a copy of the elements.
+   */
+  public long[] toArray() {
+    return Arrays.copyOf(elements, size);
+  }
+
+  /**
+   * Returns a read only List&lt;Long&gt; view of the list, which boxes elements as they are read.
+   */
+  public List<Long> asList() {
+    return new BoxedView();
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof LongArrayList)) {
+      return false;
+    }
+    LongArrayList that = (LongArrayList) other;
+    return Arrays.equals(elements, 0, size, that.elements, 0, that.size);
+  }
+
+  @Override
+  public int hashCode() {
+    // Same as List.hashCode, so that it matches the boxed view's
+    int hash = 1;
+    for (int i = 0; i < size; i++) {
+      hash = 31 * hash + Long.hashCode(elements[i]);
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(2 + size * 4).append('[');
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(elements[i]);
+    }
+    return builder.append(']').toString();
+  }
+
+  private final class BoxedView extends AbstractList<Long> implements RandomAccess {
+
+    @Override
+    public Long get(final int index) {
+      return LongArrayList.this.get(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package org.galatea.starter.utils.collections;
+
+/**
+ * Parses comma separated lists of longs, such as the ids=1,2,3 request parameter, straight into a
+ * LongArrayList.
+ *
+ * <p>Unlike splitting the string and parsing each part, nothing is allocated besides the list,
+ * which is sized exactly by counting the commas first. The accepted syntax is the same as that of
+ * split(",") followed by Long.parseLong: each value is an optionally signed decimal number with no
+ * surrounding whitespace, trailing empty values are ignored and any other empty value is an error.
+ */
+public final class LongCsvParser {
+
+  private LongCsvParser() {}
+
+  /**
+   * Parses the comma separated longs.
+   *
+   * @throws NumberFormatException if any of the values isn't a long
+   */
+  public static LongArrayList parse(final CharSequence csv) {
+    int end = csv.length();
+    // Trailing empty values are dropped, as split does. A csv of only commas has no values at all
+    while (end > 0 && csv.charAt(end - 1) == ',') {
+      end--;
+    }
+    if (end == 0) {
+      if (csv.length() == 0) {
+        throw invalid(csv, 0, 0);
+      }
+      return new LongArrayList(0);
+    }
+
+    int count = 1;
+    for (int i = 0; i < end; i++) {
+      if (csv.charAt(i) == ',') {
+        count++;
+      }
+    }
+
+    LongArrayList values = new LongArrayList(count);
+    int start = 0;
+    for (int i = 0; i <= end; i++) {
+      if (i == end || csv.charAt(i) == ',') {
+        values.add(parseLong(csv, start, i));
+        start = i + 1;
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Parses the characters from start (inclusive) to end (exclusive) the way Long.parseLong does,
+   * accumulating negatively so that Long.MIN_VALUE can be parsed.
+   */
+  private static long parseLong(final CharSequence csv, final int start, final int end) {
+    if (start == end) {
+      throw invalid(csv, start, end);
+    }
+    int i = start;
+    char first = csv.charAt(i);
+    boolean negative = first == '-';
+    if (negative || first == '+') {
+      i++;
+      if (i == end) {
+        throw invalid(csv, start, end);
+      }
+    }
+    long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long multiplyLimit = limit / 10;
+    long result = 0;
+    for (; i < end; i++) {
+      char c = csv.charAt(i);
+      // Character.digit also accepts non ASCII digits, as Long.parseLong does, but is slow
+      int digit = c >= '0' && c <= '9' ? c - '0' : Character.digit(c, 10);
+      if (digit < 0 || result < multiplyLimit) {
+        throw invalid(csv, start, end);
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        throw invalid(csv, start, end);
+      }
+      result -= digit;
+    }
+    return negative ? result : -result;
+  }
+
+  private static NumberFormatException invalid(final CharSequence csv, final int start,
+      final int end) {
+    return new NumberFormatException("For input string: \"" + csv.subSequence(start, end) + "\"");
+  }
+}
@@ -0,0 +1,221 @@
+package org.galatea.starter.utils.collections;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A set of primitive longs, for ids that would otherwise each be boxed into a Long and wrapped in
+ * a HashMap node.
+ *
+ * <p>Elements are kept in a single open addressing table with linear probing, with 0 marking a
+ * free slot; whether 0 itself is in the set is tracked separately. The table is a power of two
+ * and is kept at most half full, so probe sequences stay short. Iteration order is unspecified,
+ * as with HashSet. Not thread safe.
+ */
+public final class LongHashSet {
+
+  private static final int MIN_CAPACITY = 8;
+
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private long[] table;
+
+  private int mask;
+
+  private boolean containsZero;
+
+  private int size;
+
+  /**
+   * Creates an empty set.
+   */
+  public LongHashSet() {
+    this(MIN_CAPACITY / 2);
+  }
+
+  /**
+   * Creates an empty set that can hold expectedSize elements before it has to grow.
+   */
+  public LongHashSet(final int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Expected size can't be negative: " + expectedSize);
+    }
+    allocate(capacityFor(expectedSize));
+  }
+
+  /**
+   * Returns a set of the given elements.
+   */
+  public static LongHashSet of(final long... elements) {
+    LongHashSet set = new LongHashSet(elements.length);
+    for (long element : elements) {
+      set.add(element);
+    }
+    return set;
+  }
+
+  /**
+   * Adds the element to the set.
+   *
+   * @return true if the element wasn't already in the set
+   */
+  public boolean add(final long element) {
+    if (element == 0) {
+      if (containsZero) {
+        return false;
+      }
+      containsZero = true;
+      size++;
+      return true;
+    }
+    int slot = slotFor(element);
+    long current;
+    while ((current = table[slot]) != 0) {
+      if (current == element) {
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+    table[slot] = element;
+    if (++size > table.length / 2) {
+      if (table.length == MAX_CAPACITY) {
+        throw new IllegalStateException("LongHashSet is full: " + size);
+      }
+      allocate(table.length * 2);
+    }
+    return true;
+  }
+
+  /**
+   * Returns true if the element is in the set.
+   */
+  public boolean contains(final long element) {
+    if (element == 0) {
+      return containsZero;
+    }
+    int slot = slotFor(element);
+    long current;
+    while ((current = table[slot]) != 0) {
+      if (current == element) {
+        return true;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of elements.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns true if there are no elements.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Hands each element to the consumer, in no particular order.
+   */
+  public void forEach(final LongConsumer consumer) {
+    if (containsZero) {
+      consumer.accept(0);
+    }
+    for (long element : table) {
+      if (element != 0) {
+        consumer.accept(element);
+      }
+    }
+  }
+
+  /**
+   * Returns the elements, in no particular order.
+   */
+  public long[] toArray() {
+    long[] elements = new long[size];
+    int i = 0;
+    if (containsZero) {
+      i++;
+    }
+    for (long element : table) {
+      if (element != 0) {
+        elements[i++] = element;
+      }
+    }
+    return elements;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof LongHashSet)) {
+      return false;
+    }
+    LongHashSet that = (LongHashSet) other;
+    if (size != that.size || containsZero != that.containsZero) {
+      return false;
+    }
+    for (long element : table) {
+      if (element != 0 && !that.contains(element)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    // Same as Set.hashCode of the boxed elements, where 0 hashes to 0
+    int hash = 0;
+    for (long element : table) {
+      hash += Long.hashCode(element);
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    long[] elements = toArray();
+    Arrays.sort(elements);
+    return Arrays.toString(elements);
+  }
+
+  /**
+   * Spreads the bits of the element over the slot index, since ids are often sequential.
+   */
+  private int slotFor(final long element) {
+    long hash = element * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+
+  private void allocate(final int capacity) {
+    long[] old = table;
+    table = new long[capacity];
+    mask = capacity - 1;
+    if (old != null) {
+      for (long element : old) {
+        if (element != 0) {
+          int slot = slotFor(element);
+          while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+          }
+          table[slot] = element;
+        }
+      }
+    }
+  }
+
+  private static int capacityFor(final int expectedSize) {
+    long needed = Math.max(MIN_CAPACITY, 2L * expectedSize + 1);
+    if (needed > MAX_CAPACITY) {
+      throw new IllegalArgumentException("Too many elements for a LongHashSet: " + expectedSize);
+    }
+    return Integer.highestOneBit((int) needed - 1) << 1;
+  }
+}
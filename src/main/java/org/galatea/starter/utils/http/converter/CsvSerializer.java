@@ -1,14 +1,35 @@
 package org.galatea.starter.utils.http.converter;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.fasterxml.jackson.dataformat.csv.CsvMapper;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import java.io.IOException;
+import java.io.OutputStream;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class CsvSerializer {
 
+  // Jackson CSV uses the property names for the header row by default. To have a custom header
+  // for one or more columns, see
+  // https://stackoverflow.com/questions/40221223/jackson-dataformat-csv-are-custom-column-names-possible
+  private static final CsvMapper MAPPER = (CsvMapper) new CsvMapper()
+      .disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
+
+  // Writers are immutable and thread safe, so the schema of each class is only computed once and
+  // the writer for it is shared by all requests
+  private static final ClassValue<ObjectWriter> WRITERS = new ClassValue<ObjectWriter>() {
+    @Override
+    protected ObjectWriter computeValue(final Class<?> clazz) {
+      CsvSchema schema = MAPPER.schemaFor(clazz).withHeader();
+      // Streams passed to writeCsv belong to the caller
+      return MAPPER.writer(schema).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+  };
+
   private CsvSerializer() {}
 
   /**
@@ -29,13 +50,27 @@ public class CsvSerializer {
       throws IOException {
     // Note that Jackson CSV doesn't work on objects with fields that hold complex objects
     // See https://github.com/FasterXML/jackson-dataformat-csv/issues/9
-    CsvMapper mapper = new CsvMapper();
-    mapper.disable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
-    // Jackson CSV uses the property names for the header row by default. To have a custom header
-    // for one or more columns, see
-    // https://stackoverflow.com/questions/40221223/jackson-dataformat-csv-are-custom-column-names-possible
-    CsvSchema schema = mapper.schemaFor(clazz).withHeader();
-    return mapper.writer(schema).writeValueAsString(rows);
+    return WRITERS.get(clazz).writeValueAsString(rows);
     // See CsvWriterTest for examples of Jackson CSV behavior
   }
+
+  /**
+   * Serialize the given objects to a CSV document written straight to the given stream.
+   *
+   * <p>Same output as serializeToCsv, but rows are encoded one at a time into the stream through
+   * Jackson's recycled (per thread) buffers, so the document is never held in memory as a String
+   * or byte array. Rows are pulled from the iterable one at a time, so it can be backed by a
+   * lazily loaded source. The stream is flushed but not closed.
+   *
+   * @param rows the collection of objects that should be serialized into the CSV document
+   * @param clazz the class that is the type of the row data
+   * @param out the stream to write the CSV document to, as UTF-8
+   * @param <T> the type of the row data
+   */
+  public static <T> void writeCsv(final Iterable<T> rows, final Class<T> clazz,
+      final OutputStream out) throws IOException {
+    try (SequenceWriter writer = WRITERS.get(clazz).writeValues(out)) {
+      writer.writeAll(rows);
+    }
+  }
 }
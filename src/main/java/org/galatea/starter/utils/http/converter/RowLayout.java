@@ -0,0 +1,141 @@
+package org.galatea.starter.utils.http.converter;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import lombok.SneakyThrows;
+
+/**
+ * The columns that a row class is serialized to: a header and a getter per serialized field.
+ *
+ * <p>Layouts are computed once per class and cached, so the class hierarchy and annotations are
+ * only walked the first time a class is serialized. Fields are read with MethodHandles rather than
+ * reflection, which skips the access checks and argument boxing of Field#get on every cell.
+ */
+final class RowLayout {
+
+  private static final ClassValue<RowLayout> LAYOUTS = new ClassValue<RowLayout>() {
+    @Override
+    protected RowLayout computeValue(final Class<?> clazz) {
+      return new RowLayout(clazz);
+    }
+  };
+
+  private final List<String> headers;
+
+  private final MethodHandle[] getters;
+
+  @SneakyThrows(IllegalAccessException.class)
+  private RowLayout(final Class<?> clazz) {
+    List<Field> fields = getFieldsToSerialize(clazz);
+    List<String> headerValues = new ArrayList<>(fields.size());
+    getters = new MethodHandle[fields.size()];
+    for (int col = 0; col < fields.size(); col++) {
+      Field field = fields.get(col);
+      headerValues.add(getHeaderValue(field));
+      // A private lookup in the declaring class can read its private fields without
+      // setAccessible. The getter is adapted to (Object)Object so that it can be invoked exactly.
+      MethodHandles.Lookup lookup =
+          MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+      MethodHandle getter = lookup.unreflectGetter(field);
+      if (Modifier.isStatic(field.getModifiers())) {
+        // Static getters take no row, so ignore it
+        getter = MethodHandles.dropArguments(getter, 0, Object.class);
+      }
+      getters[col] = getter.asType(MethodType.methodType(Object.class, Object.class));
+    }
+    headers = Collections.unmodifiableList(headerValues);
+  }
+
+  /**
+   * Returns the layout of the given class, computing it the first time it is asked for.
+   */
+  static RowLayout of(final Class<?> clazz) {
+    return LAYOUTS.get(clazz);
+  }
+
+  /**
+   * Returns the column headers, in column order.
+   */
+  List<String> getHeaders() {
+    return headers;
+  }
+
+  /**
+   * Returns the number of columns.
+   */
+  int size() {
+    return getters.length;
+  }
+
+  /**
+   * Reads the value of the given column from the given row.
+   */
+  @SneakyThrows
+  Object read(final Object row, final int col) {
+    return getters[col].invokeExact(row);
+  }
+
+  /*
+   * Get a list of all fields in the given class, including inherited and private fields, but
+   * excluding any @JsonIgnore'd fields.
+   */
+  private static List<Field> getFieldsToSerialize(final Class<?> clazz) {
+    List<Field> fields = new ArrayList<>();
+    // Class#getFields() gets all public fields in a class including inherited fields, while
+    // Class#getDeclaredFields() gets all fields in a class excluding inherited fields
+    // To get all fields in the class, we do getDeclaredFields() all the way up the class hierarchy
+    if (clazz.getSuperclass() != null) {
+      fields = getFieldsToSerialize(clazz.getSuperclass());
+    }
+
+    Arrays.stream(clazz.getDeclaredFields())
+        .filter(RowLayout::shouldSerializeField)
+        .forEach(fields::add);
+    return fields;
+  }
+
+  /*
+   * Check whether a field should be serialized.
+   *
+   * Returns false if the field is synthetic, transient, or @JsonIgnore-d, and true otherwise.
+   */
+  private static boolean shouldSerializeField(final Field field) {
+    // Jacoco adds a synthetic member variable "$jacocoData" to classes under test. Ignore such
+    // synthetic fields to avoid inconsistent test behavior.
+    // https://github.com/jacoco/jacoco/issues/168
+    // http://mylearningdump.blogspot.com/2017/05/java-reflection-synthetic-members-and.html
+    if (field.isSynthetic()) {
+      return false;
+    }
+    // The transient keyword indicates that a variable should not be serialized
+    if (Modifier.isTransient(field.getModifiers())) {
+      return false;
+    }
+    // Ignore any fields that have a @JsonIgnore annotation
+    JsonIgnore jsonIgnore = field.getAnnotation(JsonIgnore.class);
+    return jsonIgnore == null || !jsonIgnore.value();
+  }
+
+  /*
+   * Get the column header that should be used for the given field. If a @JsonProperty annotation
+   * is present on the field, use that annotation's value as the header, otherwise use the field
+   * name.
+   */
+  private static String getHeaderValue(final Field field) {
+    // Could also use a custom annotation instead of JsonProperty if different configuration is
+    // needed for JSON and XLSX serialization
+    JsonProperty customHeaderNameAnnotation = field.getAnnotation(JsonProperty.class);
+    return customHeaderNameAnnotation == null
+        ? field.getName()
+        : customHeaderNameAnnotation.value();
+  }
+}
@@ -14,17 +14,29 @@ import org.springframework.http.converter.AbstractHttpMessageConverter;
 /**
  * Custom HttpMessageConverter implementation to automatically convert a SettlementMissionList to an
  * XLSX spreadsheet when returning the SettlementMissionList in an HTTP response.
+ *
+ * <p>The spreadsheet is streamed into the response body, holding at most rowWindow rows in memory
+ * (see XlsxSerializer#writeXlsx).
  */
 // See comments throughout SettlementMissionCsvConverter
 @Slf4j
 public class SettlementMissionXlsxConverter
     extends AbstractHttpMessageConverter<SettlementMissionList> {
 
+  private final int rowWindow;
+
+  private final boolean compressTempFiles;
+
   /**
    * Construct a SettlementMissionXlsxConverter that supports an Excel MediaType.
+   *
+   * @param rowWindow the number of rows to keep in memory while writing a spreadsheet
+   * @param compressTempFiles whether to compress the temp file holding the rows flushed from memory
    */
-  public SettlementMissionXlsxConverter() {
+  public SettlementMissionXlsxConverter(final int rowWindow, final boolean compressTempFiles) {
     super(MvcConfig.APPLICATION_EXCEL);
+    this.rowWindow = rowWindow;
+    this.compressTempFiles = compressTempFiles;
   }
 
   @Override
@@ -44,8 +56,8 @@ public class SettlementMissionXlsxConverter
   protected void writeInternal(final SettlementMissionList settlementMissionList,
       final HttpOutputMessage outputMessage) throws IOException {
     log.info("Converting SettlementMissionList to XLSX for HTTP response");
-    outputMessage.getBody().write(XlsxSerializer.serializeToXlsx(
-        settlementMissionList.getSettlementMissions(), SettlementMission.class));
+    XlsxSerializer.writeXlsx(settlementMissionList.getSettlementMissions(),
+        SettlementMission.class, outputMessage.getBody(), rowWindow, compressTempFiles);
     log.info("Converted SettlementMissionList to XLSX");
   }
 
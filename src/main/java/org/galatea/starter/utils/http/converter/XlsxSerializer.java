@@ -1,22 +1,17 @@
 package org.galatea.starter.utils.http.converter;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.fasterxml.jackson.annotation.JsonProperty;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.reflect.FieldUtils;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 @Slf4j
@@ -42,71 +37,44 @@ public class XlsxSerializer {
     // SXSSF is the streaming version of XSSF, and is useful for working with large spreadsheets
     try (Workbook wb = new XSSFWorkbook()) {
       Sheet sheet = wb.createSheet(clazz.getSimpleName());
-      List<Field> fieldsToSerialize = getFieldsToSerialize(clazz);
-      populateHeaderRow(sheet, getHeaderValues(fieldsToSerialize));
-      populateDataRows(sheet, fieldsToSerialize, rows);
+      RowLayout layout = RowLayout.of(clazz);
+      populateHeaderRow(sheet, layout.getHeaders());
+      populateDataRows(sheet, layout, rows);
       return writeSpreadsheetToBytes(wb);
     }
   }
 
-  /*
-   * Get a list of all fields in the given class, including inherited and private fields, but
-   * excluding any @JsonIgnore'd fields.
-   */
-  private static List<Field> getFieldsToSerialize(final Class<?> clazz) {
-    List<Field> fields = new ArrayList<>();
-    // Class#getFields() gets all public fields in a class including inherited fields, while
-    // Class#getDeclaredFields() gets all fields in a class excluding inherited fields
-    // To get all fields in the class, we do getDeclaredFields() all the way up the class hierarchy
-    if (clazz.getSuperclass() != null) {
-      fields = getFieldsToSerialize(clazz.getSuperclass());
-    }
-
-    Arrays.stream(clazz.getDeclaredFields())
-        .filter(XlsxSerializer::shouldSerializeField)
-        .forEach(fields::add);
-    return fields;
-  }
-
-  /*
-   * Check whether a field should be serialized.
+  /**
+   * Serialize the given objects to an XLSX spreadsheet written straight to the given stream, with
+   * bounded memory.
    *
-   * Returns false if the field is synthetic, transient, or @JsonIgnore-d, and true otherwise.
-   */
-  private static boolean shouldSerializeField(final Field field) {
-    // Jacoco adds a synthetic member variable "$jacocoData" to classes under test. Ignore such
-    // synthetic fields to avoid inconsistent test behavior.
-    // https://github.com/jacoco/jacoco/issues/168
-    // http://mylearningdump.blogspot.com/2017/05/java-reflection-synthetic-members-and.html
-    if (field.isSynthetic()) {
-      return false;
-    }
-    // The transient keyword indicates that a variable should not be serialized
-    if (Modifier.isTransient(field.getModifiers())) {
-      return false;
-    }
-    // Ignore any fields that have a @JsonIgnore annotation
-    JsonIgnore jsonIgnore = field.getAnnotation(JsonIgnore.class);
-    return jsonIgnore == null || !jsonIgnore.value();
-  }
-
-  /*
-   * Get the column headers that should be used for the given fields. If a @JsonProperty annotation
-   * is present on a given field, use that annotation's value as the header, otherwise use the field
-   * name.
+   * <p>Only the last rowWindow rows are held in memory; older rows are flushed to a temp file
+   * (gzipped if compressTempFiles is set, trading CPU for disk), which is copied into the stream
+   * once all rows have been written. Rows are pulled from the iterable one at a time, so it can be
+   * backed by a lazily loaded source. The stream is not closed.
+   *
+   * @param rows the row data that the spreadsheet should hold
+   * @param clazz the class that is the type of the row data
+   * @param out the stream to write the xlsx spreadsheet to
+   * @param rowWindow the number of rows to keep in memory
+   * @param compressTempFiles whether to compress the temp file holding the flushed rows
+   * @param <T> the type of the row data
    */
-  private static List<String> getHeaderValues(final List<Field> fields) {
-    List<String> headers = new ArrayList<>();
-    for (Field field : fields) {
-      // Could also use a custom annotation instead of JsonProperty if different configuration is
-      // needed for JSON and XLSX serialization
-      JsonProperty customHeaderNameAnnotation = field.getAnnotation(JsonProperty.class);
-      String header = customHeaderNameAnnotation == null
-          ? field.getName()
-          : customHeaderNameAnnotation.value();
-      headers.add(header);
+  public static <T> void writeXlsx(final Iterable<T> rows, final Class<T> clazz,
+      final OutputStream out, final int rowWindow, final boolean compressTempFiles)
+      throws IOException {
+    SXSSFWorkbook wb = new SXSSFWorkbook(null, rowWindow, compressTempFiles);
+    try {
+      Sheet sheet = wb.createSheet(clazz.getSimpleName());
+      RowLayout layout = RowLayout.of(clazz);
+      populateHeaderRow(sheet, layout.getHeaders());
+      populateDataRows(sheet, layout, rows);
+      wb.write(out);
+    } finally {
+      // Closing the workbook doesn't delete the temp file, disposing of it does
+      wb.dispose();
+      wb.close();
     }
-    return headers;
   }
 
   /*
@@ -123,16 +91,15 @@ public class XlsxSerializer {
   /*
    * Populate the rows of the given sheet using the given row data.
    */
-  @SneakyThrows(IllegalAccessException.class)
-  private static <T> void populateDataRows(final Sheet sheet, final List<Field> fieldsToSerialize,
+  private static <T> void populateDataRows(final Sheet sheet, final RowLayout layout,
       final Iterable<T> rows) {
     int rowIndex = 1; // header is row 0
     for (T row : rows) {
       Row dataRow = sheet.createRow(rowIndex);
       rowIndex++;
-      for (int col = 0; col < fieldsToSerialize.size(); col++) {
+      for (int col = 0; col < layout.size(); col++) {
         Cell dataCell = dataRow.createCell(col);
-        Object cellObject = FieldUtils.readField(fieldsToSerialize.get(col), row, true);
+        Object cellObject = layout.read(row, col);
         dataCell.setCellValue(stringify(cellObject));
       }
     }
@@ -0,0 +1,205 @@
+package org.galatea.starter.utils.jms;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Consumes a queue in batches rather than one message at a time.
+ *
+ * <p>Each consumer thread receives up to maxBatchSize messages, waiting at most maxWaitMillis
+ * after the first message of a batch arrives, and hands them to the listener together. All the
+ * messages of a batch are received on one transacted session, which is committed only after the
+ * listener returns, so acknowledgement is tied to the whole batch being processed. If the listener
+ * throws, the session is rolled back and the broker redelivers the batch (and eventually moves
+ * the messages to its dead letter queue, according to its redelivery policy).
+ *
+ * <p>Spring's DefaultMessageListenerContainer only ever dispatches a single message per listener
+ * invocation, which is why this is not built on top of it.
+ */
+@RequiredArgsConstructor
+@Slf4j
+@ToString(of = {"destination", "concurrency", "maxBatchSize", "maxWaitMillis"})
+public class BatchingJmsConsumer implements SmartLifecycle {
+
+  /**
+   * How long a consumer blocks waiting for the first message of a batch before checking whether it
+   * has been stopped.
+   */
+  private static final long IDLE_RECEIVE_TIMEOUT_MILLIS = 1000;
+
+  private static final long RECOVERY_INTERVAL_MILLIS = 5000;
+
+  @NonNull
+  private final ConnectionFactory connectionFactory;
+
+  @NonNull
+  private final String destination;
+
+  @NonNull
+  private final IBatchMessageListener listener;
+
+  private final int concurrency;
+
+  private final int maxBatchSize;
+
+  private final long maxWaitMillis;
+
+  @NonNull
+  private final MeterRegistry meterRegistry;
+
+  private volatile boolean running;
+
+  private ExecutorService consumers;
+
+  @Override
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    log.info("Starting {}", this);
+    running = true;
+    consumers = Executors.newFixedThreadPool(concurrency,
+        new CustomizableThreadFactory("jms-batch-" + destination + "-"));
+    for (int i = 0; i < concurrency; i++) {
+      consumers.execute(this::consumeUntilStopped);
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    log.info("Stopping {}", this);
+    running = false;
+    consumers.shutdown();
+    try {
+      // Consumers notice the flag within one receive timeout, plus however long the batch they are
+      // currently processing takes
+      if (!consumers.awaitTermination(RECOVERY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+        log.warn("Batch consumers for {} did not stop in time", destination);
+        consumers.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      consumers.shutdownNow();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Consumes batches until stopped, reconnecting after a JMS failure.
+   */
+  private void consumeUntilStopped() {
+    while (running) {
+      Connection connection = null;
+      Session session = null;
+      MessageConsumer consumer = null;
+      try {
+        connection = connectionFactory.createConnection();
+        session = connection.createSession(true, Session.SESSION_TRANSACTED);
+        consumer = session.createConsumer(session.createQueue(destination));
+        connection.start();
+
+        while (running) {
+          consumeBatch(session, consumer);
+        }
+      } catch (JMSException e) {
+        log.error("Batch consumer for {} failed. Reconnecting in {} ms.", destination,
+            RECOVERY_INTERVAL_MILLIS, e);
+        sleepBeforeRecovery();
+      } finally {
+        JmsUtils.closeMessageConsumer(consumer);
+        JmsUtils.closeSession(session);
+        JmsUtils.closeConnection(connection, true);
+      }
+    }
+  }
+
+  /**
+   * Receives one batch and commits it once the listener has processed it.
+   */
+  private void consumeBatch(final Session session, final MessageConsumer consumer)
+      throws JMSException {
+    List<Message> batch = receiveBatch(consumer);
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    Timer.Sample sample = Timer.start(meterRegistry);
+    try {
+      listener.onMessages(batch);
+    } catch (JMSException | RuntimeException e) {
+      JmsMetrics.recordProcessed(meterRegistry, sample, JmsMetrics.BATCH_TIMER, destination,
+          JmsMetrics.FAILURE, batch.size());
+      log.error("Failed to process a batch of {} message(s) from {}. Rolling back.", batch.size(),
+          destination, e);
+      session.rollback();
+      return;
+    }
+    session.commit();
+    JmsMetrics.recordProcessed(meterRegistry, sample, JmsMetrics.BATCH_TIMER, destination,
+        JmsMetrics.SUCCESS, batch.size());
+    log.debug("Committed a batch of {} message(s) from {}", batch.size(), destination);
+  }
+
+  /**
+   * Returns up to maxBatchSize messages, or an empty batch if nothing arrived while idle.
+   */
+  private List<Message> receiveBatch(final MessageConsumer consumer) throws JMSException {
+    List<Message> batch = new ArrayList<>(maxBatchSize);
+
+    Message message = consumer.receive(IDLE_RECEIVE_TIMEOUT_MILLIS);
+    if (message == null) {
+      return batch;
+    }
+    batch.add(message);
+
+    // The wait is measured from the first message, so a trickle of messages can't hold a batch
+    // open for longer than maxWaitMillis
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    while (batch.size() < maxBatchSize) {
+      long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remainingMillis <= 0) {
+        break;
+      }
+      message = consumer.receive(remainingMillis);
+      if (message == null) {
+        break;
+      }
+      batch.add(message);
+    }
+    return batch;
+  }
+
+  private void sleepBeforeRecovery() {
+    try {
+      Thread.sleep(RECOVERY_INTERVAL_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package org.galatea.starter.utils.jms;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.function.BiConsumer;
 import javax.jms.Message;
 import lombok.EqualsAndHashCode;
@@ -20,9 +21,12 @@ public class FuseJmsListenerContainerFactory extends DefaultJmsListenerContainer
   @NonNull
   protected BiConsumer<Message, Exception> failedMessageConsumer;
 
+  @NonNull
+  protected MeterRegistry meterRegistry;
+
   @Override
   protected DefaultMessageListenerContainer createContainerInstance() {
-    return new FuseMessageListenerContainer(failedMessageConsumer);
+    return new FuseMessageListenerContainer(failedMessageConsumer, meterRegistry);
   }
 
 }
@@ -1,5 +1,7 @@
 package org.galatea.starter.utils.jms;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.util.function.BiConsumer;
 import javax.jms.JMSException;
 import javax.jms.Message;
@@ -21,6 +23,9 @@ public class FuseMessageListenerContainer extends DefaultMessageListenerContaine
   @NonNull
   protected BiConsumer<Message, Exception> failedMessageConsumer;
 
+  @NonNull
+  protected MeterRegistry meterRegistry;
+
   @Override
   @SneakyThrows
   protected void invokeListener(final Session session, final Message message) {
@@ -31,10 +36,16 @@ public class FuseMessageListenerContainer extends DefaultMessageListenerContaine
     // retried. That being said, the failed message consumer could decide to throw a
     // RuntimeException, which would result in the message being placed back on the queue. While
     // this is not encouraged, there may be certain circumstances where that is necessary.
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String outcome = JmsMetrics.FAILURE;
     try {
       super.invokeListener(session, message);
+      outcome = JmsMetrics.SUCCESS;
     } catch (JMSException e) {
       failedMessageConsumer.accept(message, e);
+    } finally {
+      JmsMetrics.recordProcessed(meterRegistry, sample, JmsMetrics.MESSAGE_TIMER,
+          String.valueOf(getDestinationName()), outcome, 1);
     }
   }
 }
@@ -0,0 +1,18 @@
+package org.galatea.starter.utils.jms;
+
+import java.util.List;
+import javax.jms.JMSException;
+import javax.jms.Message;
+
+/**
+ * Handles a batch of messages received by a BatchingJmsConsumer.
+ */
+@FunctionalInterface
+public interface IBatchMessageListener {
+
+  /**
+   * Processes the batch. The messages are acknowledged once this returns, and are all redelivered
+   * if it throws.
+   */
+  void onMessages(List<Message> messages) throws JMSException;
+}
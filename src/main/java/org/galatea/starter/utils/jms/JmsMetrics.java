@@ -0,0 +1,41 @@
+package org.galatea.starter.utils.jms;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Names and records the metrics of the JMS consumers, tagged by queue so that the consumption rate
+ * and processing latency of each queue can be told apart.
+ */
+final class JmsMetrics {
+
+  /**
+   * Time taken to process a single message, by FuseMessageListenerContainer.
+   */
+  static final String MESSAGE_TIMER = "jms.listener.process";
+
+  /**
+   * Time taken to process a batch of messages, by BatchingJmsConsumer.
+   */
+  static final String BATCH_TIMER = "jms.batch.process";
+
+  /**
+   * Number of messages consumed, whether singly or in batches.
+   */
+  static final String CONSUMED_COUNTER = "jms.messages.consumed";
+
+  static final String SUCCESS = "success";
+
+  static final String FAILURE = "failure";
+
+  private JmsMetrics() {}
+
+  /**
+   * Stops the sample with the given timer and counts the messages it processed.
+   */
+  static void recordProcessed(final MeterRegistry registry, final Timer.Sample sample,
+      final String timerName, final String queue, final String outcome, final int messageCount) {
+    sample.stop(registry.timer(timerName, "queue", queue, "outcome", outcome));
+    registry.counter(CONSUMED_COUNTER, "queue", queue, "outcome", outcome).increment(messageCount);
+  }
+}
@@ -0,0 +1,225 @@
+package org.galatea.starter.utils.logging;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.ToString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+
+/**
+ * Logs the calls to one class's methods according to the class's Logged annotation.
+ */
+@ToString(of = {"logger", "level", "exceptionLevel", "maxValueLength", "sampleRate"})
+public class CallLogger {
+
+  private static final ClassValue<CallLogger> LOGGERS = new ClassValue<CallLogger>() {
+    @Override
+    protected CallLogger computeValue(final Class<?> type) {
+      Logged logged = type.getAnnotation(Logged.class);
+      Logger logger = LoggerFactory.getLogger(type);
+      return logged == null ? new CallLogger(logger, Level.DEBUG, Level.ERROR, 256, 1.0)
+          : new CallLogger(logger, logged.level(), logged.exceptionLevel(),
+              logged.maxValueLength(), logged.sampleRate());
+    }
+  };
+
+  @Getter
+  private final Logger logger;
+
+  private final Level level;
+
+  private final Level exceptionLevel;
+
+  private final int maxValueLength;
+
+  private final double sampleRate;
+
+  CallLogger(final Logger logger, final Level level, final Level exceptionLevel,
+      final int maxValueLength, final double sampleRate) {
+    this.logger = logger;
+    this.level = level;
+    this.exceptionLevel = exceptionLevel;
+    this.maxValueLength = maxValueLength;
+    this.sampleRate = sampleRate;
+  }
+
+  /**
+   * Returns the logger for the methods declared by the given class.
+   */
+  public static CallLogger of(final Class<?> type) {
+    return LOGGERS.get(type);
+  }
+
+  /**
+   * Returns true if calls are logged at all, i.e. the level is enabled.
+   */
+  public boolean isEnabled() {
+    switch (level) {
+      case ERROR:
+        return logger.isErrorEnabled();
+      case WARN:
+        return logger.isWarnEnabled();
+      case INFO:
+        return logger.isInfoEnabled();
+      case DEBUG:
+        return logger.isDebugEnabled();
+      default:
+        return logger.isTraceEnabled();
+    }
+  }
+
+  /**
+   * Decides whether this call is one of the sampled ones.
+   */
+  public boolean sample() {
+    return sampleRate >= 1
+        || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+  }
+
+  /**
+   * Logs the start of a call.
+   */
+  public void enter(final String method, final Object[] args) {
+    StringBuilder message = new StringBuilder("-> ").append(method).append('(');
+    for (int i = 0; i < args.length; i++) {
+      if (i > 0) {
+        message.append(", ");
+      }
+      appendValue(message, args[i]);
+    }
+    log(message.append(')').toString());
+  }
+
+  /**
+   * Logs the successful end of a call.
+   */
+  public void exit(final String method, final boolean isVoid, final Object result,
+      final long elapsedNanos) {
+    StringBuilder message = new StringBuilder("<- ").append(method);
+    if (!isVoid) {
+      message.append(" returned ");
+      appendValue(message, result);
+    }
+    message.append(" in ").append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append(" ms");
+    log(message.toString());
+  }
+
+  /**
+   * Logs a call that threw, with the stack trace, at the exception level, whether or not the call
+   * was sampled and the level of calls is enabled.
+   */
+  public void threw(final String method, final Throwable thrown, final long elapsedNanos) {
+    String message = "<- " + method + " threw in "
+        + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms";
+    switch (exceptionLevel) {
+      case ERROR:
+        logger.error(message, thrown);
+        break;
+      case WARN:
+        logger.warn(message, thrown);
+        break;
+      case INFO:
+        logger.info(message, thrown);
+        break;
+      case DEBUG:
+        logger.debug(message, thrown);
+        break;
+      default:
+        logger.trace(message, thrown);
+    }
+  }
+
+  /**
+   * Appends the value, cut short at maxValueLength characters. Collections, maps and arrays are
+   * appended element by element, so a large one is never converted to a string as a whole.
+   */
+  void appendValue(final StringBuilder message, final Object value) {
+    int limit = message.length() + maxValueLength;
+    if (value instanceof Collection) {
+      Collection<?> collection = (Collection<?>) value;
+      appendElements(message, collection.iterator(), collection.size(), limit);
+    } else if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      appendElements(message, map.entrySet().iterator(), map.size(), limit);
+    } else if (value != null && value.getClass().isArray()) {
+      appendArray(message, value, limit);
+    } else {
+      appendTruncated(message, String.valueOf(value), limit);
+    }
+  }
+
+  private static void appendElements(final StringBuilder message, final Iterator<?> elements,
+      final int size, final int limit) {
+    message.append('[');
+    int appended = 0;
+    while (elements.hasNext() && hasRoom(message, appended, limit)) {
+      if (appended > 0) {
+        message.append(", ");
+      }
+      appendTruncated(message, String.valueOf(elements.next()), limit);
+      appended++;
+    }
+    if (appended < size) {
+      message.append("... ").append(size).append(" elements");
+    }
+    message.append(']');
+  }
+
+  private static void appendArray(final StringBuilder message, final Object array,
+      final int limit) {
+    int length = Array.getLength(array);
+    message.append('[');
+    int appended = 0;
+    while (appended < length && hasRoom(message, appended, limit)) {
+      if (appended > 0) {
+        message.append(", ");
+      }
+      appendTruncated(message, String.valueOf(Array.get(array, appended)), limit);
+      appended++;
+    }
+    if (appended < length) {
+      message.append("... ").append(length).append(" elements");
+    }
+    message.append(']');
+  }
+
+  private static boolean hasRoom(final StringBuilder message, final int appended,
+      final int limit) {
+    return message.length() + (appended > 0 ? 2 : 0) < limit;
+  }
+
+  private static void appendTruncated(final StringBuilder message, final String value,
+      final int limit) {
+    int room = limit - message.length();
+    if (value.length() <= room) {
+      message.append(value);
+    } else {
+      message.append(value, 0, Math.max(room, 0)).append("...");
+    }
+  }
+
+  private void log(final String message) {
+    switch (level) {
+      case ERROR:
+        logger.error(message);
+        break;
+      case WARN:
+        logger.warn(message);
+        break;
+      case INFO:
+        logger.info(message);
+        break;
+      case DEBUG:
+        logger.debug(message);
+        break;
+      default:
+        logger.trace(message);
+    }
+  }
+}
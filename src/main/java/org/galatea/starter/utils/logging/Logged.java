@@ -0,0 +1,45 @@
+package org.galatea.starter.utils.logging;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.slf4j.event.Level;
+
+/**
+ * Logs calls to the public methods of the annotated class, with their arguments, result and
+ * duration, through the class's own logger.
+ *
+ * <p>The logging is woven into the class when it is built (see LoggedAspect), so it costs little
+ * more than a level check when the level isn't enabled, and unlike a spring AOP proxy it also
+ * applies to objects that spring doesn't create and to calls a class makes to its own methods.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Logged {
+
+  /**
+   * The level that calls and their results are logged at.
+   */
+  Level level() default Level.DEBUG;
+
+  /**
+   * The level that calls which throw are logged at, with the stack trace. They are logged whether
+   * or not the level of calls is enabled, so a class whose exceptions are expected, e.g. because
+   * they are turned into client errors, can lower this.
+   */
+  Level exceptionLevel() default Level.ERROR;
+
+  /**
+   * The maximum number of characters each argument and result is logged with. Longer values, e.g.
+   * large lists of missions, are cut short.
+   */
+  int maxValueLength() default 256;
+
+  /**
+   * The fraction of calls that are logged, between 0 and 1. Calls that throw are always logged.
+   */
+  double sampleRate() default 1.0;
+}
@@ -0,0 +1,54 @@
+package org.galatea.starter.utils.logging;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+
+/**
+ * Logs the calls to classes annotated with Logged.
+ *
+ * <p>This aspect is woven into the compiled classes by the aspectj-maven-plugin rather than applied
+ * by spring AOP, so it is never registered as a bean and calls don't go through a proxy. A call
+ * whose level isn't enabled costs a level check and the small join point object ajc creates for
+ * around advice: no arguments are formatted and nothing is logged, unless the call throws.
+ */
+@Aspect
+public class LoggedAspect {
+
+  /**
+   * Public methods declared by a class annotated with Logged.
+   */
+  @Pointcut("execution(public !static * (@org.galatea.starter.utils.logging.Logged *).*(..))")
+  public void loggedMethod() {
+  }
+
+  /**
+   * Logs the call, its result and how long it took, if its level is enabled and it is sampled, or
+   * what it threw, whatever its level.
+   */
+  @Around("loggedMethod()")
+  public Object logCall(final ProceedingJoinPoint joinPoint) throws Throwable {
+    MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+    CallLogger logger = CallLogger.of(signature.getDeclaringType());
+    boolean sampled = logger.isEnabled() && logger.sample();
+    String method = signature.getName();
+    if (sampled) {
+      logger.enter(method, joinPoint.getArgs());
+    }
+
+    long start = System.nanoTime();
+    try {
+      Object result = joinPoint.proceed();
+      if (sampled) {
+        logger.exit(method, signature.getReturnType() == void.class, result,
+            System.nanoTime() - start);
+      }
+      return result;
+    } catch (Throwable t) {
+      logger.threw(method, t, System.nanoTime() - start);
+      throw t;
+    }
+  }
+}
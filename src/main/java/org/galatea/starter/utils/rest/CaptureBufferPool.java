@@ -0,0 +1,53 @@
+package org.galatea.starter.utils.rest;
+
+import lombok.ToString;
+import org.galatea.starter.utils.BoundedRingBuffer;
+
+/**
+ * Recycles the fixed size buffers that request and response payloads are captured into, so that
+ * tracing doesn't allocate a new buffer for every request.
+ */
+@ToString(of = {"bufferSize", "free"})
+public class CaptureBufferPool {
+
+  private final int bufferSize;
+
+  private final BoundedRingBuffer<byte[]> free;
+
+  /**
+   * Creates a pool of buffers.
+   *
+   * @param bufferSize the number of bytes captured per payload; 0 disables capture altogether
+   * @param maxPooled the number of idle buffers kept for reuse. Buffers released once the pool is
+   *     full are left to the garbage collector.
+   */
+  public CaptureBufferPool(final int bufferSize, final int maxPooled) {
+    if (bufferSize < 0) {
+      throw new IllegalArgumentException("Buffer size must not be negative: " + bufferSize);
+    }
+    this.bufferSize = bufferSize;
+    this.free = new BoundedRingBuffer<>(maxPooled);
+  }
+
+  /**
+   * Returns the number of bytes captured per payload.
+   */
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * Returns an idle buffer, or a new one if none is available.
+   */
+  byte[] acquire() {
+    byte[] buffer = free.poll();
+    return buffer != null ? buffer : new byte[bufferSize];
+  }
+
+  /**
+   * Hands a buffer back for reuse.
+   */
+  void release(final byte[] buffer) {
+    free.offer(buffer);
+  }
+}
@@ -3,32 +3,49 @@ package org.galatea.starter.utils.rest;
 import static org.galatea.starter.entrypoint.BaseRestController.EXTERNAL_REQUEST_ID;
 
 import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.Random;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
 import lombok.EqualsAndHashCode;
 import lombok.NonNull;
-import lombok.SneakyThrows;
+import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.boot.actuate.trace.http.HttpExchangeTracer;
+import org.springframework.boot.actuate.trace.http.HttpTrace;
 import org.springframework.boot.actuate.trace.http.HttpTraceRepository;
 import org.springframework.boot.actuate.web.trace.servlet.HttpTraceFilter;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
-import org.springframework.web.util.WebUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 
 /**
  * Builds upon spring actuator's web request tracer to capture interesting audit information. We
  * capture some additional timing data as well The filter also adds these audit fields as headers to
  * the response.
  *
+ * <p>Request and response bodies stream straight through the filter. Only their first bytes are
+ * copied into pooled buffers as they pass, for debug logging, so large payloads are never held in
+ * memory.
+ *
+ * <p>The exchange is traced here rather than by the actuator's filter, which records it as soon as
+ * the first dispatch returns. An async request's response is written later, by the async dispatch,
+ * so its trace, elapsed time and payload logging are only finished once the async request
+ * completes, and its audit headers are added when that response is committed.
+ *
  * @author rbasu
  */
 @ToString
@@ -38,11 +55,24 @@ public class FuseHttpTraceFilter extends HttpTraceFilter {
 
   private static final String INTERNAL_REQUEST_ID = "internal-request-id";
 
-  private static final Random QUERY_ID_GENERATOR = new Random();
+  @NonNull
+  private final HttpTraceRepository repository;
+
+  @NonNull
+  private final HttpExchangeTracer tracer;
 
   @NonNull
   protected final Predicate<String> pathsToSkip;
 
+  @NonNull
+  protected final Predicate<String> streamingPaths;
+
+  @NonNull
+  protected final CaptureBufferPool capturePool;
+
+  @NonNull
+  protected final List<MediaType> uncapturedContentTypes;
+
   /**
    * Sadly we have to write our own constructor since lombok can't call super with args.
    *
@@ -52,8 +82,49 @@ public class FuseHttpTraceFilter extends HttpTraceFilter {
    */
   public FuseHttpTraceFilter(final HttpTraceRepository repository, final HttpExchangeTracer tracer,
       final Predicate<String> pathsToSkip) {
+    this(repository, tracer, pathsToSkip, path -> false);
+  }
+
+  /**
+   * Creates a filter that doesn't capture payloads.
+   *
+   * @param repository the repository where we store our trace
+   * @param pathsToSkip a predicate that will return try if we want to a skip a certain url
+   *     path
+   * @param streamingPaths a predicate that will return true for url paths whose request and
+   *     response bodies are streamed, and so must not be captured by this filter
+   */
+  public FuseHttpTraceFilter(final HttpTraceRepository repository, final HttpExchangeTracer tracer,
+      final Predicate<String> pathsToSkip, final Predicate<String> streamingPaths) {
+    this(repository, tracer, pathsToSkip, streamingPaths, new CaptureBufferPool(0, 1),
+        Collections.emptyList());
+  }
+
+  /**
+   * Creates a filter that captures the start of request and response payloads, which are logged
+   * at debug level.
+   *
+   * @param repository the repository where we store our trace
+   * @param pathsToSkip a predicate that will return try if we want to a skip a certain url
+   *     path
+   * @param streamingPaths a predicate that will return true for url paths whose request and
+   *     response bodies are streamed, and so must not be captured by this filter
+   * @param capturePool the buffers payloads are captured into, which also sets how many bytes of
+   *     each payload are captured
+   * @param uncapturedContentTypes payloads of these content types (e.g. binary formats) are
+   *     never captured
+   */
+  public FuseHttpTraceFilter(final HttpTraceRepository repository, final HttpExchangeTracer tracer,
+      final Predicate<String> pathsToSkip, final Predicate<String> streamingPaths,
+      final CaptureBufferPool capturePool, final List<MediaType> uncapturedContentTypes) {
+    // Still an HttpTraceFilter, so that the actuator doesn't register its own as well
     super(repository, tracer);
+    this.repository = repository;
+    this.tracer = tracer;
     this.pathsToSkip = pathsToSkip;
+    this.streamingPaths = streamingPaths;
+    this.capturePool = capturePool;
+    this.uncapturedContentTypes = uncapturedContentTypes;
   }
 
   @Override
@@ -61,74 +132,146 @@ public class FuseHttpTraceFilter extends HttpTraceFilter {
       final HttpServletResponse response, final FilterChain filterChain)
       throws ServletException, IOException {
 
-    // generate the internal request Id
-    // we want positive numbers only, so use nextInt(upperBound)
-    String internallyGeneratedId =
-        Integer.toString(QUERY_ID_GENERATOR.nextInt(Integer.MAX_VALUE));
+    String internalQueryId = nextRequestId();
 
-    log.debug("Created internal request id: {}", internallyGeneratedId);
+    log.debug("Created internal request id: {}", internalQueryId);
 
     // And add to MDC so it will show up in the logs
     // The key used here must align with the key defined in the logging
     // config's log-pattern
-    MDC.put(INTERNAL_REQUEST_ID, internallyGeneratedId + " - ");
+    MDC.put(INTERNAL_REQUEST_ID, internalQueryId);
 
     // Skip paths that are not interesting to trace
     if (pathsToSkip.test(request.getRequestURI())) {
-      filterChain.doFilter(request, response);
+      try {
+        filterChain.doFilter(request, response);
+      } finally {
+        MDC.clear();
+      }
       return;
     }
 
-    boolean isFirstRequest = !isAsyncDispatch(request);
-    HttpServletRequest requestToUse = request;
-    HttpServletResponse responseToUse = response;
+    // Bodies are never buffered here, only their first bytes are copied as they stream through, so
+    // streamed payloads are left alone entirely
+    boolean capture = !isAsyncDispatch(request) && !streamingPaths.test(request.getRequestURI());
+    // Wall clock time is only reported; the elapsed time is measured with the monotonic clock
+    AuditFields audit = new AuditFields(internalQueryId, Instant.now().toString(),
+        System.nanoTime());
 
-    // We need to do this for the request and response since you can only read the stream that holds
-    // the payload once
-    if (isFirstRequest && !(request instanceof ContentCachingRequestWrapper)) {
-      requestToUse = new ContentCachingRequestWrapper(request);
-    }
-    if (isFirstRequest && !(response instanceof ContentCachingRequestWrapper)) {
-      responseToUse = new ContentCachingResponseWrapper(response);
-    }
+    TeeRequestWrapper requestToUse = new TeeRequestWrapper(request,
+        new PayloadCapture(capturePool, capture && isCaptured(request.getContentType())));
+    // Nothing holds the response back, so the audit headers must be added before it is committed
+    TeeResponseWrapper responseToUse = new TeeResponseWrapper(response,
+        new PayloadCapture(capturePool, capture), this::isCaptured,
+        () -> addAuditHeaders(response, audit));
 
-    doFilterInternalHelper(requestToUse, responseToUse, filterChain, Instant.now());
+    traceExchange(requestToUse, responseToUse, filterChain, audit);
   }
 
-  @SneakyThrows
-  // what's this method responsible for?
-  protected void doFilterInternalHelper(final HttpServletRequest request,
-      final HttpServletResponse response, final FilterChain filterChain,
-      final Instant requestReceivedTime) {
-
+  /**
+   * Passes the request down the chain and traces it, once its response has been written.
+   */
+  private void traceExchange(final TeeRequestWrapper request, final TeeResponseWrapper response,
+      final FilterChain filterChain, final AuditFields audit)
+      throws ServletException, IOException {
+    HttpTrace trace = isRequestValid(request)
+        ? tracer.receivedRequest(new TraceableServletRequest(request)) : null;
+    // Reported if the chain throws, since the container only sets the error status afterwards
+    int status = HttpStatus.INTERNAL_SERVER_ERROR.value();
     try {
-      super.doFilterInternal(request, response, filterChain);
+      filterChain.doFilter(request, response);
+      status = response.getStatus();
     } finally {
-      addAuditHeaders(requestReceivedTime.toString(), response);
-      updateResponse(response);
+      if (request.isAsyncStarted()) {
+        // The async dispatch doesn't pass through this filter, so the request id it was given is
+        // kept for the audit headers
+        audit.externalQueryId = MDC.get(EXTERNAL_REQUEST_ID);
+        request.getAsyncContext().addListener(new AsyncCompletion(request, response, trace));
+      } else {
+        finishExchange(request, response, trace, status);
+      }
       MDC.clear();
     }
   }
 
-  private void addAuditHeaders(final String requestReceivedTime,
-      final HttpServletResponse response) {
-    log.info("Attempting to add audit headers");
-    String internalQueryId = MDC.get(INTERNAL_REQUEST_ID);
-    if (internalQueryId != null) {
-      logAndAddAuditHeader(response, "internalQueryId",
-          internalQueryId.replace(" - ", "")); // internalQueryId has a ' - ' in MDC
+  /**
+   * Completes the response (adding the audit headers if nothing has been written yet), records the
+   * trace and logs and releases the captured payloads.
+   */
+  private void finishExchange(final TeeRequestWrapper request, final TeeResponseWrapper response,
+      final HttpTrace trace, final int status) {
+    response.finish();
+
+    if (trace != null) {
+      tracer.sendingResponse(trace, new TraceableServletResponse(response, status),
+          request::getUserPrincipal, () -> sessionId(request));
+      repository.add(trace);
     }
-    String externalQueryId = MDC.get(EXTERNAL_REQUEST_ID);
-    if (externalQueryId != null) {
-      logAndAddAuditHeader(response, "externalQueryId",
-          externalQueryId.replace(" - ", "")); // externalQueryId has a ' - ' in MDC
+
+    if (request.getCapture().size() > 0) {
+      log.debug("Request payload: {}", request.getCapturedPayload());
     }
+    request.getCapture().release(true);
+    if (response.getCapture().size() > 0) {
+      log.debug("Response payload: {}", response.getCapturedPayload());
+    }
+    response.getCapture().release(true);
+  }
+
+  /**
+   * Returns true if the request's url can be traced; the actuator doesn't trace those that aren't
+   * valid URIs either.
+   */
+  private static boolean isRequestValid(final HttpServletRequest request) {
+    try {
+      new URI(request.getRequestURL().toString());
+      return true;
+    } catch (URISyntaxException e) {
+      return false;
+    }
+  }
+
+  private static String sessionId(final HttpServletRequest request) {
+    HttpSession session = request.getSession(false);
+    return session == null ? null : session.getId();
+  }
 
-    logAndAddAuditHeader(response, "requestReceivedTime", requestReceivedTime);
+  /**
+   * Returns true unless payloads of the content type are opted out of capture.
+   */
+  private boolean isCaptured(final String contentType) {
+    if (contentType == null || uncapturedContentTypes.isEmpty()) {
+      return true;
+    }
+    try {
+      MediaType mediaType = MediaType.parseMediaType(contentType);
+      return uncapturedContentTypes.stream().noneMatch(type -> type.includes(mediaType));
+    } catch (InvalidMediaTypeException e) {
+      return false;
+    }
+  }
+
+  private void addAuditHeaders(final HttpServletResponse response, final AuditFields audit) {
+    log.debug("Attempting to add audit headers");
+    logAndAddAuditHeader(response, "internalQueryId", audit.internalQueryId);
+    // Only known once the controller has processed the request id parameter
+    String externalQueryId = audit.externalQueryId != null
+        ? audit.externalQueryId : MDC.get(EXTERNAL_REQUEST_ID);
+    logAndAddAuditHeader(response, "externalQueryId", externalQueryId);
+    logAndAddAuditHeader(response, "requestReceivedTime", audit.requestReceivedTime);
 
-    String requestElapsedTimeMillis =
-        String.valueOf(Instant.parse(requestReceivedTime).until(Instant.now(), ChronoUnit.MILLIS));
-    logAndAddAuditHeader(response, "requestElapsedTimeMillis", requestElapsedTimeMillis);
+    long requestElapsedTimeMillis =
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - audit.requestReceivedNanos);
+    logAndAddAuditHeader(response, "requestElapsedTimeMillis",
+        Long.toString(requestElapsedTimeMillis));
+  }
+
+  /**
+   * Returns a new, positive, internal request id. Ids are drawn from the calling thread's own
+   * generator, so concurrent requests don't contend on a shared seed.
+   */
+  private static String nextRequestId() {
+    return Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE);
   }
 
   /**
@@ -145,13 +288,56 @@ public class FuseHttpTraceFilter extends HttpTraceFilter {
   }
 
   /**
-   * Updates the response because we add headers *after* the filter has been applied. This way we
-   * ensure that any fields that were created during request handling (e.g. externalQueryId) will
-   * make it onto the response.
+   * The audit fields of an exchange, which are added to its response as headers.
+   */
+  @RequiredArgsConstructor
+  private static final class AuditFields {
+
+    private final String internalQueryId;
+
+    private final String requestReceivedTime;
+
+    private final long requestReceivedNanos;
+
+    /**
+     * Set once the request has gone async, after which the controller's thread no longer has it.
+     */
+    private volatile String externalQueryId;
+  }
+
+  /**
+   * Finishes an async exchange once its response has been written. The container completes the
+   * request after a timeout or error too, so nothing else needs handling.
    */
-  private void updateResponse(final HttpServletResponse response) throws IOException {
-    ContentCachingResponseWrapper responseWrapper =
-        WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
-    responseWrapper.copyBodyToResponse();
+  @RequiredArgsConstructor
+  private final class AsyncCompletion implements AsyncListener {
+
+    private final TeeRequestWrapper request;
+
+    private final TeeResponseWrapper response;
+
+    private final HttpTrace trace;
+
+    @Override
+    public void onComplete(final AsyncEvent event) {
+      finishExchange(request, response, trace, response.getStatus());
+    }
+
+    @Override
+    public void onTimeout(final AsyncEvent event) {
+      // Completed afterwards
+    }
+
+    @Override
+    public void onError(final AsyncEvent event) {
+      // Completed afterwards
+    }
+
+    @Override
+    public void onStartAsync(final AsyncEvent event) {
+      // Listeners are dropped when a request goes async again, so the exchange isn't finished
+      // until the last cycle completes
+      event.getAsyncContext().addListener(this);
+    }
   }
 }
@@ -0,0 +1,89 @@
+package org.galatea.starter.utils.rest;
+
+import java.nio.charset.Charset;
+
+/**
+ * Keeps a copy of the first bytes of a payload as it streams past, up to the buffer size of its
+ * pool. Nothing beyond that is retained, and no buffer is taken from the pool until the first byte
+ * is actually captured.
+ *
+ * <p>Not thread safe; a payload is read or written by one thread at a time.
+ */
+final class PayloadCapture {
+
+  private final CaptureBufferPool pool;
+
+  private int limit;
+
+  private byte[] buffer;
+
+  private int length;
+
+  private boolean released;
+
+  PayloadCapture(final CaptureBufferPool pool, final boolean enabled) {
+    this.pool = pool;
+    this.limit = enabled ? pool.getBufferSize() : 0;
+  }
+
+  /**
+   * Stops capturing, keeping whatever has been captured so far.
+   */
+  void disable() {
+    limit = length;
+  }
+
+  void write(final int b) {
+    if (length < limit && ensureBuffer()) {
+      buffer[length++] = (byte) b;
+    }
+  }
+
+  void write(final byte[] bytes, final int off, final int len) {
+    int captured = Math.min(len, limit - length);
+    if (captured > 0 && ensureBuffer()) {
+      System.arraycopy(bytes, off, buffer, length, captured);
+      length += captured;
+    }
+  }
+
+  /**
+   * Returns the number of bytes captured.
+   */
+  int size() {
+    return length;
+  }
+
+  /**
+   * Decodes the captured bytes. A multi-byte character cut off by the size cap is decoded as a
+   * replacement character.
+   */
+  String toString(final Charset charset) {
+    return buffer == null ? "" : new String(buffer, 0, length, charset);
+  }
+
+  /**
+   * Stops capturing for good and drops the buffer.
+   *
+   * @param reuse whether the buffer can be handed back to the pool, i.e. nothing can still be
+   *     writing to it
+   */
+  void release(final boolean reuse) {
+    released = true;
+    if (buffer != null && reuse) {
+      pool.release(buffer);
+    }
+    buffer = null;
+    length = 0;
+  }
+
+  private boolean ensureBuffer() {
+    if (released) {
+      return false;
+    }
+    if (buffer == null) {
+      buffer = pool.acquire();
+    }
+    return true;
+  }
+}
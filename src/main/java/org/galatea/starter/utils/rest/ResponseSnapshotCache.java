@@ -0,0 +1,210 @@
+package org.galatea.starter.utils.rest;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import lombok.ToString;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+
+/**
+ * Caches the serialized bodies of resources that are read far more often than they change, so
+ * that a repeat read is answered with the bytes written the first time instead of serializing the
+ * resource again.
+ *
+ * <p>Snapshots are keyed by resource (e.g. "mission/1"), version and media type. A resource only
+ * holds the snapshots of its latest version: reading a newer version replaces them, so a resource
+ * that has changed is never answered with stale bytes, and invalidating a resource drops all of
+ * them. Bodies are written by the same message converters, and so with the same headers, as any
+ * other response.
+ *
+ * <p>Responses carry an ETag of the MD5 of their snapshot's bytes, so Spring MVC answers a client
+ * that already holds the representation with a 304 Not Modified and no body. The ETag follows the
+ * content rather than the version, since versions may be reused (e.g. by an in-memory database
+ * that has been restarted) for content a client hasn't seen.
+ */
+@ToString(of = "maximumResources")
+public class ResponseSnapshotCache {
+
+  private final List<HttpMessageConverter<?>> converters;
+
+  private final ContentNegotiationManager contentNegotiationManager;
+
+  private final long maximumResources;
+
+  private final Cache<String, Snapshots> snapshots;
+
+  private final LongAdder serializations = new LongAdder();
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param converters the converters bodies are written with, in order of preference
+   * @param contentNegotiationManager resolves the media types a request accepts
+   * @param maximumResources the maximum number of resources to hold snapshots for
+   */
+  public ResponseSnapshotCache(final List<HttpMessageConverter<?>> converters,
+      final ContentNegotiationManager contentNegotiationManager, final long maximumResources) {
+    this.converters = List.copyOf(converters);
+    this.contentNegotiationManager = contentNegotiationManager;
+    this.maximumResources = maximumResources;
+    this.snapshots = Caffeine.newBuilder().maximumSize(maximumResources).build();
+  }
+
+  /**
+   * Returns the response for a version of a resource, in the media type the request prefers, from
+   * the snapshot of that version if there is one. Otherwise the body is created and serialized,
+   * and the result kept for the next read. Resources without a version are serialized every time,
+   * and don't have an ETag.
+   *
+   * @param request the request being answered
+   * @param resource identifies the resource, independently of its representation
+   * @param version the version of the resource, which must increase whenever it changes
+   * @param producible the media types the resource can be written as, in order of preference
+   * @param body supplies the object to serialize, if there is no snapshot
+   */
+  public ResponseEntity<byte[]> respond(final NativeWebRequest request, final String resource,
+      final Long version, final List<MediaType> producible, final Supplier<?> body)
+      throws HttpMediaTypeNotAcceptableException, IOException {
+    MediaType mediaType = selectMediaType(request, producible);
+    if (version == null) {
+      Snapshot snapshot = serialize(body.get(), mediaType);
+      return ResponseEntity.ok().headers(snapshot.headers).body(snapshot.body);
+    }
+
+    Snapshots current = snapshots.asMap().compute(resource, (key, cached) ->
+        cached == null || cached.version < version ? new Snapshots(version) : cached);
+    Snapshot snapshot = current.version == version ? current.byMediaType.get(mediaType) : null;
+    if (snapshot == null) {
+      snapshot = serialize(body.get(), mediaType);
+      // A reader of an older version, racing with a change to the resource, must not replace the
+      // snapshots of the newer one
+      if (current.version == version) {
+        current.byMediaType.putIfAbsent(mediaType, snapshot);
+      }
+    }
+    return ResponseEntity.ok()
+        .headers(snapshot.headers)
+        .eTag(snapshot.etag)
+        .body(snapshot.body);
+  }
+
+  /**
+   * Drops the snapshots of the resource, which should be called when it is changed or deleted.
+   */
+  public void invalidate(final String resource) {
+    snapshots.invalidate(resource);
+  }
+
+  /**
+   * Returns the number of bodies serialized, rather than answered from a snapshot.
+   */
+  public long getSerializationCount() {
+    return serializations.sum();
+  }
+
+  /**
+   * Returns the first producible media type that the most preferred acceptable media type is
+   * compatible with, as Spring MVC's own content negotiation does.
+   */
+  private MediaType selectMediaType(final NativeWebRequest request,
+      final List<MediaType> producible) throws HttpMediaTypeNotAcceptableException {
+    List<MediaType> acceptable =
+        new ArrayList<>(contentNegotiationManager.resolveMediaTypes(request));
+    MediaType.sortBySpecificityAndQuality(acceptable);
+    for (MediaType accepted : acceptable) {
+      for (MediaType mediaType : producible) {
+        if (accepted.isCompatibleWith(mediaType)) {
+          return mediaType;
+        }
+      }
+    }
+    throw new HttpMediaTypeNotAcceptableException(producible);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Snapshot serialize(final Object body, final MediaType mediaType) throws IOException {
+    for (HttpMessageConverter<?> converter : converters) {
+      if (converter.canWrite(body.getClass(), mediaType)) {
+        BufferedOutputMessage message = new BufferedOutputMessage();
+        ((HttpMessageConverter<Object>) converter).write(body, mediaType, message);
+        serializations.increment();
+        // The length is set again for whichever response the snapshot is written to
+        message.headers.remove(HttpHeaders.CONTENT_LENGTH);
+        return new Snapshot(message.body.toByteArray(),
+            HttpHeaders.readOnlyHttpHeaders(message.headers));
+      }
+    }
+    throw new HttpMessageNotWritableException(
+        "No converter for " + body.getClass().getName() + " as " + mediaType);
+  }
+
+  /**
+   * The snapshots of one version of a resource, by media type.
+   */
+  private static final class Snapshots {
+
+    private final long version;
+
+    private final Map<MediaType, Snapshot> byMediaType = new ConcurrentHashMap<>();
+
+    private Snapshots(final long version) {
+      this.version = version;
+    }
+  }
+
+  /**
+   * A serialized body, the headers its converter wrote with it and its ETag. The body must not be
+   * modified.
+   */
+  private static final class Snapshot {
+
+    private final byte[] body;
+
+    private final HttpHeaders headers;
+
+    private final String etag;
+
+    private Snapshot(final byte[] body, final HttpHeaders headers) {
+      this.body = body;
+      this.headers = headers;
+      this.etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+  }
+
+  /**
+   * Collects what a converter writes, in memory.
+   */
+  private static final class BufferedOutputMessage implements HttpOutputMessage {
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    private final HttpHeaders headers = new HttpHeaders();
+
+    @Override
+    public OutputStream getBody() {
+      return body;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package org.galatea.starter.utils.rest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * Request wrapper that captures the first bytes of the body as the application reads it. Unlike
+ * ContentCachingRequestWrapper, the body is never buffered beyond the capture limit.
+ */
+public class TeeRequestWrapper extends HttpServletRequestWrapper {
+
+  private final PayloadCapture capture;
+
+  private ServletInputStream inputStream;
+
+  private BufferedReader reader;
+
+  TeeRequestWrapper(final HttpServletRequest request, final PayloadCapture capture) {
+    super(request);
+    this.capture = capture;
+  }
+
+  @Override
+  public ServletInputStream getInputStream() throws IOException {
+    if (inputStream == null) {
+      inputStream = new TeeInputStream(super.getInputStream());
+    }
+    return inputStream;
+  }
+
+  @Override
+  public BufferedReader getReader() throws IOException {
+    if (reader == null) {
+      reader = new BufferedReader(new InputStreamReader(getInputStream(), getCharset()));
+    }
+    return reader;
+  }
+
+  /**
+   * Returns the captured start of the body.
+   */
+  String getCapturedPayload() {
+    return capture.toString(getCharset());
+  }
+
+  PayloadCapture getCapture() {
+    return capture;
+  }
+
+  private Charset getCharset() {
+    String encoding = getCharacterEncoding();
+    return encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+  }
+
+  private final class TeeInputStream extends ServletInputStream {
+
+    private final ServletInputStream delegate;
+
+    private TeeInputStream(final ServletInputStream delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = delegate.read();
+      if (b != -1) {
+        capture.write(b);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int off, final int len) throws IOException {
+      int read = delegate.read(bytes, off, len);
+      if (read > 0) {
+        capture.write(bytes, off, read);
+      }
+      return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return delegate.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+
+    @Override
+    public boolean isFinished() {
+      return delegate.isFinished();
+    }
+
+    @Override
+    public boolean isReady() {
+      return delegate.isReady();
+    }
+
+    @Override
+    public void setReadListener(final ReadListener readListener) {
+      delegate.setReadListener(readListener);
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package org.galatea.starter.utils.rest;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.function.Predicate;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Response wrapper that streams the body straight through to the client while capturing its first
+ * bytes.
+ *
+ * <p>Since nothing is held back, the response may be committed while the application is still
+ * writing, after which headers can no longer be added. The commit callback is therefore run just
+ * before the first byte is written (or the response is otherwise committed), giving the caller a
+ * last chance to add headers.
+ */
+public class TeeResponseWrapper extends HttpServletResponseWrapper {
+
+  private final PayloadCapture capture;
+
+  private final Predicate<String> capturedContentTypes;
+
+  private final Runnable beforeCommit;
+
+  private boolean committing;
+
+  private ServletOutputStream outputStream;
+
+  private PrintWriter writer;
+
+  /**
+   * Wraps the response.
+   *
+   * @param capturedContentTypes returns true if a body of the given content type (possibly null)
+   *     should be captured
+   * @param beforeCommit run once, just before the response is committed
+   */
+  TeeResponseWrapper(final HttpServletResponse response, final PayloadCapture capture,
+      final Predicate<String> capturedContentTypes, final Runnable beforeCommit) {
+    super(response);
+    this.capture = capture;
+    this.capturedContentTypes = capturedContentTypes;
+    this.beforeCommit = beforeCommit;
+  }
+
+  @Override
+  public ServletOutputStream getOutputStream() throws IOException {
+    if (outputStream == null) {
+      outputStream = new TeeOutputStream(super.getOutputStream());
+    }
+    return outputStream;
+  }
+
+  @Override
+  public PrintWriter getWriter() throws IOException {
+    // Written through our own stream so that the commit callback runs and the body is captured
+    if (writer == null) {
+      writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+    }
+    return writer;
+  }
+
+  @Override
+  public void flushBuffer() throws IOException {
+    if (writer != null) {
+      writer.flush();
+    }
+    beforeCommit();
+    super.flushBuffer();
+  }
+
+  @Override
+  public void sendError(final int sc) throws IOException {
+    beforeCommit();
+    super.sendError(sc);
+  }
+
+  @Override
+  public void sendError(final int sc, final String msg) throws IOException {
+    beforeCommit();
+    super.sendError(sc, msg);
+  }
+
+  @Override
+  public void sendRedirect(final String location) throws IOException {
+    beforeCommit();
+    super.sendRedirect(location);
+  }
+
+  /**
+   * Flushes anything left in the writer and runs the commit callback if nothing has been written.
+   * Called once the application is done with the response.
+   */
+  void finish() {
+    if (writer != null) {
+      writer.flush();
+    }
+    beforeCommit();
+  }
+
+  /**
+   * Returns the captured start of the body.
+   */
+  String getCapturedPayload() {
+    return capture.toString(Charset.forName(getCharacterEncoding()));
+  }
+
+  PayloadCapture getCapture() {
+    return capture;
+  }
+
+  private void beforeCommit() {
+    if (committing) {
+      return;
+    }
+    committing = true;
+    // The content type is final by the time anything is written
+    if (!capturedContentTypes.test(getContentType())) {
+      capture.disable();
+    }
+    beforeCommit.run();
+  }
+
+  private final class TeeOutputStream extends ServletOutputStream {
+
+    private final ServletOutputStream delegate;
+
+    private TeeOutputStream(final ServletOutputStream delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      beforeCommit();
+      delegate.write(b);
+      capture.write(b);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int off, final int len) throws IOException {
+      beforeCommit();
+      delegate.write(bytes, off, len);
+      capture.write(bytes, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      beforeCommit();
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      beforeCommit();
+      delegate.close();
+    }
+
+    @Override
+    public boolean isReady() {
+      return delegate.isReady();
+    }
+
+    @Override
+    public void setWriteListener(final WriteListener writeListener) {
+      delegate.setWriteListener(writeListener);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package org.galatea.starter.utils.rest;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.boot.actuate.trace.http.TraceableRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * The request of an exchange traced by FuseHttpTraceFilter, read the same way as the actuator's own
+ * filter reads it.
+ */
+class TraceableServletRequest implements TraceableRequest {
+
+  private final HttpServletRequest request;
+
+  TraceableServletRequest(final HttpServletRequest request) {
+    this.request = request;
+  }
+
+  @Override
+  public String getMethod() {
+    return request.getMethod();
+  }
+
+  @Override
+  public URI getUri() {
+    String queryString = request.getQueryString();
+    if (!StringUtils.hasText(queryString)) {
+      return URI.create(request.getRequestURL().toString());
+    }
+    try {
+      return new URI(request.getRequestURL().append('?').append(queryString).toString());
+    } catch (URISyntaxException e) {
+      String encoded = UriUtils.encodeQuery(queryString, StandardCharsets.UTF_8);
+      return URI.create(request.getRequestURL().append('?').append(encoded).toString());
+    }
+  }
+
+  @Override
+  public Map<String, List<String>> getHeaders() {
+    Map<String, List<String>> headers = new LinkedHashMap<>();
+    for (String name : Collections.list(request.getHeaderNames())) {
+      headers.put(name, Collections.list(request.getHeaders(name)));
+    }
+    return headers;
+  }
+
+  @Override
+  public String getRemoteAddress() {
+    return request.getRemoteAddr();
+  }
+}
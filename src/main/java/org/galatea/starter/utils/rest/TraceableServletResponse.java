@@ -0,0 +1,39 @@
+package org.galatea.starter.utils.rest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.boot.actuate.trace.http.TraceableResponse;
+
+/**
+ * The response of an exchange traced by FuseHttpTraceFilter. The status is given rather than read
+ * from the response, since a request that failed with an exception is reported as a server error
+ * before the container has set it.
+ */
+class TraceableServletResponse implements TraceableResponse {
+
+  private final HttpServletResponse response;
+
+  private final int status;
+
+  TraceableServletResponse(final HttpServletResponse response, final int status) {
+    this.response = response;
+    this.status = status;
+  }
+
+  @Override
+  public int getStatus() {
+    return status;
+  }
+
+  @Override
+  public Map<String, List<String>> getHeaders() {
+    Map<String, List<String>> headers = new LinkedHashMap<>();
+    for (String name : response.getHeaderNames()) {
+      headers.put(name, new ArrayList<>(response.getHeaders(name)));
+    }
+    return headers;
+  }
+}
@@ -5,6 +5,13 @@ package org.galatea.starter.utils.translation;
  */
 public class TranslationException extends RuntimeException {
 
+  /**
+   * Constructs a new TranslationException with the specified detail message.
+   */
+  public TranslationException(final String message) {
+    super(message);
+  }
+
   /**
    * Constructs a new TranslationException with the specified detail message and cause.
    */
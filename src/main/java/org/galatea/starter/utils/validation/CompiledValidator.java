@@ -0,0 +1,291 @@
+package org.galatea.starter.utils.validation;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.validation.Constraint;
+import javax.validation.ConstraintViolation;
+import javax.validation.constraints.DecimalMin;
+import lombok.ToString;
+import org.galatea.starter.utils.validation.PropertyViolation.PropertyPath;
+
+/**
+ * Validates beans of one class against the constraints on its fields, the way Hibernate Validator
+ * would, without going through reflection for every bean.
+ *
+ * <p>The constraints are read once per class, when its validator is first asked for, and each is
+ * compiled to a check that reads the field through its getter (bound with LambdaMetafactory, so it
+ * is as cheap as calling the getter) and tests the value with the constraint's parameters already
+ * parsed, e.g. a StringEnumeration against an EnumNameMatcher. Validating a valid bean allocates
+ * nothing.
+ *
+ * <p>Only the constraints the domain uses are supported: DecimalMin on numbers and
+ * StringEnumeration on Strings, with literal messages (which are also what Hibernate Validator
+ * reports for them). A class with any other constraint, or a message template with parameters,
+ * is rejected when its validator is created, rather than having those constraints silently
+ * ignored.
+ *
+ * @param <T> the type of bean validated
+ */
+@ToString(of = "type")
+public final class CompiledValidator<T> {
+
+  private static final ClassValue<CompiledValidator<?>> VALIDATORS =
+      new ClassValue<CompiledValidator<?>>() {
+        @Override
+        protected CompiledValidator<?> computeValue(final Class<?> type) {
+          return new CompiledValidator<>(type);
+        }
+      };
+
+  private final Class<T> type;
+
+  private final PropertyCheck<T>[] checks;
+
+  @SuppressWarnings("unchecked")
+  private CompiledValidator(final Class<T> type) {
+    this.type = type;
+    List<PropertyCheck<T>> compiled = new ArrayList<>();
+    for (Class<?> declaring = type; declaring != Object.class;
+        declaring = declaring.getSuperclass()) {
+      for (Method method : declaring.getDeclaredMethods()) {
+        for (Annotation annotation : method.getAnnotations()) {
+          if (isConstraint(annotation)) {
+            throw unsupported(method.getName(), "constraints on methods aren't supported");
+          }
+        }
+      }
+      for (Field field : declaring.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers())) {
+          compileField(field, compiled);
+        }
+      }
+    }
+    this.checks = compiled.toArray(new PropertyCheck[0]);
+  }
+
+  /**
+   * Returns the validator of the given class, compiling it the first time it is asked for.
+   *
+   * @throws IllegalArgumentException if the class has constraints that can't be compiled
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> CompiledValidator<T> forClass(final Class<T> type) {
+    return (CompiledValidator<T>) VALIDATORS.get(type);
+  }
+
+  /**
+   * Validates the bean.
+   *
+   * @return the constraints it violates, or an empty set if it is valid
+   */
+  public Set<ConstraintViolation<T>> validate(final T bean) {
+    Set<ConstraintViolation<T>> violations = null;
+    for (PropertyCheck<T> check : checks) {
+      Object value = check.getter.apply(bean);
+      if (!check.test.test(value)) {
+        if (violations == null) {
+          violations = new LinkedHashSet<>();
+        }
+        violations.add(
+            new PropertyViolation<>(check.message, bean, type, value, check.propertyPath));
+      }
+    }
+    return violations == null ? Collections.emptySet() : violations;
+  }
+
+  private void compileField(final Field field, final List<PropertyCheck<T>> compiled) {
+    Function<T, Object> getter = null;
+    for (Annotation annotation : field.getAnnotations()) {
+      if (!isConstraint(annotation)) {
+        continue;
+      }
+      if (getter == null) {
+        getter = getter(field);
+      }
+      compiled.add(compileConstraint(field, annotation, getter));
+    }
+  }
+
+  private PropertyCheck<T> compileConstraint(final Field field, final Annotation annotation,
+      final Function<T, Object> getter) {
+    String message;
+    Predicate<Object> test;
+    if (annotation instanceof DecimalMin) {
+      DecimalMin decimalMin = (DecimalMin) annotation;
+      message = decimalMin.message();
+      test = decimalMinTest(field, decimalMin);
+    } else if (annotation instanceof StringEnumeration) {
+      StringEnumeration stringEnumeration = (StringEnumeration) annotation;
+      if (field.getType() != String.class) {
+        throw unsupported(field.getName(), "StringEnumeration is only supported on Strings");
+      }
+      message = stringEnumeration.message();
+      EnumNameMatcher matcher = new EnumNameMatcher(stringEnumeration.enumClass());
+      test = value -> value == null || matcher.matches((String) value);
+    } else {
+      throw unsupported(field.getName(), annotation.annotationType().getSimpleName()
+          + " isn't supported");
+    }
+    if (message.indexOf('{') >= 0 || message.indexOf('$') >= 0) {
+      throw unsupported(field.getName(), "only literal messages are supported: " + message);
+    }
+    return new PropertyCheck<>(getter, test, message, new PropertyPath(field.getName()));
+  }
+
+  /**
+   * Compiles a DecimalMin to a comparison with the same result as Hibernate Validator's, which
+   * compares BigDecimals. Doubles and floats are compared as doubles when the minimum is exactly
+   * representable as one (e.g. 0), which gives the same result without creating a BigDecimal.
+   */
+  private Predicate<Object> decimalMinTest(final Field field, final DecimalMin decimalMin) {
+    BigDecimal min = new BigDecimal(decimalMin.value());
+    boolean inclusive = decimalMin.inclusive();
+    Class<?> fieldType = field.getType();
+
+    if (fieldType == Double.class || fieldType == Float.class) {
+      double doubleMin = min.doubleValue();
+      if (new BigDecimal(doubleMin).compareTo(min) == 0) {
+        // NaN fails both comparisons, as it fails Hibernate Validator's
+        return inclusive
+            ? value -> value == null || ((Number) value).doubleValue() >= doubleMin
+            : value -> value == null || ((Number) value).doubleValue() > doubleMin;
+      }
+      return value -> value == null || isAtLeast((Number) value, min, inclusive);
+    }
+    if (fieldType == Long.class || fieldType == Integer.class || fieldType == Short.class
+        || fieldType == Byte.class || fieldType == BigDecimal.class
+        || fieldType == BigInteger.class) {
+      return value -> value == null || isAtLeast((Number) value, min, inclusive);
+    }
+    throw unsupported(field.getName(), "DecimalMin is only supported on boxed numbers, "
+        + "BigDecimal and BigInteger");
+  }
+
+  private static boolean isAtLeast(final Number value, final BigDecimal min,
+      final boolean inclusive) {
+    int comparison = compare(value, min);
+    return inclusive ? comparison >= 0 : comparison > 0;
+  }
+
+  /**
+   * Compares the value to the minimum as Hibernate Validator does: NaN and negative infinity are
+   * below, and positive infinity above, any minimum.
+   */
+  private static int compare(final Number value, final BigDecimal min) {
+    if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).compareTo(min);
+    }
+    if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value).compareTo(min);
+    }
+    if (value instanceof Double || value instanceof Float) {
+      double doubleValue = value.doubleValue();
+      if (Double.isNaN(doubleValue) || doubleValue == Double.NEGATIVE_INFINITY) {
+        return -1;
+      }
+      if (doubleValue == Double.POSITIVE_INFINITY) {
+        return 1;
+      }
+      return BigDecimal.valueOf(doubleValue).compareTo(min);
+    }
+    return BigDecimal.valueOf(value.longValue()).compareTo(min);
+  }
+
+  /**
+   * Binds the field's getter to a Function, falling back to reading the field through a method
+   * handle when it has no getter.
+   */
+  @SuppressWarnings("unchecked")
+  private Function<T, Object> getter(final Field field) {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+      Method getterMethod = findGetter(field);
+      if (getterMethod != null) {
+        MethodHandle handle = lookup.unreflect(getterMethod);
+        CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+            MethodType.methodType(Function.class), MethodType.methodType(Object.class,
+                Object.class), handle, MethodType.methodType(field.getType(), type));
+        return (Function<T, Object>) callSite.getTarget().invoke();
+      }
+      MethodHandle handle = lookup.unreflectGetter(field)
+          .asType(MethodType.methodType(Object.class, Object.class));
+      return bean -> {
+        try {
+          return handle.invokeExact((Object) bean);
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable t) {
+          throw new IllegalStateException(t);
+        }
+      };
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalArgumentException("Can't read " + type.getName() + "." + field.getName(),
+          t);
+    }
+  }
+
+  private static Method findGetter(final Field field) {
+    String property = Character.toUpperCase(field.getName().charAt(0))
+        + field.getName().substring(1);
+    for (String prefix : new String[] {"get", "is"}) {
+      try {
+        Method method = field.getDeclaringClass().getMethod(prefix + property);
+        if (method.getReturnType() == field.getType()) {
+          return method;
+        }
+      } catch (NoSuchMethodException e) {
+        // Try the next prefix
+      }
+    }
+    return null;
+  }
+
+  private static boolean isConstraint(final Annotation annotation) {
+    return annotation.annotationType().isAnnotationPresent(Constraint.class);
+  }
+
+  private IllegalArgumentException unsupported(final String property, final String reason) {
+    return new IllegalArgumentException(
+        "Can't compile the constraints of " + type.getName() + "." + property + ": " + reason);
+  }
+
+  /**
+   * One constraint on one property.
+   */
+  private static final class PropertyCheck<T> {
+
+    private final Function<T, Object> getter;
+
+    private final Predicate<Object> test;
+
+    private final String message;
+
+    private final PropertyPath propertyPath;
+
+    PropertyCheck(final Function<T, Object> getter, final Predicate<Object> test,
+        final String message, final PropertyPath propertyPath) {
+      this.getter = getter;
+      this.test = test;
+      this.message = message;
+      this.propertyPath = propertyPath;
+    }
+  }
+}
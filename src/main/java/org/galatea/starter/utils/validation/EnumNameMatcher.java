@@ -0,0 +1,90 @@
+package org.galatea.starter.utils.validation;
+
+import java.util.Arrays;
+import lombok.ToString;
+
+/**
+ * Checks whether a String is the name of one of an enum's constants, using a perfect hash table of
+ * the names.
+ *
+ * <p>The table size (a power of two) is chosen so that each name lands in its own slot, so a lookup
+ * is one hash, one array read and at most one equals, with no collision chains or boxing. Names
+ * are hashed with String.hashCode, which is cached on the String once computed.
+ */
+@ToString(of = "enumClass")
+public final class EnumNameMatcher {
+
+  /**
+   * Stops the search for a collision free table at this many slots per name, which in practice is
+   * never reached for enums of a sensible size.
+   */
+  private static final int MAX_SLOTS_PER_NAME = 64;
+
+  private final Class<? extends Enum<?>> enumClass;
+
+  private final String[] table;
+
+  private final int mask;
+
+  private final int shift;
+
+  /**
+   * Builds the table for the constants of the given enum.
+   */
+  public EnumNameMatcher(final Class<? extends Enum<?>> enumClass) {
+    this.enumClass = enumClass;
+    String[] names = Arrays.stream(enumClass.getEnumConstants()).map(Enum::name)
+        .toArray(String[]::new);
+
+    // Try growing tables until there is one where, for some shift of the hash, no two names
+    // collide
+    int maxSize = Integer.highestOneBit(Math.max(names.length, 1) * MAX_SLOTS_PER_NAME) << 1;
+    int size = Math.max(Integer.highestOneBit(Math.max(names.length, 1) - 1) << 1, 1);
+    int foundShift = findShift(names, size - 1);
+    while (foundShift < 0 && size < maxSize) {
+      size <<= 1;
+      foundShift = findShift(names, size - 1);
+    }
+    if (foundShift < 0) {
+      throw new IllegalArgumentException("Could not build a perfect hash of " + enumClass);
+    }
+    this.table = fill(names, size - 1, foundShift);
+    this.mask = size - 1;
+    this.shift = foundShift;
+  }
+
+  /**
+   * Returns true if the value is the name of one of the enum's constants.
+   */
+  public boolean matches(final String value) {
+    String name = table[(value.hashCode() >>> shift) & mask];
+    return name != null && name.equals(value);
+  }
+
+  /**
+   * Returns the first shift of the hash that places each name in a slot of its own, or -1.
+   */
+  private static int findShift(final String[] names, final int mask) {
+    for (int shift = 0; shift < Integer.SIZE; shift++) {
+      if (fill(names, mask, shift) != null) {
+        return shift;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Places each name in its slot, or returns null if two of them collide.
+   */
+  private static String[] fill(final String[] names, final int mask, final int shift) {
+    String[] table = new String[mask + 1];
+    for (String name : names) {
+      int slot = (name.hashCode() >>> shift) & mask;
+      if (table[slot] != null) {
+        return null;
+      }
+      table[slot] = name;
+    }
+    return table;
+  }
+}
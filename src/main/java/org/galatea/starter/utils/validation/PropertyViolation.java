@@ -0,0 +1,131 @@
+package org.galatea.starter.utils.validation;
+
+import java.util.Collections;
+import java.util.Iterator;
+import javax.validation.ConstraintViolation;
+import javax.validation.ElementKind;
+import javax.validation.Path;
+import javax.validation.ValidationException;
+import javax.validation.metadata.ConstraintDescriptor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A constraint violated by a property of a bean validated by a CompiledValidator.
+ *
+ * <p>Violations are equal when they have the same message, bean, property and value, as
+ * Hibernate Validator's are, so that collecting them into a set drops the same duplicates.
+ *
+ * @param <T> the type of bean validated
+ */
+@Getter
+@EqualsAndHashCode(of = {"message", "rootBean", "propertyPath", "invalidValue"})
+@ToString(of = {"propertyPath", "message", "invalidValue"})
+@RequiredArgsConstructor
+final class PropertyViolation<T> implements ConstraintViolation<T> {
+
+  private final String message;
+
+  private final T rootBean;
+
+  private final Class<T> rootBeanClass;
+
+  private final Object invalidValue;
+
+  private final PropertyPath propertyPath;
+
+  @Override
+  public String getMessageTemplate() {
+    // Only literal messages are compiled, so the template is the message
+    return message;
+  }
+
+  @Override
+  public Object getLeafBean() {
+    return rootBean;
+  }
+
+  @Override
+  public Object[] getExecutableParameters() {
+    return null;
+  }
+
+  @Override
+  public Object getExecutableReturnValue() {
+    return null;
+  }
+
+  @Override
+  public ConstraintDescriptor<?> getConstraintDescriptor() {
+    return null;
+  }
+
+  @Override
+  public <U> U unwrap(final Class<U> type) {
+    if (type.isInstance(this)) {
+      return type.cast(this);
+    }
+    throw new ValidationException("Type " + type + " not supported for unwrapping");
+  }
+
+  /**
+   * The path of a property of the root bean.
+   */
+  @EqualsAndHashCode(of = "name")
+  @RequiredArgsConstructor
+  static final class PropertyPath implements Path, Path.PropertyNode {
+
+    @Getter
+    private final String name;
+
+    @Override
+    public Iterator<Node> iterator() {
+      return Collections.<Node>singletonList(this).iterator();
+    }
+
+    @Override
+    public boolean isInIterable() {
+      return false;
+    }
+
+    @Override
+    public Integer getIndex() {
+      return null;
+    }
+
+    @Override
+    public Object getKey() {
+      return null;
+    }
+
+    @Override
+    public ElementKind getKind() {
+      return ElementKind.PROPERTY;
+    }
+
+    @Override
+    public <N extends Node> N as(final Class<N> nodeType) {
+      if (nodeType.isInstance(this)) {
+        return nodeType.cast(this);
+      }
+      throw new ClassCastException("Property node can't be cast to " + nodeType);
+    }
+
+    @Override
+    public Class<?> getContainerClass() {
+      return null;
+    }
+
+    @Override
+    public Integer getTypeArgumentIndex() {
+      return null;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+}
@@ -1,8 +1,5 @@
 package org.galatea.starter.utils.validation;
 
-import java.util.Arrays;
-import java.util.Set;
-import java.util.stream.Collectors;
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 
@@ -11,22 +8,16 @@ import javax.validation.ConstraintValidatorContext;
  */
 public class StringEnumerationValidator implements ConstraintValidator<StringEnumeration, String> {
 
-  private Set<String> values;
+  private EnumNameMatcher matcher;
 
   @Override
   public void initialize(final StringEnumeration stringEnumeration) {
-    Class<? extends Enum<?>> enumClass = stringEnumeration.enumClass();
-    values = getNamesSet(enumClass);
+    matcher = new EnumNameMatcher(stringEnumeration.enumClass());
   }
 
   @Override
   public boolean isValid(final String value, final ConstraintValidatorContext context) {
-    return value == null || values.contains(value);
-  }
-
-  private static Set<String> getNamesSet(final Class<? extends Enum<?>> enumClass) {
-    Enum<?>[] enumConstants = enumClass.getEnumConstants();
-    return Arrays.stream(enumConstants).map(Enum::name).collect(Collectors.toSet());
+    return value == null || matcher.matches(value);
   }
 
 }
@@ -1,6 +1,7 @@
 package org.galatea.starter.domain;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.util.Set;
 import javax.validation.ConstraintViolation;
@@ -25,7 +26,7 @@ public class SettlementMissionTest {
     SettlementMission mission = SettlementMission.builder()
         .instrument("I")
         .externalParty("ECP")
-        .direction("DEL")
+        .direction(Direction.DEL)
         .depot("DTC")
         .qty(10D)
         .version(0L).build();
@@ -42,7 +43,7 @@ public class SettlementMissionTest {
     SettlementMission mission = SettlementMission.builder()
         .instrument("I")
         .externalParty("ECP")
-        .direction("DEL")
+        .direction(Direction.DEL)
         .depot("DTC")
         .qty(invalidQty)
         .version(0L).build();
@@ -56,22 +57,29 @@ public class SettlementMissionTest {
   }
 
   @Test
-  public void directionMustBeValid() {
-    String invalidDirection = "unknown";
+  public void directionIsStoredAsItsCode() {
+    DirectionConverter converter = new DirectionConverter();
+
+    for (Direction direction : Direction.values()) {
+      String code = converter.convertToDatabaseColumn(direction);
+      assertEquals(1, code.length());
+      assertEquals(direction, converter.convertToEntityAttribute(code));
+    }
+    assertNull(converter.convertToDatabaseColumn(null));
+    assertNull(converter.convertToEntityAttribute(null));
+  }
 
-    SettlementMission mission = SettlementMission.builder()
-        .instrument("I")
-        .externalParty("ECP")
-        .direction(invalidDirection)
-        .depot("DTC")
-        .qty(1d)
-        .version(0L).build();
+  @Test
+  public void directionStoredAsItsNameIsRead() {
+    DirectionConverter converter = new DirectionConverter();
 
-    Set<ConstraintViolation<SettlementMission>> constraintViolations = validator
-        .validate(mission);
+    assertEquals(Direction.REC, converter.convertToEntityAttribute("REC"));
+    assertEquals(Direction.DEL, converter.convertToEntityAttribute("DEL"));
+  }
 
-    assertEquals("Direction must be valid", constraintViolations.iterator().next().getMessage());
-    assertEquals(1, constraintViolations.size());
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownDirectionCodeIsRejected() {
+    new DirectionConverter().convertToEntityAttribute("X");
   }
 
 }
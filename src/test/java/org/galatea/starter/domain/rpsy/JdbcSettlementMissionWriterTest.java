@@ -0,0 +1,103 @@
+package org.galatea.starter.domain.rpsy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.galatea.starter.PersistenceConfig;
+import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.testutils.TestDataGenerator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "settlement.persistence.mode=jdbc")
+@Import(PersistenceConfig.class)
+public class JdbcSettlementMissionWriterTest {
+
+  @Autowired
+  private ISettlementMissionWriter missionWriter;
+
+  @Autowired
+  private ISettlementMissionRpsy missionrpsy;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  public void testInsertAllAssignsIdsAndPersists() {
+    List<SettlementMission> missions = Arrays.asList(
+        TestDataGenerator.defaultSettlementMissionData().id(null).instrument("A").build(),
+        TestDataGenerator.defaultSettlementMissionData().id(null).instrument("B").build(),
+        TestDataGenerator.defaultSettlementMissionData().id(null).instrument("C").build());
+
+    List<SettlementMission> inserted = missionWriter.insertAll(missions);
+
+    Set<Long> ids = inserted.stream().map(SettlementMission::getId).collect(Collectors.toSet());
+    assertEquals(3, ids.size());
+    ids.forEach(id -> assertNotNull(id));
+
+    List<SettlementMission> retrieved = Lists.newArrayList(missionrpsy.findAllById(ids));
+    assertEquals(new HashSet<>(inserted), new HashSet<>(retrieved));
+  }
+
+  @Test
+  public void testIdsDoNotCollideWithRepositorySaves() {
+    SettlementMission saved = missionrpsy.save(
+        TestDataGenerator.defaultSettlementMissionData().id(null).build());
+
+    List<SettlementMission> inserted = missionWriter.insertAll(Arrays.asList(
+        TestDataGenerator.defaultSettlementMissionData().id(null).build()));
+
+    assertEquals(2, new HashSet<>(Arrays.asList(saved.getId(), inserted.get(0).getId())).size());
+  }
+
+  @Test
+  public void testIdsDoNotCollideWithExistingMissions() {
+    // Rows written before the pooled generator, with hibernate_sequence left just past them the way
+    // the former AUTO generator left it
+    long firstExistingId = jdbcTemplate.queryForObject(
+        "select next_val from hibernate_sequence", Long.class);
+    Set<Long> existingIds = new HashSet<>();
+    for (long id = firstExistingId; id < firstExistingId + 3; id++) {
+      jdbcTemplate.update("insert into settlement_mission "
+          + "(id, instrument, external_party, depot, direction, qty, version) "
+          + "values (?, 'IBM', 'ext-1', 'DTC', 'R', 100, 0)", id);
+      existingIds.add(id);
+    }
+    // The generator reads the sequence in its own transaction, so the bump has to be committed
+    TransactionTemplate separateTransaction = new TransactionTemplate(transactionManager);
+    separateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    separateTransaction.execute(status -> jdbcTemplate.update(
+        "update hibernate_sequence set next_val = ?", firstExistingId + 3));
+
+    SettlementMission saved = missionrpsy.save(
+        TestDataGenerator.defaultSettlementMissionData().id(null).build());
+    List<SettlementMission> inserted = missionWriter.insertAll(Arrays.asList(
+        TestDataGenerator.defaultSettlementMissionData().id(null).instrument("A").build(),
+        TestDataGenerator.defaultSettlementMissionData().id(null).instrument("B").build()));
+
+    Set<Long> newIds = new HashSet<>(Arrays.asList(saved.getId(), inserted.get(0).getId(),
+        inserted.get(1).getId()));
+    assertEquals(3, newIds.size());
+    newIds.forEach(id -> assertTrue("id " + id + " reissued", !existingIds.contains(id)));
+    assertEquals(6, missionrpsy.count());
+  }
+}
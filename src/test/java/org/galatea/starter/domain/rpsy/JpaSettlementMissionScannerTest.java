@@ -0,0 +1,170 @@
+package org.galatea.starter.domain.rpsy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManager;
+import org.galatea.starter.PersistenceConfig;
+import org.galatea.starter.domain.Direction;
+import org.galatea.starter.domain.MissionFilter;
+import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.testutils.TestDataGenerator;
+import org.galatea.starter.utils.StringDictionary;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+// Use a tiny page size so that paging is exercised with only a handful of missions
+@DataJpaTest(properties = "settlement.export.page-size=2")
+@Import(PersistenceConfig.class)
+public class JpaSettlementMissionScannerTest {
+
+  @Autowired
+  private ISettlementMissionScanner missionScanner;
+
+  @Autowired
+  private ISettlementMissionRpsy missionrpsy;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private StringDictionary referenceDataDictionary;
+
+  @Test
+  public void testScanAllReturnsEveryMissionInIdOrder() {
+    List<SettlementMission> saved = Lists.newArrayList(missionrpsy.saveAll(
+        IntStream.range(0, 5)
+            .mapToObj(i -> TestDataGenerator.defaultSettlementMissionData().id(null)
+                .instrument("INSTR-" + i).build())
+            .collect(Collectors.toList())));
+    entityManager.flush();
+
+    List<SettlementMission> scanned = Lists.newArrayList(missionScanner.scanAll());
+
+    assertEquals(saved, scanned);
+  }
+
+  @Test
+  public void testScannedMissionsAreDetached() {
+    missionrpsy.save(TestDataGenerator.defaultSettlementMissionData().id(null).build());
+    entityManager.flush();
+    entityManager.clear();
+
+    for (SettlementMission mission : missionScanner.scanAll()) {
+      assertFalse(entityManager.contains(mission));
+    }
+  }
+
+  @Test
+  public void testScanAllWithNoMissions() {
+    assertTrue(Lists.newArrayList(missionScanner.scanAll()).isEmpty());
+  }
+
+  @Test
+  public void testFindPageAppliesFiltersAndKeyset() {
+    List<SettlementMission> saved = Lists.newArrayList(missionrpsy.saveAll(Arrays.asList(
+        TestDataGenerator.defaultSettlementMissionData().id(null).depot("DTC").build(),
+        TestDataGenerator.defaultSettlementMissionData().id(null).depot("FED").build(),
+        TestDataGenerator.defaultSettlementMissionData().id(null).depot("DTC").build(),
+        TestDataGenerator.defaultSettlementMissionData().id(null).depot("DTC")
+            .instrument("OTHER").build(),
+        TestDataGenerator.defaultSettlementMissionData().id(null).depot("DTC").build())));
+    entityManager.flush();
+    String instrument = saved.get(0).getInstrument();
+    MissionFilter filter = MissionFilter.builder().depot("DTC").instrument(instrument).build();
+
+    List<SettlementMission> firstPage = missionScanner.findPage(filter, Long.MIN_VALUE, 2);
+    assertEquals(Arrays.asList(saved.get(0), saved.get(2)), firstPage);
+
+    List<SettlementMission> secondPage =
+        missionScanner.findPage(filter, firstPage.get(1).getId(), 2);
+    assertEquals(Collections.singletonList(saved.get(4)), secondPage);
+  }
+
+  @Test
+  public void testFindPageFiltersByDirection() {
+    List<SettlementMission> saved = Lists.newArrayList(missionrpsy.saveAll(Arrays.asList(
+        TestDataGenerator.defaultSettlementMissionData().id(null).direction(Direction.REC).build(),
+        TestDataGenerator.defaultSettlementMissionData().id(null).direction(Direction.DEL).build(),
+        TestDataGenerator.defaultSettlementMissionData().id(null).direction(Direction.REC)
+            .build())));
+    entityManager.flush();
+    MissionFilter filter = MissionFilter.builder().direction(Direction.DEL).build();
+
+    assertEquals(Collections.singletonList(saved.get(1)),
+        missionScanner.findPage(filter, Long.MIN_VALUE, 10));
+  }
+
+  @Test
+  public void testDirectionIsStoredAsItsCode() {
+    SettlementMission saved = missionrpsy.save(TestDataGenerator.defaultSettlementMissionData()
+        .id(null).direction(Direction.DEL).build());
+    entityManager.flush();
+
+    assertEquals("D", entityManager.createNativeQuery(
+        "select direction from settlement_mission where id = " + saved.getId())
+        .getSingleResult());
+  }
+
+  @Test
+  public void testDirectionStoredAsItsNameIsReadAndFiltered() {
+    List<SettlementMission> saved = Lists.newArrayList(missionrpsy.saveAll(Arrays.asList(
+        TestDataGenerator.defaultSettlementMissionData().id(null).direction(Direction.REC).build(),
+        TestDataGenerator.defaultSettlementMissionData().id(null).direction(Direction.DEL).build(),
+        TestDataGenerator.defaultSettlementMissionData().id(null).direction(Direction.DEL)
+            .build())));
+    entityManager.flush();
+    // Rewrite the first two the way missions were saved before directions were stored as codes
+    entityManager.createNativeQuery("update settlement_mission set direction = 'REC' where id = "
+        + saved.get(0).getId()).executeUpdate();
+    entityManager.createNativeQuery("update settlement_mission set direction = 'DEL' where id = "
+        + saved.get(1).getId()).executeUpdate();
+    entityManager.clear();
+
+    assertEquals(saved, Lists.newArrayList(missionScanner.scanAll()));
+    MissionFilter filter = MissionFilter.builder().direction(Direction.DEL).build();
+    assertEquals(Arrays.asList(saved.get(1), saved.get(2)),
+        missionScanner.findPage(filter, Long.MIN_VALUE, 10));
+  }
+
+  @Test
+  public void testLoadedMissionsShareInternedStrings() {
+    missionrpsy.saveAll(Arrays.asList(
+        TestDataGenerator.defaultSettlementMissionData().id(null).instrument(new String("IBM"))
+            .build(),
+        TestDataGenerator.defaultSettlementMissionData().id(null).instrument(new String("IBM"))
+            .build()));
+    entityManager.flush();
+    entityManager.clear();
+
+    List<SettlementMission> loaded = Lists.newArrayList(missionScanner.scanAll());
+
+    assertSame(loaded.get(0).getInstrument(), loaded.get(1).getInstrument());
+    assertSame(loaded.get(0).getDepot(), loaded.get(1).getDepot());
+    assertSame(referenceDataDictionary.intern("IBM"), loaded.get(0).getInstrument());
+  }
+
+  @Test
+  public void testQueryIndexesExist() {
+    @SuppressWarnings("unchecked")
+    List<String> indexes = entityManager.createNativeQuery(
+        "select index_name from information_schema.indexes where table_name = 'SETTLEMENT_MISSION'")
+        .getResultList();
+
+    assertTrue(indexes.containsAll(Arrays.asList("IDX_SETTLEMENT_MISSION_DEPOT_ID",
+        "IDX_SETTLEMENT_MISSION_INSTRUMENT_ID", "IDX_SETTLEMENT_MISSION_EXTERNAL_PARTY_ID")));
+  }
+}
@@ -3,12 +3,13 @@ package org.galatea.starter.entrypoint;
 
 import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.isEmptyOrNullString;
 import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.BDDMockito.given;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.Sets;
 import io.restassured.RestAssured;
 import io.restassured.http.Headers;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
@@ -17,7 +18,10 @@ import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.Marshaller;
 import junitparams.FileParameters;
@@ -26,24 +30,35 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.galatea.starter.ASpringTest;
 import org.galatea.starter.MessageTranslationConfig;
+import org.galatea.starter.domain.Direction;
+import org.galatea.starter.domain.IexLastTradedPrice;
 import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.Side;
 import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.entrypoint.exception.MarketDataUnavailableException;
 import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessage;
 import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessages;
+import org.galatea.starter.service.IexService;
 import org.galatea.starter.service.SettlementService;
 import org.galatea.starter.testutils.TestDataGenerator;
+import org.galatea.starter.utils.FuseHttpTraceRepository;
+import org.galatea.starter.utils.collections.LongArrayList;
+import org.galatea.starter.utils.collections.LongHashSet;
 import org.galatea.starter.utils.translation.ITranslator;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.BDDMockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.trace.http.HttpTrace;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.json.JacksonTester;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.web.server.LocalServerPort;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.context.WebApplicationContext;
 
@@ -67,6 +82,12 @@ public class FuseHttpTraceFilterTest extends ASpringTest {
   @MockBean
   private SettlementService mockSettlementService;
 
+  @MockBean
+  private IexService mockIexService;
+
+  @Autowired
+  private FuseHttpTraceRepository traceRepository;
+
   private ObjectMapper objectMapper;
 
   private JacksonTester<TradeAgreementMessages> agreementJsonTester;
@@ -92,7 +113,7 @@ public class FuseHttpTraceFilterTest extends ASpringTest {
   public void testSettleAgreement_JSON(final String agreementJson,
       final String expectedMissionIdJson) throws Exception {
     TradeAgreement expectedAgreement = TradeAgreement.builder().instrument("IBM")
-        .internalParty("INT-1").externalParty("EXT-1").buySell("B").qty(100d).build();
+        .internalParty("INT-1").externalParty("EXT-1").buySell(Side.B).qty(100d).build();
 
     log.info("Agreement json to post {}", agreementJson);
 
@@ -107,7 +128,8 @@ public class FuseHttpTraceFilterTest extends ASpringTest {
     log.info("Agreement objects that the service will expect {}", agreementMessages);
 
     given(this.mockSettlementService.spawnMissions(singletonList(expectedAgreement)))
-        .willReturn(Sets.newTreeSet(expectedMissionIds));
+        .willReturn(LongHashSet.of(
+            expectedMissionIds.stream().mapToLong(Long::longValue).toArray()));
 
     Response response =
         RestAssured.given()
@@ -127,7 +149,7 @@ public class FuseHttpTraceFilterTest extends ASpringTest {
 
     TradeAgreementMessages messages = TradeAgreementMessages.builder().agreement(
         TradeAgreementMessage.builder().instrument("IBM").internalParty("INT-1")
-            .externalParty("EXT-1").buySell("B").qty(100d).build())
+            .externalParty("EXT-1").buySell(Side.B).qty(100d).build())
         .build();
 
     JAXBContext context = JAXBContext.newInstance(TradeAgreementMessages.class);
@@ -137,7 +159,7 @@ public class FuseHttpTraceFilterTest extends ASpringTest {
     String xml = writer.toString();
 
     given(this.mockSettlementService.spawnMissions(toTradeAgreements(messages)))
-        .willReturn(Sets.newTreeSet(singletonList(1L)));
+        .willReturn(LongHashSet.of(1L));
 
     Response response =
         RestAssured.given()
@@ -195,6 +217,27 @@ public class FuseHttpTraceFilterTest extends ASpringTest {
     verifyHeadersPresent(response);
   }
 
+  @Test
+  public void testAuditHeaderValues() {
+    BDDMockito.given(this.mockSettlementService.findMission(MISSION_ID_1))
+        .willReturn(Optional.empty());
+
+    Response response =
+        RestAssured.given()
+            .log().ifValidationFails()
+            .accept(MediaType.APPLICATION_JSON_VALUE)
+            .when()
+            .get("/settlementEngine/mission/" + MISSION_ID_1 + "?requestId=1234")
+            .then()
+            .extract().response();
+
+    // Ids are sent as is, without the separators used when they are logged
+    assertEquals("1234", response.getHeader("externalQueryId"));
+    assertThat(Long.parseLong(response.getHeader("internalQueryId")), greaterThanOrEqualTo(0L));
+    assertThat(Long.parseLong(response.getHeader("requestElapsedTimeMillis")),
+        greaterThanOrEqualTo(0L));
+  }
+
   @Test
   public void testGetMissionNotFound() {
     BDDMockito.given(this.mockSettlementService.findMission(MISSION_ID_1))
@@ -219,7 +262,7 @@ public class FuseHttpTraceFilterTest extends ASpringTest {
     SettlementMission mission2 = TestDataGenerator.defaultSettlementMissionData()
         .id(2L).build();
 
-    BDDMockito.given(this.mockSettlementService.findMissions(Arrays.asList(1L, 2L)))
+    BDDMockito.given(this.mockSettlementService.findMissions(LongArrayList.of(1L, 2L)))
         .willReturn(Arrays.asList(mission1, mission2));
 
     Response response =
@@ -240,7 +283,7 @@ public class FuseHttpTraceFilterTest extends ASpringTest {
     SettlementMission mission2 = TestDataGenerator.defaultSettlementMissionData()
         .id(2L).build();
 
-    BDDMockito.given(this.mockSettlementService.findMissions(Arrays.asList(1L, 2L)))
+    BDDMockito.given(this.mockSettlementService.findMissions(LongArrayList.of(1L, 2L)))
         .willReturn(Arrays.asList(mission1, mission2));
 
     Response response =
@@ -257,13 +300,13 @@ public class FuseHttpTraceFilterTest extends ASpringTest {
   @Test
   public void testGetMissionsFound_CSV() {
     SettlementMission mission1 = SettlementMission.builder()
-        .id(1L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction("REC")
+        .id(1L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction(Direction.REC)
         .qty(100.0).version(0L).build();
     SettlementMission mission2 = SettlementMission.builder()
-        .id(2L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction("REC")
+        .id(2L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction(Direction.REC)
         .qty(100.0).version(0L).build();
 
-    BDDMockito.given(this.mockSettlementService.findMissions(Arrays.asList(1L, 2L)))
+    BDDMockito.given(this.mockSettlementService.findMissions(LongArrayList.of(1L, 2L)))
         .willReturn(Arrays.asList(mission1, mission2));
 
     Response response =
@@ -280,13 +323,13 @@ public class FuseHttpTraceFilterTest extends ASpringTest {
   @Test
   public void testGetMissionsFound_XLSX() {
     SettlementMission mission1 = SettlementMission.builder()
-        .id(1L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction("REC")
+        .id(1L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction(Direction.REC)
         .qty(100.0).version(0L).build();
     SettlementMission mission2 = SettlementMission.builder()
-        .id(2L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction("REC")
+        .id(2L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction(Direction.REC)
         .qty(100.0).version(0L).build();
 
-    BDDMockito.given(this.mockSettlementService.findMissions(Arrays.asList(1L, 2L)))
+    BDDMockito.given(this.mockSettlementService.findMissions(LongArrayList.of(1L, 2L)))
         .willReturn(Arrays.asList(mission1, mission2));
 
     Response response =
@@ -300,6 +343,79 @@ public class FuseHttpTraceFilterTest extends ASpringTest {
     verifyHeadersPresent(response);
   }
 
+  @Test
+  public void testExportMissions_CSVGzipped() {
+    // Enough missions for the response to pass server.compression.min-response-size
+    List<SettlementMission> missions = LongStream.rangeClosed(1, 100)
+        .mapToObj(id -> TestDataGenerator.defaultSettlementMissionData().id(id).build())
+        .collect(Collectors.toList());
+
+    BDDMockito.given(this.mockSettlementService.scanMissions()).willReturn(missions);
+
+    Response response =
+        RestAssured.given()
+            .log().ifValidationFails()
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            .when()
+            .get("/settlementEngine/export?format=csv&requestId=1234")
+            .then()
+            .extract().response();
+
+    // The body streams straight through, but the audit headers still make it in before the commit
+    verifyHeadersPresent(response);
+    assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    // RestAssured transparently decompresses the body
+    assertEquals(missions.size() + 1, response.asString().split("\n").length);
+  }
+
+  @Test
+  public void testAsyncRequestIsTracedOnceComplete() throws Exception {
+    long delayMillis = 200;
+    CompletableFuture<List<IexLastTradedPrice>> prices = new CompletableFuture<>();
+    // IEX fails after the controller has returned, so the error is written by the async dispatch
+    given(mockIexService.getLastTradedPriceForSymbols(singletonList("FB"))).willAnswer(
+        invocation -> {
+          CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS).execute(() ->
+              prices.completeExceptionally(new MarketDataUnavailableException("IEX is down")));
+          return prices;
+        });
+
+    Response response =
+        RestAssured.given()
+            .log().ifValidationFails()
+            .accept(MediaType.APPLICATION_JSON_VALUE)
+            .when()
+            .get("/iex/lastTradedPrice?symbols=FB")
+            .then()
+            .extract().response();
+
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatusCode());
+    assertThat(response.getHeader("internalQueryId"), not(isEmptyOrNullString()));
+    assertThat(Long.parseLong(response.getHeader("requestElapsedTimeMillis")),
+        greaterThanOrEqualTo(delayMillis));
+
+    HttpTrace trace = awaitTrace("/iex/lastTradedPrice");
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), trace.getResponse().getStatus());
+    assertThat(trace.getTimeTaken(), greaterThanOrEqualTo(delayMillis));
+  }
+
+  /**
+   * Waits for the repository's writer to store the trace of a request to the path.
+   */
+  private HttpTrace awaitTrace(String path) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (System.nanoTime() < deadline) {
+      Optional<HttpTrace> trace = traceRepository.findAll().stream()
+          .filter(found -> path.equals(found.getRequest().getUri().getPath()))
+          .findFirst();
+      if (trace.isPresent()) {
+        return trace.get();
+      }
+      Thread.sleep(10);
+    }
+    throw new AssertionError("No trace of a request to " + path);
+  }
+
   /**
    * Verifies required audit fields are present
    */
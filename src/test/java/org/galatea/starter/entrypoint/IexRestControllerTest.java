@@ -1,15 +1,24 @@
 package org.galatea.starter.entrypoint;
 
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.math.BigDecimal;
 import java.util.Collections;
 import junitparams.JUnitParamsRunner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.galatea.starter.ASpringTest;
+import org.galatea.starter.service.IMarketDataGateway;
+import org.galatea.starter.service.MarketDataGatewayStats;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,17 +28,19 @@ import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 
 @RequiredArgsConstructor
 @Slf4j
-// We need to do a full application start up for this one, since we want the feign clients to be instantiated.
+// We need to do a full application start up for this one, since we want the IEX client to be instantiated.
 // It's possible we could do a narrower slice of beans, but it wouldn't save that much test run time.
 @SpringBootTest
 // this gives us the MockMvc variable
 @AutoConfigureMockMvc
 // we previously used WireMockClassRule for consistency with ASpringTest, but when moving to a dynamic port
-// to prevent test failures in concurrent builds, the wiremock server was created too late and feign was
+// to prevent test failures in concurrent builds, the wiremock server was created too late and the client was
 // already expecting it to be running somewhere else, resulting in a connection refused
 @AutoConfigureWireMock(port = 0, files = "classpath:/wiremock")
 // Use this runner since we want to parameterize certain tests.
@@ -40,9 +51,15 @@ public class IexRestControllerTest extends ASpringTest {
   @Autowired
   private MockMvc mvc;
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private IMarketDataGateway marketDataGateway;
+
   @Test
   public void testGetSymbolsEndpoint() throws Exception {
-    MvcResult result = this.mvc.perform(
+    MvcResult result = performAsync(
         // note that we were are testing the fuse REST end point here, not the IEX end point.
         // the fuse end point in turn calls the IEX end point, which is WireMocked for this test.
         org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/iex/symbols")
@@ -52,13 +69,63 @@ public class IexRestControllerTest extends ASpringTest {
         .andExpect(jsonPath("$[0].symbol", is("A")))
         .andExpect(jsonPath("$[1].symbol", is("AA")))
         .andExpect(jsonPath("$[2].symbol", is("AAAU")))
+        // Dates are written as every other JSON response writes them
+        .andExpect(jsonPath("$[0].date", is(1565222400000L)))
         .andReturn();
   }
 
+  @Test
+  public void testGetSymbolsWithPrefix() throws Exception {
+    performAsync(
+        org.springframework.test.web.servlet.request.MockMvcRequestBuilders
+            .get("/iex/symbols?prefix=aa")
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].symbol", is("AA")))
+        .andExpect(jsonPath("$[0].name", is("Alcoa Corporation")))
+        .andExpect(jsonPath("$[1].symbol", is("AAAU")));
+  }
+
+  @Test
+  public void testGetSymbolsNotModified() throws Exception {
+    String etag = performAsync(
+        org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/iex/symbols")
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("ETag"))
+        .andReturn().getResponse().getHeader("ETag");
+
+    performAsync(
+        org.springframework.test.web.servlet.request.MockMvcRequestBuilders
+            .get("/iex/symbols?prefix=AA")
+            .header("If-None-Match", etag)
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+        .andExpect(status().isNotModified());
+  }
+
+  @Test
+  public void testGetSymbol() throws Exception {
+    performAsync(
+        org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/iex/symbol/aa")
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.symbol", is("AA")))
+        .andExpect(jsonPath("$.iexId", is("12042")));
+  }
+
+  @Test
+  public void testGetUnknownSymbol() throws Exception {
+    performAsync(
+        org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/iex/symbol/ZZZZ")
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+        .andExpect(status().isNotFound());
+  }
+
   @Test
   public void testGetLastTradedPrice() throws Exception {
 
-    MvcResult result = this.mvc.perform(
+    MvcResult result = performAsync(
         org.springframework.test.web.servlet.request.MockMvcRequestBuilders
             .get("/iex/lastTradedPrice?symbols=FB")
             // This URL will be hit by the MockMvc client. The result is configured in the file
@@ -70,10 +137,55 @@ public class IexRestControllerTest extends ASpringTest {
         .andReturn();
   }
 
+  @Test
+  public void testIexCallsAreTimed() throws Exception {
+    double before = lastTradedPriceCalls();
+
+    performAsync(
+        org.springframework.test.web.servlet.request.MockMvcRequestBuilders
+            .get("/iex/lastTradedPrice?symbols=FB")
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+        .andExpect(status().isOk());
+
+    assertEquals(before + 1, lastTradedPriceCalls(), 0);
+  }
+
+  @Test
+  public void testRepeatedRequestsAreServedFromTheGateway() throws Exception {
+    MarketDataGatewayStats before = marketDataGateway.stats();
+
+    for (int i = 0; i < 2; i++) {
+      performAsync(
+          org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get("/iex/symbols")
+              .accept(MediaType.APPLICATION_JSON_VALUE))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$[0].symbol", is("A")));
+      performAsync(
+          org.springframework.test.web.servlet.request.MockMvcRequestBuilders
+              .get("/iex/lastTradedPrice?symbols=FB")
+              .accept(MediaType.APPLICATION_JSON_VALUE))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$[0].symbol", is("FB")));
+    }
+
+    // Other tests may have loaded the data already, in which case IEX isn't called at all
+    MarketDataGatewayStats after = marketDataGateway.stats();
+    assertTrue(after.getSymbolUpstreamCallCount() - before.getSymbolUpstreamCallCount() <= 1);
+    assertTrue(after.getPriceUpstreamCallCount() - before.getPriceUpstreamCallCount() <= 1);
+    assertTrue(after.getSymbolHitCount() - before.getSymbolHitCount() >= 1);
+    assertTrue(after.getPriceHitCount() - before.getPriceHitCount() >= 1);
+  }
+
+  private double lastTradedPriceCalls() {
+    // Calls that throw are tagged with the exception instead
+    return meterRegistry.find("market.data.requests").tags("operation", "lastTradedPrice",
+        "exception", "none").timers().stream().mapToDouble(timer -> timer.count()).sum();
+  }
+
   @Test
   public void testGetLastTradedPriceEmpty() throws Exception {
 
-    MvcResult result = this.mvc.perform(
+    MvcResult result = performAsync(
         org.springframework.test.web.servlet.request.MockMvcRequestBuilders
             .get("/iex/lastTradedPrice?symbols=")
             .accept(MediaType.APPLICATION_JSON_VALUE))
@@ -81,4 +193,25 @@ public class IexRestControllerTest extends ASpringTest {
         .andExpect(jsonPath("$", is(Collections.emptyList())))
         .andReturn();
   }
+
+  @Test
+  public void testUpstreamErrorIsServiceUnavailable() throws Exception {
+    // WireMock has no mapping for this symbol, so "IEX" responds with a 404
+    performAsync(
+        org.springframework.test.web.servlet.request.MockMvcRequestBuilders
+            .get("/iex/lastTradedPrice?symbols=NOPE")
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+        .andExpect(status().isServiceUnavailable());
+  }
+
+  /**
+   * Performs the request, whose handling is started asynchronously, and then dispatches its
+   * result as the servlet container would once the controller's future completes.
+   */
+  private ResultActions performAsync(final RequestBuilder requestBuilder) throws Exception {
+    MvcResult started = this.mvc.perform(requestBuilder)
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    return this.mvc.perform(asyncDispatch(started));
+  }
 }
@@ -8,6 +8,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import org.galatea.starter.entrypoint.exception.EntityNotFoundException;
+import org.galatea.starter.utils.translation.TranslationException;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.dao.DataAccessException;
@@ -39,6 +40,13 @@ public class RestExceptionHandlerTest {
     assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
   }
 
+  @Test
+  public void handleTranslationException() {
+    TranslationException exception = new TranslationException("msg", new Exception());
+    ResponseEntity<Object> response = handler.handleTranslationException(exception);
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+  }
+
   @Test
   public void handleDataAccessException() {
     DataAccessException exception = new DataAccessException("msg") {};
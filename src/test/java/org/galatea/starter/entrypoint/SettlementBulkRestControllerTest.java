@@ -0,0 +1,184 @@
+package org.galatea.starter.entrypoint;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import javax.validation.ConstraintViolationException;
+import junitparams.JUnitParamsRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.ASpringTest;
+import org.galatea.starter.MessageTranslationConfig;
+import org.galatea.starter.ProtoMessageTranslationConfig;
+import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessage;
+import org.galatea.starter.service.SettlementService;
+import org.galatea.starter.testutils.TestDataGenerator;
+import org.galatea.starter.utils.collections.LongArrayList;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@Slf4j
+@RunWith(JUnitParamsRunner.class)
+@WebMvcTest(SettlementBulkRestController.class)
+@Import({MessageTranslationConfig.class, ProtoMessageTranslationConfig.class,
+    RestExceptionHandler.class})
+// Use a tiny chunk size so that chunking is exercised with only a handful of agreements
+@TestPropertySource(properties = "mvc.bulk-chunk-size=2")
+public class SettlementBulkRestControllerTest extends ASpringTest {
+
+  private static final String APPLICATION_X_PROTOBUF = "application/x-protobuf";
+
+  @Autowired
+  private MockMvc mvc;
+
+  @MockBean
+  private SettlementService mockSettlementService;
+
+  @Test
+  public void testSettleAgreementsJsonInChunks() throws Exception {
+    TradeAgreement agreement1 = TestDataGenerator.defaultTradeAgreementData().instrument("A")
+        .build();
+    TradeAgreement agreement2 = TestDataGenerator.defaultTradeAgreementData().instrument("B")
+        .build();
+    TradeAgreement agreement3 = TestDataGenerator.defaultTradeAgreementData().instrument("C")
+        .build();
+
+    given(mockSettlementService.spawnMissionsInOrder(asList(agreement1, agreement2)))
+        .willReturn(LongArrayList.of(2L, 1L));
+    given(mockSettlementService.spawnMissionsInOrder(singletonList(agreement3)))
+        .willReturn(LongArrayList.of(3L));
+
+    String body = "[" + agreementJson("A") + "," + agreementJson("B") + "," + agreementJson("C")
+        + "]";
+
+    MvcResult result = mvc.perform(post("/settlementEngine/bulk?requestId=1234")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/x-ndjson"))
+        .andReturn();
+
+    assertEquals(asList("\"/settlementEngine/mission/2\"", "\"/settlementEngine/mission/1\"",
+        "\"/settlementEngine/mission/3\""), responseLines(result));
+    verify(mockSettlementService, times(2)).spawnMissionsInOrder(anyList());
+  }
+
+  @Test
+  public void testSettleAgreementsProtoInChunks() throws Exception {
+    TradeAgreement agreement = TestDataGenerator.defaultTradeAgreementData().build();
+    TradeAgreementProtoMessage message =
+        TestDataGenerator.defaultTradeAgreementProtoMessageData().build();
+
+    given(mockSettlementService.spawnMissionsInOrder(asList(agreement, agreement)))
+        .willReturn(LongArrayList.of(1L, 2L));
+    given(mockSettlementService.spawnMissionsInOrder(singletonList(agreement)))
+        .willReturn(LongArrayList.of(3L));
+
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    for (int i = 0; i < 3; i++) {
+      message.writeDelimitedTo(body);
+    }
+
+    MvcResult result = mvc.perform(post("/settlementEngine/bulk")
+        .contentType(APPLICATION_X_PROTOBUF)
+        .content(body.toByteArray()))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    assertEquals(asList("\"/settlementEngine/mission/1\"", "\"/settlementEngine/mission/2\"",
+        "\"/settlementEngine/mission/3\""), responseLines(result));
+    verify(mockSettlementService, times(2)).spawnMissionsInOrder(anyList());
+  }
+
+  @Test
+  public void testSettleEmptyArray() throws Exception {
+    mvc.perform(post("/settlementEngine/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[]"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(""));
+
+    verify(mockSettlementService, never()).spawnMissionsInOrder(anyList());
+  }
+
+  @Test
+  public void testSettleMalformedJson() throws Exception {
+    mvc.perform(post("/settlementEngine/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[{\"instrument\": }]"))
+        .andExpect(status().isBadRequest());
+
+    verify(mockSettlementService, never()).spawnMissionsInOrder(anyList());
+  }
+
+  @Test
+  public void testFailedChunkEndsStreamWithError() throws Exception {
+    TradeAgreement agreement1 = TestDataGenerator.defaultTradeAgreementData().instrument("A")
+        .build();
+    TradeAgreement agreement2 = TestDataGenerator.defaultTradeAgreementData().instrument("B")
+        .build();
+    TradeAgreement agreement3 = TestDataGenerator.defaultTradeAgreementData().instrument("C")
+        .build();
+
+    given(mockSettlementService.spawnMissionsInOrder(asList(agreement1, agreement2)))
+        .willReturn(LongArrayList.of(1L, 2L));
+    given(mockSettlementService.spawnMissionsInOrder(singletonList(agreement3)))
+        .willThrow(new ConstraintViolationException("Invalid agreement", Set.of()));
+
+    String body = "[" + agreementJson("A") + "," + agreementJson("B") + "," + agreementJson("C")
+        + "]";
+
+    MvcResult result = mvc.perform(post("/settlementEngine/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/x-ndjson"))
+        .andReturn();
+
+    assertEquals(asList("\"/settlementEngine/mission/1\"", "\"/settlementEngine/mission/2\"",
+        "{\"status\":\"BAD_REQUEST\",\"message\":\"\"}"), responseLines(result));
+  }
+
+  @Test
+  public void testFailedFirstChunkIsBadRequest() throws Exception {
+    given(mockSettlementService.spawnMissionsInOrder(anyList()))
+        .willThrow(new ConstraintViolationException("Invalid agreement", Set.of()));
+
+    mvc.perform(post("/settlementEngine/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[" + agreementJson("A") + "]"))
+        .andExpect(status().isBadRequest());
+  }
+
+  private static String agreementJson(final String instrument) {
+    return "{\"instrument\": \"" + instrument + "\", \"internalParty\": \"INT-1\", "
+        + "\"externalParty\": \"EXT-1\", \"buySell\": \"B\", \"qty\": 100}";
+  }
+
+  private static List<String> responseLines(final MvcResult result) throws Exception {
+    List<String> lines = Arrays.asList(result.getResponse().getContentAsString().split("\n"));
+    log.info("Bulk response lines: {}", lines);
+    return lines;
+  }
+}
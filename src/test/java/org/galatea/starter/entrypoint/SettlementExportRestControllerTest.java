@@ -0,0 +1,86 @@
+package org.galatea.starter.entrypoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import junitparams.JUnitParamsRunner;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.galatea.starter.ASpringTest;
+import org.galatea.starter.MvcConfig;
+import org.galatea.starter.service.SettlementService;
+import org.galatea.starter.testutils.TestDataGenerator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@RunWith(JUnitParamsRunner.class)
+@WebMvcTest(SettlementExportRestController.class)
+@Import(RestExceptionHandler.class)
+// Use a tiny row window so that rows are flushed to the temp file with only a handful of missions
+@TestPropertySource(properties = "mvc.xlsx.row-window=1")
+public class SettlementExportRestControllerTest extends ASpringTest {
+
+  @Autowired
+  private MockMvc mvc;
+
+  @MockBean
+  private SettlementService mockSettlementService;
+
+  @Test
+  public void testExportMissionsXlsx() throws Exception {
+    given(mockSettlementService.scanMissions()).willReturn(Arrays.asList(
+        TestDataGenerator.defaultSettlementMissionData().id(1L).instrument("A").build(),
+        TestDataGenerator.defaultSettlementMissionData().id(2L).instrument("B").build(),
+        TestDataGenerator.defaultSettlementMissionData().id(3L).instrument("C").build()));
+
+    MvcResult result = mvc.perform(get("/settlementEngine/export?requestId=1234"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MvcConfig.APPLICATION_EXCEL_VALUE))
+        .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=SettlementMissions.xlsx"))
+        .andReturn();
+
+    try (Workbook wb = new XSSFWorkbook(
+        new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+      Sheet sheet = wb.getSheetAt(0);
+      assertEquals("id", sheet.getRow(0).getCell(0).getStringCellValue());
+      assertEquals(3, sheet.getLastRowNum());
+      assertEquals("3", sheet.getRow(3).getCell(0).getStringCellValue());
+    }
+  }
+
+  @Test
+  public void testExportMissionsCsv() throws Exception {
+    given(mockSettlementService.scanMissions()).willReturn(Arrays.asList(
+        TestDataGenerator.defaultSettlementMissionData().id(1L).build(),
+        TestDataGenerator.defaultSettlementMissionData().id(2L).build()));
+
+    MvcResult result = mvc.perform(get("/settlementEngine/export?format=csv"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=SettlementMissions.csv"))
+        .andReturn();
+
+    assertEquals(MvcConfig.TEXT_CSV_VALUE, result.getResponse().getContentType());
+    String[] lines = result.getResponse().getContentAsString().split("\n");
+    assertEquals(3, lines.length);
+    assertTrue(lines[1].startsWith("1,"));
+    assertTrue(lines[2].startsWith("2,"));
+  }
+}
@@ -0,0 +1,140 @@
+package org.galatea.starter.entrypoint;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import javax.jms.BytesMessage;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.ASpringTest;
+import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessage;
+import org.galatea.starter.service.SettlementService;
+import org.galatea.starter.testutils.TestDataGenerator;
+import org.galatea.starter.utils.collections.LongHashSet;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+@Slf4j
+// A generous wait so that all the messages sent by a test end up in the same batch
+@SpringBootTest(properties = {"jms.batch.enabled=true", "jms.batch.concurrency=1",
+    "jms.batch.max-size=3", "jms.batch.max-wait-millis=2000"})
+public class SettlementJmsBatchListenerTest extends ASpringTest {
+
+  @Autowired
+  protected JmsTemplate jmsTemplate;
+
+  @MockBean
+  private SettlementService mockSettlementService;
+
+  @Value("${jms.agreement-queue-json}")
+  protected String jsonQueueName;
+
+  @Value("${jms.agreement-queue-proto}")
+  protected String protoQueueName;
+
+  @Test
+  @DirtiesContext
+  public void testSettleAgreementsJsonInOneBatch() throws IOException {
+    String message = readData("Test_IBM_Agreement.json").replace("\n", "")
+        .replace("[", "").replace("]", "");
+    TradeAgreement agreement = TestDataGenerator.defaultTradeAgreementData().build();
+
+    for (int i = 0; i < 3; i++) {
+      jmsTemplate.send(jsonQueueName, s -> s.createTextMessage(message));
+    }
+
+    verify(mockSettlementService, timeout(10000))
+        .spawnMissions(Arrays.asList(agreement, agreement, agreement));
+  }
+
+  @Test
+  @DirtiesContext
+  public void testSettleAgreementsJsonFromBytesMessages() throws IOException {
+    String message = readData("Test_IBM_Agreement.json").replace("\n", "")
+        .replace("[", "").replace("]", "");
+    TradeAgreement agreement = TestDataGenerator.defaultTradeAgreementData().build();
+
+    jmsTemplate.send(jsonQueueName, s -> s.createTextMessage(message));
+    for (int i = 0; i < 2; i++) {
+      jmsTemplate.send(jsonQueueName, s -> {
+        BytesMessage bytesMessage = s.createBytesMessage();
+        bytesMessage.writeBytes(message.getBytes(StandardCharsets.UTF_8));
+        return bytesMessage;
+      });
+    }
+
+    verify(mockSettlementService, timeout(10000))
+        .spawnMissions(Arrays.asList(agreement, agreement, agreement));
+  }
+
+  @Test
+  @DirtiesContext
+  public void testInvalidAgreementsAreDroppedFromTheBatch() {
+    given(mockSettlementService.spawnMissions(anyList())).willAnswer(invocation -> {
+      List<TradeAgreement> agreements = invocation.getArgument(0);
+      if (agreements.size() == 3) {
+        ConstraintViolation<?> violation = mock(ConstraintViolation.class);
+        given(violation.getRootBean()).willReturn(agreements.get(1));
+        throw new ConstraintViolationException(Set.of(violation));
+      }
+      return LongHashSet.of(1L, 2L);
+    });
+
+    for (String instrument : List.of("A", "B", "C")) {
+      jmsTemplate.convertAndSend(protoQueueName, TestDataGenerator
+          .defaultTradeAgreementProtoMessageData().setInstrument(instrument).build().toByteArray());
+    }
+
+    verify(mockSettlementService, timeout(10000)).spawnMissions(Arrays.asList(
+        TestDataGenerator.defaultTradeAgreementData().instrument("A").build(),
+        TestDataGenerator.defaultTradeAgreementData().instrument("C").build()));
+  }
+
+  @Test
+  @DirtiesContext
+  public void testSettleAgreementsProtoSkipsUntranslatableMessages() {
+    TradeAgreementProtoMessage message
+        = TestDataGenerator.defaultTradeAgreementProtoMessageData().build();
+    TradeAgreement agreement = TestDataGenerator.defaultTradeAgreementData().build();
+
+    jmsTemplate.convertAndSend(protoQueueName, message.toByteArray());
+    jmsTemplate.convertAndSend(protoQueueName, new byte[] {1, 2, 3});
+    jmsTemplate.convertAndSend(protoQueueName, message.toByteArray());
+
+    verify(mockSettlementService, timeout(10000))
+        .spawnMissions(Arrays.asList(agreement, agreement));
+  }
+
+  @Test
+  @DirtiesContext
+  public void testFailedBatchIsRedelivered() {
+    TradeAgreementProtoMessage message
+        = TestDataGenerator.defaultTradeAgreementProtoMessageData().build();
+    List<TradeAgreement> agreements =
+        Collections.singletonList(TestDataGenerator.defaultTradeAgreementData().build());
+
+    given(mockSettlementService.spawnMissions(anyList()))
+        .willThrow(new IllegalStateException("Database unavailable"))
+        .willReturn(LongHashSet.of(1L));
+
+    jmsTemplate.convertAndSend(protoQueueName, message.toByteArray());
+
+    verify(mockSettlementService, timeout(15000).times(2)).spawnMissions(agreements);
+  }
+}
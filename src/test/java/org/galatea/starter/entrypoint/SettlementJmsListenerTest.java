@@ -1,17 +1,22 @@
 package org.galatea.starter.entrypoint;
 
+import static org.awaitility.Awaitility.await;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import javax.jms.TextMessage;
 import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.galatea.starter.ASpringTest;
+import org.galatea.starter.domain.Side;
 import org.galatea.starter.domain.TradeAgreement;
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessage;
 import org.galatea.starter.service.SettlementService;
@@ -38,6 +43,9 @@ public class SettlementJmsListenerTest extends ASpringTest {
   @MockBean
   private SettlementService mockSettlementService;
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
   @Value("${jms.agreement-queue-json}")
   protected String jsonQueueName;
 
@@ -60,7 +68,7 @@ public class SettlementJmsListenerTest extends ASpringTest {
         .replace("[", "").replace("]", "");
 
     TradeAgreement agreement = TradeAgreement.builder().instrument("IBM").internalParty("INT-1")
-        .externalParty("EXT-1").buySell("B").qty(100d).build();
+        .externalParty("EXT-1").buySell(Side.B).qty(100d).build();
     List<TradeAgreement> expectedAgreements = Collections.singletonList(agreement);
 
     log.info("Agreement JSON to put in the queue: {}", message);
@@ -89,4 +97,17 @@ public class SettlementJmsListenerTest extends ASpringTest {
 
     verify(mockSettlementService, timeout(10000)).spawnMissions(agreements);
   }
+
+  @Test
+  @DirtiesContext
+  public void testProcessingIsTimedPerQueue() {
+    jmsTemplate.convertAndSend(protoQueueName,
+        TestDataGenerator.defaultTradeAgreementProtoMessageData().build().toByteArray());
+
+    await().atMost(10, TimeUnit.SECONDS).until(() -> {
+      Timer timer = meterRegistry.find("jms.listener.process")
+          .tags("queue", protoQueueName, "outcome", "success").timer();
+      return timer != null && timer.count() == 1;
+    });
+  }
 }
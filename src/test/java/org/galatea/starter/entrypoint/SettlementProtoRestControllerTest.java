@@ -8,7 +8,6 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import com.google.common.collect.Sets;
 import java.util.Optional;
 import junitparams.JUnitParamsRunner;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +22,7 @@ import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgr
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessages;
 import org.galatea.starter.service.SettlementService;
 import org.galatea.starter.testutils.TestDataGenerator;
+import org.galatea.starter.utils.collections.LongHashSet;
 import org.galatea.starter.utils.translation.ITranslator;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -75,7 +75,7 @@ public class SettlementProtoRestControllerTest extends ASpringTest {
         .addMessage(message).build();
 
     given(this.mockSettlementService.spawnMissions(singletonList(agreement)))
-        .willReturn(Sets.newTreeSet(singletonList(expectedId)));
+        .willReturn(LongHashSet.of(expectedId));
 
     MvcResult result = this.mvc.perform(
         post("/settlementEngine?requestId=1234").contentType(APPLICATION_X_PROTOBUF)
@@ -90,6 +90,7 @@ public class SettlementProtoRestControllerTest extends ASpringTest {
   }
 
   @Test
+  @SuppressWarnings("deprecation")
   public void testGetMission() throws Exception {
     SettlementMission mission = TestDataGenerator.defaultSettlementMissionData().build();
     SettlementMissionProtoMessage expectedMessage = settlementMissionTranslator.translate(mission);
@@ -105,6 +106,8 @@ public class SettlementProtoRestControllerTest extends ASpringTest {
     SettlementMissionProtoMessage message = SettlementMissionProtoMessage
         .parseFrom(result.getResponse().getContentAsByteArray());
     assertEquals(expectedMessage, message);
+    // Consumers that predate settlement_direction still read the direction string
+    assertEquals(mission.getDirection().name(), message.getDirection());
   }
 
   @Test
@@ -11,6 +11,9 @@ import java.util.ArrayList;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.domain.Direction;
+import org.galatea.starter.domain.Side;
+import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.SettlementDirection;
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.SettlementMissionProtoMessage;
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.SettlementResponseProtoMessage;
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessage;
@@ -86,6 +89,7 @@ public class SettlementRestControllerIntegrationTest {
     double quantity1 = 4500d;
     double quantity2 = 4600d;
 
+    // Sent with the legacy buy_sell string rather than the side enum, as older clients do
     TradeAgreementProtoMessages messages = TradeAgreementProtoMessages.newBuilder().addMessage(
         TradeAgreementProtoMessage.newBuilder().setInstrument(instrument)
             .setInternalParty("icp-1")
@@ -99,12 +103,14 @@ public class SettlementRestControllerIntegrationTest {
     log.info("created missions: {}", missionPaths);
 
     SettlementMissionProtoMessage.Builder b1 = SettlementMissionProtoMessage.newBuilder()
-        .setDepot("DTC").setInstrument(instrument).setExternalParty(external1).setDirection("REC")
-        .setQty(quantity1).setVersion(0L);
+        .setDepot("DTC").setInstrument(instrument).setExternalParty(external1)
+        .setSettlementDirection(SettlementDirection.SETTLEMENT_DIRECTION_REC).setQty(quantity1)
+        .setVersion(0L);
 
     SettlementMissionProtoMessage.Builder b2 = SettlementMissionProtoMessage.newBuilder()
-        .setDepot("DTC").setInstrument(instrument).setExternalParty(external2).setDirection("REC")
-        .setQty(quantity2).setVersion(0L);
+        .setDepot("DTC").setInstrument(instrument).setExternalParty(external2)
+        .setSettlementDirection(SettlementDirection.SETTLEMENT_DIRECTION_REC).setQty(quantity2)
+        .setVersion(0L);
 
     assertEquals(2, missionPaths.getSpawnedMissionPathsList().size());
 
@@ -142,20 +148,20 @@ public class SettlementRestControllerIntegrationTest {
 
     TradeAgreementMessages messages = TradeAgreementMessages.builder().agreement(
         TradeAgreementMessage.builder().instrument(instrument).internalParty("icp-1")
-            .externalParty(external1).buySell("B").qty(quantity1).build()).agreement(
+            .externalParty(external1).buySell(Side.B).qty(quantity1).build()).agreement(
         TradeAgreementMessage.builder().instrument(instrument).internalParty("icp-2")
-            .externalParty(external2).buySell("B").qty(quantity2).build()).build();
+            .externalParty(external2).buySell(Side.B).qty(quantity2).build()).build();
 
     SettlementResponseMessage missionPaths = fuseServer.sendTradeAgreementJson(messages);
 
     log.info("created missions: {}", missionPaths);
 
     SettlementMissionMessage.SettlementMissionMessageBuilder b1 = SettlementMissionMessage.builder()
-        .depot("DTC").instrument(instrument).externalParty(external1).direction("REC")
+        .depot("DTC").instrument(instrument).externalParty(external1).direction(Direction.REC)
         .qty(quantity1).version(0L);
 
     SettlementMissionMessage.SettlementMissionMessageBuilder b2 = SettlementMissionMessage.builder()
-        .depot("DTC").instrument(instrument).externalParty(external2).direction("REC")
+        .depot("DTC").instrument(instrument).externalParty(external2).direction(Direction.REC)
         .qty(quantity2).version(0L);
 
     assertEquals(2, missionPaths.getSpawnedMissions().size());
@@ -6,6 +6,10 @@ import static org.galatea.starter.MvcConfig.APPLICATION_EXCEL;
 import static org.galatea.starter.MvcConfig.TEXT_CSV;
 import static org.hamcrest.Matchers.hasXPath;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
@@ -13,7 +17,6 @@ import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.collect.Sets;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
 import io.restassured.module.mockmvc.response.MockMvcResponse;
 import java.io.StringWriter;
@@ -31,7 +34,11 @@ import junitparams.JUnitParamsRunner;
 import lombok.extern.slf4j.Slf4j;
 import org.galatea.starter.ASpringTest;
 import org.galatea.starter.MessageTranslationConfig;
+import org.galatea.starter.domain.Direction;
+import org.galatea.starter.domain.MissionFilter;
+import org.galatea.starter.domain.MissionPage;
 import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.Side;
 import org.galatea.starter.domain.TradeAgreement;
 import org.galatea.starter.entrypoint.messagecontracts.SettlementMissionList;
 import org.galatea.starter.entrypoint.messagecontracts.SettlementMissionMessage;
@@ -40,8 +47,11 @@ import org.galatea.starter.entrypoint.messagecontracts.TradeAgreementMessages;
 import org.galatea.starter.service.SettlementService;
 import org.galatea.starter.testutils.TestDataGenerator;
 import org.galatea.starter.testutils.XlsxComparator;
+import org.galatea.starter.utils.collections.LongArrayList;
+import org.galatea.starter.utils.collections.LongHashSet;
 import org.galatea.starter.utils.http.converter.SettlementMissionCsvConverter;
 import org.galatea.starter.utils.http.converter.SettlementMissionXlsxConverter;
+import org.galatea.starter.utils.rest.ResponseSnapshotCache;
 import org.galatea.starter.utils.translation.ITranslator;
 import org.junit.Before;
 import org.junit.Test;
@@ -61,6 +71,7 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.http.converter.xml.Jaxb2RootElementHttpMessageConverter;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
@@ -83,6 +94,9 @@ public class SettlementRestControllerTest
   @Value("${mvc.getMissionsPath}")
   private String getMissionsPath;
 
+  @Value("${mvc.queryMissionsPath}")
+  private String queryMissionsPath;
+
   @Value("${mvc.deleteMissionPath}")
   private String deleteMissionPath;
 
@@ -104,6 +118,9 @@ public class SettlementRestControllerTest
   @Autowired
   private SettlementRestController settlementRestController;
 
+  @Autowired
+  private ResponseSnapshotCache responseSnapshots;
+
   private ObjectMapper objectMapper;
 
   private JacksonTester<TradeAgreementMessages> agreementJsonTester;
@@ -112,6 +129,8 @@ public class SettlementRestControllerTest
 
   private static final Long MISSION_ID_1 = 1091L;
 
+  private static final Long MISSION_ID_2 = 1092L;
+
   @Before
   public void setup() {
     objectMapper = new ObjectMapper();
@@ -135,12 +154,14 @@ public class SettlementRestControllerTest
             addPlaceholderValue("mvc.deleteMissionPath", deleteMissionPath).
             addPlaceholderValue("mvc.updateMissionPath", updateMissionPath).
             addPlaceholderValue("mvc.getMissionsPath", getMissionsPath).
+            addPlaceholderValue("mvc.queryMissionsPath", queryMissionsPath).
             addPlaceholderValue("mvc.getMissionPath", getMissionPath).
             setContentNegotiationManager(manager).
-            setMessageConverters(new MappingJackson2HttpMessageConverter(),
+            setMessageConverters(new ByteArrayHttpMessageConverter(),
+                new MappingJackson2HttpMessageConverter(),
                 new Jaxb2RootElementHttpMessageConverter(),
                 new SettlementMissionCsvConverter(),
-                new SettlementMissionXlsxConverter()).
+                new SettlementMissionXlsxConverter(100, true)).
             setControllerAdvice(new RestExceptionHandler()));
   }
 
@@ -150,7 +171,7 @@ public class SettlementRestControllerTest
   public void testSettleAgreement_JSON(final String agreementJson,
       final String expectedMissionIdJson) throws Exception {
     TradeAgreement expectedAgreement = TradeAgreement.builder().instrument("IBM")
-        .internalParty("INT-1").externalParty("EXT-1").buySell("B").qty(100d).build();
+        .internalParty("INT-1").externalParty("EXT-1").buySell(Side.B).qty(100d).build();
 
     log.info("Agreement json to post {}", agreementJson);
 
@@ -165,7 +186,8 @@ public class SettlementRestControllerTest
     log.info("Agreement objects that the service will expect {}", agreementMessages);
 
     BDDMockito.given(this.mockSettlementService.spawnMissions(singletonList(expectedAgreement)))
-        .willReturn(Sets.newTreeSet(expectedMissionIds));
+        .willReturn(LongHashSet.of(
+            expectedMissionIds.stream().mapToLong(Long::longValue).toArray()));
 
     given()
         .log().ifValidationFails()
@@ -183,7 +205,7 @@ public class SettlementRestControllerTest
   public void testSettleAgreement_XML() throws Exception {
     TradeAgreementMessages messages = TradeAgreementMessages.builder().agreement(
         TradeAgreementMessage.builder().instrument("IBM").internalParty("INT-1")
-            .externalParty("EXT-1").buySell("B").qty(100d).build())
+            .externalParty("EXT-1").buySell(Side.B).qty(100d).build())
         .build();
 
     JAXBContext context = JAXBContext.newInstance(TradeAgreementMessages.class);
@@ -201,7 +223,8 @@ public class SettlementRestControllerTest
     log.info("Expected xml response {}", expectedXmlEntry);
 
     BDDMockito.given(this.mockSettlementService.spawnMissions(toTradeAgreements(messages)))
-        .willReturn(Sets.newTreeSet(expectedMissionIds));
+        .willReturn(LongHashSet.of(
+            expectedMissionIds.stream().mapToLong(Long::longValue).toArray()));
 
     given()
         .log().ifValidationFails()
@@ -240,7 +263,7 @@ public class SettlementRestControllerTest
         .body("id", is(mission.getId().intValue()))
         .body("externalParty", is(mission.getExternalParty()))
         .body("instrument", is(mission.getInstrument()))
-        .body("direction", is(mission.getDirection()))
+        .body("direction", is(mission.getDirection().name()))
         .body("qty", is(mission.getQty().floatValue()))
         .statusCode(HttpStatus.OK.value());
   }
@@ -263,11 +286,125 @@ public class SettlementRestControllerTest
         .body(hasXPath("//id", is(mission.getId().toString())))
         .body(hasXPath("//externalParty", is(mission.getExternalParty())))
         .body(hasXPath("//instrument", is(mission.getInstrument())))
-        .body(hasXPath("//direction", is(mission.getDirection())))
+        .body(hasXPath("//direction", is(mission.getDirection().name())))
         .body(hasXPath("//qty", is(mission.getQty().toString())))
         .statusCode(HttpStatus.OK.value());
   }
 
+  @Test
+  public void testGetMissionIsServedFromSnapshot() {
+    SettlementMission mission = TestDataGenerator.defaultSettlementMissionData().id(MISSION_ID_2)
+        .version(7L).build();
+    BDDMockito.given(this.mockSettlementService.findMission(MISSION_ID_2))
+        .willReturn(Optional.of(mission));
+    long serializations = responseSnapshots.getSerializationCount();
+
+    String jsonEtag = null;
+    for (int i = 0; i < 3; i++) {
+      String etag = given()
+          .log().ifValidationFails()
+          .accept(MediaType.APPLICATION_JSON_VALUE)
+          .when()
+          .get("/settlementEngine/mission/" + MISSION_ID_2)
+          .then()
+          .log().ifValidationFails()
+          .statusCode(HttpStatus.OK.value())
+          .body("id", is(MISSION_ID_2.intValue()))
+          .body("version", is(7))
+          .extract().header("ETag");
+      assertNotNull(etag);
+      if (jsonEtag != null) {
+        assertEquals(jsonEtag, etag);
+      }
+      jsonEtag = etag;
+    }
+    String xmlEtag = given()
+        .log().ifValidationFails()
+        .accept(MediaType.APPLICATION_XML_VALUE)
+        .when()
+        .get("/settlementEngine/mission/" + MISSION_ID_2)
+        .then()
+        .log().ifValidationFails()
+        .statusCode(HttpStatus.OK.value())
+        .body(hasXPath("//id", is(MISSION_ID_2.toString())))
+        .extract().header("ETag");
+    assertNotEquals(jsonEtag, xmlEtag);
+
+    // Once per format
+    assertEquals(serializations + 2, responseSnapshots.getSerializationCount());
+  }
+
+  @Test
+  public void testGetMissionNotModified() {
+    SettlementMission mission = TestDataGenerator.defaultSettlementMissionData().id(MISSION_ID_2)
+        .version(8L).build();
+    BDDMockito.given(this.mockSettlementService.findMission(MISSION_ID_2))
+        .willReturn(Optional.of(mission));
+
+    String etag = given()
+        .log().ifValidationFails()
+        .accept(MediaType.APPLICATION_JSON_VALUE)
+        .when()
+        .get("/settlementEngine/mission/" + MISSION_ID_2)
+        .then()
+        .log().ifValidationFails()
+        .statusCode(HttpStatus.OK.value())
+        .extract().header("ETag");
+
+    given()
+        .log().ifValidationFails()
+        .accept(MediaType.APPLICATION_JSON_VALUE)
+        .header("If-None-Match", etag)
+        .when()
+        .get("/settlementEngine/mission/" + MISSION_ID_2)
+        .then()
+        .log().ifValidationFails()
+        .statusCode(HttpStatus.NOT_MODIFIED.value());
+
+    // A client holding content that has since changed is sent the mission again
+    given()
+        .log().ifValidationFails()
+        .accept(MediaType.APPLICATION_JSON_VALUE)
+        .header("If-None-Match", "\"stale\"")
+        .when()
+        .get("/settlementEngine/mission/" + MISSION_ID_2)
+        .then()
+        .log().ifValidationFails()
+        .statusCode(HttpStatus.OK.value())
+        .header("ETag", etag)
+        .body("version", is(8));
+  }
+
+  @Test
+  public void testUpdateMissionInvalidatesSnapshot() {
+    SettlementMission mission = TestDataGenerator.defaultSettlementMissionData().id(MISSION_ID_2)
+        .version(20L).build();
+    BDDMockito.given(this.mockSettlementService.findMission(MISSION_ID_2))
+        .willReturn(Optional.of(mission));
+    when(mockSettlementService.missionExists(MISSION_ID_2)).thenReturn(true);
+    when(mockSettlementService.updateMission(MISSION_ID_2, mission))
+        .thenReturn(Optional.of(mission));
+    given().accept(MediaType.APPLICATION_JSON_VALUE)
+        .when().get("/settlementEngine/mission/" + MISSION_ID_2)
+        .then().statusCode(HttpStatus.OK.value());
+    long serializations = responseSnapshots.getSerializationCount();
+
+    given()
+        .log().ifValidationFails()
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(objectMapper.convertValue(mission, JsonNode.class).toString())
+        .when()
+        .put("/settlementEngine/mission/" + MISSION_ID_2)
+        .then()
+        .log().ifValidationFails()
+        .statusCode(HttpStatus.OK.value());
+    given().accept(MediaType.APPLICATION_JSON_VALUE)
+        .when().get("/settlementEngine/mission/" + MISSION_ID_2)
+        .then().statusCode(HttpStatus.OK.value());
+
+    assertEquals(serializations + 1, responseSnapshots.getSerializationCount());
+  }
+
   @Test
   public void testGetMissionNotFound() {
     BDDMockito.given(this.mockSettlementService.findMission(MISSION_ID_1))
@@ -291,7 +428,7 @@ public class SettlementRestControllerTest
         .id(2L).build();
     List<SettlementMission> missions = Arrays.asList(mission1, mission2);
 
-    BDDMockito.given(this.mockSettlementService.findMissions(Arrays.asList(1L, 2L)))
+    BDDMockito.given(this.mockSettlementService.findMissions(LongArrayList.of(1L, 2L)))
         .willReturn(Arrays.asList(mission1, mission2));
 
     given()
@@ -304,6 +441,88 @@ public class SettlementRestControllerTest
         .content(is(objectMapper.writeValueAsString(new SettlementMissionList(missions))));
   }
 
+  @Test
+  public void testQueryMissions_JSON() {
+    SettlementMission mission1 = TestDataGenerator.defaultSettlementMissionData()
+        .id(1L).build();
+    SettlementMission mission2 = TestDataGenerator.defaultSettlementMissionData()
+        .id(2L).build();
+    MissionFilter filter = MissionFilter.builder().depot("DTC").direction(Direction.REC).build();
+
+    BDDMockito.given(this.mockSettlementService.findMissionPage(filter, null, 2))
+        .willReturn(MissionPage.builder().missions(Arrays.asList(mission1, mission2))
+            .nextAfterId(2L).build());
+
+    String nextCursor = given()
+        .log().ifValidationFails()
+        .when()
+        .get("/settlementEngine/missions/query?depot=DTC&direction=REC&pageSize=2"
+            + "&requestId=1234")
+        .then()
+        .log().ifValidationFails()
+        .statusCode(HttpStatus.OK.value())
+        .body("settlementMissions.id", is(Arrays.asList(1, 2)))
+        .extract().path("nextCursor");
+
+    // The cursor picks up after the last mission of the previous page
+    BDDMockito.given(this.mockSettlementService.findMissionPage(filter, 2L, 2))
+        .willReturn(MissionPage.builder().missions(Collections.emptyList()).build());
+
+    given()
+        .log().ifValidationFails()
+        .when()
+        .get("/settlementEngine/missions/query?depot=DTC&direction=REC&pageSize=2&cursor="
+            + nextCursor)
+        .then()
+        .log().ifValidationFails()
+        .statusCode(HttpStatus.OK.value())
+        .body("settlementMissions", is(Collections.emptyList()))
+        .body("nextCursor", nullValue());
+  }
+
+  @Test
+  public void testQueryMissions_XML() {
+    SettlementMission mission = TestDataGenerator.defaultSettlementMissionData().id(1L).build();
+
+    BDDMockito.given(this.mockSettlementService.findMissionPage(MissionFilter.ALL, null, 100))
+        .willReturn(MissionPage.builder().missions(singletonList(mission)).build());
+
+    given()
+        .log().ifValidationFails()
+        .when()
+        .get("/settlementEngine/missions/query?format=xml")
+        .then()
+        .log().ifValidationFails()
+        .statusCode(HttpStatus.OK.value())
+        .contentType(MediaType.APPLICATION_XML_VALUE)
+        .body(hasXPath("/settlementMissionPage/settlementMission/id", is("1")));
+  }
+
+  @Test
+  public void testQueryMissionsPageSizeIsCapped() {
+    BDDMockito.given(this.mockSettlementService.findMissionPage(MissionFilter.ALL, null, 1000))
+        .willReturn(MissionPage.builder().missions(Collections.emptyList()).build());
+
+    given()
+        .log().ifValidationFails()
+        .when()
+        .get("/settlementEngine/missions/query?pageSize=1000000")
+        .then()
+        .log().ifValidationFails()
+        .statusCode(HttpStatus.OK.value());
+  }
+
+  @Test
+  public void testQueryMissionsInvalidCursor() {
+    given()
+        .log().ifValidationFails()
+        .when()
+        .get("/settlementEngine/missions/query?cursor=not-a-cursor")
+        .then()
+        .log().ifValidationFails()
+        .statusCode(HttpStatus.BAD_REQUEST.value());
+  }
+
   @Test
   public void testGetMissionsFound_XML() {
     SettlementMission mission1 = TestDataGenerator.defaultSettlementMissionData()
@@ -311,7 +530,7 @@ public class SettlementRestControllerTest
     SettlementMission mission2 = TestDataGenerator.defaultSettlementMissionData()
         .id(2L).build();
 
-    BDDMockito.given(this.mockSettlementService.findMissions(Arrays.asList(1L, 2L)))
+    BDDMockito.given(this.mockSettlementService.findMissions(LongArrayList.of(1L, 2L)))
         .willReturn(Arrays.asList(mission1, mission2));
 
     given()
@@ -327,25 +546,25 @@ public class SettlementRestControllerTest
         .body(hasXPath("(//id)[1]", is(mission1.getId().toString())))
         .body(hasXPath("(//externalParty)[1]", is(mission1.getExternalParty())))
         .body(hasXPath("(//instrument)[1]", is(mission1.getInstrument())))
-        .body(hasXPath("(//direction)[1]", is(mission1.getDirection())))
+        .body(hasXPath("(//direction)[1]", is(mission1.getDirection().name())))
         .body(hasXPath("(//qty)[1]", is(String.valueOf(mission1.getQty()))))
         .body(hasXPath("(//id)[2]", is(mission2.getId().toString())))
         .body(hasXPath("(//externalParty)[2]", is(mission2.getExternalParty())))
         .body(hasXPath("(//instrument)[2]", is(mission2.getInstrument())))
-        .body(hasXPath("(//direction)[2]", is(mission2.getDirection())))
+        .body(hasXPath("(//direction)[2]", is(mission2.getDirection().name())))
         .body(hasXPath("(//qty)[2]", is(String.valueOf(mission2.getQty()))));
   }
 
   @Test
   public void testGetMissionsFound_CSV() throws Exception {
     SettlementMission mission1 = SettlementMission.builder()
-        .id(1L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction("REC")
+        .id(1L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction(Direction.REC)
         .qty(100.0).version(0L).build();
     SettlementMission mission2 = SettlementMission.builder()
-        .id(2L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction("REC")
+        .id(2L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction(Direction.REC)
         .qty(100.0).version(0L).build();
 
-    BDDMockito.given(this.mockSettlementService.findMissions(Arrays.asList(1L, 2L)))
+    BDDMockito.given(this.mockSettlementService.findMissions(LongArrayList.of(1L, 2L)))
         .willReturn(Arrays.asList(mission1, mission2));
 
     String expectedCsv = readData("SettlementMissions.csv");
@@ -364,13 +583,13 @@ public class SettlementRestControllerTest
   @Test
   public void testGetMissionsFound_XLSX() throws Exception {
     SettlementMission mission1 = SettlementMission.builder()
-        .id(1L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction("REC")
+        .id(1L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction(Direction.REC)
         .qty(100.0).version(0L).build();
     SettlementMission mission2 = SettlementMission.builder()
-        .id(2L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction("REC")
+        .id(2L).instrument("ABC").externalParty("EXT-1").depot("DEPOT-1").direction(Direction.REC)
         .qty(100.0).version(0L).build();
 
-    BDDMockito.given(this.mockSettlementService.findMissions(Arrays.asList(1L, 2L)))
+    BDDMockito.given(this.mockSettlementService.findMissions(LongArrayList.of(1L, 2L)))
         .willReturn(Arrays.asList(mission1, mission2));
 
     byte[] expectedXlsx = readBytes("SettlementMissions.xlsx");
@@ -525,6 +744,12 @@ public class SettlementRestControllerTest
   @ConditionalOnNotWebApplication
   static class PropertyConfig {
 
+    @Bean
+    ResponseSnapshotCache responseSnapshotCache() {
+      return new ResponseSnapshotCache(List.of(new MappingJackson2HttpMessageConverter(),
+          new Jaxb2RootElementHttpMessageConverter()), new ContentNegotiationManager(), 100);
+    }
+
     @Bean
     PropertyPlaceholderConfigurer propertyPlaceholderConfigurer() {
       PropertyPlaceholderConfigurer propertyPlaceholderConfigurer =
@@ -6,8 +6,10 @@ import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.galatea.starter.ASpringTest;
+import org.galatea.starter.domain.Side;
 import org.galatea.starter.domain.TradeAgreement;
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeAgreementProtoMessage;
+import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeSide;
 import org.galatea.starter.testutils.TestDataGenerator;
 import org.galatea.starter.utils.translation.ITranslator;
 import org.galatea.starter.utils.translation.TranslationException;
@@ -38,6 +40,36 @@ public class TradeAgreementTranslatorTest extends ASpringTest {
         agreement, result);
   }
 
+  @Test
+  public void translateLegacyBuySell() {
+    TradeAgreementProtoMessage message = TestDataGenerator.defaultTradeAgreementProtoMessageData()
+        .clearSide().setBuySell("SS").build();
+
+    assertEquals(Side.SS, translator.translate(message.toByteArray()).getBuySell());
+  }
+
+  @Test
+  public void translateSidePreferredOverLegacyBuySell() {
+    TradeAgreementProtoMessage message = TestDataGenerator.defaultTradeAgreementProtoMessageData()
+        .setSide(TradeSide.TRADE_SIDE_S).setBuySell("B").build();
+
+    assertEquals(Side.S, translator.translate(message.toByteArray()).getBuySell());
+  }
+
+  @Test(expected = TranslationException.class)
+  public void translateUnknownLegacyBuySell() {
+    TradeAgreementProtoMessage message = TestDataGenerator.defaultTradeAgreementProtoMessageData()
+        .clearSide().setBuySell("X").build();
+    translator.translate(message.toByteArray());
+  }
+
+  @Test(expected = TranslationException.class)
+  public void translateMissingSide() {
+    TradeAgreementProtoMessage message = TestDataGenerator.defaultTradeAgreementProtoMessageData()
+        .clearSide().build();
+    translator.translate(message.toByteArray());
+  }
+
   @Test(expected = TranslationException.class)
   public void translateBadMessage() {
     byte[] nullBuffer = new byte[] {1, 2, 3, 4, 5, 6};
@@ -0,0 +1,145 @@
+package org.galatea.starter.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.common.collect.Sets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.rpsy.ISettlementMissionRpsy;
+import org.galatea.starter.testutils.TestDataGenerator;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+public class CaffeineMissionCacheTest {
+
+  private ISettlementMissionRpsy mockRpsy;
+
+  private AtomicLong nanoTime;
+
+  private CaffeineMissionCache cache;
+
+  @Before
+  public void setup() {
+    mockRpsy = mock(ISettlementMissionRpsy.class);
+    nanoTime = new AtomicLong();
+    Ticker ticker = nanoTime::get;
+    cache = new CaffeineMissionCache(mockRpsy, 100, Duration.ofMinutes(20), Duration.ofSeconds(5),
+        Runnable::run, ticker);
+  }
+
+  @Test
+  public void testMissionIsLoadedOnce() {
+    SettlementMission mission = TestDataGenerator.defaultSettlementMissionData().id(1L).build();
+    given(mockRpsy.findById(1L)).willReturn(Optional.of(mission));
+
+    assertEquals(Optional.of(mission), cache.get(1L));
+    assertEquals(Optional.of(mission), cache.get(1L));
+
+    verify(mockRpsy, times(1)).findById(1L);
+    MissionCacheStats stats = cache.stats();
+    assertEquals(1, stats.getHitCount());
+    assertEquals(1, stats.getMissCount());
+    assertEquals(1, stats.getLoadSuccessCount());
+  }
+
+  @Test
+  public void testAbsentMissionIsCachedForNegativeTtl() {
+    given(mockRpsy.findById(1L)).willReturn(Optional.empty());
+
+    assertFalse(cache.get(1L).isPresent());
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(4));
+    assertFalse(cache.get(1L).isPresent());
+    verify(mockRpsy, times(1)).findById(1L);
+
+    // Past the negative ttl, though well within the ttl for present missions
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    assertFalse(cache.get(1L).isPresent());
+    verify(mockRpsy, times(2)).findById(1L);
+  }
+
+  @Test
+  public void testPresentMissionIsCachedForTtl() {
+    SettlementMission mission = TestDataGenerator.defaultSettlementMissionData().id(1L).build();
+    given(mockRpsy.findById(1L)).willReturn(Optional.of(mission));
+
+    cache.get(1L);
+    nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(19));
+    cache.get(1L);
+    verify(mockRpsy, times(1)).findById(1L);
+
+    nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(2));
+    cache.get(1L);
+    verify(mockRpsy, times(2)).findById(1L);
+  }
+
+  @Test
+  public void testInvalidate() {
+    SettlementMission mission = TestDataGenerator.defaultSettlementMissionData().id(1L).build();
+    given(mockRpsy.findById(1L)).willReturn(Optional.empty(), Optional.of(mission));
+    given(mockRpsy.findById(2L)).willReturn(Optional.empty());
+
+    assertFalse(cache.get(1L).isPresent());
+    cache.get(2L);
+    cache.invalidate(1L);
+    assertTrue(cache.get(1L).isPresent());
+
+    cache.invalidateAll(Arrays.asList(1L, 2L));
+    cache.get(2L);
+    verify(mockRpsy, times(2)).findById(2L);
+  }
+
+  @Test
+  public void testGetAllLoadsOnlyMissesInOneQuery() {
+    SettlementMission mission1 = TestDataGenerator.defaultSettlementMissionData().id(1L).build();
+    SettlementMission mission2 = TestDataGenerator.defaultSettlementMissionData().id(2L).build();
+    given(mockRpsy.findById(1L)).willReturn(Optional.of(mission1));
+    given(mockRpsy.findAllById(
+        argThat(ids -> Sets.newHashSet(ids).equals(Sets.newHashSet(2L, 3L)))))
+        .willReturn(Collections.singletonList(mission2));
+
+    cache.get(1L);
+    Map<Long, Optional<SettlementMission>> missions = cache.getAll(Arrays.asList(3L, 1L, 2L));
+
+    // Keyed in the order asked for, with the id that doesn't exist as empty
+    assertEquals(Arrays.asList(3L, 1L, 2L), Arrays.asList(missions.keySet().toArray()));
+    assertEquals(Optional.empty(), missions.get(3L));
+    assertEquals(Optional.of(mission1), missions.get(1L));
+    assertEquals(Optional.of(mission2), missions.get(2L));
+    verify(mockRpsy, times(1)).findAllById(argThat(ids -> true));
+  }
+
+  @Test
+  public void testGetAllCachesAbsentMissions() {
+    given(mockRpsy.findAllById(argThat(ids -> true))).willReturn(Collections.emptyList());
+
+    cache.getAll(Arrays.asList(1L, 2L));
+    assertFalse(cache.get(1L).isPresent());
+    assertFalse(cache.getAll(Arrays.asList(1L, 2L)).get(2L).isPresent());
+
+    verify(mockRpsy, times(1)).findAllById(argThat(ids -> true));
+    verify(mockRpsy, never()).findById(1L);
+  }
+
+  @Test(expected = DataAccessResourceFailureException.class)
+  public void testLoadFailureIsRethrown() {
+    given(mockRpsy.findById(1L)).willThrow(new DataAccessResourceFailureException("down"));
+
+    cache.get(1L);
+  }
+}
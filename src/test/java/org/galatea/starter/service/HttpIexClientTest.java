@@ -0,0 +1,124 @@
+package org.galatea.starter.service;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.galatea.starter.domain.IexLastTradedPrice;
+import org.galatea.starter.domain.IexSymbol;
+import org.galatea.starter.entrypoint.exception.MarketDataUnavailableException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+public class HttpIexClientTest {
+
+  private WireMockServer iex;
+
+  private ExecutorService executor;
+
+  private HttpIexClient client;
+
+  @Before
+  public void setup() {
+    iex = new WireMockServer(options().dynamicPort());
+    iex.start();
+    executor = Executors.newFixedThreadPool(2);
+    // Trailing slash as in the configured base path, which must not end up doubled
+    client = new HttpIexClient("http://localhost:" + iex.port() + "/",
+        Jackson2ObjectMapperBuilder.json().modulesToInstall(new ParameterNamesModule()).build(),
+        Duration.ofSeconds(1), Duration.ofSeconds(2), 1, executor);
+  }
+
+  @After
+  public void tearDown() {
+    iex.stop();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testGetAllSymbols() throws Exception {
+    iex.stubFor(get(urlEqualTo("/ref-data/symbols")).willReturn(okJson(
+        "[{\"symbol\":\"A\",\"name\":\"Agilent Technologies Inc.\",\"date\":\"2019-08-08\","
+            + "\"isEnabled\":true,\"type\":\"cs\",\"iexId\":\"2\"}]")));
+
+    List<IexSymbol> symbols = client.getAllSymbols().get(5, TimeUnit.SECONDS);
+
+    assertEquals(1, symbols.size());
+    assertEquals("A", symbols.get(0).getSymbol());
+    assertEquals("Agilent Technologies Inc.", symbols.get(0).getName());
+  }
+
+  @Test
+  public void testGetLastTradedPrices() throws Exception {
+    iex.stubFor(get(urlEqualTo("/tops/last?symbols=FB,BRK.A")).willReturn(okJson(
+        "[{\"symbol\":\"FB\",\"price\":186.34,\"size\":100,\"time\":1565273330617}]")));
+
+    List<IexLastTradedPrice> prices = client
+        .getLastTradedPriceForSymbols(new String[] {"FB", "BRK.A"}).get(5, TimeUnit.SECONDS);
+
+    assertEquals(List.of(IexLastTradedPrice.builder().symbol("FB")
+        .price(new BigDecimal("186.34")).size(100).time(1565273330617L).build()), prices);
+  }
+
+  @Test
+  public void testErrorStatusFailsTheCall() {
+    iex.stubFor(get(urlEqualTo("/ref-data/symbols")).willReturn(aResponse().withStatus(500)));
+
+    assertUnavailable(client.getAllSymbols(), "status 500");
+  }
+
+  @Test
+  public void testSlowResponseTimesOut() {
+    iex.stubFor(get(urlEqualTo("/ref-data/symbols"))
+        .willReturn(okJson("[]").withFixedDelay(4000)));
+
+    assertUnavailable(client.getAllSymbols(), "did not respond within 2000ms");
+  }
+
+  @Test
+  public void testCallsBeyondTheLimitAreRejected() throws Exception {
+    iex.stubFor(get(urlEqualTo("/ref-data/symbols"))
+        .willReturn(okJson("[]").withFixedDelay(200)));
+
+    CompletableFuture<List<IexSymbol>> first = client.getAllSymbols();
+    // Only one call may be in flight, so the second fails without going to IEX
+    assertUnavailable(client.getAllSymbols(), "Too many calls");
+    assertEquals(List.of(), first.get(5, TimeUnit.SECONDS));
+
+    // The permit is released before the first call completes
+    assertEquals(List.of(), client.getAllSymbols().get(5, TimeUnit.SECONDS));
+    iex.verify(2, getRequestedFor(urlEqualTo("/ref-data/symbols")));
+  }
+
+  private static void assertUnavailable(final CompletableFuture<?> call, final String message) {
+    try {
+      call.get(5, TimeUnit.SECONDS);
+      fail("Expected the call to fail");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(MarketDataUnavailableException.class));
+      assertThat(e.getCause().getMessage(), containsString(message));
+    } catch (Exception e) {
+      throw new AssertionError("Expected the call to fail", e);
+    }
+  }
+}
@@ -0,0 +1,353 @@
+package org.galatea.starter.service;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.galatea.starter.domain.IexLastTradedPrice;
+import org.galatea.starter.domain.IexSymbol;
+import org.galatea.starter.entrypoint.exception.MarketDataUnavailableException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IexMarketDataGatewayTest {
+
+  private IAsyncIexClient mockClient;
+
+  private AtomicLong nanoTime;
+
+  private ScheduledExecutorService executor;
+
+  private IexMarketDataGateway gateway;
+
+  @Before
+  public void setup() {
+    mockClient = mock(IAsyncIexClient.class);
+    nanoTime = new AtomicLong();
+    Ticker ticker = nanoTime::get;
+    // A single thread, so that settle() can wait for the loads it has started to finish
+    executor = Executors.newSingleThreadScheduledExecutor();
+    // Batching is tested separately, so that the other tests don't depend on timing
+    gateway = new IexMarketDataGateway(mockClient, new ObjectMapper(), Duration.ofMinutes(60),
+        Duration.ofSeconds(1), 100, Duration.ZERO, 100, executor, ticker);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testSymbolsAreLoadedOnce() {
+    List<IexSymbol> symbols = List.of(symbol("A"), symbol("AA"));
+    given(mockClient.getAllSymbols()).willReturn(completedFuture(symbols));
+
+    assertEquals(symbols, toList(symbols()));
+    assertEquals(symbols, toList(symbols()));
+
+    verify(mockClient, times(1)).getAllSymbols();
+    MarketDataGatewayStats stats = gateway.stats();
+    assertEquals(1, stats.getSymbolHitCount());
+    assertEquals(1, stats.getSymbolMissCount());
+    assertEquals(1, stats.getSymbolUpstreamCallCount());
+    assertEquals(0.5, stats.getSymbolHitRatio(), 0);
+  }
+
+  @Test
+  public void testSymbolsAreLoadedAsynchronously() throws Exception {
+    CompletableFuture<List<IexSymbol>> call = new CompletableFuture<>();
+    given(mockClient.getAllSymbols()).willReturn(call);
+
+    CompletableFuture<IexSymbolStore> first = gateway.getSymbolsAsync();
+    CompletableFuture<IexSymbolStore> second = gateway.getSymbolsAsync();
+    assertFalse(first.isDone());
+    call.complete(List.of(symbol("A")));
+
+    assertEquals(List.of(symbol("A")), toList(first.get(5, TimeUnit.SECONDS)));
+    assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+    verify(mockClient, times(1)).getAllSymbols();
+  }
+
+  @Test
+  public void testRefreshReplacesSymbols() {
+    List<IexSymbol> refreshed = List.of(symbol("A"), symbol("AA"), symbol("AAAU"));
+    given(mockClient.getAllSymbols()).willReturn(completedFuture(List.of(symbol("A"))),
+        completedFuture(refreshed));
+
+    // Nothing to refresh until the symbols have been asked for
+    gateway.refreshSymbols();
+    verify(mockClient, never()).getAllSymbols();
+
+    symbols();
+    gateway.refreshSymbols();
+
+    verify(mockClient, timeout(5000).times(2)).getAllSymbols();
+    awaitSymbols(refreshed);
+  }
+
+  @Test
+  public void testUnchangedRefreshKeepsStore() {
+    given(mockClient.getAllSymbols()).willReturn(completedFuture(List.of(symbol("A"))),
+        completedFuture(List.of(symbol("A"))), completedFuture(List.of(symbol("B"))));
+    IexSymbolStore loaded = symbols();
+
+    gateway.refreshSymbols();
+    verify(mockClient, timeout(5000).times(2)).getAllSymbols();
+    assertSame(loaded, symbols());
+
+    gateway.refreshSymbols();
+    verify(mockClient, timeout(5000).times(3)).getAllSymbols();
+    awaitSymbols(List.of(symbol("B")));
+  }
+
+  @Test
+  public void testFailedRefreshKeepsSymbols() throws Exception {
+    List<IexSymbol> symbols = List.of(symbol("A"));
+    given(mockClient.getAllSymbols()).willReturn(completedFuture(symbols),
+        failedFuture(new MarketDataUnavailableException("IEX is down")));
+    symbols();
+
+    gateway.refreshSymbols();
+
+    verify(mockClient, timeout(5000).times(2)).getAllSymbols();
+    // The failure is recorded before the refresh completes, so wait on the stats rather than the
+    // client to be sure the refresh is over
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (gateway.stats().getUpstreamFailureCount() == 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, gateway.stats().getUpstreamFailureCount());
+    assertEquals(symbols, toList(symbols()));
+  }
+
+  @Test
+  public void testFailedLoadIsRetried() {
+    MarketDataUnavailableException failure = new MarketDataUnavailableException("IEX is down");
+    given(mockClient.getAllSymbols()).willReturn(failedFuture(failure),
+        completedFuture(List.of(symbol("A"))));
+
+    try {
+      symbols();
+      fail("Expected the client's exception");
+    } catch (MarketDataUnavailableException e) {
+      assertSame(failure, e);
+    }
+
+    assertEquals(List.of(symbol("A")), toList(symbols()));
+    verify(mockClient, times(2)).getAllSymbols();
+  }
+
+  @Test
+  public void testPricesAreCachedForTtl() throws Exception {
+    given(mockClient.getLastTradedPriceForSymbols(any())).willReturn(
+        completedFuture(List.of(price("FB", "186.34"))),
+        completedFuture(List.of(price("FB", "186.50"))));
+
+    assertEquals(List.of(price("FB", "186.34")), prices(List.of("FB")));
+    settle();
+    nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(900));
+    assertEquals(List.of(price("FB", "186.34")), prices(List.of("FB")));
+    verify(mockClient, times(1)).getLastTradedPriceForSymbols(any());
+
+    nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+    assertEquals(List.of(price("FB", "186.50")), prices(List.of("FB")));
+    verify(mockClient, times(2)).getLastTradedPriceForSymbols(any());
+  }
+
+  @Test
+  public void testOnlyMissingPricesAreLoaded() {
+    given(mockClient.getLastTradedPriceForSymbols(new String[] {"FB"}))
+        .willReturn(completedFuture(List.of(price("FB", "186.34"))));
+    given(mockClient.getLastTradedPriceForSymbols(new String[] {"AAPL"}))
+        .willReturn(completedFuture(List.of(price("AAPL", "200.99"))));
+    prices(List.of("FB"));
+
+    // Symbols are matched regardless of case, and returned in the order asked for
+    assertEquals(List.of(price("AAPL", "200.99"), price("FB", "186.34")),
+        prices(List.of("aapl", "FB", "")));
+
+    verify(mockClient).getLastTradedPriceForSymbols(new String[] {"AAPL"});
+    MarketDataGatewayStats stats = gateway.stats();
+    assertEquals(1, stats.getPriceHitCount());
+    assertEquals(2, stats.getPriceMissCount());
+    assertEquals(2, stats.getPriceUpstreamCallCount());
+  }
+
+  @Test
+  public void testUpstreamCallsAreTimed() {
+    CompletableFuture<List<IexSymbol>> call = new CompletableFuture<>();
+    given(mockClient.getAllSymbols()).willReturn(call);
+
+    CompletableFuture<IexSymbolStore> symbols = gateway.getSymbolsAsync();
+    nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+    call.complete(List.of(symbol("A")));
+    symbols.join();
+
+    MarketDataGatewayStats stats = gateway.stats();
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(250), stats.getSymbolUpstreamTimeNanos());
+    assertEquals(0, stats.getPriceUpstreamTimeNanos());
+  }
+
+  @Test
+  public void testSymbolsWithoutPricesAreCached() {
+    given(mockClient.getLastTradedPriceForSymbols(any())).willReturn(completedFuture(List.of()));
+
+    assertEquals(List.of(), prices(List.of("NOPE")));
+    assertEquals(List.of(), prices(List.of("NOPE")));
+
+    verify(mockClient, times(1)).getLastTradedPriceForSymbols(any());
+  }
+
+  @Test
+  public void testFailedPriceLoadIsRetried() {
+    given(mockClient.getLastTradedPriceForSymbols(any())).willReturn(
+        failedFuture(new MarketDataUnavailableException("IEX is down")),
+        completedFuture(List.of(price("FB", "186.34"))));
+
+    try {
+      prices(List.of("FB"));
+      fail("Expected the client's exception");
+    } catch (MarketDataUnavailableException expected) {
+      // Expected
+    }
+
+    assertEquals(List.of(price("FB", "186.34")), prices(List.of("FB")));
+    assertEquals(1, gateway.stats().getUpstreamFailureCount());
+  }
+
+  @Test
+  public void testOverlappingLookupsShareUpstreamCalls() throws Exception {
+    Map<String, IexLastTradedPrice> prices = Map.of("FB", price("FB", "186.34"),
+        "AAPL", price("AAPL", "200.99"), "MSFT", price("MSFT", "138.89"));
+    CompletableFuture<List<IexLastTradedPrice>> firstCall = new CompletableFuture<>();
+    List<Set<String>> calls = new CopyOnWriteArrayList<>();
+    given(mockClient.getLastTradedPriceForSymbols(any())).will(invocation -> {
+      String[] symbols = invocation.getArgument(0);
+      calls.add(Set.of(symbols));
+      if (Set.of(symbols).contains("FB")) {
+        return firstCall;
+      }
+      return completedFuture(
+          Arrays.stream(symbols).map(prices::get).collect(Collectors.toList()));
+    });
+
+    CompletableFuture<List<IexLastTradedPrice>> first =
+        gateway.getLastTradedPricesAsync(List.of("FB", "AAPL"));
+    verify(mockClient, timeout(5000)).getLastTradedPriceForSymbols(any());
+    CompletableFuture<List<IexLastTradedPrice>> second =
+        gateway.getLastTradedPricesAsync(List.of("AAPL", "MSFT"));
+    // MSFT isn't being loaded yet, so it is loaded on its own while AAPL is waited for
+    verify(mockClient, timeout(5000).times(2)).getLastTradedPriceForSymbols(any());
+    assertFalse(second.isDone());
+    firstCall.complete(List.of(prices.get("FB"), prices.get("AAPL")));
+
+    assertEquals(List.of(prices.get("FB"), prices.get("AAPL")), first.get(5, TimeUnit.SECONDS));
+    assertEquals(List.of(prices.get("AAPL"), prices.get("MSFT")),
+        second.get(5, TimeUnit.SECONDS));
+    assertEquals(List.of(Set.of("FB", "AAPL"), Set.of("MSFT")), calls);
+    assertEquals(2, gateway.stats().getPriceUpstreamCallCount());
+  }
+
+  @Test
+  public void testConcurrentLoadsAreBatched() throws Exception {
+    IexMarketDataGateway batchingGateway = new IexMarketDataGateway(mockClient,
+        new ObjectMapper(), Duration.ofMinutes(60), Duration.ofSeconds(1), 100, Duration.ofSeconds(1), 3, executor,
+        Ticker.systemTicker());
+    given(mockClient.getLastTradedPriceForSymbols(any())).willReturn(completedFuture(List.of(
+        price("FB", "186.34"), price("AAPL", "200.99"), price("MSFT", "138.89"))));
+
+    // The batch is fetched as soon as it holds 3 symbols, well before its window closes
+    CompletableFuture<List<IexLastTradedPrice>> first =
+        batchingGateway.getLastTradedPricesAsync(List.of("FB"));
+    CompletableFuture<List<IexLastTradedPrice>> second =
+        batchingGateway.getLastTradedPricesAsync(List.of("AAPL", "MSFT"));
+
+    assertEquals(List.of(price("FB", "186.34")), first.get(500, TimeUnit.MILLISECONDS));
+    assertEquals(List.of(price("AAPL", "200.99"), price("MSFT", "138.89")),
+        second.get(500, TimeUnit.MILLISECONDS));
+    verify(mockClient, times(1)).getLastTradedPriceForSymbols(any());
+    MarketDataGatewayStats stats = batchingGateway.stats();
+    assertEquals(2, stats.getPriceLoadCount());
+    assertEquals(1, stats.getPriceUpstreamCallCount());
+  }
+
+  private void awaitSymbols(final List<IexSymbol> expected) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!expected.equals(toList(symbols())) && System.nanoTime() < deadline) {
+      Thread.yield();
+    }
+    assertEquals(expected, toList(symbols()));
+  }
+
+  private IexSymbolStore symbols() {
+    return join(gateway.getSymbolsAsync());
+  }
+
+  private List<IexLastTradedPrice> prices(final List<String> symbols) {
+    return join(gateway.getLastTradedPricesAsync(symbols));
+  }
+
+  /**
+   * Waits for the result, throwing what the load failed with.
+   */
+  private static <T> T join(final CompletableFuture<T> result) {
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static List<IexSymbol> toList(final IexSymbolStore store) {
+    return IntStream.range(0, store.size()).mapToObj(store::get).collect(Collectors.toList());
+  }
+
+  /**
+   * Waits for the executor to finish what it is running. The cache records when a price was loaded
+   * on the thread that completes the load, which can be after the caller has its result, so the
+   * clock must not move until then.
+   */
+  private void settle() throws Exception {
+    executor.submit(() -> { }).get();
+  }
+
+  private static IexSymbol symbol(final String symbol) {
+    return IexSymbol.builder().symbol(symbol).isEnabled(true).type("cs").build();
+  }
+
+  private static IexLastTradedPrice price(final String symbol, final String price) {
+    return IexLastTradedPrice.builder().symbol(symbol).price(new BigDecimal(price)).size(100)
+        .time(1565273330617L).build();
+  }
+}
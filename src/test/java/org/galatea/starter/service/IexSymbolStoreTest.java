@@ -0,0 +1,122 @@
+package org.galatea.starter.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.galatea.starter.domain.IexSymbol;
+import org.junit.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+public class IexSymbolStoreTest {
+
+  private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json()
+      .modulesToInstall(new ParameterNamesModule()).build();
+
+  private static final IexSymbolStore STORE = IexSymbolStore.of(List.of(
+      symbol("AAPL"), symbol("A"), symbol("AAAU"), symbol("AA"), symbol("B"), symbol("ZZ")),
+      MAPPER.writer());
+
+  @Test
+  public void testSymbolsAreSorted() {
+    assertEquals(List.of(symbol("A"), symbol("AA"), symbol("AAAU"), symbol("AAPL"), symbol("B"),
+        symbol("ZZ")), toList(STORE));
+  }
+
+  @Test
+  public void testFieldsRoundTrip() {
+    IexSymbol full = IexSymbol.builder().symbol("FB").name("Facebook Inc.").date(new Date(1000L))
+        .isEnabled(true).type("cs").iexId("42").build();
+    IexSymbol sparse = IexSymbol.builder().symbol("BRK.A").build();
+
+    IexSymbolStore store = IexSymbolStore.of(List.of(full, sparse), MAPPER.writer());
+
+    assertEquals(List.of(sparse, full), toList(store));
+  }
+
+  @Test
+  public void testFind() {
+    assertEquals(Optional.of(symbol("AA")), STORE.find("AA"));
+    assertEquals(Optional.of(symbol("AAPL")), STORE.find("aapl"));
+    assertEquals(Optional.of(symbol("ZZ")), STORE.find("ZZ"));
+    assertEquals(Optional.empty(), STORE.find("AAP"));
+    assertEquals(Optional.empty(), STORE.find("C"));
+    assertEquals(Optional.empty(), STORE.find(""));
+    assertEquals(Optional.empty(), STORE.find(null));
+  }
+
+  @Test
+  public void testJsonOfAllSymbols() throws IOException {
+    assertEquals(toList(STORE), read(STORE.toJson()));
+    assertSame(STORE.toJson(), STORE.toJson(null));
+    assertSame(STORE.toJson(), STORE.toJson(""));
+  }
+
+  @Test
+  public void testJsonWithPrefix() throws IOException {
+    assertEquals(List.of(symbol("A"), symbol("AA"), symbol("AAAU"), symbol("AAPL")),
+        read(STORE.toJson("A")));
+    assertEquals(List.of(symbol("AA"), symbol("AAAU"), symbol("AAPL")), read(STORE.toJson("aa")));
+    assertEquals(List.of(symbol("AAPL")), read(STORE.toJson("AAP")));
+    assertEquals(List.of(symbol("ZZ")), read(STORE.toJson("Z")));
+    assertEquals(List.of(), read(STORE.toJson("AAB")));
+    assertEquals(List.of(), read(STORE.toJson("ZZZ")));
+  }
+
+  @Test
+  public void testEmptyStore() throws IOException {
+    IexSymbolStore store = IexSymbolStore.of(List.of(), MAPPER.writer());
+
+    assertEquals(0, store.size());
+    assertEquals(List.of(), read(store.toJson()));
+    assertEquals(List.of(), read(store.toJson("A")));
+    assertEquals(Optional.empty(), store.find("A"));
+  }
+
+  @Test
+  public void testSymbolsWithoutSymbolAreLeftOut() {
+    IexSymbolStore store = IexSymbolStore.of(List.of(symbol("A"), IexSymbol.builder().build()),
+        MAPPER.writer());
+
+    assertEquals(List.of(symbol("A")), toList(store));
+  }
+
+  @Test
+  public void testStoresOfTheSameSymbolsAreEqual() {
+    IexSymbolStore store = IexSymbolStore.of(List.of(symbol("ZZ"), symbol("AAPL"), symbol("B"),
+        symbol("AA"), symbol("AAAU"), symbol("A")), MAPPER.writer());
+    IexSymbolStore renamed = IexSymbolStore.of(List.of(symbol("A"),
+        IexSymbol.builder().symbol("AA").name("Alcoa").build()), MAPPER.writer());
+
+    assertEquals(STORE, store);
+    assertArrayEquals(STORE.toJson(), store.toJson());
+    assertEquals(STORE.getEtag(), store.getEtag());
+    IexSymbolStore original = IexSymbolStore.of(List.of(symbol("A"), symbol("AA")),
+        MAPPER.writer());
+    assertNotEquals(original, renamed);
+    assertNotEquals(original.getEtag(), renamed.getEtag());
+  }
+
+  private static List<IexSymbol> read(final byte[] json) throws IOException {
+    return MAPPER.readValue(json, new TypeReference<List<IexSymbol>>() {});
+  }
+
+  private static List<IexSymbol> toList(final IexSymbolStore store) {
+    return IntStream.range(0, store.size()).mapToObj(store::get).collect(Collectors.toList());
+  }
+
+  private static IexSymbol symbol(final String symbol) {
+    return IexSymbol.builder().symbol(symbol).name(symbol + " Inc.").isEnabled(true).type("cs")
+        .iexId(Integer.toString(symbol.hashCode())).build();
+  }
+}
@@ -0,0 +1,79 @@
+package org.galatea.starter.service;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.galatea.starter.domain.IexLastTradedPrice;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MarketDataGatewayMetricsTest {
+
+  private IAsyncIexClient mockClient;
+
+  private ScheduledExecutorService executor;
+
+  private IMarketDataGateway gateway;
+
+  private SimpleMeterRegistry registry;
+
+  @Before
+  public void setup() {
+    mockClient = mock(IAsyncIexClient.class);
+    executor = Executors.newSingleThreadScheduledExecutor();
+    gateway = new IexMarketDataGateway(mockClient, new ObjectMapper(), Duration.ofMinutes(60),
+        Duration.ofMinutes(1), 100, Duration.ZERO, 100, executor, Ticker.systemTicker());
+    registry = new SimpleMeterRegistry();
+    new MarketDataGatewayMetrics(gateway, Tags.empty()).bindTo(registry);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testLookupsAndUpstreamCallsArePublished() {
+    given(mockClient.getLastTradedPriceForSymbols(any())).willReturn(completedFuture(List.of(
+        IexLastTradedPrice.builder().symbol("FB").price(new BigDecimal("186.34")).build())));
+
+    gateway.getLastTradedPricesAsync(List.of("FB")).join();
+    gateway.getLastTradedPricesAsync(List.of("FB")).join();
+    gateway.getLastTradedPricesAsync(List.of("FB")).join();
+    gateway.getLastTradedPricesAsync(List.of("FB")).join();
+
+    assertEquals(3, lookups("prices", "hit"), 0);
+    assertEquals(1, lookups("prices", "miss"), 0);
+    assertEquals(0.75, registry.get("market.data.hit.ratio").tags("data", "prices").gauge()
+        .value(), 0);
+    assertEquals(1, registry.get("market.data.upstream.calls")
+        .tags("operation", "lastTradedPrice").functionTimer().count(), 0);
+    assertEquals(1, registry.get("market.data.price.loads").functionCounter().count(), 0);
+    assertEquals(0, registry.get("market.data.upstream.calls")
+        .tags("operation", "symbols").functionTimer().count(), 0);
+  }
+
+  @Test
+  public void testHitRatioWithoutLookups() {
+    assertEquals(1, registry.get("market.data.hit.ratio").tags("data", "symbols").gauge()
+        .value(), 0);
+  }
+
+  private double lookups(final String data, final String result) {
+    return registry.get("market.data.lookups").tags("data", data, "result", result)
+        .functionCounter().count();
+  }
+}
@@ -0,0 +1,67 @@
+package org.galatea.starter.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.rpsy.ISettlementMissionRpsy;
+import org.galatea.starter.testutils.TestDataGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MissionCacheMetricsTest {
+
+  private ISettlementMissionRpsy mockRpsy;
+
+  private IMissionCache cache;
+
+  private SimpleMeterRegistry registry;
+
+  @Before
+  public void setup() {
+    mockRpsy = mock(ISettlementMissionRpsy.class);
+    cache = new CaffeineMissionCache(mockRpsy, 100, Duration.ofMinutes(20), Duration.ofSeconds(5),
+        Runnable::run, Ticker.systemTicker());
+    registry = new SimpleMeterRegistry();
+    new MissionCacheMetrics(cache, "missions", Tags.empty()).bindTo(registry);
+  }
+
+  @Test
+  public void testHitsMissesAndLoadsArePublished() {
+    SettlementMission mission = TestDataGenerator.defaultSettlementMissionData().id(1L).build();
+    given(mockRpsy.findById(1L)).willReturn(Optional.of(mission));
+
+    cache.get(1L);
+    cache.get(1L);
+    cache.get(1L);
+
+    assertEquals(2, gets("hit"), 0);
+    assertEquals(1, gets("miss"), 0);
+    assertEquals(1, registry.get("cache.load").tags("cache", "missions", "result", "success")
+        .functionCounter().count(), 0);
+    assertEquals(1, registry.get("cache.size").tags("cache", "missions").gauge().value(), 0);
+  }
+
+  @Test
+  public void testInvalidationIsNotAnEviction() {
+    given(mockRpsy.findById(1L)).willReturn(Optional.empty());
+
+    cache.get(1L);
+    cache.invalidate(1L);
+
+    assertEquals(0, registry.get("cache.evictions").tags("cache", "missions")
+        .functionCounter().count(), 0);
+    assertEquals(0, registry.get("cache.size").tags("cache", "missions").gauge().value(), 0);
+  }
+
+  private double gets(final String result) {
+    return registry.get("cache.gets").tags("cache", "missions", "result", result)
+        .functionCounter().count();
+  }
+}
@@ -2,40 +2,87 @@ package org.galatea.starter.service;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
-
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.common.collect.Sets;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.validation.ConstraintViolationException;
 import org.galatea.starter.ASpringTest;
+import org.galatea.starter.MetricsConfig;
+import org.galatea.starter.domain.Direction;
+import org.galatea.starter.domain.MissionFilter;
+import org.galatea.starter.domain.MissionPage;
 import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.Side;
 import org.galatea.starter.domain.TradeAgreement;
 import org.galatea.starter.domain.rpsy.ISettlementMissionRpsy;
+import org.galatea.starter.domain.rpsy.ISettlementMissionScanner;
+import org.galatea.starter.domain.rpsy.JpaSettlementMissionWriter;
 import org.galatea.starter.entrypoint.exception.EntityNotFoundException;
 import org.galatea.starter.testutils.TestDataGenerator;
+import org.galatea.starter.utils.ParallelChunkMapper;
+import org.galatea.starter.utils.collections.LongArrayList;
+import org.galatea.starter.utils.collections.LongHashSet;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.support.GenericApplicationContext;
 
 public class SettlementServiceTest extends ASpringTest {
 
   @MockBean
   private ISettlementMissionRpsy mockSettlementMissionRpsy;
 
+  @MockBean
+  private ISettlementMissionScanner mockMissionScanner;
+
   @MockBean
   private IAgreementTransformer mockAgreementTransformer;
 
+  private IMissionCache missionCache;
+
+  private ParallelChunkMapper agreementMapper;
+
   private SettlementService service;
 
   @Before
   public void setup() {
-    service = new SettlementService(mockSettlementMissionRpsy, mockAgreementTransformer);
+    // Load on the calling thread so that the mocked repository is called synchronously
+    missionCache = new CaffeineMissionCache(mockSettlementMissionRpsy, 100, Duration.ofMinutes(1),
+        Duration.ofSeconds(1), Runnable::run, Ticker.systemTicker());
+    // A low threshold and small chunks, so that a few agreements are enough to go parallel
+    agreementMapper = new ParallelChunkMapper(2, 4, 2, "test-agreement-mapper-");
+    service = new SettlementService(mockSettlementMissionRpsy,
+        new JpaSettlementMissionWriter(mockSettlementMissionRpsy), mockMissionScanner,
+        missionCache, mockAgreementTransformer, agreementMapper);
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    agreementMapper.close();
   }
 
   @Test
@@ -51,6 +98,32 @@ public class SettlementServiceTest extends ASpringTest {
     assertTrue(maybeRetrieved.isPresent());
   }
 
+  @Test
+  public void testOperationsAreTimed() {
+    given(this.mockSettlementMissionRpsy.findById(1L)).willReturn(Optional.empty());
+
+    // The service is registered rather than scanned, but is proxied like any other bean
+    new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(AopAutoConfiguration.class))
+        .withUserConfiguration(MetricsConfig.class)
+        .withInitializer(context -> {
+          GenericApplicationContext genericContext = (GenericApplicationContext) context;
+          genericContext.registerBean(SimpleMeterRegistry.class);
+          genericContext.registerBean(SettlementService.class, () -> service);
+        })
+        .run(context -> {
+          SettlementService timedService = context.getBean(SettlementService.class);
+          MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+          timedService.findMission(1L);
+          timedService.findMission(1L);
+          timedService.deleteMission(1L);
+
+          assertEquals(2, registry.get("settlement.missions.find").timer().count());
+          assertEquals(1, registry.get("settlement.missions.delete").timer().count());
+        });
+  }
+
   @Test
   public void testFindMissionNotFound() {
     Long id = 1L;
@@ -66,7 +139,7 @@ public class SettlementServiceTest extends ASpringTest {
 
   @Test
   public void testFindMissionsFound() {
-    List<Long> ids = Arrays.asList(1L, 2L);
+    LongArrayList ids = LongArrayList.of(1L, 2L);
     SettlementMission settlementMission1 = TestDataGenerator.defaultSettlementMissionData()
         .id(1L).build();
     SettlementMission settlementMission2 = TestDataGenerator.defaultSettlementMissionData()
@@ -74,7 +147,8 @@ public class SettlementServiceTest extends ASpringTest {
     List<SettlementMission> settlementMissions = Arrays.asList(
         settlementMission1, settlementMission2);
 
-    given(this.mockSettlementMissionRpsy.findAllById(ids)).willReturn(settlementMissions);
+    given(this.mockSettlementMissionRpsy.findAllById(sameIds(ids.asList())))
+        .willReturn(settlementMissions);
 
     List<SettlementMission> actual = service.findMissions(ids);
     assertEquals(settlementMissions, actual);
@@ -82,13 +156,14 @@ public class SettlementServiceTest extends ASpringTest {
 
   @Test
   public void testFindMissionsNotFound() {
-    List<Long> ids = Arrays.asList(1L, 2L);
+    LongArrayList ids = LongArrayList.of(1L, 2L);
     SettlementMission settlementMission1 = SettlementMission.builder()
-        .id(1L).depot("DTC").externalParty("EXT-1").instrument("IBM").direction("REC").qty(100d)
-        .version(0L).build();
+        .id(1L).depot("DTC").externalParty("EXT-1").instrument("IBM").direction(Direction.REC)
+        .qty(100d).version(0L).build();
     List<SettlementMission> settlementMissions = Collections.singletonList(settlementMission1);
 
-    given(this.mockSettlementMissionRpsy.findAllById(ids)).willReturn(settlementMissions);
+    given(this.mockSettlementMissionRpsy.findAllById(sameIds(ids.asList())))
+        .willReturn(settlementMissions);
 
     try {
       service.findMissions(ids);
@@ -98,33 +173,151 @@ public class SettlementServiceTest extends ASpringTest {
     }
   }
 
+  @Test
+  public void testFindMissionPageWithMore() {
+    MissionFilter filter = MissionFilter.builder().depot("DTC").build();
+    List<SettlementMission> settlementMissions = Arrays.asList(
+        TestDataGenerator.defaultSettlementMissionData().id(11L).build(),
+        TestDataGenerator.defaultSettlementMissionData().id(12L).build(),
+        TestDataGenerator.defaultSettlementMissionData().id(13L).build());
+    given(this.mockMissionScanner.findPage(filter, 10L, 3)).willReturn(settlementMissions);
+
+    MissionPage page = service.findMissionPage(filter, 10L, 2);
+
+    assertEquals(settlementMissions.subList(0, 2), page.getMissions());
+    assertEquals(Long.valueOf(12L), page.getNextAfterId());
+  }
+
+  @Test
+  public void testFindMissionLastPage() {
+    List<SettlementMission> settlementMissions = Collections.singletonList(
+        TestDataGenerator.defaultSettlementMissionData().id(1L).build());
+    given(this.mockMissionScanner.findPage(MissionFilter.ALL, Long.MIN_VALUE, 3))
+        .willReturn(settlementMissions);
+
+    MissionPage page = service.findMissionPage(MissionFilter.ALL, null, 2);
+
+    assertEquals(settlementMissions, page.getMissions());
+    assertNull(page.getNextAfterId());
+  }
+
+  @Test
+  public void testScanMissions() {
+    List<SettlementMission> settlementMissions = Collections.singletonList(
+        TestDataGenerator.defaultSettlementMissionData().build());
+    given(this.mockMissionScanner.scanAll()).willReturn(settlementMissions);
+
+    assertEquals(settlementMissions, service.scanMissions());
+  }
+
   @Test
   public void testSpawnMissions() {
 
     SettlementMission testSettlementMission = SettlementMission.builder().id(35L).depot("DTC")
-        .externalParty("EXT-1").instrument("IBM").direction("REC").qty(100d).version(0L).build();
+        .externalParty("EXT-1").instrument("IBM").direction(Direction.REC).qty(100d).version(0L)
+        .build();
 
     TradeAgreement testTradeAgreement = TradeAgreement.builder().instrument("instr-1")
-        .internalParty("icp-1").externalParty("ecp-1").buySell("B").qty(4500.0).build();
+        .internalParty("icp-1").externalParty("ecp-1").buySell(Side.B).qty(4500.0).build();
 
+    given(this.mockAgreementTransformer.transform(testTradeAgreement))
+        .willReturn(testSettlementMission);
     given(this.mockSettlementMissionRpsy.saveAll(Mockito.anyList()))
         .willReturn(Collections.singletonList(testSettlementMission));
 
-    Set<Long> missionIds = service.spawnMissions(Collections.singletonList(testTradeAgreement));
+    LongHashSet missionIds = service.spawnMissions(Collections.singletonList(testTradeAgreement));
     assertEquals(1, missionIds.size());
   }
 
+  @Test
+  public void testSpawnMissionsInParallelKeepsOrder() {
+    List<TradeAgreement> agreements = IntStream.range(0, 10)
+        .mapToObj(i -> TestDataGenerator.defaultTradeAgreementData().instrument("" + i).build())
+        .collect(Collectors.toList());
+    given(this.mockAgreementTransformer.transform(Mockito.any())).willAnswer(invocation -> {
+      String instrument = invocation.<TradeAgreement>getArgument(0).getInstrument();
+      return TestDataGenerator.defaultSettlementMissionData().id(Long.valueOf(instrument))
+          .instrument(instrument).build();
+    });
+    given(this.mockSettlementMissionRpsy.saveAll(Mockito.anyList()))
+        .willAnswer(invocation -> invocation.getArgument(0));
+
+    service.spawnMissions(agreements);
+
+    verify(this.mockSettlementMissionRpsy).saveAll(argThat((List<SettlementMission> missions) ->
+        missions.stream().map(SettlementMission::getInstrument).collect(Collectors.toList())
+            .equals(agreements.stream().map(TradeAgreement::getInstrument)
+                .collect(Collectors.toList()))));
+  }
+
+  @Test
+  public void testSpawnMissionsInOrder() {
+    List<TradeAgreement> agreements = IntStream.range(0, 10)
+        .mapToObj(i -> TestDataGenerator.defaultTradeAgreementData().instrument("" + (9 - i))
+            .build())
+        .collect(Collectors.toList());
+    given(this.mockAgreementTransformer.transform(Mockito.any())).willAnswer(invocation -> {
+      String instrument = invocation.<TradeAgreement>getArgument(0).getInstrument();
+      return TestDataGenerator.defaultSettlementMissionData().id(Long.valueOf(instrument))
+          .instrument(instrument).build();
+    });
+    given(this.mockSettlementMissionRpsy.saveAll(Mockito.anyList()))
+        .willAnswer(invocation -> invocation.getArgument(0));
+
+    assertEquals(LongArrayList.of(9, 8, 7, 6, 5, 4, 3, 2, 1, 0),
+        service.spawnMissionsInOrder(agreements));
+  }
+
+  @Test
+  public void testSpawnMissionsRejectsInvalidAgreements() {
+    List<TradeAgreement> agreements = IntStream.range(0, 10)
+        .mapToObj(i -> TestDataGenerator.defaultTradeAgreementData()
+            .qty(i == 7 ? -1.0 : i == 3 ? Double.NaN : 1.0).build())
+        .collect(Collectors.toList());
+
+    try {
+      service.spawnMissions(agreements);
+      fail("Expected the agreements to be rejected");
+    } catch (ConstraintViolationException e) {
+      assertEquals(Set.of("qty: Quantity must be greater than 0 (-1.0)",
+          "qty: Quantity must be greater than 0 (NaN)"),
+          e.getConstraintViolations().stream()
+              .map(v -> v.getPropertyPath() + ": " + v.getMessage() + " (" + v.getInvalidValue()
+                  + ")")
+              .collect(Collectors.toSet()));
+    }
+    verify(this.mockSettlementMissionRpsy, never()).saveAll(Mockito.anyList());
+  }
+
+  @Test
+  public void testUpdateMissionRejectsInvalidMission() {
+    SettlementMission mission = TestDataGenerator.defaultSettlementMissionData()
+        .qty(0d).build();
+
+    try {
+      service.updateMission(35L, mission);
+      fail("Expected the mission to be rejected");
+    } catch (ConstraintViolationException e) {
+      assertEquals("Quantity must be greater than 0",
+          e.getConstraintViolations().iterator().next().getMessage());
+    }
+    verify(this.mockSettlementMissionRpsy, never()).save(Mockito.any());
+  }
+
   @Test
   public void testUpdateMission() {
 
     SettlementMission testSettlementMission = SettlementMission.builder().depot("DTC")
-        .externalParty("EXT-1").instrument("IBM").direction("REC").qty(100d).version(0L).build();
+        .externalParty("EXT-1").instrument("IBM").direction(Direction.REC).qty(100d).version(0L)
+        .build();
 
     given(this.mockSettlementMissionRpsy.save(testSettlementMission))
         .willReturn(testSettlementMission);
 
     SettlementService service =
-        new SettlementService(this.mockSettlementMissionRpsy, this.mockAgreementTransformer);
+        new SettlementService(this.mockSettlementMissionRpsy,
+            new JpaSettlementMissionWriter(this.mockSettlementMissionRpsy), this.mockMissionScanner,
+            this.missionCache, this.mockAgreementTransformer, this.agreementMapper);
 
     Optional<SettlementMission> settlementMissionOptional = service.updateMission(35L, testSettlementMission);
     assertEquals((Long) 35L, settlementMissionOptional.get().getId());
@@ -137,7 +330,9 @@ public class SettlementServiceTest extends ASpringTest {
         .willReturn(true);
 
     SettlementService service =
-        new SettlementService(this.mockSettlementMissionRpsy, this.mockAgreementTransformer);
+        new SettlementService(this.mockSettlementMissionRpsy,
+            new JpaSettlementMissionWriter(this.mockSettlementMissionRpsy), this.mockMissionScanner,
+            this.missionCache, this.mockAgreementTransformer, this.agreementMapper);
 
     boolean missionExists = service.missionExists(35L);
     assertTrue(missionExists);
@@ -149,10 +344,19 @@ public class SettlementServiceTest extends ASpringTest {
     doNothing().when(this.mockSettlementMissionRpsy).deleteById(35L);
 
     SettlementService service =
-        new SettlementService(this.mockSettlementMissionRpsy, this.mockAgreementTransformer);
+        new SettlementService(this.mockSettlementMissionRpsy,
+            new JpaSettlementMissionWriter(this.mockSettlementMissionRpsy), this.mockMissionScanner,
+            this.missionCache, this.mockAgreementTransformer, this.agreementMapper);
 
     service.deleteMission(35L);
     boolean missionExists = service.missionExists(35L);
     assertFalse(missionExists);
   }
+
+  /**
+   * Matches the ids regardless of order, since the cache loads the ids it is missing as a set.
+   */
+  private static Iterable<Long> sameIds(final List<Long> ids) {
+    return argThat(actual -> Sets.newHashSet(actual).equals(new HashSet<>(ids)));
+  }
 }
@@ -1,9 +1,12 @@
 package org.galatea.starter.testutils;
 
 import lombok.extern.slf4j.Slf4j;
+import org.galatea.starter.domain.Direction;
 import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.Side;
 import org.galatea.starter.domain.TradeAgreement;
 import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages;
+import org.galatea.starter.entrypoint.messagecontracts.ProtobufMessages.TradeSide;
 
 /**
  * Utility class for generating default domain objects for tests.
@@ -28,7 +31,7 @@ public class TestDataGenerator {
         .instrument("IBM")
         .internalParty("INT-1")
         .externalParty("EXT-1")
-        .buySell("B")
+        .buySell(Side.B)
         .qty(100d);
   }
 
@@ -41,7 +44,7 @@ public class TestDataGenerator {
         .setInstrument("IBM")
         .setInternalParty("INT-1")
         .setExternalParty("EXT-1")
-        .setBuySell("B")
+        .setSide(TradeSide.TRADE_SIDE_B)
         .setQty(100);
   }
 
@@ -54,7 +57,7 @@ public class TestDataGenerator {
         .depot("DTC")
         .externalParty("EXT-1")
         .instrument("IBM")
-        .direction("REC")
+        .direction(Direction.REC)
         .qty(100d)
         .version(0L);
   }
@@ -0,0 +1,107 @@
+package org.galatea.starter.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class BoundedRingBufferTest {
+
+  @Test
+  public void testCapacityIsRoundedUpToAPowerOfTwo() {
+    assertEquals(1, new BoundedRingBuffer<>(1).capacity());
+    assertEquals(8, new BoundedRingBuffer<>(5).capacity());
+    assertEquals(8, new BoundedRingBuffer<>(8).capacity());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroCapacityIsRejected() {
+    new BoundedRingBuffer<>(0);
+  }
+
+  @Test
+  public void testOfferFailsOnceFull() {
+    BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(2);
+
+    assertTrue(buffer.offer(1));
+    assertTrue(buffer.offer(2));
+    assertFalse(buffer.offer(3));
+    assertEquals(2, buffer.size());
+
+    // Polling frees a slot for the next lap of the ring
+    assertEquals(Integer.valueOf(1), buffer.poll());
+    assertTrue(buffer.offer(3));
+    assertEquals(Integer.valueOf(2), buffer.poll());
+    assertEquals(Integer.valueOf(3), buffer.poll());
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  public void testDrainIsBoundedAndInOrder() {
+    BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(8);
+    for (int i = 0; i < 5; i++) {
+      buffer.offer(i);
+    }
+
+    List<Integer> drained = new ArrayList<>();
+    assertEquals(3, buffer.drain(drained::add, 3));
+    assertEquals(2, buffer.drain(drained::add, 3));
+    assertEquals(0, buffer.drain(drained::add, 3));
+
+    assertEquals(List.of(0, 1, 2, 3, 4), drained);
+  }
+
+  @Test
+  public void testConcurrentProducersDeliverEachElementOnce() throws Exception {
+    int producers = 4;
+    int perProducer = 10_000;
+    BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(64);
+    ExecutorService executor = Executors.newFixedThreadPool(producers);
+    CountDownLatch start = new CountDownLatch(1);
+
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int p = 0; p < producers; p++) {
+        int first = p * perProducer;
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int i = first; i < first + perProducer; i++) {
+            while (!buffer.offer(i)) {
+              Thread.yield();
+            }
+          }
+          return null;
+        }));
+      }
+
+      start.countDown();
+      Set<Integer> received = new HashSet<>();
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+      while (received.size() < producers * perProducer && System.nanoTime() < deadline) {
+        Integer element = buffer.poll();
+        if (element != null) {
+          assertTrue("Received twice: " + element, received.add(element));
+        }
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      assertEquals(producers * perProducer, received.size());
+      assertNull(buffer.poll());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
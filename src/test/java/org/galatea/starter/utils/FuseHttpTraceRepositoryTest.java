@@ -0,0 +1,71 @@
+package org.galatea.starter.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.Test;
+import org.springframework.boot.actuate.trace.http.HttpTrace;
+import org.springframework.boot.actuate.trace.http.HttpTrace.Request;
+
+public class FuseHttpTraceRepositoryTest {
+
+  @Test
+  public void testTracesAreStoredByTheWriter() {
+    FuseHttpTraceRepository repository = new FuseHttpTraceRepository(new ObjectMapper(), 16, 4,
+        new PathSampler(1.0, Collections.emptyMap()));
+
+    repository.start();
+    for (int i = 0; i < 10; i++) {
+      repository.add(trace("/settlementEngine/mission/" + i));
+    }
+    // Stopping flushes the traces still buffered
+    repository.stop();
+
+    assertEquals(10, repository.findAll().size());
+    assertEquals(0, repository.getDroppedCount());
+  }
+
+  @Test
+  public void testTracesAreDroppedOnceTheBufferIsFull() {
+    FuseHttpTraceRepository repository = new FuseHttpTraceRepository(new ObjectMapper(), 4, 4,
+        new PathSampler(1.0, Collections.emptyMap()));
+
+    // Without a running writer nothing drains the buffer
+    for (int i = 0; i < 10; i++) {
+      repository.add(trace("/settlementEngine/mission/" + i));
+    }
+
+    assertEquals(6, repository.getDroppedCount());
+    assertTrue(repository.findAll().isEmpty());
+
+    repository.start();
+    repository.stop();
+    assertEquals(4, repository.findAll().size());
+  }
+
+  @Test
+  public void testUnsampledPathsAreNotTraced() {
+    FuseHttpTraceRepository repository = new FuseHttpTraceRepository(new ObjectMapper(), 16, 4,
+        new PathSampler(1.0, Map.of("/iex/", 0.0)));
+
+    repository.start();
+    repository.add(trace("/iex/symbols"));
+    repository.add(trace("/settlementEngine/mission/1"));
+    repository.stop();
+
+    assertEquals(1, repository.findAll().size());
+    assertEquals("/settlementEngine/mission/1",
+        repository.findAll().get(0).getRequest().getUri().getPath());
+  }
+
+  private static HttpTrace trace(final String path) {
+    Request request = new Request("GET", URI.create("http://localhost" + path),
+        Collections.emptyMap(), null);
+    return new HttpTrace(request, null, Instant.now(), null, null, 1L);
+  }
+}
@@ -0,0 +1,141 @@
+package org.galatea.starter.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MicroBatcherTest {
+
+  private static final long ONE_HOUR_NANOS = TimeUnit.HOURS.toNanos(1);
+
+  private ScheduledExecutorService executor;
+
+  private List<Set<String>> batches;
+
+  private Function<Set<String>, CompletableFuture<Map<String, Integer>>> lengths;
+
+  @Before
+  public void setup() {
+    executor = Executors.newScheduledThreadPool(2);
+    batches = new CopyOnWriteArrayList<>();
+    lengths = keys -> {
+      batches.add(Set.copyOf(keys));
+      return CompletableFuture.completedFuture(
+          keys.stream().collect(Collectors.toMap(key -> key, String::length)));
+    };
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testRequestsWithinTheWindowAreLoadedTogether() throws Exception {
+    MicroBatcher<String, Integer> batcher =
+        new MicroBatcher<>(lengths, TimeUnit.MILLISECONDS.toNanos(200), 100, executor);
+
+    CompletableFuture<Map<String, Integer>> first = batcher.submit(List.of("a", "bb"));
+    CompletableFuture<Map<String, Integer>> second = batcher.submit(List.of("bb", "ccc"));
+
+    // Each caller only gets the keys it asked for
+    assertEquals(Map.of("a", 1, "bb", 2), first.get(5, TimeUnit.SECONDS));
+    assertEquals(Map.of("bb", 2, "ccc", 3), second.get(5, TimeUnit.SECONDS));
+    assertEquals(List.of(Set.of("a", "bb", "ccc")), batches);
+    assertEquals(2, batcher.getRequestCount());
+    assertEquals(1, batcher.getBatchCount());
+  }
+
+  @Test
+  public void testFullBatchIsLoadedWithoutWaiting() throws Exception {
+    MicroBatcher<String, Integer> batcher = new MicroBatcher<>(lengths, ONE_HOUR_NANOS, 3,
+        executor);
+
+    CompletableFuture<Map<String, Integer>> first = batcher.submit(List.of("a", "bb"));
+    CompletableFuture<Map<String, Integer>> second = batcher.submit(List.of("ccc"));
+    CompletableFuture<Map<String, Integer>> third = batcher.submit(List.of("dddd"));
+
+    assertEquals(Map.of("a", 1, "bb", 2), first.get(5, TimeUnit.SECONDS));
+    assertEquals(Map.of("ccc", 3), second.get(5, TimeUnit.SECONDS));
+    // The third request opened a new batch, which is still waiting for its window to close
+    assertFalse(third.isDone());
+    assertEquals(List.of(Set.of("a", "bb", "ccc")), batches);
+  }
+
+  @Test
+  public void testKeysWithoutValuesAreLeftOut() throws Exception {
+    MicroBatcher<String, Integer> batcher =
+        new MicroBatcher<>(keys -> CompletableFuture.completedFuture(Map.of("a", 1)), 0, 100,
+            executor);
+
+    assertEquals(Map.of("a", 1), batcher.submit(List.of("a", "b")).get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testRequestsCompleteWithTheirLoad() throws Exception {
+    CompletableFuture<Map<String, Integer>> load = new CompletableFuture<>();
+    MicroBatcher<String, Integer> batcher = new MicroBatcher<>(keys -> load, 0, 100, executor);
+
+    CompletableFuture<Map<String, Integer>> request = batcher.submit(List.of("a"));
+    Thread.sleep(50);
+    assertFalse(request.isDone());
+    load.complete(Map.of("a", 1));
+
+    assertEquals(Map.of("a", 1), request.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testFailedLoadFailsEveryRequest() throws Exception {
+    IllegalStateException failure = new IllegalStateException("Load failed");
+    MicroBatcher<String, Integer> batcher = new MicroBatcher<>(
+        keys -> CompletableFuture.failedFuture(failure), ONE_HOUR_NANOS, 2, executor);
+
+    CompletableFuture<Map<String, Integer>> first = batcher.submit(List.of("a"));
+    CompletableFuture<Map<String, Integer>> second = batcher.submit(List.of("b"));
+
+    for (CompletableFuture<Map<String, Integer>> future : List.of(first, second)) {
+      try {
+        future.get(5, TimeUnit.SECONDS);
+        fail("Expected the load to fail");
+      } catch (ExecutionException e) {
+        assertSame(failure, e.getCause());
+      }
+    }
+  }
+
+  @Test
+  public void testLoaderThatThrowsFailsEveryRequest() throws Exception {
+    IllegalStateException failure = new IllegalStateException("Load failed");
+    MicroBatcher<String, Integer> batcher = new MicroBatcher<>(keys -> {
+      throw failure;
+    }, 0, 100, executor);
+
+    try {
+      batcher.submit(List.of("a")).get(5, TimeUnit.SECONDS);
+      fail("Expected the load to fail");
+    } catch (ExecutionException e) {
+      assertSame(failure, e.getCause());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBatchSizeMustBePositive() {
+    new MicroBatcher<>(lengths, 0, 0, executor);
+  }
+}
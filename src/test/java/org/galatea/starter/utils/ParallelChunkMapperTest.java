@@ -0,0 +1,86 @@
+package org.galatea.starter.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelChunkMapperTest {
+
+  private ParallelChunkMapper mapper;
+
+  @Before
+  public void setup() {
+    mapper = new ParallelChunkMapper(4, 100, 10, "test-mapper-");
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    mapper.close();
+  }
+
+  @Test
+  public void testSmallListsStayOnTheCallingThread() {
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    List<Integer> results = mapper.map(range(99), i -> {
+      threads.add(Thread.currentThread().getName());
+      return i * 2;
+    });
+
+    assertEquals(range(99).stream().map(i -> i * 2).collect(Collectors.toList()), results);
+    assertEquals(Set.of(Thread.currentThread().getName()), threads);
+  }
+
+  @Test
+  public void testLargeListsAreMappedOnThePoolInOrder() {
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    List<String> results = mapper.map(range(10000), i -> {
+      threads.add(Thread.currentThread().getName());
+      return Integer.toString(i);
+    });
+
+    assertEquals(range(10000).stream().map(i -> Integer.toString(i)).collect(Collectors.toList()),
+        results);
+    assertTrue(threads.toString(), threads.stream().allMatch(t -> t.startsWith("test-mapper-")));
+  }
+
+  @Test
+  public void testFirstFailureIsRethrownAsIs() {
+    IllegalStateException first = new IllegalStateException("first");
+
+    try {
+      mapper.map(range(1000), i -> {
+        if (i == 500) {
+          throw first;
+        }
+        if (i == 900) {
+          throw new IllegalArgumentException("second");
+        }
+        return i;
+      });
+      fail("Expected the mapping to fail");
+    } catch (IllegalStateException e) {
+      assertSame(first, e);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testChunkSizeMustBePositive() throws InterruptedException {
+    new ParallelChunkMapper(4, 100, 0, "test-mapper-").close();
+  }
+
+  private static List<Integer> range(final int size) {
+    return IntStream.range(0, size).boxed().collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,43 @@
+package org.galatea.starter.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import org.junit.Test;
+
+public class PathSamplerTest {
+
+  @Test
+  public void testLongestPrefixWins() {
+    PathSampler sampler = PathSampler.parse(1.0,
+        "/settlementEngine/=0.5, /settlementEngine/mission/=0.1");
+
+    assertEquals(0.1, sampler.rateFor("/settlementEngine/mission/1"), 0);
+    assertEquals(0.5, sampler.rateFor("/settlementEngine/missions"), 0);
+    assertEquals(1.0, sampler.rateFor("/iex/symbols"), 0);
+  }
+
+  @Test
+  public void testEmptyRatesUseTheDefault() {
+    PathSampler sampler = PathSampler.parse(0.25, "");
+
+    assertEquals(0.25, sampler.rateFor("/settlementEngine"), 0);
+  }
+
+  @Test
+  public void testRatesOfZeroAndOne() {
+    PathSampler sampler = new PathSampler(1.0, Map.of("/iex/", 0.0));
+
+    for (int i = 0; i < 100; i++) {
+      assertTrue(sampler.sample("/settlementEngine"));
+      assertFalse(sampler.sample("/iex/symbols"));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRateAboveOneIsRejected() {
+    PathSampler.parse(1.0, "/iex/=1.5");
+  }
+}
@@ -0,0 +1,129 @@
+package org.galatea.starter.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class StringDictionaryTest {
+
+  @Test
+  public void testInternReturnsTheFirstInstance() {
+    StringDictionary dictionary = dictionary(10, Ticker.systemTicker());
+    String first = new String("IBM");
+    String second = new String("IBM");
+
+    assertSame(first, dictionary.intern(first));
+    assertSame(first, dictionary.intern(second));
+    assertNull(dictionary.intern(null));
+  }
+
+  @Test
+  public void testFullDictionaryEvictsToMakeRoom() {
+    StringDictionary dictionary = dictionary(2, Ticker.systemTicker());
+    dictionary.intern("A");
+    dictionary.intern("B");
+    String c = new String("C");
+
+    assertSame(c, dictionary.intern(c));
+    dictionary.cleanUp();
+
+    assertEquals(StringDictionaryStats.builder().size(2).maxSize(2).hitCount(0).missCount(3)
+        .evictionCount(1).build(), dictionary.stats());
+  }
+
+  @Test
+  public void testIdleStringsAreDropped() {
+    AtomicLong nanoTime = new AtomicLong();
+    StringDictionary dictionary = dictionary(10, nanoTime::get);
+    String first = new String("DTC");
+    dictionary.intern(first);
+
+    nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(59));
+    assertSame(first, dictionary.intern(new String("DTC")));
+
+    nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(61));
+    dictionary.cleanUp();
+    assertEquals(0, dictionary.size());
+    assertNotSame(first, dictionary.intern(new String("DTC")));
+  }
+
+  @Test
+  public void testConcurrentInterningAgreesOnInstances() throws Exception {
+    StringDictionary dictionary = dictionary(100000, Ticker.systemTicker());
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<String[]>> results = new ArrayList<>();
+    try {
+      for (int t = 0; t < threads; t++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          String[] interned = new String[1000];
+          for (int i = 0; i < interned.length; i++) {
+            interned[i] = dictionary.intern(new String("EXT-" + i));
+          }
+          return interned;
+        }));
+      }
+      start.countDown();
+      for (Future<String[]> result : results) {
+        result.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Each string was added once, by whichever thread got there first
+    assertEquals(StringDictionaryStats.builder().size(1000).maxSize(100000).hitCount(7000)
+        .missCount(1000).evictionCount(0).build(), dictionary.stats());
+    String[] expected = results.get(0).get();
+    for (Future<String[]> result : results) {
+      String[] interned = result.get();
+      for (int i = 0; i < interned.length; i++) {
+        assertSame(expected[i], interned[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testStatsArePublished() {
+    StringDictionary dictionary = dictionary(2, Ticker.systemTicker());
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    new StringDictionaryMetrics(dictionary, Tags.empty()).bindTo(registry);
+
+    dictionary.intern("IBM");
+    dictionary.intern("IBM");
+    dictionary.intern("DTC");
+    dictionary.intern("EXT-1");
+    dictionary.cleanUp();
+
+    assertEquals(2, registry.get("dictionary.size").tag("dictionary", "reference-data").gauge()
+        .value(), 0);
+    assertEquals(1, lookups(registry, "hit"), 0);
+    assertEquals(3, lookups(registry, "miss"), 0);
+    assertEquals(1, registry.get("dictionary.evictions").functionCounter().count(), 0);
+  }
+
+  private static StringDictionary dictionary(final long maxSize, final Ticker ticker) {
+    return new StringDictionary("reference-data", maxSize, Duration.ofMinutes(60), ticker);
+  }
+
+  private static double lookups(final SimpleMeterRegistry registry, final String result) {
+    return registry.get("dictionary.lookups").tag("result", result).functionCounter().count();
+  }
+}
@@ -0,0 +1,50 @@
+package org.galatea.starter.utils.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class LongArrayListTest {
+
+  @Test
+  public void testAddGrowsAndKeepsOrder() {
+    LongArrayList list = new LongArrayList();
+    List<Long> expected = new ArrayList<>();
+    for (long i = 0; i < 1000; i++) {
+      list.add(i * 7);
+      expected.add(i * 7);
+    }
+
+    assertEquals(1000, list.size());
+    assertEquals(expected, list.asList());
+    assertEquals(expected.hashCode(), list.hashCode());
+    assertEquals(21, list.get(3));
+  }
+
+  @Test
+  public void testViewsAndCopies() {
+    LongArrayList list = LongArrayList.of(3, 1, 2);
+
+    assertArrayEquals(new long[] {3, 1, 2}, list.toArray());
+    assertEquals(Arrays.asList(3L, 1L, 2L), list.asList());
+    assertEquals("[3, 1, 2]", list.toString());
+    assertEquals(LongArrayList.of(3, 1, 2), list);
+    assertTrue(new LongArrayList(10).isEmpty());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetBeyondSize() {
+    // Within the backing array's capacity, but not the list's size
+    new LongArrayList(10).get(0);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testBoxedViewIsReadOnly() {
+    LongArrayList.of(1).asList().add(2L);
+  }
+}
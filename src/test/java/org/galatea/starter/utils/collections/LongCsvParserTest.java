@@ -0,0 +1,74 @@
+package org.galatea.starter.utils.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(JUnitParamsRunner.class)
+public class LongCsvParserTest {
+
+  @Test
+  @Parameters(method = "validCsv")
+  public void testParsesAsSplitAndParseLongDo(final String csv) {
+    assertEquals(splitAndParse(csv), LongCsvParser.parse(csv).asList());
+  }
+
+  @Test
+  public void testOnlyCommasIsEmpty() {
+    assertEquals(0, LongCsvParser.parse(",,").size());
+  }
+
+  @Test
+  @Parameters(method = "invalidCsv")
+  public void testRejectsWhatParseLongRejects(final String csv) {
+    try {
+      splitAndParse(csv);
+      fail("Expected Long.parseLong to reject " + csv);
+    } catch (NumberFormatException expected) {
+      // The parser should reject it too
+    }
+    try {
+      LongCsvParser.parse(csv);
+      fail("Expected the parser to reject " + csv);
+    } catch (NumberFormatException expected) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testErrorNamesTheBadValue() {
+    try {
+      LongCsvParser.parse("1,x2,3");
+      fail("Expected a NumberFormatException");
+    } catch (NumberFormatException e) {
+      assertEquals("For input string: \"x2\"", e.getMessage());
+    }
+  }
+
+  private Object[] validCsv() {
+    // Wrapped in arrays since JUnitParams would split the strings on their commas
+    return new Object[] {
+        new Object[] {"1"}, new Object[] {"1,2,3"}, new Object[] {"1000000,2000000"},
+        new Object[] {"-5,+7,0"}, new Object[] {"1,2,"}, new Object[] {"1,2,,,"},
+        new Object[] {"9223372036854775807,-9223372036854775808"}};
+  }
+
+  private Object[] invalidCsv() {
+    return new Object[] {
+        new Object[] {""}, new Object[] {"a"}, new Object[] {"1,,2"}, new Object[] {",1"},
+        new Object[] {"1, 2"}, new Object[] {"1;2"}, new Object[] {"-"}, new Object[] {"+"},
+        new Object[] {"1-"}, new Object[] {"9223372036854775808"},
+        new Object[] {"-9223372036854775809"}, new Object[] {"99999999999999999999"}};
+  }
+
+  private static List<Long> splitAndParse(final String csv) {
+    return Arrays.stream(csv.split(",")).map(Long::parseLong).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,70 @@
+package org.galatea.starter.utils.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class LongHashSetTest {
+
+  @Test
+  public void testAddAndContains() {
+    LongHashSet set = new LongHashSet();
+
+    assertTrue(set.add(5));
+    assertFalse(set.add(5));
+    assertTrue(set.add(0));
+    assertFalse(set.add(0));
+    assertTrue(set.add(-1));
+
+    assertEquals(3, set.size());
+    assertTrue(set.contains(0));
+    assertTrue(set.contains(5));
+    assertTrue(set.contains(-1));
+    assertFalse(set.contains(6));
+  }
+
+  @Test
+  public void testMatchesHashSetWhileGrowing() {
+    LongHashSet set = new LongHashSet(2);
+    Set<Long> expected = new HashSet<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 20000; i++) {
+      // Sequential ids as well as random ones, since sequential ids are the common case
+      long value = i % 2 == 0 ? i : random.nextInt(5000) - 2500;
+      assertEquals(expected.add(value), set.add(value));
+    }
+
+    assertEquals(expected.size(), set.size());
+    long[] elements = set.toArray();
+    Arrays.sort(elements);
+    assertEquals(expected.stream().sorted().mapToLong(Long::longValue).boxed()
+        .collect(Collectors.toList()), LongArrayList.of(elements).asList());
+    assertEquals(expected.hashCode(), set.hashCode());
+  }
+
+  @Test
+  public void testForEachVisitsEveryElementOnce() {
+    LongHashSet set = LongHashSet.of(0, 1, 2, 3, 1000000);
+    LongHashSet visited = new LongHashSet();
+
+    set.forEach(id -> assertTrue(visited.add(id)));
+
+    assertEquals(set, visited);
+  }
+
+  @Test
+  public void testEqualsIgnoresOrderAndCapacity() {
+    assertEquals(LongHashSet.of(1, 2, 3), LongHashSet.of(3, 2, 1));
+    assertEquals(new LongHashSet(1000), new LongHashSet());
+    assertNotEquals(LongHashSet.of(1, 2), LongHashSet.of(1, 0));
+    assertEquals("[0, 1, 3]", LongHashSet.of(3, 0, 1).toString());
+  }
+}
@@ -4,6 +4,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -100,6 +104,39 @@ public class CsvSerializerTest {
     assertEquals(expected, actual);
   }
 
+  @Test
+  public void writeCsv_matchesSerializeToCsv() throws Exception {
+    List<BasicClass> rows = Arrays.asList(new BasicClass("foo", "bar"),
+        new BasicClass("baz", null));
+
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    CsvSerializer.writeCsv(rows, BasicClass.class, actual);
+    assertEquals(CsvSerializer.serializeToCsv(rows, BasicClass.class),
+        actual.toString(StandardCharsets.UTF_8.name()));
+  }
+
+  @Test
+  public void writeCsv_empty() throws Exception {
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    CsvSerializer.writeCsv(Collections.emptyList(), BasicClass.class, actual);
+    assertEquals(CsvSerializer.serializeToCsv(Collections.emptyList(), BasicClass.class),
+        actual.toString(StandardCharsets.UTF_8.name()));
+  }
+
+  @Test
+  public void writeCsv_doesNotCloseStream() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OutputStream closeTracking = new FilterOutputStream(out) {
+      @Override
+      public void close() {
+        fail("The stream should not be closed");
+      }
+    };
+    CsvSerializer.writeCsv(Collections.singletonList(new BasicClass("foo", "bar")),
+        BasicClass.class, closeTracking);
+    assertEquals("field1,field2\nfoo,bar\n", out.toString(StandardCharsets.UTF_8.name()));
+  }
+
   @AllArgsConstructor
   @NoArgsConstructor
   @Getter
@@ -0,0 +1,72 @@
+package org.galatea.starter.utils.http.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Arrays;
+import lombok.AllArgsConstructor;
+import org.junit.Test;
+
+public class RowLayoutTest {
+
+  @Test
+  public void layoutIsComputedOnce() {
+    assertSame(RowLayout.of(ChildClass.class), RowLayout.of(ChildClass.class));
+  }
+
+  @Test
+  public void headersIncludeInheritedFieldsAndSkipIgnoredOnes() {
+    assertEquals(Arrays.asList("field1", "Header 2", "field4"),
+        RowLayout.of(ChildClass.class).getHeaders());
+  }
+
+  @Test
+  public void readsPrivateAndInheritedFields() {
+    RowLayout layout = RowLayout.of(ChildClass.class);
+    ChildClass row = new ChildClass("foo", "bar", "baz", 4);
+
+    assertEquals(3, layout.size());
+    assertEquals("foo", layout.read(row, 0));
+    assertEquals("bar", layout.read(row, 1));
+    assertEquals(4, layout.read(row, 2));
+  }
+
+  @Test
+  public void readsStaticFields() {
+    RowLayout layout = RowLayout.of(ClassWithStaticField.class);
+
+    assertEquals(Arrays.asList("constant", "field1"), layout.getHeaders());
+    assertEquals("constant", layout.read(new ClassWithStaticField("foo"), 0));
+    assertEquals("foo", layout.read(new ClassWithStaticField("foo"), 1));
+  }
+
+  @AllArgsConstructor
+  private static class ParentClass {
+
+    private String field1;
+    @JsonProperty("Header 2")
+    private String field2;
+  }
+
+  private static class ChildClass extends ParentClass {
+
+    @JsonIgnore
+    private String field3;
+    private int field4;
+
+    ChildClass(final String field1, final String field2, final String field3, final int field4) {
+      super(field1, field2);
+      this.field3 = field3;
+      this.field4 = field4;
+    }
+  }
+
+  @AllArgsConstructor
+  private static class ClassWithStaticField {
+
+    private static String constant = "constant";
+    private String field1;
+  }
+}
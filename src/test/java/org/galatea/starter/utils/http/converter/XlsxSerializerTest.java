@@ -160,6 +160,18 @@ public class XlsxSerializerTest {
     assertTrue(XlsxComparator.equals(expected, actual));
   }
 
+  @Test
+  public void writeXlsx_matchesSerializeToXlsx() throws Exception {
+    // More rows than the row window, so that some are flushed to the temp file before writing
+    List<BasicClass> rows = Arrays.asList(new BasicClass("foo", "bar"),
+        new BasicClass("baz", null), new BasicClass("qux", "quux"));
+
+    byte[] expected = XlsxSerializer.serializeToXlsx(rows, BasicClass.class);
+    ByteArrayOutputStream actual = new ByteArrayOutputStream();
+    XlsxSerializer.writeXlsx(rows, BasicClass.class, actual, 1, true);
+    assertTrue(XlsxComparator.equals(expected, actual.toByteArray()));
+  }
+
   private static byte[] writeSpreadsheetToBytes(final Workbook wb) throws IOException {
     try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
       wb.write(baos);
@@ -0,0 +1,152 @@
+package org.galatea.starter.utils.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.WriterAppender;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.galatea.starter.service.HalService;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+public class CallLoggerTest {
+
+  @Test
+  public void testEnterAndExitMessages() {
+    Logger logger = mock(Logger.class);
+    CallLogger callLogger = new CallLogger(logger, Level.INFO, Level.ERROR, 256, 1.0);
+
+    callLogger.enter("getMission", new Object[] {1L, "abc"});
+    callLogger.exit("getMission", false, "mission", 2_000_000);
+    callLogger.exit("deleteMission", true, null, 0);
+
+    verify(logger).info("-> getMission(1, abc)");
+    verify(logger).info("<- getMission returned mission in 2 ms");
+    verify(logger).info("<- deleteMission in 0 ms");
+  }
+
+  @Test
+  public void testLongValuesAreTruncated() {
+    CallLogger callLogger =
+        new CallLogger(mock(Logger.class), Level.DEBUG, Level.ERROR, 5, 1.0);
+
+    StringBuilder message = new StringBuilder();
+    callLogger.appendValue(message, "abcdefgh");
+    assertEquals("abcde...", message.toString());
+
+    message.setLength(0);
+    callLogger.appendValue(message, "abc");
+    assertEquals("abc", message.toString());
+  }
+
+  @Test
+  public void testLargeCollectionsAreCutShort() {
+    CallLogger callLogger =
+        new CallLogger(mock(Logger.class), Level.DEBUG, Level.ERROR, 10, 1.0);
+    List<Integer> ids = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+
+    StringBuilder message = new StringBuilder();
+    callLogger.appendValue(message, ids);
+    assertEquals("[0, 1, 2... 1000 elements]", message.toString());
+
+    message.setLength(0);
+    callLogger.appendValue(message, new long[] {1, 2});
+    assertEquals("[1, 2]", message.toString());
+  }
+
+  @Test
+  public void testLevelAndSampling() {
+    Logger logger = mock(Logger.class);
+    when(logger.isDebugEnabled()).thenReturn(false);
+    when(logger.isWarnEnabled()).thenReturn(true);
+
+    assertFalse(new CallLogger(logger, Level.DEBUG, Level.ERROR, 256, 1.0).isEnabled());
+    assertTrue(new CallLogger(logger, Level.WARN, Level.ERROR, 256, 1.0).isEnabled());
+
+    CallLogger never = new CallLogger(logger, Level.WARN, Level.ERROR, 256, 0.0);
+    CallLogger always = new CallLogger(logger, Level.WARN, Level.ERROR, 256, 1.0);
+    for (int i = 0; i < 100; i++) {
+      assertFalse(never.sample());
+      assertTrue(always.sample());
+    }
+  }
+
+  @Test
+  public void testExceptionsAreLoggedAtError() {
+    Logger logger = mock(Logger.class);
+    IllegalStateException thrown = new IllegalStateException();
+
+    new CallLogger(logger, Level.DEBUG, Level.ERROR, 256, 0.0).threw("getMission", thrown, 0);
+
+    verify(logger).error("<- getMission threw in 0 ms", thrown);
+    verify(logger, never()).debug(anyString());
+    verify(logger, never()).debug(anyString(), any(Throwable.class));
+  }
+
+  @Test
+  public void testExceptionsAreLoggedAtTheExceptionLevel() {
+    Logger logger = mock(Logger.class);
+    IllegalStateException thrown = new IllegalStateException();
+
+    new CallLogger(logger, Level.INFO, Level.WARN, 256, 1.0).threw("getMission", thrown, 0);
+
+    verify(logger).warn("<- getMission threw in 0 ms", thrown);
+    verify(logger, never()).error(anyString(), any(Throwable.class));
+  }
+
+  @Test
+  public void testLoggedClassesAreWoven() {
+    // HalService is @Logged at debug, so its calls are only logged once debug is enabled
+    String loggerName = HalService.class.getName();
+    StringWriter output = new StringWriter();
+    LoggerContext context = (LoggerContext) LogManager.getContext(false);
+    Appender appender = WriterAppender.createAppender(
+        PatternLayout.newBuilder().withPattern("%m%n").build(), null, output, "CallLoggerTest",
+        false, true);
+    appender.start();
+    context.getConfiguration().addLoggerAppender(context.getLogger(loggerName), appender);
+    try {
+      HalService service = new HalService();
+      Configurator.setLevel(loggerName, org.apache.logging.log4j.Level.INFO);
+      service.getDerp();
+      assertEquals("", output.toString());
+
+      // Calls that throw are logged whatever the level
+      try {
+        service.processText(null);
+        fail("Expected a NullPointerException");
+      } catch (NullPointerException e) {
+        assertTrue(output.toString(), output.toString().startsWith("<- processText threw"));
+        assertTrue(output.toString(), output.toString().contains(e.toString()));
+        assertTrue(output.toString(), output.toString().contains("at " + loggerName));
+      }
+      output.getBuffer().setLength(0);
+
+      Configurator.setLevel(loggerName, org.apache.logging.log4j.Level.DEBUG);
+      service.getDerp();
+      assertTrue(output.toString(), output.toString().contains("-> getDerp()"));
+      assertTrue(output.toString(), output.toString().contains("<- getDerp returned derp!"));
+    } finally {
+      context.getConfiguration().getLoggerConfig(loggerName).removeAppender("CallLoggerTest");
+      Configurator.setLevel(loggerName, null);
+      appender.stop();
+    }
+  }
+}
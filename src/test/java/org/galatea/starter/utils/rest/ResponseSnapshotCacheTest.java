@@ -0,0 +1,161 @@
+package org.galatea.starter.utils.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.galatea.starter.entrypoint.messagecontracts.SettlementMissionMessage;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.xml.Jaxb2RootElementHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+public class ResponseSnapshotCacheTest {
+
+  private static final List<MediaType> PRODUCIBLE =
+      List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML);
+
+  private ResponseSnapshotCache cache;
+
+  private AtomicInteger bodiesCreated;
+
+  @Before
+  public void setup() {
+    cache = new ResponseSnapshotCache(List.of(new MappingJackson2HttpMessageConverter(),
+        new Jaxb2RootElementHttpMessageConverter()), new ContentNegotiationManager(), 10);
+    bodiesCreated = new AtomicInteger();
+  }
+
+  @Test
+  public void testRepeatReadsAreServedFromTheSnapshot() throws Exception {
+    ResponseEntity<byte[]> first = cache.respond(request("application/json"), "mission/1", 3L,
+        PRODUCIBLE, body(1, 3L));
+    ResponseEntity<byte[]> second = cache.respond(request("application/json"), "mission/1", 3L,
+        PRODUCIBLE, body(1, 3L));
+
+    assertSame(first.getBody(), second.getBody());
+    assertEquals(1, bodiesCreated.get());
+    assertEquals(1, cache.getSerializationCount());
+    assertEquals(etagOf(second), second.getHeaders().getETag());
+    assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(second.getHeaders().getContentType()));
+    assertTrue(new String(second.getBody(), StandardCharsets.UTF_8).contains("\"version\":3"));
+  }
+
+  @Test
+  public void testEachMediaTypeHasItsOwnSnapshot() throws Exception {
+    ResponseEntity<byte[]> json = cache.respond(request("application/json"), "mission/1", 3L,
+        PRODUCIBLE, body(1, 3L));
+    ResponseEntity<byte[]> xml = cache.respond(request("application/xml"), "mission/1", 3L,
+        PRODUCIBLE, body(1, 3L));
+    cache.respond(request("application/xml"), "mission/1", 3L, PRODUCIBLE, body(1, 3L));
+
+    assertEquals(2, cache.getSerializationCount());
+    assertEquals(etagOf(xml), xml.getHeaders().getETag());
+    assertNotEquals(json.getHeaders().getETag(), xml.getHeaders().getETag());
+    assertTrue(MediaType.APPLICATION_XML.isCompatibleWith(xml.getHeaders().getContentType()));
+    assertTrue(new String(xml.getBody(), StandardCharsets.UTF_8).contains("<version>3</version>"));
+    assertNotSame(json.getBody(), xml.getBody());
+  }
+
+  @Test
+  public void testMediaTypeFollowsTheAcceptHeader() throws Exception {
+    assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(cache.respond(request(null),
+        "mission/1", 3L, PRODUCIBLE, body(1, 3L)).getHeaders().getContentType()));
+    assertTrue(MediaType.APPLICATION_XML.isCompatibleWith(cache.respond(
+        request("application/json;q=0.5, application/xml"), "mission/1", 3L, PRODUCIBLE,
+        body(1, 3L)).getHeaders().getContentType()));
+  }
+
+  @Test(expected = HttpMediaTypeNotAcceptableException.class)
+  public void testUnacceptableMediaType() throws Exception {
+    cache.respond(request("text/csv"), "mission/1", 3L, PRODUCIBLE, body(1, 3L));
+  }
+
+  @Test
+  public void testNewVersionReplacesSnapshots() throws Exception {
+    cache.respond(request("application/json"), "mission/1", 3L, PRODUCIBLE, body(1, 3L));
+    ResponseEntity<byte[]> newer = cache.respond(request("application/json"), "mission/1", 4L,
+        PRODUCIBLE, body(1, 4L));
+    // A reader that loaded the mission before it changed
+    ResponseEntity<byte[]> older = cache.respond(request("application/json"), "mission/1", 3L,
+        PRODUCIBLE, body(1, 3L));
+    ResponseEntity<byte[]> latest = cache.respond(request("application/json"), "mission/1", 4L,
+        PRODUCIBLE, body(1, 4L));
+
+    assertEquals(3, cache.getSerializationCount());
+    assertEquals(etagOf(older), older.getHeaders().getETag());
+    assertNotEquals(newer.getHeaders().getETag(), older.getHeaders().getETag());
+    assertSame(newer.getBody(), latest.getBody());
+  }
+
+  @Test
+  public void testInvalidateDropsSnapshots() throws Exception {
+    cache.respond(request("application/json"), "mission/1", 3L, PRODUCIBLE, body(1, 3L));
+    cache.respond(request("application/json"), "mission/2", 3L, PRODUCIBLE, body(2, 3L));
+
+    cache.invalidate("mission/1");
+    cache.respond(request("application/json"), "mission/1", 3L, PRODUCIBLE, body(1, 3L));
+    cache.respond(request("application/json"), "mission/2", 3L, PRODUCIBLE, body(2, 3L));
+
+    assertEquals(3, cache.getSerializationCount());
+  }
+
+  @Test
+  public void testEtagFollowsTheContent() throws Exception {
+    ResponseEntity<byte[]> before = cache.respond(request("application/json"), "mission/1", 3L,
+        PRODUCIBLE, body(1, 3L));
+    // The version is reused for other content, as after an in-memory database has restarted
+    cache.invalidate("mission/1");
+    ResponseEntity<byte[]> after = cache.respond(request("application/json"), "mission/1", 3L,
+        PRODUCIBLE, () -> SettlementMissionMessage.builder().id(1L).instrument("AAPL").version(3L)
+            .build());
+
+    assertNotEquals(before.getHeaders().getETag(), after.getHeaders().getETag());
+    assertEquals(etagOf(after), after.getHeaders().getETag());
+  }
+
+  @Test
+  public void testUnversionedResourcesAreNotCached() throws Exception {
+    ResponseEntity<byte[]> first = cache.respond(request("application/json"), "mission/1", null,
+        PRODUCIBLE, body(1, null));
+    cache.respond(request("application/json"), "mission/1", null, PRODUCIBLE, body(1, null));
+
+    assertEquals(2, cache.getSerializationCount());
+    assertNull(first.getHeaders().getETag());
+  }
+
+  private static String etagOf(final ResponseEntity<byte[]> response) {
+    return "\"" + DigestUtils.md5DigestAsHex(response.getBody()) + "\"";
+  }
+
+  private Supplier<SettlementMissionMessage> body(final long id, final Long version) {
+    return () -> {
+      bodiesCreated.incrementAndGet();
+      return SettlementMissionMessage.builder().id(id).instrument("IBM").version(version).build();
+    };
+  }
+
+  private static NativeWebRequest request(final String accept) {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/mission/1");
+    if (accept != null) {
+      request.addHeader(HttpHeaders.ACCEPT, accept);
+    }
+    return new ServletWebRequest(request);
+  }
+}
@@ -0,0 +1,47 @@
+package org.galatea.starter.utils.rest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.StreamUtils;
+
+public class TeeRequestWrapperTest {
+
+  @Test
+  public void testOnlyTheStartOfTheBodyIsCaptured() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setContent("abcdefgh".getBytes(StandardCharsets.UTF_8));
+    TeeRequestWrapper wrapper =
+        new TeeRequestWrapper(request, new PayloadCapture(new CaptureBufferPool(3, 1), true));
+
+    assertEquals("abcdefgh", StreamUtils.copyToString(wrapper.getInputStream(), StandardCharsets.UTF_8));
+    assertEquals("abc", wrapper.getCapturedPayload());
+  }
+
+  @Test
+  public void testReaderIsCaptured() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setCharacterEncoding("UTF-8");
+    request.setContent("{\"a\": \"é\"}".getBytes(StandardCharsets.UTF_8));
+    TeeRequestWrapper wrapper =
+        new TeeRequestWrapper(request, new PayloadCapture(new CaptureBufferPool(64, 1), true));
+
+    BufferedReader reader = wrapper.getReader();
+    assertEquals("{\"a\": \"é\"}", reader.readLine());
+    assertEquals("{\"a\": \"é\"}", wrapper.getCapturedPayload());
+  }
+
+  @Test
+  public void testDisabledCaptureTakesNoBuffer() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setContent("abc".getBytes(StandardCharsets.UTF_8));
+    TeeRequestWrapper wrapper =
+        new TeeRequestWrapper(request, new PayloadCapture(new CaptureBufferPool(64, 1), false));
+
+    StreamUtils.copyToString(wrapper.getInputStream(), StandardCharsets.UTF_8);
+    assertEquals("", wrapper.getCapturedPayload());
+  }
+}
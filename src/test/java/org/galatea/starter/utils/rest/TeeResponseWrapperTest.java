@@ -0,0 +1,109 @@
+package org.galatea.starter.utils.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class TeeResponseWrapperTest {
+
+  private MockHttpServletResponse response;
+
+  private AtomicInteger commits;
+
+  @Before
+  public void setup() {
+    response = new MockHttpServletResponse();
+    commits = new AtomicInteger();
+  }
+
+  @Test
+  public void testBodyStreamsThroughAndOnlyItsStartIsCaptured() throws Exception {
+    TeeResponseWrapper wrapper = wrap(new CaptureBufferPool(4, 1), contentType -> true);
+
+    wrapper.getOutputStream().write("abcdefgh".getBytes(StandardCharsets.UTF_8));
+    wrapper.getOutputStream().write('i');
+
+    assertEquals("abcdefghi", response.getContentAsString());
+    assertEquals("abcd", wrapper.getCapturedPayload());
+  }
+
+  @Test
+  public void testHeadersAreAddedBeforeTheFirstByte() throws Exception {
+    TeeResponseWrapper wrapper = wrap(new CaptureBufferPool(4, 1), contentType -> true);
+
+    wrapper.getOutputStream().write('a');
+    wrapper.flushBuffer();
+    wrapper.finish();
+
+    assertEquals("yes", response.getHeader("audited"));
+    assertEquals(1, commits.get());
+  }
+
+  @Test
+  public void testHeadersAreAddedToAnEmptyResponse() {
+    TeeResponseWrapper wrapper = wrap(new CaptureBufferPool(4, 1), contentType -> true);
+
+    wrapper.finish();
+
+    assertEquals("yes", response.getHeader("audited"));
+  }
+
+  @Test
+  public void testWriterIsCapturedOnceFinished() throws Exception {
+    TeeResponseWrapper wrapper = wrap(new CaptureBufferPool(16, 1), contentType -> true);
+    wrapper.setCharacterEncoding("UTF-8");
+
+    PrintWriter writer = wrapper.getWriter();
+    writer.write("héllo");
+    wrapper.finish();
+
+    assertEquals("héllo", response.getContentAsString());
+    assertEquals("héllo", wrapper.getCapturedPayload());
+  }
+
+  @Test
+  public void testExcludedContentTypeIsNotCaptured() throws Exception {
+    TeeResponseWrapper wrapper = wrap(new CaptureBufferPool(16, 1),
+        contentType -> !"text/csv".equals(contentType));
+    wrapper.setContentType("text/csv");
+
+    wrapper.getOutputStream().write("a,b".getBytes(StandardCharsets.UTF_8));
+
+    assertEquals("a,b", response.getContentAsString());
+    assertEquals(0, wrapper.getCapture().size());
+  }
+
+  @Test
+  public void testReleasedBuffersAreReused() throws Exception {
+    CaptureBufferPool pool = new CaptureBufferPool(4, 1);
+    byte[] buffer = pool.acquire();
+    pool.release(buffer);
+
+    TeeResponseWrapper wrapper = wrap(pool, contentType -> true);
+    wrapper.getOutputStream().write('a');
+    wrapper.getCapture().release(true);
+
+    assertTrue(buffer == pool.acquire());
+    // Nothing is captured once released
+    wrapper.getOutputStream().write('b');
+    assertEquals(0, wrapper.getCapture().size());
+    assertFalse(response.getContentAsString().isEmpty());
+  }
+
+  private TeeResponseWrapper wrap(final CaptureBufferPool pool,
+      final Predicate<String> capturedContentTypes) {
+    return new TeeResponseWrapper(response, new PayloadCapture(pool, true), capturedContentTypes,
+        () -> {
+          commits.incrementAndGet();
+          response.addHeader("audited", "yes");
+        });
+  }
+}
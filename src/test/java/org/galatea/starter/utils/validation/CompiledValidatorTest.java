@@ -0,0 +1,153 @@
+package org.galatea.starter.utils.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+import org.galatea.starter.domain.SettlementMission;
+import org.galatea.starter.domain.Side;
+import org.galatea.starter.domain.TradeAgreement;
+import org.galatea.starter.entrypoint.ConstraintViolationMessageFormatter;
+import org.galatea.starter.testutils.TestDataGenerator;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CompiledValidatorTest {
+
+  private static final List<Double> QUANTITIES = Arrays.asList(100d, 0.0001d, Double.MIN_VALUE,
+      0d, -0d, -1d, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+
+  private static final List<String> SIDES = Arrays.asList("B", "S", "SS", "b", "", "X", "BS");
+
+  private static Validator hibernateValidator;
+
+  @BeforeClass
+  public static void setUp() {
+    hibernateValidator = Validation.buildDefaultValidatorFactory().getValidator();
+  }
+
+  @Test
+  public void testAgreementsMatchHibernateValidator() {
+    CompiledValidator<TradeAgreement> validator = CompiledValidator.forClass(TradeAgreement.class);
+    for (Double qty : QUANTITIES) {
+      TradeAgreement agreement = TestDataGenerator.defaultTradeAgreementData().qty(qty).build();
+      assertSameViolations(hibernateValidator.validate(agreement), validator.validate(agreement));
+    }
+  }
+
+  @Test
+  public void testMissionsMatchHibernateValidator() {
+    CompiledValidator<SettlementMission> validator =
+        CompiledValidator.forClass(SettlementMission.class);
+    for (Double qty : QUANTITIES) {
+      SettlementMission mission = TestDataGenerator.defaultSettlementMissionData().qty(qty).build();
+      assertSameViolations(hibernateValidator.validate(mission), validator.validate(mission));
+    }
+  }
+
+  @Test
+  public void testStringEnumerationsMatchHibernateValidator() {
+    CompiledValidator<Order> validator = CompiledValidator.forClass(Order.class);
+    for (String side : SIDES) {
+      Order order = new Order(side);
+      assertSameViolations(hibernateValidator.validate(order), validator.validate(order));
+    }
+  }
+
+  @Test
+  public void testFormattedMessageMatchesHibernateValidator() {
+    TradeAgreement agreement = TestDataGenerator.defaultTradeAgreementData().qty(-1d).build();
+
+    assertEquals(
+        ConstraintViolationMessageFormatter.toMessage(
+            new ConstraintViolationException(hibernateValidator.validate(agreement))),
+        ConstraintViolationMessageFormatter.toMessage(new ConstraintViolationException(
+            CompiledValidator.forClass(TradeAgreement.class).validate(agreement))));
+  }
+
+  @Test
+  public void testValidatorIsCompiledOncePerClass() {
+    assertTrue(CompiledValidator.forClass(TradeAgreement.class)
+        == CompiledValidator.forClass(TradeAgreement.class));
+  }
+
+  @Test
+  public void testFieldsWithoutGettersAndOtherNumberTypes() {
+    CompiledValidator<Amounts> validator = CompiledValidator.forClass(Amounts.class);
+    for (long value = -2; value <= 2; value++) {
+      Amounts amounts = new Amounts(value, BigDecimal.valueOf(value).movePointLeft(1));
+      assertSameViolations(hibernateValidator.validate(amounts), validator.validate(amounts));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedConstraintsAreRejected() {
+    CompiledValidator.forClass(Unsupported.class);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMessageTemplatesAreRejected() {
+    CompiledValidator.forClass(Templated.class);
+  }
+
+  private static <T> void assertSameViolations(final Set<ConstraintViolation<T>> expected,
+      final Set<ConstraintViolation<T>> actual) {
+    assertEquals(describe(expected), describe(actual));
+  }
+
+  private static <T> Set<String> describe(final Set<ConstraintViolation<T>> violations) {
+    return violations.stream()
+        .map(v -> v.getPropertyPath() + ": " + v.getMessage() + " (" + v.getInvalidValue() + ")")
+        .collect(Collectors.toSet());
+  }
+
+  private static class Amounts {
+
+    @DecimalMin(value = "0", message = "Count can't be negative")
+    private final Long count;
+
+    @DecimalMin(value = "0.1", inclusive = false, message = "Amount must be more than 0.1")
+    private final BigDecimal amount;
+
+    Amounts(final Long count, final BigDecimal amount) {
+      this.count = count;
+      this.amount = amount;
+    }
+  }
+
+  private static class Order {
+
+    @StringEnumeration(enumClass = Side.class, message = "Buy/Sell side must be valid")
+    private final String side;
+
+    Order(final String side) {
+      this.side = side;
+    }
+
+    public String getSide() {
+      return side;
+    }
+  }
+
+  private static class Unsupported {
+
+    @NotNull(message = "Side is required")
+    private Side side;
+  }
+
+  private static class Templated {
+
+    @DecimalMin(value = "0.0")
+    private Double qty;
+  }
+}
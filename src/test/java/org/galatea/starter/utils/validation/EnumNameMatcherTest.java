@@ -0,0 +1,44 @@
+package org.galatea.starter.utils.validation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.galatea.starter.domain.Direction;
+import org.galatea.starter.domain.Side;
+import org.junit.Test;
+
+public class EnumNameMatcherTest {
+
+  @Test
+  public void testEveryNameMatches() {
+    for (Class<? extends Enum<?>> enumClass : new Class[] {Side.class, Direction.class,
+        TimeUnit.class, Thread.State.class}) {
+      EnumNameMatcher matcher = new EnumNameMatcher(enumClass);
+      for (Enum<?> constant : enumClass.getEnumConstants()) {
+        assertTrue(constant.name(), matcher.matches(constant.name()));
+        // A copy, so that it isn't matched by reference
+        assertTrue(constant.name(), matcher.matches(new String(constant.name())));
+      }
+    }
+  }
+
+  @Test
+  public void testOtherStringsDontMatch() {
+    EnumNameMatcher matcher = new EnumNameMatcher(Side.class);
+
+    assertFalse(matcher.matches(""));
+    assertFalse(matcher.matches("b"));
+    assertFalse(matcher.matches("BS"));
+    assertFalse(matcher.matches("SSS"));
+    assertFalse(matcher.matches("REC"));
+  }
+
+  @Test
+  public void testEmptyEnum() {
+    assertFalse(new EnumNameMatcher(NoConstants.class).matches("A"));
+  }
+
+  private enum NoConstants {
+  }
+}